@@ -27,11 +27,15 @@ import com.sldeditor.common.preferences.PrefData;
 import com.sldeditor.common.preferences.PrefManager;
 import com.sldeditor.common.property.PropertyManagerFactory;
 import com.sldeditor.common.property.PropertyManagerInterface;
+import com.sldeditor.common.startup.StartupOrchestrator;
 import com.sldeditor.common.undo.UndoManager;
+import com.sldeditor.common.vendoroption.VendorOptionManager;
 import com.sldeditor.common.watcher.ReloadManager;
 import com.sldeditor.datasource.impl.DataSourceFactory;
 import com.sldeditor.extension.ExtensionFactory;
 import com.sldeditor.extension.ExtensionInterface;
+import com.sldeditor.filter.v2.envvar.EnvironmentVariableManager;
+import com.sldeditor.filter.v2.function.FunctionManager;
 import com.sldeditor.generated.Version;
 import com.sldeditor.map.MapRender;
 import com.sldeditor.render.RenderPanelImpl;
@@ -41,6 +45,7 @@ import com.sldeditor.ui.menu.SLDEditorMenus;
 import com.sldeditor.ui.panels.SLDEditorUIPanels;
 import com.sldeditor.update.CheckUpdatePanel;
 import it.geosolutions.jaiext.JAIExt;
+import java.awt.GraphicsEnvironment;
 import java.awt.Image;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
@@ -80,6 +85,21 @@ public class SLDEditor extends JPanel {
     /** The Constant APPLICATION_ICON_MEDIUM. */
     private static final String APPLICATION_ICON_MEDIUM = "/icon/AppImage.png";
 
+    /** The Constant STAGE_READ_CONFIG. */
+    private static final String STAGE_READ_CONFIG = "Read configuration";
+
+    /** The Constant STAGE_VENDOR_OPTIONS. */
+    private static final String STAGE_VENDOR_OPTIONS = "Vendor options";
+
+    /** The Constant STAGE_ENV_VARS. */
+    private static final String STAGE_ENV_VARS = "Environment variables";
+
+    /** The Constant STAGE_FUNCTIONS. */
+    private static final String STAGE_FUNCTIONS = "Filter functions";
+
+    /** The Constant STAGE_FONTS. */
+    private static final String STAGE_FONTS = "Font families";
+
     /** The frame. */
     protected static JFrame frame = null;
 
@@ -115,8 +135,14 @@ public class SLDEditor extends JPanel {
             }
 
             tmpExtensionArgList = ExtensionFactory.getArgumentList(args);
+
+            StartupOrchestrator.getInstance().parseCommandLine(args);
         }
 
+        // Start the initialisation that does not need the user interface whilst the look and
+        // feel and splash screen are set up
+        startBackgroundStages(false);
+
         final String filename = tmpFilename;
         final List<String> extensionArgList = tmpExtensionArgList;
 
@@ -201,25 +227,58 @@ public class SLDEditor extends JPanel {
         if (!underTestFlag) {
             PropertyManagerFactory.setNotUnderTest();
         }
-        PropertyManagerInterface propertyManager = PropertyManagerFactory.getInstance();
-        propertyManager.readConfig();
+        final PropertyManagerInterface propertyManager = PropertyManagerFactory.getInstance();
+
+        final StartupOrchestrator orchestrator = StartupOrchestrator.getInstance();
+        orchestrator.run(
+                STAGE_READ_CONFIG,
+                new Runnable() {
+                    public void run() {
+                        propertyManager.readConfig();
+                    }
+                });
+        orchestrator.run(
+                STAGE_VENDOR_OPTIONS,
+                new Runnable() {
+                    public void run() {
+                        VendorOptionManager.getInstance();
+                    }
+                });
 
         // Set up defaults
         PrefManager.initialise(propertyManager);
 
         // Extensions
-        List<ExtensionInterface> extensionList = ExtensionFactory.getAvailableExtensions();
+        final List<ExtensionInterface> extensionList =
+                orchestrator.call("Extensions", () -> ExtensionFactory.getAvailableExtensions());
 
         SLDEditorOperations.getInstance().setSldEditorDlg(sldEditorDlg);
         ReloadManager.getInstance().addListener(SLDEditorOperations.getInstance());
 
         String uiLayout = PrefManager.getInstance().getPrefData().getUiLayoutClass();
 
-        UILayoutInterface ui = UILayoutFactory.getUILayout(uiLayout);
+        final UILayoutInterface ui = UILayoutFactory.getUILayout(uiLayout);
 
-        ui.createUI(main, SLDEditorUIPanels.getInstance(), extensionList);
+        // The panels being created use the filter functions, environment variables and fonts
+        orchestrator.await(STAGE_FUNCTIONS);
+        orchestrator.await(STAGE_ENV_VARS);
+        orchestrator.await(STAGE_FONTS);
+
+        orchestrator.run(
+                "Create user interface",
+                new Runnable() {
+                    public void run() {
+                        ui.createUI(main, SLDEditorUIPanels.getInstance(), extensionList);
+                    }
+                });
 
-        SLDEditorMenus.createMenus(main, extensionList);
+        orchestrator.run(
+                "Create menus",
+                new Runnable() {
+                    public void run() {
+                        SLDEditorMenus.createMenus(main, extensionList);
+                    }
+                });
 
         if (frame != null) {
             frame.setBounds(0, 0, APPLICATION_FRAME_WIDTH, APPLICATION_FRAME_HEIGHT);
@@ -228,15 +287,33 @@ public class SLDEditor extends JPanel {
         // Set application icon
         setApplicationIcon();
 
-        UILayoutFactory.readLayout(null);
+        orchestrator.run(
+                "Read layout",
+                new Runnable() {
+                    public void run() {
+                        UILayoutFactory.readLayout(null);
+                    }
+                });
 
         PrefManager.getInstance().finish();
 
-        ExtensionFactory.updateForPreferences(
-                PrefManager.getInstance().getPrefData(), extensionArgList);
+        orchestrator.run(
+                "Extension preferences",
+                new Runnable() {
+                    public void run() {
+                        ExtensionFactory.updateForPreferences(
+                                PrefManager.getInstance().getPrefData(), extensionArgList);
+                    }
+                });
 
         // Set the UI to show now SLD files loaded
-        SLDEditorUIPanels.getInstance().populateUI(0);
+        orchestrator.run(
+                "Populate user interface",
+                new Runnable() {
+                    public void run() {
+                        SLDEditorUIPanels.getInstance().populateUI(0);
+                    }
+                });
 
         // Pass command line arguments to all extensions
         for (ExtensionInterface extension : extensionList) {
@@ -248,13 +325,74 @@ public class SLDEditor extends JPanel {
 
         // If specified on the command line, load SLD file
         if (filename != null) {
-            loadFromCommandLine(filename);
+            orchestrator.run(
+                    "Load " + filename,
+                    new Runnable() {
+                        public void run() {
+                            loadFromCommandLine(filename);
+                        }
+                    });
         }
 
         // Check application version on startup
         checkAppVersion();
     }
 
+    /**
+     * Start the initialisation stages that do not create user interface components on background
+     * threads. Does nothing if the stages have already been started.
+     *
+     * @param underTest the under test flag
+     */
+    private static void startBackgroundStages(boolean underTest) {
+        StartupOrchestrator orchestrator = StartupOrchestrator.getInstance();
+        if (orchestrator.isRunning()) {
+            return;
+        }
+        orchestrator.start();
+
+        if (!underTest) {
+            PropertyManagerFactory.setNotUnderTest();
+        }
+
+        orchestrator.runInBackground(
+                STAGE_READ_CONFIG,
+                new Runnable() {
+                    public void run() {
+                        PropertyManagerFactory.getInstance().readConfig();
+                    }
+                });
+        orchestrator.runInBackground(
+                STAGE_VENDOR_OPTIONS,
+                new Runnable() {
+                    public void run() {
+                        VendorOptionManager.getInstance();
+                    }
+                });
+        orchestrator.runInBackground(
+                STAGE_ENV_VARS,
+                new Runnable() {
+                    public void run() {
+                        EnvironmentVariableManager.getInstance();
+                    }
+                });
+        orchestrator.runInBackground(
+                STAGE_FUNCTIONS,
+                new Runnable() {
+                    public void run() {
+                        FunctionManager.getInstance();
+                    }
+                });
+        orchestrator.runInBackground(
+                STAGE_FONTS,
+                new Runnable() {
+                    public void run() {
+                        GraphicsEnvironment.getLocalGraphicsEnvironment()
+                                .getAvailableFontFamilyNames();
+                    }
+                });
+    }
+
     /** Check application version on startup. */
     private void checkAppVersion() {
         if (!underTestFlag) {
@@ -301,6 +439,8 @@ public class SLDEditor extends JPanel {
         if (underTestFlag) {
             System.out.println("Running in test mode");
         }
+        startBackgroundStages(underTest);
+
         frame = new JFrame(SLDEditorMain.generateApplicationTitleString());
 
         CoordManager.getInstance().populateCRSList();
@@ -320,6 +460,8 @@ public class SLDEditor extends JPanel {
         frame.pack();
         frame.setVisible(true);
 
+        StartupOrchestrator.getInstance().finish();
+
         return sldEditor;
     }
 
@@ -29,6 +29,7 @@ import com.sldeditor.common.data.StyleWrapper;
 import com.sldeditor.common.filesystem.SelectedFiles;
 import com.sldeditor.common.output.SLDWriterInterface;
 import com.sldeditor.common.output.impl.SLDWriterFactory;
+import com.sldeditor.common.property.PropertyManagerFactory;
 import com.sldeditor.common.undo.UndoManager;
 import com.sldeditor.common.watcher.ReloadManager;
 import com.sldeditor.create.NewSLDPanel;
@@ -124,6 +125,7 @@ public class SLDEditorMain implements SLDEditorInterface {
     @Override
     public void exitApplication() {
         UILayoutFactory.writeLayout(null);
+        PropertyManagerFactory.getInstance().flush();
 
         System.exit(0);
     }
@@ -47,7 +47,11 @@ public class ConsoleCellRenderer extends JLabel implements ListCellRenderer<Cons
             int index,
             boolean isSelected,
             boolean cellHasFocus) {
-        setText(value.getMessage());
+        if (value.getCount() > 1) {
+            setText(String.format("%s (x%d)", value.getMessage(), value.getCount()));
+        } else {
+            setText(value.getMessage());
+        }
 
         Color textColour = null;
         switch (value.getType()) {
@@ -32,6 +32,9 @@ public class ConsoleData {
     /** The type. */
     private ConsoleDataEnum type = ConsoleDataEnum.INFORMATION;
 
+    /** The number of times the message was received in succession. */
+    private int count = 1;
+
     /**
      * Instantiates a new console data.
      *
@@ -62,6 +65,20 @@ public class ConsoleData {
         return type;
     }
 
+    /**
+     * Gets the number of times the message was received in succession.
+     *
+     * @return the count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /** Increment the number of times the message was received in succession. */
+    public void incrementCount() {
+        count++;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -19,13 +19,17 @@
 
 package com.sldeditor.common.console;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.swing.JPanel;
 import org.apache.log4j.Logger;
 
 /**
  * Central point to which all messages/errors/exceptions are sent to appear in the console panel.
  *
- * <p>Received messages/errors/exceptions are logged as well.
+ * <p>Received messages/errors/exceptions are logged as well. Messages are buffered before being
+ * displayed so heavy logging from any thread does not slow down the event dispatch thread, see
+ * {@link ConsoleMessageSink}.
  *
  * <p>Class is implemented as a singleton.
  *
@@ -39,12 +43,15 @@ public class ConsoleManager {
     /** The panel. */
     private ConsolePanelInterface panel = new DefaultConsolePanel();
 
+    /** The logger for each class. */
+    private Map<Class<?>, Logger> loggerMap = new ConcurrentHashMap<>();
+
     /**
      * Gets the single instance of ConsoleManager.
      *
      * @return single instance of ConsoleManager
      */
-    public static ConsoleManager getInstance() {
+    public static synchronized ConsoleManager getInstance() {
         if (instance == null) {
             instance = new ConsoleManager();
         }
@@ -61,6 +68,30 @@ public class ConsoleManager {
         return (JPanel) panel;
     }
 
+    /**
+     * Gets the message sink, holds the counters of messages received, discarded and collapsed.
+     *
+     * @return the message sink
+     */
+    public ConsoleMessageSink getMessageSink() {
+        return panel.getMessageSink();
+    }
+
+    /**
+     * Gets the logger for a class, loggers are cached as looking them up is not free.
+     *
+     * @param clazz the class
+     * @return the logger
+     */
+    private Logger getLogger(Class<?> clazz) {
+        Logger logger = loggerMap.get(clazz);
+        if (logger == null) {
+            logger = Logger.getLogger(clazz);
+            loggerMap.put(clazz, logger);
+        }
+        return logger;
+    }
+
     /** Make default constructor private. */
     private ConsoleManager() {
         // Private default constructor
@@ -73,7 +104,7 @@ public class ConsoleManager {
      * @param errorMessage the error message
      */
     public void error(Object obj, String errorMessage) {
-        Logger logger = Logger.getLogger(obj.getClass());
+        Logger logger = getLogger(obj.getClass());
         logger.error(errorMessage);
 
         panel.addErrorMessage(errorMessage);
@@ -87,7 +118,7 @@ public class ConsoleManager {
      * @param infoMessage the info message
      */
     public void information(Object obj, String infoMessage) {
-        Logger logger = Logger.getLogger(obj.getClass());
+        Logger logger = getLogger(obj.getClass());
 
         logger.info(infoMessage);
 
@@ -102,7 +133,7 @@ public class ConsoleManager {
      */
     public void exception(Class<?> clazz, Exception e) {
 
-        Logger logger = Logger.getLogger(clazz);
+        Logger logger = getLogger(clazz);
 
         internalLogException(e, logger);
     }
@@ -115,7 +146,7 @@ public class ConsoleManager {
      */
     public void exception(Object obj, Exception e) {
 
-        Logger logger = Logger.getLogger(obj.getClass());
+        Logger logger = getLogger(obj.getClass());
 
         internalLogException(e, logger);
     }
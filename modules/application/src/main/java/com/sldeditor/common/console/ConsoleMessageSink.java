@@ -0,0 +1,323 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.console;
+
+import com.sldeditor.common.localisation.Localisation;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.DefaultListModel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Buffers console messages between the threads producing them and the list model displaying them.
+ *
+ * <p>Messages are queued without locking from any thread. The queue is bounded, messages that
+ * arrive when it is full are counted and discarded. A timer on the event dispatch thread moves
+ * queued messages to the list model in batches. A message that repeats the last displayed message
+ * increments its count instead of adding a new row. The list model holds a bounded number of
+ * messages, the oldest are removed first.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class ConsoleMessageSink {
+
+    /** The Constant DEFAULT_QUEUE_CAPACITY. */
+    private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+    /** The Constant DEFAULT_MAX_DISPLAYED. */
+    private static final int DEFAULT_MAX_DISPLAYED = 5000;
+
+    /** The Constant FLUSH_DELAY, time in milliseconds between moving batches to the model. */
+    private static final int FLUSH_DELAY = 100;
+
+    /** The Constant MAX_BATCH_SIZE, the most messages moved to the model at a time. */
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    /** The list model. */
+    private final DefaultListModel<ConsoleData> model;
+
+    /** The listener informed after messages have been added to the model, may be null. */
+    private final Runnable updateListener;
+
+    /** The queue capacity. */
+    private final int queueCapacity;
+
+    /** The maximum number of messages displayed. */
+    private final int maxDisplayed;
+
+    /** The queued messages. */
+    private final Queue<ConsoleData> queue = new ConcurrentLinkedQueue<>();
+
+    /** The number of queued messages. */
+    private final AtomicInteger queueSize = new AtomicInteger(0);
+
+    /** The flag indicating a flush has been scheduled. */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    /** The number of messages received. */
+    private final AtomicLong receivedCount = new AtomicLong(0L);
+
+    /** The number of messages discarded because the queue was full. */
+    private final AtomicLong discardedCount = new AtomicLong(0L);
+
+    /** The number of messages collapsed into the previous message. */
+    private final AtomicLong collapsedCount = new AtomicLong(0L);
+
+    /** The number of messages removed from the model to keep it bounded. */
+    private final AtomicLong trimmedCount = new AtomicLong(0L);
+
+    /** The number of discarded messages already reported in the model. */
+    private long reportedDiscardedCount = 0L;
+
+    /** The flush timer. */
+    private Timer timer = null;
+
+    /**
+     * Instantiates a new console message sink with the default capacities.
+     *
+     * @param model the list model
+     * @param updateListener the listener informed after messages are added to the model
+     */
+    public ConsoleMessageSink(DefaultListModel<ConsoleData> model, Runnable updateListener) {
+        this(model, updateListener, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_DISPLAYED);
+    }
+
+    /**
+     * Instantiates a new console message sink.
+     *
+     * @param model the list model
+     * @param updateListener the listener informed after messages are added to the model
+     * @param queueCapacity the maximum number of messages waiting to be displayed
+     * @param maxDisplayed the maximum number of messages displayed
+     */
+    public ConsoleMessageSink(
+            DefaultListModel<ConsoleData> model,
+            Runnable updateListener,
+            int queueCapacity,
+            int maxDisplayed) {
+        this.model = model;
+        this.updateListener = updateListener;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.maxDisplayed = Math.max(1, maxDisplayed);
+    }
+
+    /**
+     * Queue a message to be displayed, may be called from any thread.
+     *
+     * @param message the message
+     * @param type the type
+     */
+    public void add(String message, ConsoleDataEnum type) {
+        receivedCount.incrementAndGet();
+
+        if (queueSize.incrementAndGet() > queueCapacity) {
+            queueSize.decrementAndGet();
+            discardedCount.incrementAndGet();
+        } else {
+            queue.offer(new ConsoleData(message, type));
+        }
+
+        scheduleFlush();
+    }
+
+    /** Schedule moving the queued messages to the model if not already scheduled. */
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            getTimer().restart();
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Gets the flush timer, only called on the event dispatch thread.
+     *
+     * @return the timer
+     */
+    private Timer getTimer() {
+        if (timer == null) {
+            timer =
+                    new Timer(
+                            FLUSH_DELAY,
+                            new ActionListener() {
+                                @Override
+                                public void actionPerformed(ActionEvent e) {
+                                    flush();
+                                }
+                            });
+            timer.setRepeats(false);
+        }
+        return timer;
+    }
+
+    /**
+     * Move a batch of queued messages to the model, must be called on the event dispatch thread. If
+     * more messages are queued than fit in a batch another flush is scheduled.
+     */
+    public void flush() {
+        flushScheduled.set(false);
+
+        List<ConsoleData> batch = new ArrayList<>();
+        ConsoleData displayedLast = model.isEmpty() ? null : model.lastElement();
+        boolean displayedLastChanged = false;
+        ConsoleData last = displayedLast;
+        ConsoleData data;
+        while ((batch.size() < MAX_BATCH_SIZE) && ((data = queue.poll()) != null)) {
+            queueSize.decrementAndGet();
+
+            if (isRepeat(last, data)) {
+                last.incrementCount();
+                collapsedCount.incrementAndGet();
+                displayedLastChanged |= (last == displayedLast);
+            } else {
+                batch.add(data);
+                last = data;
+            }
+        }
+
+        if (displayedLastChanged) {
+            // Tell the list the last row changed so its count is repainted
+            model.set(model.getSize() - 1, displayedLast);
+        }
+
+        long discarded = discardedCount.get();
+        if (discarded > reportedDiscardedCount) {
+            batch.add(
+                    new ConsoleData(
+                            String.format(
+                                    Localisation.getString(
+                                            DefaultConsolePanel.class,
+                                            "DefaultConsolePanel.discarded"),
+                                    discarded - reportedDiscardedCount),
+                            ConsoleDataEnum.ERROR));
+            reportedDiscardedCount = discarded;
+        }
+
+        boolean updated = displayedLastChanged;
+        if (!batch.isEmpty()) {
+            // Remove the oldest messages first so the model never exceeds its maximum
+            int excess = (model.getSize() + batch.size()) - maxDisplayed;
+            if (excess > 0) {
+                int remove = Math.min(excess, model.getSize());
+                if (remove > 0) {
+                    model.removeRange(0, remove - 1);
+                }
+                trimmedCount.addAndGet(excess);
+                if (batch.size() > maxDisplayed) {
+                    batch = batch.subList(batch.size() - maxDisplayed, batch.size());
+                }
+            }
+
+            for (ConsoleData item : batch) {
+                model.addElement(item);
+            }
+            updated = true;
+        }
+
+        if (updated && (updateListener != null)) {
+            updateListener.run();
+        }
+
+        if (!queue.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Check whether a message repeats the previous one.
+     *
+     * @param previous the previous message
+     * @param data the message
+     * @return true, if is a repeat
+     */
+    private static boolean isRepeat(ConsoleData previous, ConsoleData data) {
+        return (previous != null)
+                && (previous.getType() == data.getType())
+                && (previous.getMessage() == null
+                        ? data.getMessage() == null
+                        : previous.getMessage().equals(data.getMessage()));
+    }
+
+    /** Clear the queued and displayed messages, must be called on the event dispatch thread. */
+    public void clear() {
+        while (queue.poll() != null) {
+            queueSize.decrementAndGet();
+        }
+        reportedDiscardedCount = discardedCount.get();
+        model.clear();
+    }
+
+    /**
+     * Gets the number of messages received.
+     *
+     * @return the received count
+     */
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    /**
+     * Gets the number of messages discarded because the queue was full.
+     *
+     * @return the discarded count
+     */
+    public long getDiscardedCount() {
+        return discardedCount.get();
+    }
+
+    /**
+     * Gets the number of messages collapsed into the previous identical message.
+     *
+     * @return the collapsed count
+     */
+    public long getCollapsedCount() {
+        return collapsedCount.get();
+    }
+
+    /**
+     * Gets the number of messages removed from the display to keep it bounded.
+     *
+     * @return the trimmed count
+     */
+    public long getTrimmedCount() {
+        return trimmedCount.get();
+    }
+
+    /**
+     * Gets the number of messages waiting to be displayed.
+     *
+     * @return the queued count
+     */
+    public int getQueuedCount() {
+        return queueSize.get();
+    }
+}
@@ -42,4 +42,11 @@ public interface ConsolePanelInterface {
 
     /** Clear all displayed console messages. */
     public void clear();
+
+    /**
+     * Gets the message sink, holds the counters of messages received, discarded and collapsed.
+     *
+     * @return the message sink
+     */
+    public ConsoleMessageSink getMessageSink();
 }
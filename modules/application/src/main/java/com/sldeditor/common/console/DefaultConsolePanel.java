@@ -51,6 +51,17 @@ public class DefaultConsolePanel extends JPanel
     /** The model. */
     private DefaultListModel<ConsoleData> model = new DefaultListModel<>();
 
+    /** The message sink buffering messages before they are added to the model. */
+    private ConsoleMessageSink sink =
+            new ConsoleMessageSink(
+                    model,
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            showLastItem();
+                        }
+                    });
+
     /** Instantiates a new console panel. */
     public DefaultConsolePanel() {
         setLayout(new BorderLayout(0, 0));
@@ -98,8 +109,7 @@ public class DefaultConsolePanel extends JPanel
      */
     @Override
     public void addMessage(String message) {
-        model.addElement(new ConsoleData(message, ConsoleDataEnum.INFORMATION));
-        showLastItem();
+        sink.add(message, ConsoleDataEnum.INFORMATION);
     }
 
     /**
@@ -114,29 +124,46 @@ public class DefaultConsolePanel extends JPanel
      */
     @Override
     public void addErrorMessage(String errorMessage) {
-        model.addElement(new ConsoleData(errorMessage, ConsoleDataEnum.ERROR));
-        showLastItem();
+        sink.add(errorMessage, ConsoleDataEnum.ERROR);
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.console.ConsolePanelInterface#clear()
+     */
     @Override
     public void clear() {
-        model.clear();
+        if (SwingUtilities.isEventDispatchThread()) {
+            sink.clear();
+        } else {
+            SwingUtilities.invokeLater(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            sink.clear();
+                        }
+                    });
+        }
     }
 
-    /** Show last item. */
-    private void showLastItem() {
-        SwingUtilities.invokeLater(
-                new Runnable() {
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.console.ConsolePanelInterface#getMessageSink()
+     */
+    @Override
+    public ConsoleMessageSink getMessageSink() {
+        return sink;
+    }
 
-                    @Override
-                    public void run() {
-                        int lastIndex = model.getSize() - 1;
+    /** Show last item, called on the event dispatch thread after messages are added. */
+    private void showLastItem() {
+        int lastIndex = model.getSize() - 1;
 
-                        if (lastIndex >= 0) {
-                            textPane.ensureIndexIsVisible(lastIndex);
-                        }
-                    }
-                });
+        if (lastIndex >= 0) {
+            textPane.ensureIndexIsVisible(lastIndex);
+        }
     }
 
     /*
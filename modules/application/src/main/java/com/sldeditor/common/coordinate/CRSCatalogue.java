@@ -0,0 +1,275 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.coordinate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable catalogue of coordinate reference system codes and their descriptions.
+ *
+ * <p>The catalogue can be written to and read from a cache file so the CRS authority factories only
+ * need to be queried once. The cache file records a version string, a cache written by a different
+ * version is ignored.
+ *
+ * <p>A search index of the words in each code and description is built so entries can be found by
+ * prefix, entries that only contain the search text part way through a word are found by a
+ * substring search.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class CRSCatalogue {
+
+    /** The Constant FILE_MAGIC, identifies a CRS catalogue cache file. */
+    private static final int FILE_MAGIC = 0x43525343;
+
+    /** The Constant FORMAT_VERSION, the version of the cache file layout. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** The Constant BUFFER_SIZE. */
+    private static final int BUFFER_SIZE = 65536;
+
+    /** The codes, e.g. EPSG:4326. */
+    private final String[] codes;
+
+    /** The descriptions. */
+    private final String[] descriptions;
+
+    /** The lower case text searched for substrings. */
+    private final String[] searchText;
+
+    /** The sorted lower case words in the codes and descriptions. */
+    private final String[] words;
+
+    /** The entry index of each word. */
+    private final int[] wordEntries;
+
+    /**
+     * Instantiates a new CRS catalogue.
+     *
+     * @param codeList the code list
+     * @param descriptionList the description list, in the same order as the codes
+     */
+    public CRSCatalogue(List<String> codeList, List<String> descriptionList) {
+        int size = Math.min(codeList.size(), descriptionList.size());
+        codes = codeList.subList(0, size).toArray(new String[size]);
+        descriptions = descriptionList.subList(0, size).toArray(new String[size]);
+        searchText = new String[size];
+
+        final List<String> wordList = new ArrayList<>();
+        List<Integer> entryList = new ArrayList<>();
+        for (int index = 0; index < size; index++) {
+            searchText[index] = (codes[index] + " " + descriptions[index]).toLowerCase(Locale.ROOT);
+
+            for (String word : searchText[index].split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    wordList.add(word);
+                    entryList.add(index);
+                }
+            }
+        }
+
+        // Sort the words, entries in catalogue order for equal words
+        Integer[] order = new Integer[wordList.size()];
+        for (int index = 0; index < order.length; index++) {
+            order[index] = index;
+        }
+        Arrays.sort(
+                order,
+                new Comparator<Integer>() {
+                    @Override
+                    public int compare(Integer o1, Integer o2) {
+                        return wordList.get(o1).compareTo(wordList.get(o2));
+                    }
+                });
+
+        words = new String[order.length];
+        wordEntries = new int[order.length];
+        for (int index = 0; index < order.length; index++) {
+            words[index] = wordList.get(order[index]);
+            wordEntries[index] = entryList.get(order[index]);
+        }
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the size
+     */
+    public int getSize() {
+        return codes.length;
+    }
+
+    /**
+     * Gets the code of an entry.
+     *
+     * @param index the index
+     * @return the code
+     */
+    public String getCode(int index) {
+        return codes[index];
+    }
+
+    /**
+     * Gets the description of an entry.
+     *
+     * @param index the index
+     * @return the description
+     */
+    public String getDescription(int index) {
+        return descriptions[index];
+    }
+
+    /**
+     * Search for entries containing the text. Entries where a word in the code or description
+     * starts with the text are returned first, followed by entries containing the text anywhere.
+     * The search is not case sensitive.
+     *
+     * @param text the text to search for
+     * @param maxResults the maximum number of results
+     * @return the codes of the matching entries
+     */
+    public List<String> search(String text, int maxResults) {
+        if ((text == null) || (maxResults <= 0)) {
+            return Collections.emptyList();
+        }
+
+        String searchFor = text.trim().toLowerCase(Locale.ROOT);
+        if (searchFor.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> resultList = new ArrayList<>();
+        BitSet found = new BitSet(codes.length);
+
+        // Word prefix matches, a search for the whole code ("epsg:4326") matches as a substring
+        BitSet prefixMatches = new BitSet(codes.length);
+        int start = Arrays.binarySearch(words, searchFor);
+        if (start < 0) {
+            start = -start - 1;
+        }
+        for (int index = start;
+                (index < words.length) && words[index].startsWith(searchFor);
+                index++) {
+            prefixMatches.set(wordEntries[index]);
+        }
+
+        for (int entry = prefixMatches.nextSetBit(0);
+                (entry >= 0) && (resultList.size() < maxResults);
+                entry = prefixMatches.nextSetBit(entry + 1)) {
+            resultList.add(codes[entry]);
+            found.set(entry);
+        }
+
+        // Substring matches
+        for (int entry = 0; (entry < codes.length) && (resultList.size() < maxResults); entry++) {
+            if (!found.get(entry) && searchText[entry].contains(searchFor)) {
+                resultList.add(codes[entry]);
+            }
+        }
+
+        return resultList;
+    }
+
+    /**
+     * Write the catalogue to a cache file, the file is replaced atomically where possible.
+     *
+     * @param file the file
+     * @param version the version string the cache is valid for
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void write(File file, String version) throws IOException {
+        File folder = file.getAbsoluteFile().getParentFile();
+        if ((folder != null) && !folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Failed to create " + folder.getAbsolutePath());
+        }
+
+        File tmpFile = new File(file.getAbsolutePath() + ".tmp");
+        try (DataOutputStream out =
+                new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(tmpFile), BUFFER_SIZE))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(version);
+            out.writeInt(codes.length);
+            for (int index = 0; index < codes.length; index++) {
+                out.writeUTF(codes[index]);
+                out.writeUTF(descriptions[index]);
+            }
+        }
+
+        if ((file.exists() && !file.delete()) || !tmpFile.renameTo(file)) {
+            throw new IOException("Failed to write " + file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Read a catalogue from a cache file.
+     *
+     * @param file the file
+     * @param version the version string the cache must have been written with
+     * @return the CRS catalogue, null if the file does not exist, is for a different version or is
+     *     corrupt
+     */
+    public static CRSCatalogue read(File file, String version) {
+        if ((file == null) || !file.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in =
+                new DataInputStream(
+                        new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))) {
+            if ((in.readInt() != FILE_MAGIC)
+                    || (in.readInt() != FORMAT_VERSION)
+                    || !in.readUTF().equals(version)) {
+                return null;
+            }
+
+            int size = in.readInt();
+            if (size < 0) {
+                return null;
+            }
+
+            List<String> codeList = new ArrayList<>(size);
+            List<String> descriptionList = new ArrayList<>(size);
+            for (int index = 0; index < size; index++) {
+                codeList.add(in.readUTF());
+                descriptionList.add(in.readUTF());
+            }
+            return new CRSCatalogue(codeList, descriptionList);
+        } catch (IOException e) {
+            // Cache file is corrupt, it will be replaced
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.coordinate;
+
+import com.sldeditor.ui.widgets.ValueComboBoxData;
+import java.util.List;
+
+/**
+ * The Interface CRSListUpdateInterface, informed when the CRS list has been populated.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public interface CRSListUpdateInterface {
+
+    /**
+     * CRS list updated, called on the event dispatch thread.
+     *
+     * @param crsList the CRS list
+     */
+    void crsListUpdated(List<ValueComboBoxData> crsList);
+}
@@ -21,14 +21,23 @@ package com.sldeditor.common.coordinate;
 
 import com.sldeditor.common.console.ConsoleManager;
 import com.sldeditor.common.localisation.Localisation;
+import com.sldeditor.common.property.PropertyManagerFactory;
 import com.sldeditor.common.vendoroption.VendorOptionManager;
 import com.sldeditor.common.vendoroption.VendorOptionVersion;
 import com.sldeditor.ui.widgets.ValueComboBoxData;
+import com.sldeditor.ui.widgets.ValueComboBoxSearchInterface;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import javax.swing.SwingUtilities;
+import org.geotools.factory.GeoTools;
 import org.geotools.factory.Hints;
 import org.geotools.referencing.CRS;
 import org.geotools.referencing.ReferencingFactoryFinder;
@@ -43,9 +52,13 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
 /**
  * The Class CoordManager.
  *
+ * <p>The list of coordinate reference systems is populated on a background thread, from a cache
+ * file in the config folder if it is up to date, otherwise from the CRS authority factories after
+ * which the cache file is written. The list is published in one step once complete.
+ *
  * @author Robert Ward (SCISYS)
  */
-public class CoordManager {
+public class CoordManager implements ValueComboBoxSearchInterface {
 
     /** The Constant NOT_SET_CRS. */
     private static final String NOT_SET_CRS = "";
@@ -53,14 +66,26 @@ public class CoordManager {
     /** The Constant WGS84. */
     private static final String WGS84 = "EPSG:4326";
 
+    /** The Constant CACHE_FILE. */
+    private static final String CACHE_FILE = "crscatalogue.cache";
+
     /** The singleton instance. */
     private static CoordManager instance = null;
 
-    /** The crs data list. */
-    private static List<ValueComboBoxData> crsDataList = new ArrayList<>();
+    /** The crs data list, replaced once populated. */
+    private static volatile List<ValueComboBoxData> crsDataList = Collections.emptyList();
+
+    /** The crs map, replaced once populated. */
+    private static volatile Map<String, ValueComboBoxData> crsMap = Collections.emptyMap();
+
+    /** The CRS catalogue, null until populated. */
+    private static volatile CRSCatalogue catalogue = null;
 
-    /** The crs map. */
-    private static HashMap<String, ValueComboBoxData> crsMap = new HashMap<>();
+    /** The populate started flag. */
+    private boolean populateStarted = false;
+
+    /** The listeners waiting for the CRS list to be populated. */
+    private List<CRSListUpdateInterface> listenerList = new ArrayList<>();
 
     /** The default crs. */
     private CoordinateReferenceSystem defaultCRS = null;
@@ -70,7 +95,7 @@ public class CoordManager {
      *
      * @return single instance of CoordManager
      */
-    public static CoordManager getInstance() {
+    public static synchronized CoordManager getInstance() {
         if (instance == null) {
             instance = new CoordManager();
         }
@@ -81,42 +106,98 @@ public class CoordManager {
     /**
      * Gets the CRS list.
      *
-     * @return the CRS list
+     * @return the CRS list, empty if not yet populated
      */
     public List<ValueComboBoxData> getCRSList() {
         return crsDataList;
     }
 
     /**
-     * Checks if is populated.
+     * Gets the CRS list, if the list has not yet been populated the listener is informed once it
+     * has been.
+     *
+     * @param listener the listener
+     * @return the CRS list, empty if not yet populated
+     */
+    public synchronized List<ValueComboBoxData> getCRSList(CRSListUpdateInterface listener) {
+        if ((catalogue == null) && (listener != null) && !listenerList.contains(listener)) {
+            listenerList.add(listener);
+        }
+        return crsDataList;
+    }
+
+    /*
+     * (non-Javadoc)
      *
-     * @return true, if is populated
+     * @see com.sldeditor.ui.widgets.ValueComboBoxSearchInterface#search(java.lang.String, int)
      */
-    private boolean isPopulated() {
-        return crsDataList.isEmpty();
+    @Override
+    public List<String> search(String text, int maxResults) {
+        CRSCatalogue currentCatalogue = catalogue;
+        if (currentCatalogue == null) {
+            return Collections.emptyList();
+        }
+        return currentCatalogue.search(text, maxResults);
     }
 
     /** Populate CRS list. */
-    public void populateCRSList() {
+    public synchronized void populateCRSList() {
 
-        if (isPopulated()) {
-            Runnable runnable = () -> processCRSEntry();
-            Thread thread = new Thread(runnable);
+        if (!populateStarted) {
+            populateStarted = true;
+            Thread thread =
+                    new Thread(
+                            new Runnable() {
+                                @Override
+                                public void run() {
+                                    processCRSEntry();
+                                }
+                            },
+                            "SLDEditor-CRS");
+            thread.setDaemon(true);
             thread.start();
         }
     }
 
     /** Process CRS entry. */
     private void processCRSEntry() {
-        VendorOptionVersion vendorOptionVersion =
-                VendorOptionManager.getInstance().getDefaultVendorOptionVersion();
+        File cacheFile = new File(PropertyManagerFactory.getConfigFolder(), CACHE_FILE);
+        String version = getCatalogueVersion();
 
-        ValueComboBoxData notSetValue =
-                new ValueComboBoxData(
-                        NOT_SET_CRS,
-                        Localisation.getString(CoordManager.class, Localisation.COMMON_NOT_SET),
-                        vendorOptionVersion);
-        crsDataList.add(notSetValue);
+        CRSCatalogue newCatalogue = CRSCatalogue.read(cacheFile, version);
+        if (newCatalogue == null) {
+            newCatalogue = createCatalogue();
+
+            if (newCatalogue.getSize() > 0) {
+                try {
+                    newCatalogue.write(cacheFile, version);
+                } catch (IOException e) {
+                    ConsoleManager.getInstance().exception(this, e);
+                }
+            }
+        }
+
+        publish(newCatalogue);
+    }
+
+    /**
+     * Gets the version string the CRS catalogue cache is valid for, the descriptions depend on the
+     * GeoTools version and the locale.
+     *
+     * @return the catalogue version
+     */
+    private static String getCatalogueVersion() {
+        return String.format("GeoTools %s %s", GeoTools.getVersion(), Locale.getDefault());
+    }
+
+    /**
+     * Creates the catalogue from the CRS authority factories.
+     *
+     * @return the CRS catalogue
+     */
+    private CRSCatalogue createCatalogue() {
+        List<String> codeList = new ArrayList<>();
+        List<String> descriptionList = new ArrayList<>();
 
         Hints hints = null;
         for (AuthorityFactory factory : ReferencingFactoryFinder.getCRSAuthorityFactories(hints)) {
@@ -129,18 +210,15 @@ public class CoordManager {
                         (Collection<Identifier>) citation.getIdentifiers();
                 authorityCode = identifierList.iterator().next().getCode();
             }
-            Set<String> codeList;
+            Set<String> codeSet;
             try {
-                codeList = factory.getAuthorityCodes(CoordinateReferenceSystem.class);
+                codeSet = factory.getAuthorityCodes(CoordinateReferenceSystem.class);
 
-                for (String code : codeList) {
+                for (String code : codeSet) {
                     String fullCode = String.format("%s:%s", authorityCode, code);
                     String descriptionText = factory.getDescriptionText(code).toString();
-                    String text = String.format("%s - %s", fullCode, descriptionText);
-                    ValueComboBoxData value =
-                            new ValueComboBoxData(fullCode, text, vendorOptionVersion);
-                    crsDataList.add(value);
-                    crsMap.put(fullCode, value);
+                    codeList.add(fullCode);
+                    descriptionList.add(descriptionText);
                 }
             } catch (NoSuchAuthorityCodeException e) {
                 // Do nothing
@@ -148,6 +226,59 @@ public class CoordManager {
                 ConsoleManager.getInstance().exception(this, e);
             }
         }
+
+        return new CRSCatalogue(codeList, descriptionList);
+    }
+
+    /**
+     * Publish the CRS list created from the catalogue and inform any waiting listeners.
+     *
+     * @param newCatalogue the new catalogue
+     */
+    private void publish(CRSCatalogue newCatalogue) {
+        VendorOptionVersion vendorOptionVersion =
+                VendorOptionManager.getInstance().getDefaultVendorOptionVersion();
+
+        List<ValueComboBoxData> dataList = new ArrayList<>(newCatalogue.getSize() + 1);
+        Map<String, ValueComboBoxData> dataMap = new HashMap<>();
+
+        ValueComboBoxData notSetValue =
+                new ValueComboBoxData(
+                        NOT_SET_CRS,
+                        Localisation.getString(CoordManager.class, Localisation.COMMON_NOT_SET),
+                        vendorOptionVersion);
+        dataList.add(notSetValue);
+
+        for (int index = 0; index < newCatalogue.getSize(); index++) {
+            String fullCode = newCatalogue.getCode(index);
+            String text = String.format("%s - %s", fullCode, newCatalogue.getDescription(index));
+            ValueComboBoxData value = new ValueComboBoxData(fullCode, text, vendorOptionVersion);
+            dataList.add(value);
+            dataMap.put(fullCode, value);
+        }
+
+        final List<ValueComboBoxData> publishedList = Collections.unmodifiableList(dataList);
+        final List<CRSListUpdateInterface> listenerCopyList;
+        synchronized (this) {
+            crsMap = dataMap;
+            crsDataList = publishedList;
+            catalogue = newCatalogue;
+
+            listenerCopyList = new ArrayList<>(listenerList);
+            listenerList.clear();
+        }
+
+        if (!listenerCopyList.isEmpty()) {
+            SwingUtilities.invokeLater(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            for (CRSListUpdateInterface listener : listenerCopyList) {
+                                listener.crsListUpdated(publishedList);
+                            }
+                        }
+                    });
+        }
     }
 
     /**
@@ -56,6 +56,13 @@ public interface FileSystemInterface extends Serializable {
      */
     boolean treeExpanded(Object selectedItem);
 
+    /**
+     * Tree collapsed.
+     *
+     * @param selectedItem the selected item
+     */
+    void treeCollapsed(Object selectedItem);
+
     /**
      * Right mouse button pressed.
      *
@@ -89,7 +89,7 @@ public class PrefManager implements UndoActionInterface {
      *
      * @return single instance of PrefManager
      */
-    public static PrefManager getInstance() {
+    public static synchronized PrefManager getInstance() {
         if (instance == null) {
             instance = new PrefManager();
         }
@@ -98,7 +98,7 @@ public class PrefManager implements UndoActionInterface {
     }
 
     /** Destroy instance. */
-    public static void destroyInstance() {
+    public static synchronized void destroyInstance() {
         instance = null;
     }
 
@@ -26,18 +26,33 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NavigableMap;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class that manages reading and writing to the SLD Editor config.properties file.
  *
+ * <p>Changes are written behind, the property file is rewritten once in the background after
+ * changes have stopped for a short quiet period rather than on every changed key. Pending changes
+ * are written when {@link #flush()} is called, when the same file is read and when the application
+ * shuts down.
+ *
  * @author Robert Ward (SCISYS)
  */
 public class PropertyManager implements PropertyManagerInterface {
@@ -47,20 +62,53 @@ public class PropertyManager implements PropertyManagerInterface {
     /** The Constant TRUE. */
     private static final String TRUE = "true";
 
+    /** The Constant WRITE_DELAY, quiet period in milliseconds before changes are written. */
+    private static final long WRITE_DELAY = 500L;
+
+    /** The Constant MAX_WRITE_DELAY, longest time in milliseconds a change waits to be written. */
+    private static final long MAX_WRITE_DELAY = 5000L;
+
+    /** The managers with changes waiting to be written. */
+    private static Set<PropertyManager> pendingSet = new LinkedHashSet<>();
+
+    /** The executor writing property files. */
+    private static ScheduledExecutorService writeExecutor = null;
+
     /** The configuration properties file. */
     private File configPropertiesFile = null;
 
     /** The Constant DELIMETER. */
     private static final char DELIMETER = '.';
 
+    /** The Constant NEXT_DELIMETER, the character after the delimeter used to end key ranges. */
+    private static final char NEXT_DELIMETER = DELIMETER + 1;
+
     /** The Constant ESCAPED_DELIMETER. */
     private static final String ESCAPED_DELIMETER = "\\.";
 
     /** The Constant LIST_DELIMETER. */
     private static final String LIST_DELIMETER = ",";
 
-    /** The map of property values. */
-    private Map<String, String> fieldValueMap = new HashMap<>();
+    /** The map of property values, sorted so keys sharing a prefix are found without a scan. */
+    private NavigableMap<String, String> fieldValueMap = new TreeMap<>();
+
+    /** The flag indicating there are changes that have not been written. */
+    private boolean dirty = false;
+
+    /** The time the oldest unwritten change was made. */
+    private long firstChangeTime = 0L;
+
+    /** The scheduled write. */
+    private ScheduledFuture<?> writeFuture = null;
+
+    /** The number of snapshots of the property values taken for writing. */
+    private long snapshotCount = 0L;
+
+    /** The snapshot last written to the property file. */
+    private long writtenSnapshot = 0L;
+
+    /** The lock held while writing the property file. */
+    private final Object writeLock = new Object();
 
     /** Default constructor. */
     public PropertyManager() {
@@ -74,7 +122,11 @@ public class PropertyManager implements PropertyManagerInterface {
      */
     @Override
     public void setPropertyFile(File configPropertiesFile) {
-        this.configPropertiesFile = configPropertiesFile;
+        flush();
+
+        synchronized (this) {
+            this.configPropertiesFile = configPropertiesFile;
+        }
     }
 
     /**
@@ -84,7 +136,7 @@ public class PropertyManager implements PropertyManagerInterface {
      * @param value the value
      */
     @Override
-    public void updateValue(String key, String value) {
+    public synchronized void updateValue(String key, String value) {
         boolean dataUpdated = false;
 
         if (fieldValueMap.containsKey(key)) {
@@ -100,7 +152,7 @@ public class PropertyManager implements PropertyManagerInterface {
             if (key != null) {
                 fieldValueMap.put(key, value);
             }
-            writeConfigFile();
+            scheduleWrite();
         }
     }
 
@@ -171,52 +223,236 @@ public class PropertyManager implements PropertyManagerInterface {
         updateValue(updatedKey, value);
     }
 
-    /** Write configuration file. */
-    private void writeConfigFile() {
-        if (configPropertiesFile != null) {
-            try {
-                Properties props = new Properties();
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.property.PropertyManagerInterface#flush()
+     */
+    @Override
+    public void flush() {
+        File file;
+        Properties props;
+        long snapshot;
+
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            if (writeFuture != null) {
+                writeFuture.cancel(false);
+                writeFuture = null;
+            }
+            removePending(this);
 
-                for (Entry<String, String> entry : fieldValueMap.entrySet()) {
-                    String value = fieldValueMap.get(entry.getKey());
-                    if (value != null) {
-                        props.setProperty(entry.getKey(), value);
-                    }
-                }
+            file = configPropertiesFile;
+            props = createProperties();
+            snapshotCount++;
+            snapshot = snapshotCount;
+        }
+
+        synchronized (writeLock) {
+            // A newer snapshot may already have been written by another thread
+            if (snapshot > writtenSnapshot) {
+                writeConfigFile(file, props);
+                writtenSnapshot = snapshot;
+            }
+        }
+    }
+
+    /** Mark the property values as changed and schedule writing them to the property file. */
+    private void scheduleWrite() {
+        if (configPropertiesFile == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (!dirty) {
+            dirty = true;
+            firstChangeTime = now;
+            addPending(this);
+        }
+
+        long delay = Math.min(WRITE_DELAY, Math.max(0L, firstChangeTime + MAX_WRITE_DELAY - now));
+        if (writeFuture != null) {
+            writeFuture.cancel(false);
+        }
+        writeFuture =
+                getWriteExecutor()
+                        .schedule(
+                                new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        flush();
+                                    }
+                                },
+                                delay,
+                                TimeUnit.MILLISECONDS);
+    }
 
-                OutputStream out = new FileOutputStream(configPropertiesFile);
-                props.store(out, "SLD Editor configuration data");
-                out.close();
+    /**
+     * Creates the properties to write from the property values.
+     *
+     * @return the properties
+     */
+    private Properties createProperties() {
+        Properties props = new Properties();
 
+        for (Entry<String, String> entry : fieldValueMap.entrySet()) {
+            if (entry.getValue() != null) {
+                props.setProperty(entry.getKey(), entry.getValue());
+            }
+        }
+        return props;
+    }
+
+    /**
+     * Write configuration file, the properties are written to a temporary file which then replaces
+     * the configuration file so a partially written file is never left behind.
+     *
+     * @param file the file
+     * @param props the properties
+     */
+    private void writeConfigFile(File file, Properties props) {
+        if (file != null) {
+            File absoluteFile = file.getAbsoluteFile();
+            File tmpFile = new File(absoluteFile.getParentFile(), absoluteFile.getName() + ".tmp");
+            try {
+                try (OutputStream out = new FileOutputStream(tmpFile)) {
+                    props.store(out, "SLD Editor configuration data");
+                }
+
+                try {
+                    Files.move(
+                            tmpFile.toPath(),
+                            absoluteFile.toPath(),
+                            StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(
+                            tmpFile.toPath(),
+                            absoluteFile.toPath(),
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
             } catch (Exception e) {
                 ConsoleManager.getInstance().exception(this, e);
             }
         }
     }
 
+    /**
+     * Gets the executor writing property files, created on first use along with a shutdown hook
+     * that writes any pending changes.
+     *
+     * @return the write executor
+     */
+    private static synchronized ScheduledExecutorService getWriteExecutor() {
+        if (writeExecutor == null) {
+            ScheduledThreadPoolExecutor executor =
+                    new ScheduledThreadPoolExecutor(
+                            1,
+                            new ThreadFactory() {
+                                @Override
+                                public Thread newThread(Runnable r) {
+                                    Thread thread = new Thread(r, "SLDEditor-PropertyWriter");
+                                    thread.setDaemon(true);
+                                    return thread;
+                                }
+                            });
+            executor.setRemoveOnCancelPolicy(true);
+            writeExecutor = executor;
+
+            Runtime.getRuntime()
+                    .addShutdownHook(
+                            new Thread(
+                                    new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            flushAll(null);
+                                        }
+                                    },
+                                    "SLDEditor-PropertyFlush"));
+        }
+        return writeExecutor;
+    }
+
+    /**
+     * Adds a manager with changes waiting to be written.
+     *
+     * @param manager the manager
+     */
+    private static synchronized void addPending(PropertyManager manager) {
+        pendingSet.add(manager);
+    }
+
+    /**
+     * Removes a manager that no longer has changes waiting to be written.
+     *
+     * @param manager the manager
+     */
+    private static synchronized void removePending(PropertyManager manager) {
+        pendingSet.remove(manager);
+    }
+
+    /**
+     * Write the pending changes of all managers, or only those writing a file.
+     *
+     * @param file the file, null for all files
+     */
+    private static void flushAll(File file) {
+        List<PropertyManager> managerList;
+        synchronized (PropertyManager.class) {
+            managerList = new ArrayList<>(pendingSet);
+        }
+
+        for (PropertyManager manager : managerList) {
+            if ((file == null) || file.getAbsoluteFile().equals(manager.getPropertyFile())) {
+                manager.flush();
+            }
+        }
+    }
+
+    /**
+     * Gets the absolute property file.
+     *
+     * @return the property file, null if not set
+     */
+    private synchronized File getPropertyFile() {
+        return (configPropertiesFile == null) ? null : configPropertiesFile.getAbsoluteFile();
+    }
+
     /** Read configuration. */
     @Override
     public void readConfig() {
+        File file;
+        synchronized (this) {
+            file = configPropertiesFile;
+        }
+
+        // Make sure changes waiting to be written to the file are read
+        if (file != null) {
+            flushAll(file);
+        }
 
         // to load application's properties, we use this class
         Properties mainProperties = new Properties();
 
-        if ((configPropertiesFile != null) && configPropertiesFile.exists()) {
+        if ((file != null) && file.exists()) {
             // load the file handle for main.properties
-            try {
-                FileInputStream file = new FileInputStream(configPropertiesFile);
+            try (FileInputStream fileStream = new FileInputStream(file)) {
                 // load all the properties from this file
-                mainProperties.load(file);
-                // we have loaded the properties, so close the file handle
-                file.close();
+                mainProperties.load(fileStream);
             } catch (IOException e) {
                 ConsoleManager.getInstance().exception(this, e);
             }
         }
-        fieldValueMap.clear();
-        for (Object key : mainProperties.keySet()) {
-            String fieldName = (String) key;
-            fieldValueMap.put(fieldName, mainProperties.getProperty(fieldName));
+
+        synchronized (this) {
+            fieldValueMap.clear();
+            for (Object key : mainProperties.keySet()) {
+                String fieldName = (String) key;
+                fieldValueMap.put(fieldName, mainProperties.getProperty(fieldName));
+            }
         }
     }
 
@@ -228,7 +464,7 @@ public class PropertyManager implements PropertyManagerInterface {
      * @return the double value
      */
     @Override
-    public double getDoubleValue(String field, double defaultValue) {
+    public synchronized double getDoubleValue(String field, double defaultValue) {
         if (fieldValueMap.containsKey(field)) {
             try {
                 return Double.valueOf(fieldValueMap.get(field));
@@ -248,7 +484,7 @@ public class PropertyManager implements PropertyManagerInterface {
      * @return the string value
      */
     @Override
-    public String getStringValue(String field, String defaultValue) {
+    public synchronized String getStringValue(String field, String defaultValue) {
         if (fieldValueMap.containsKey(field)) {
             return fieldValueMap.get(field);
         } else {
@@ -264,7 +500,7 @@ public class PropertyManager implements PropertyManagerInterface {
      * @return the colour value
      */
     @Override
-    public Color getColourValue(String field, Color defaultValue) {
+    public synchronized Color getColourValue(String field, Color defaultValue) {
         if (fieldValueMap.containsKey(field)) {
             String value = fieldValueMap.get(field);
 
@@ -291,7 +527,7 @@ public class PropertyManager implements PropertyManagerInterface {
      * @return the string value
      */
     @Override
-    public boolean getBooleanValue(String field, boolean defaultValue) {
+    public synchronized boolean getBooleanValue(String field, boolean defaultValue) {
         if (fieldValueMap.containsKey(field)) {
             String value = fieldValueMap.get(field);
 
@@ -310,7 +546,7 @@ public class PropertyManager implements PropertyManagerInterface {
      * @return the string value
      */
     @Override
-    public List<String> getStringListValue(String field) {
+    public synchronized List<String> getStringListValue(String field) {
         List<String> valueList = null;
 
         if (fieldValueMap.containsKey(field)) {
@@ -333,31 +569,19 @@ public class PropertyManager implements PropertyManagerInterface {
      * @return the multiple values
      */
     @Override
-    public List<String> getMultipleValues(String key) {
+    public synchronized List<String> getMultipleValues(String key) {
         String updatedKey = key + DELIMETER;
-        List<String> valueList = new ArrayList<>();
+        Map<Integer, String> indexMap = new TreeMap<>();
 
-        List<Integer> indexList = new ArrayList<>();
+        for (Entry<String, String> entry : getKeysWithPrefix(key, true).entrySet()) {
+            String index = entry.getKey().substring(updatedKey.length());
 
-        for (String storedKey : fieldValueMap.keySet()) {
-            if (storedKey.startsWith(updatedKey)) {
-                String[] components = storedKey.split(ESCAPED_DELIMETER);
-
-                if (components.length > 1) {
-                    Integer index = Integer.valueOf(components[components.length - 1]);
-
-                    indexList.add(index);
-                }
+            if (isIndex(index)) {
+                indexMap.put(Integer.valueOf(index), entry.getValue());
             }
         }
 
-        Collections.sort(indexList);
-
-        for (Integer index : indexList) {
-            String newKey = updatedKey + index;
-            valueList.add(fieldValueMap.get(newKey));
-        }
-        return valueList;
+        return new ArrayList<>(indexMap.values());
     }
 
     /*
@@ -366,24 +590,54 @@ public class PropertyManager implements PropertyManagerInterface {
      * @see com.sldeditor.common.property.PropertyManagerInterface#clearValue(java.lang.String)
      */
     @Override
-    public void clearValue(String key, boolean useDelimeter) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(key);
+    public synchronized void clearValue(String key, boolean useDelimeter) {
+        Map<String, String> keyMap = getKeysWithPrefix(key, useDelimeter);
+
+        if (!keyMap.isEmpty()) {
+            keyMap.clear();
+            scheduleWrite();
+        }
+    }
+
+    /**
+     * Gets the view of the property values whose keys start with a prefix.
+     *
+     * @param key the key
+     * @param useDelimeter the use delimeter flag, if true the prefix is the key and a delimeter
+     * @return the property values with the prefix
+     */
+    private NavigableMap<String, String> getKeysWithPrefix(String key, boolean useDelimeter) {
         if (useDelimeter) {
-            sb.append(DELIMETER);
+            return fieldValueMap.subMap(key + DELIMETER, true, key + NEXT_DELIMETER, false);
+        } else if (key.isEmpty()) {
+            return fieldValueMap;
         }
 
-        String prefix = sb.toString();
+        // All keys starting with the prefix sort before the prefix with its last char incremented
+        char lastChar = key.charAt(key.length() - 1);
+        if (lastChar == Character.MAX_VALUE) {
+            return fieldValueMap.tailMap(key, true);
+        }
+        String endKey = key.substring(0, key.length() - 1) + (char) (lastChar + 1);
+        return fieldValueMap.subMap(key, true, endKey, false);
+    }
 
-        List<String> keyToRemove = new ArrayList<>();
-        for (String existingKey : fieldValueMap.keySet()) {
-            if (existingKey.startsWith(prefix)) {
-                keyToRemove.add(existingKey);
-            }
+    /**
+     * Checks if the text is a multiple value index.
+     *
+     * @param text the text
+     * @return true, if is an index
+     */
+    private static boolean isIndex(String text) {
+        if (text.isEmpty() || (text.length() > 9)) {
+            return false;
         }
 
-        for (String existingKey : keyToRemove) {
-            fieldValueMap.remove(existingKey);
+        for (int index = 0; index < text.length(); index++) {
+            if (!Character.isDigit(text.charAt(index))) {
+                return false;
+            }
         }
+        return true;
     }
 }
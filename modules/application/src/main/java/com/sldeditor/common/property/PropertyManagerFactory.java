@@ -37,6 +37,9 @@ public class PropertyManagerFactory {
     /** The Constant TEST_CONFIG_PROPERTIES. */
     private static final String TEST_CONFIG_PROPERTIES = "./testconfig.properties";
 
+    /** The Constant TEST_CONFIG_FOLDER, the temporary folder for application data under test. */
+    private static final String TEST_CONFIG_FOLDER = "sldeditor-test";
+
     /** The singleton instance. */
     private static PropertyManagerInterface instance = null;
 
@@ -69,8 +72,24 @@ public class PropertyManagerFactory {
                         System.getProperty("user.home"), OLD_CONFIG_PROPERTIES, CONFIG_PROPERTIES);
     }
 
+    /**
+     * Gets the folder containing the config properties file, used to store other application data.
+     * Under test a temporary folder is used so that caches are not written to the working folder.
+     *
+     * @return the config folder
+     */
+    public static synchronized File getConfigFolder() {
+        if (TEST_CONFIG_PROPERTIES.equals(propertiesFileName)) {
+            return new File(System.getProperty("java.io.tmpdir"), TEST_CONFIG_FOLDER);
+        }
+        return new File(propertiesFileName).getAbsoluteFile().getParentFile();
+    }
+
     /** Destroy instance. */
     public static synchronized void destroyInstance() {
+        if (instance != null) {
+            instance.flush();
+        }
         instance = null;
         propertiesFileName = TEST_CONFIG_PROPERTIES;
     }
@@ -140,4 +140,7 @@ public interface PropertyManagerInterface {
      * @param configPropertiesFile the new property file
      */
     void setPropertyFile(File configPropertiesFile);
+
+    /** Write any changes waiting to be written to the property file immediately. */
+    void flush();
 }
@@ -0,0 +1,390 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.startup;
+
+import com.sldeditor.common.console.ConsoleManager;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Orchestrates application start up.
+ *
+ * <p>Initialisation stages that do not create user interface components are started on background
+ * threads as early as possible. Code that depends on a stage calls {@link #run(String, Runnable)}
+ * with the same stage name, this waits for the background stage to complete or, if the stage was
+ * never started in the background, runs it on the calling thread. The time taken by every stage,
+ * and the time spent waiting for background stages, is recorded in a report that is written to the
+ * console when starting the application with the {@value #TIMING_REPORT_ARG} command line argument.
+ *
+ * <p>Class is implemented as a singleton.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class StartupOrchestrator {
+
+    /** The Constant TIMING_REPORT_ARG, command line argument to output the timing report. */
+    public static final String TIMING_REPORT_ARG = "-startuptiming";
+
+    /** The Constant MAX_THREADS. */
+    private static final int MAX_THREADS = 4;
+
+    /** The Constant NANOS_PER_MILLI. */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /** The singleton instance. */
+    private static StartupOrchestrator instance = null;
+
+    /** The thread counter. */
+    private static final AtomicInteger threadCounter = new AtomicInteger(1);
+
+    /** The executor. */
+    private ExecutorService executor = null;
+
+    /** The background stages, keyed by stage name. */
+    private Map<String, Future<?>> backgroundStageMap = new LinkedHashMap<>();
+
+    /** The recorded stage timings. */
+    private List<StageTiming> timingList = new ArrayList<>();
+
+    /** The report enabled flag. */
+    private boolean reportEnabled = false;
+
+    /** The start time in nanoseconds. */
+    private long startTime = System.nanoTime();
+
+    /** The timing of a single stage. */
+    private static class StageTiming {
+
+        /** The stage name. */
+        private final String stageName;
+
+        /** The thread the stage ran on. */
+        private final String threadName;
+
+        /** The offset in nanoseconds from the start. */
+        private final long offset;
+
+        /** The duration in nanoseconds. */
+        private final long duration;
+
+        /**
+         * Instantiates a new stage timing.
+         *
+         * @param stageName the stage name
+         * @param threadName the thread name
+         * @param offset the offset
+         * @param duration the duration
+         */
+        StageTiming(String stageName, String threadName, long offset, long duration) {
+            this.stageName = stageName;
+            this.threadName = threadName;
+            this.offset = offset;
+            this.duration = duration;
+        }
+    }
+
+    /** Instantiates a new startup orchestrator. */
+    private StartupOrchestrator() {
+        // Private default constructor
+    }
+
+    /**
+     * Gets the single instance of StartupOrchestrator.
+     *
+     * @return single instance of StartupOrchestrator
+     */
+    public static synchronized StartupOrchestrator getInstance() {
+        if (instance == null) {
+            instance = new StartupOrchestrator();
+        }
+        return instance;
+    }
+
+    /**
+     * Parses the command line arguments.
+     *
+     * @param args the command line arguments
+     */
+    public void parseCommandLine(String[] args) {
+        if (args != null) {
+            for (String arg : args) {
+                if (TIMING_REPORT_ARG.equalsIgnoreCase(arg)) {
+                    setReportEnabled(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the report enabled flag.
+     *
+     * @param reportEnabled the new report enabled flag
+     */
+    public synchronized void setReportEnabled(boolean reportEnabled) {
+        this.reportEnabled = reportEnabled;
+    }
+
+    /** Start a new application start up, previous timings and stages are discarded. */
+    public synchronized void start() {
+        shutdownExecutor();
+        backgroundStageMap.clear();
+        timingList.clear();
+        startTime = System.nanoTime();
+
+        executor =
+                Executors.newFixedThreadPool(
+                        MAX_THREADS,
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                Thread thread =
+                                        new Thread(
+                                                r,
+                                                "SLDEditor-Startup-"
+                                                        + threadCounter.getAndIncrement());
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+    }
+
+    /**
+     * Checks if a start up is in progress.
+     *
+     * @return true, if start up has been started and not yet finished
+     */
+    public synchronized boolean isRunning() {
+        return (executor != null);
+    }
+
+    /**
+     * Start a stage on a background thread, the stage must not create user interface components.
+     *
+     * @param stageName the stage name
+     * @param stage the stage
+     */
+    public synchronized void runInBackground(final String stageName, final Runnable stage) {
+        if ((executor == null) || backgroundStageMap.containsKey(stageName)) {
+            return;
+        }
+
+        Future<?> future =
+                executor.submit(
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                time(stageName, stage);
+                            }
+                        });
+        backgroundStageMap.put(stageName, future);
+    }
+
+    /**
+     * Run a stage. If the stage has been started in the background wait for it to complete,
+     * otherwise run it on the calling thread.
+     *
+     * @param stageName the stage name
+     * @param stage the stage
+     */
+    public void run(String stageName, Runnable stage) {
+        Future<?> future = null;
+        synchronized (this) {
+            future = backgroundStageMap.get(stageName);
+        }
+
+        if (future == null) {
+            time(stageName, stage);
+        } else {
+            await(stageName, future);
+        }
+    }
+
+    /**
+     * Run a stage on the calling thread that returns a value, the time taken is recorded.
+     *
+     * @param <T> the type of the value returned
+     * @param stageName the stage name
+     * @param stage the stage
+     * @return the value returned by the stage
+     */
+    public <T> T call(String stageName, Supplier<T> stage) {
+        long start = System.nanoTime();
+        try {
+            return stage.get();
+        } finally {
+            record(stageName, start);
+        }
+    }
+
+    /**
+     * Wait for a background stage to complete.
+     *
+     * @param stageName the stage name
+     */
+    public void await(String stageName) {
+        Future<?> future = null;
+        synchronized (this) {
+            future = backgroundStageMap.get(stageName);
+        }
+
+        if (future != null) {
+            await(stageName, future);
+        }
+    }
+
+    /**
+     * Wait for a background stage to complete, the time spent waiting is recorded.
+     *
+     * @param stageName the stage name
+     * @param future the future
+     */
+    private void await(String stageName, Future<?> future) {
+        if (future.isDone()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Already reported by the stage
+        }
+        record("Wait for " + stageName, start);
+    }
+
+    /**
+     * Run a stage on the calling thread and record the time taken.
+     *
+     * @param stageName the stage name
+     * @param stage the stage
+     */
+    private void time(String stageName, Runnable stage) {
+        long start = System.nanoTime();
+        try {
+            stage.run();
+        } catch (RuntimeException e) {
+            ConsoleManager.getInstance().exception(StartupOrchestrator.class, e);
+        } finally {
+            record(stageName, start);
+        }
+    }
+
+    /**
+     * Record the time taken by a stage.
+     *
+     * @param stageName the stage name
+     * @param start the start time in nanoseconds
+     */
+    private synchronized void record(String stageName, long start) {
+        long end = System.nanoTime();
+        timingList.add(
+                new StageTiming(
+                        stageName,
+                        Thread.currentThread().getName(),
+                        start - startTime,
+                        end - start));
+    }
+
+    /**
+     * Finish the start up, all background stages are waited for and the timing report is output if
+     * requested.
+     */
+    public void finish() {
+        List<Map.Entry<String, Future<?>>> stageList = null;
+        synchronized (this) {
+            stageList = new ArrayList<>(backgroundStageMap.entrySet());
+        }
+
+        for (Map.Entry<String, Future<?>> entry : stageList) {
+            await(entry.getKey(), entry.getValue());
+        }
+
+        String report = null;
+        synchronized (this) {
+            shutdownExecutor();
+            if (reportEnabled) {
+                report = getReport();
+            }
+        }
+
+        if (report != null) {
+            ConsoleManager.getInstance().information(this, report);
+        }
+    }
+
+    /**
+     * Gets the timing report.
+     *
+     * @return the report
+     */
+    public synchronized String getReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(
+                String.format(
+                        Locale.ROOT,
+                        "Startup timing (total %.1f ms)%n",
+                        (System.nanoTime() - startTime) / NANOS_PER_MILLI));
+        sb.append(
+                String.format(
+                        Locale.ROOT,
+                        "%10s %10s  %-24s %s%n",
+                        "Start ms",
+                        "Time ms",
+                        "Thread",
+                        "Stage"));
+        for (StageTiming timing : timingList) {
+            sb.append(
+                    String.format(
+                            Locale.ROOT,
+                            "%10.1f %10.1f  %-24s %s%n",
+                            timing.offset / NANOS_PER_MILLI,
+                            timing.duration / NANOS_PER_MILLI,
+                            timing.threadName,
+                            timing.stageName));
+        }
+        return sb.toString();
+    }
+
+    /** Shutdown the executor, any stages still running are allowed to complete. */
+    private void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(0, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.undo;
+
+/**
+ * Undo/redo event for a structural change to a document, the document before and after the change
+ * is held in an {@link UndoSnapshotStore} rather than as complete strings.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class SnapshotUndoEvent extends UndoEvent {
+
+    /** The snapshot store. */
+    private UndoSnapshotStore snapshotStore = null;
+
+    /** The old snapshot id. */
+    private int oldSnapshotId = UndoSnapshotStore.NO_SNAPSHOT;
+
+    /** The new snapshot id. */
+    private int newSnapshotId = UndoSnapshotStore.NO_SNAPSHOT;
+
+    /** The description text. */
+    private String text = null;
+
+    /**
+     * Instantiates a new snapshot undo event, the snapshots are stored in the undo manager's
+     * snapshot store.
+     *
+     * @param parentObj the parent obj
+     * @param text the text
+     * @param oldValue the document before the change
+     * @param newValue the document after the change
+     */
+    public SnapshotUndoEvent(
+            UndoActionInterface parentObj, String text, String oldValue, String newValue) {
+        this(parentObj, text, oldValue, newValue, UndoManager.getInstance().getSnapshotStore());
+    }
+
+    /**
+     * Instantiates a new snapshot undo event.
+     *
+     * @param parentObj the parent obj
+     * @param text the text
+     * @param oldValue the document before the change
+     * @param newValue the document after the change
+     * @param snapshotStore the snapshot store
+     */
+    public SnapshotUndoEvent(
+            UndoActionInterface parentObj,
+            String text,
+            String oldValue,
+            String newValue,
+            UndoSnapshotStore snapshotStore) {
+        super(parentObj, text, null, null);
+
+        this.text = text;
+        this.snapshotStore = snapshotStore;
+        this.oldSnapshotId = snapshotStore.addSnapshot(oldValue);
+        this.newSnapshotId = snapshotStore.addSnapshot(newValue);
+    }
+
+    /**
+     * Gets the document before the change.
+     *
+     * @return the old value
+     */
+    @Override
+    public Object getOldValue() {
+        return snapshotStore.getSnapshot(oldSnapshotId);
+    }
+
+    /**
+     * Gets the document after the change.
+     *
+     * @return the new value
+     */
+    @Override
+    public Object getNewValue() {
+        return snapshotStore.getSnapshot(newSnapshotId);
+    }
+
+    /**
+     * Gets the oldest snapshot id referenced by this event.
+     *
+     * @return the oldest snapshot id
+     */
+    public int getOldestSnapshotId() {
+        if (oldSnapshotId == UndoSnapshotStore.NO_SNAPSHOT) {
+            return newSnapshotId;
+        }
+        return oldSnapshotId;
+    }
+
+    /**
+     * Gets the snapshot store.
+     *
+     * @return the snapshot store
+     */
+    public UndoSnapshotStore getSnapshotStore() {
+        return snapshotStore;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.undo.UndoEvent#getStringRepresentation()
+     */
+    @Override
+    public String getStringRepresentation() {
+        return String.format(
+                "Storing snapshot : %s Old : %d New : %d", text, oldSnapshotId, newSnapshotId);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.undo.UndoEvent#getUndoString()
+     */
+    @Override
+    public String getUndoString() {
+        return String.format("Undoing snapshot : %s Snapshot : %d", text, oldSnapshotId);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.undo.UndoEvent#getRedoString()
+     */
+    @Override
+    public String getRedoString() {
+        return String.format("Redoing snapshot : %s Snapshot : %d", text, newSnapshotId);
+    }
+}
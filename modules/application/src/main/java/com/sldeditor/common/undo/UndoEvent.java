@@ -43,8 +43,8 @@ public class UndoEvent implements UndoInterface {
     /** The new value. */
     private Object newValue = null;
 
-    /** The representation. */
-    private String representation;
+    /** The representation, built when first requested. */
+    private String representation = null;
 
     /**
      * Instantiates a new undo event.
@@ -60,11 +60,6 @@ public class UndoEvent implements UndoInterface {
         this.fieldId = fieldId;
         this.oldValue = oldValue;
         this.newValue = newValue;
-
-        representation =
-                String.format(
-                        "Storing value : %s Old : %s New : %s",
-                        fieldId.toString(), oldValue, newValue);
     }
 
     /**
@@ -80,9 +75,6 @@ public class UndoEvent implements UndoInterface {
         this.oldValue = oldValue;
         this.newValue = newValue;
         this.customText = text;
-
-        representation =
-                String.format("Storing value : %s Old : %s New : %s", text, oldValue, newValue);
     }
 
     /*
@@ -112,6 +104,11 @@ public class UndoEvent implements UndoInterface {
      */
     @Override
     public String getStringRepresentation() {
+        if (representation == null) {
+            String text = (customText != null) ? customText : fieldId.toString();
+            representation =
+                    String.format("Storing value : %s Old : %s New : %s", text, oldValue, newValue);
+        }
         return representation;
     }
 
@@ -33,6 +33,12 @@ import org.apache.log4j.Logger;
  */
 public class UndoManager {
 
+    /** The Constant DEFAULT_MAX_ENTRIES. */
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    /** The Constant DEFAULT_MAX_MEMORY, in bytes. */
+    private static final long DEFAULT_MAX_MEMORY = 32L * 1024L * 1024L;
+
     /** The listener list. */
     private List<UndoStateInterface> listenerList = new ArrayList<>();
 
@@ -54,6 +60,15 @@ public class UndoManager {
     /** The population check object. */
     private PopulatingInterface populationCheck = null;
 
+    /** The snapshot store. */
+    private UndoSnapshotStore snapshotStore = new UndoSnapshotStore();
+
+    /** The maximum number of undo entries. */
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    /** The maximum memory in bytes used by the snapshot store. */
+    private long maxMemory = DEFAULT_MAX_MEMORY;
+
     /** Instantiates a new undo manager. */
     private UndoManager() {
         reset();
@@ -72,6 +87,7 @@ public class UndoManager {
     private void reset() {
         currentIndex = 0;
         undoList.clear();
+        snapshotStore.clear();
 
         updateMenuItems();
     }
@@ -108,12 +124,82 @@ public class UndoManager {
 
             currentIndex = undoList.size();
 
+            enforceLimits();
+
             updateMenuItems();
 
-            logger.debug(event.getStringRepresentation());
+            if (logger.isDebugEnabled()) {
+                logger.debug(event.getStringRepresentation());
+            }
         }
     }
 
+    /**
+     * Sets the limits on the undo history, the oldest entries are discarded when either limit is
+     * exceeded. Entries that can be redone are never discarded.
+     *
+     * @param maxEntries the maximum number of undo entries
+     * @param maxMemory the maximum memory in bytes used to store document snapshots
+     */
+    public void setLimits(int maxEntries, long maxMemory) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxMemory = maxMemory;
+
+        enforceLimits();
+
+        updateMenuItems();
+    }
+
+    /**
+     * Discard the oldest entries until the entry and memory limits are met. Only entries before the
+     * current position are discarded so the redo history is kept.
+     */
+    private void enforceLimits() {
+        while ((undoList.size() > maxEntries) && (currentIndex > 0)) {
+            removeOldestEntry();
+        }
+        releaseUnusedSnapshots();
+
+        while ((undoList.size() > 1)
+                && (currentIndex > 0)
+                && (snapshotStore.getMemoryUsage() > maxMemory)) {
+            removeOldestEntry();
+            releaseUnusedSnapshots();
+        }
+    }
+
+    /** Removes the oldest entry, which must be before the current position. */
+    private void removeOldestEntry() {
+        undoList.remove(0);
+        currentIndex--;
+    }
+
+    /** Release the snapshots no longer referenced by any undo entry. */
+    private void releaseUnusedSnapshots() {
+        int oldestId = snapshotStore.getHeadId();
+        for (UndoInterface undoEvent : undoList) {
+            if (undoEvent instanceof SnapshotUndoEvent) {
+                SnapshotUndoEvent snapshotEvent = (SnapshotUndoEvent) undoEvent;
+                if (snapshotEvent.getSnapshotStore() == snapshotStore) {
+                    int id = snapshotEvent.getOldestSnapshotId();
+                    if ((id != UndoSnapshotStore.NO_SNAPSHOT) && (id < oldestId)) {
+                        oldestId = id;
+                    }
+                }
+            }
+        }
+        snapshotStore.discardBefore(oldestId);
+    }
+
+    /**
+     * Gets the snapshot store.
+     *
+     * @return the snapshot store
+     */
+    public UndoSnapshotStore getSnapshotStore() {
+        return snapshotStore;
+    }
+
     /** File loaded. */
     public void fileLoaded() {
         reset();
@@ -131,7 +217,9 @@ public class UndoManager {
 
             UndoInterface undoObject = undoList.get(currentIndex);
 
-            logger.debug(undoObject.getUndoString());
+            if (logger.isDebugEnabled()) {
+                logger.debug(undoObject.getUndoString());
+            }
 
             setUndoRedoAction(true);
             undoObject.doUndo();
@@ -147,7 +235,9 @@ public class UndoManager {
             UndoInterface undoObject = undoList.get(currentIndex);
             currentIndex++;
 
-            logger.debug(undoObject.getRedoString());
+            if (logger.isDebugEnabled()) {
+                logger.debug(undoObject.getRedoString());
+            }
 
             setUndoRedoAction(true);
             undoObject.doRedo();
@@ -162,10 +252,12 @@ public class UndoManager {
         boolean undoAllowed = (currentIndex > 0) && !undoList.isEmpty();
         boolean redoAllowed = (currentIndex < undoList.size());
 
-        logger.debug(
-                String.format(
-                        "Current index : %d List : %d Undo %s Redo %s",
-                        currentIndex, undoList.size(), undoAllowed, redoAllowed));
+        if (logger.isDebugEnabled()) {
+            logger.debug(
+                    String.format(
+                            "Current index : %d List : %d Undo %s Redo %s",
+                            currentIndex, undoList.size(), undoAllowed, redoAllowed));
+        }
         for (UndoStateInterface listener : listenerList) {
             listener.updateUndoRedoState(undoAllowed, redoAllowed);
         }
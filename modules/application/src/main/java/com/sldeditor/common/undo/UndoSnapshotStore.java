@@ -0,0 +1,387 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.undo;
+
+import com.sldeditor.common.console.ConsoleManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stores successive snapshots of a text document, typically an encoded SLD, for the undo/redo
+ * framework.
+ *
+ * <p>Each snapshot is stored as a delta against the previous snapshot, only the region of text that
+ * changed is kept. Every few snapshots a compressed checkpoint of the full text is stored so that a
+ * snapshot can be rebuilt by applying a short run of deltas to the nearest checkpoint.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class UndoSnapshotStore {
+
+    /** The Constant DEFAULT_CHECKPOINT_INTERVAL. */
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 16;
+
+    /** The Constant SNAPSHOT_OVERHEAD, estimated size in bytes of a snapshot object. */
+    private static final long SNAPSHOT_OVERHEAD = 48L;
+
+    /** The Constant BUFFER_SIZE. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The Constant NO_SNAPSHOT. */
+    public static final int NO_SNAPSHOT = -1;
+
+    /** The checkpoint interval. */
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+
+    /** The snapshot list, the first entry has the id firstId. */
+    private List<Snapshot> snapshotList = new ArrayList<>();
+
+    /** The id of the first snapshot in the list. */
+    private int firstId = 0;
+
+    /** The id of the last checkpoint. */
+    private int lastCheckpointId = NO_SNAPSHOT;
+
+    /** The id of the last snapshot added. */
+    private int headId = NO_SNAPSHOT;
+
+    /** The text of the last snapshot added. */
+    private String headText = null;
+
+    /** The id of the last snapshot rebuilt. */
+    private int cachedId = NO_SNAPSHOT;
+
+    /** The text of the last snapshot rebuilt. */
+    private String cachedText = null;
+
+    /** The estimated memory usage in bytes. */
+    private long memoryUsage = 0L;
+
+    /** A single stored snapshot, either a compressed checkpoint or a delta. */
+    private static class Snapshot {
+
+        /** The compressed text, only set for checkpoints. */
+        private byte[] compressed = null;
+
+        /** The length of text unchanged at the start of the previous snapshot. */
+        private int prefixLength = 0;
+
+        /** The length of text unchanged at the end of the previous snapshot. */
+        private int suffixLength = 0;
+
+        /** The replacement text between the prefix and suffix. */
+        private String replacement = null;
+
+        /**
+         * Checks if the snapshot is a checkpoint.
+         *
+         * @return true, if is checkpoint
+         */
+        boolean isCheckpoint() {
+            return compressed != null;
+        }
+
+        /**
+         * Gets the estimated memory size.
+         *
+         * @return the memory size in bytes
+         */
+        long getMemorySize() {
+            long size = SNAPSHOT_OVERHEAD;
+            if (compressed != null) {
+                size += compressed.length;
+            }
+            if (replacement != null) {
+                size += replacement.length() * 2L;
+            }
+            return size;
+        }
+
+        /**
+         * Apply the delta to the previous snapshot text.
+         *
+         * @param previousText the previous text
+         * @return the text of this snapshot
+         */
+        String apply(String previousText) {
+            StringBuilder sb =
+                    new StringBuilder(prefixLength + replacement.length() + suffixLength);
+            sb.append(previousText, 0, prefixLength);
+            sb.append(replacement);
+            sb.append(previousText, previousText.length() - suffixLength, previousText.length());
+            return sb.toString();
+        }
+    }
+
+    /** Default constructor. */
+    public UndoSnapshotStore() {
+        // Default constructor
+    }
+
+    /**
+     * Instantiates a new undo snapshot store.
+     *
+     * @param checkpointInterval the number of snapshots between checkpoints
+     */
+    public UndoSnapshotStore(int checkpointInterval) {
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+    }
+
+    /**
+     * Adds a snapshot, if the text matches the last snapshot added then no new snapshot is stored.
+     *
+     * @param text the text
+     * @return the snapshot id, NO_SNAPSHOT if text is null
+     */
+    public synchronized int addSnapshot(String text) {
+        if (text == null) {
+            return NO_SNAPSHOT;
+        }
+
+        if ((headId != NO_SNAPSHOT) && text.equals(headText)) {
+            return headId;
+        }
+
+        int id = firstId + snapshotList.size();
+
+        Snapshot snapshot;
+        if ((headId == NO_SNAPSHOT) || ((id - lastCheckpointId) >= checkpointInterval)) {
+            snapshot = createCheckpoint(text);
+            lastCheckpointId = id;
+        } else {
+            snapshot = createDelta(headText, text);
+        }
+
+        snapshotList.add(snapshot);
+        memoryUsage += snapshot.getMemorySize();
+
+        headId = id;
+        headText = text;
+
+        return id;
+    }
+
+    /**
+     * Gets the text of a snapshot.
+     *
+     * @param id the snapshot id
+     * @return the snapshot text, null if the snapshot is not stored
+     */
+    public synchronized String getSnapshot(int id) {
+        if ((id < firstId) || (id >= (firstId + snapshotList.size()))) {
+            return null;
+        }
+
+        if (id == headId) {
+            return headText;
+        }
+
+        if (id == cachedId) {
+            return cachedText;
+        }
+
+        int checkpointId = id;
+        while (!snapshotList.get(checkpointId - firstId).isCheckpoint()) {
+            checkpointId--;
+        }
+
+        String text;
+        int fromId;
+        if ((cachedId >= checkpointId) && (cachedId < id)) {
+            text = cachedText;
+            fromId = cachedId + 1;
+        } else {
+            text = decompress(snapshotList.get(checkpointId - firstId).compressed);
+            fromId = checkpointId + 1;
+        }
+
+        for (int index = fromId; (index <= id) && (text != null); index++) {
+            text = snapshotList.get(index - firstId).apply(text);
+        }
+
+        cachedId = id;
+        cachedText = text;
+
+        return text;
+    }
+
+    /**
+     * Discard all the snapshots stored before the snapshot id.
+     *
+     * @param id the id of the oldest snapshot to keep
+     */
+    public synchronized void discardBefore(int id) {
+        if ((id <= firstId) || (id >= (firstId + snapshotList.size()))) {
+            return;
+        }
+
+        Snapshot oldest = snapshotList.get(id - firstId);
+        if (!oldest.isCheckpoint()) {
+            String text = getSnapshot(id);
+            Snapshot checkpoint = createCheckpoint(text);
+            memoryUsage += checkpoint.getMemorySize() - oldest.getMemorySize();
+            snapshotList.set(id - firstId, checkpoint);
+            if (lastCheckpointId < id) {
+                lastCheckpointId = id;
+            }
+        }
+
+        List<Snapshot> discardList = snapshotList.subList(0, id - firstId);
+        for (Snapshot snapshot : discardList) {
+            memoryUsage -= snapshot.getMemorySize();
+        }
+        discardList.clear();
+
+        firstId = id;
+
+        if (cachedId < firstId) {
+            cachedId = NO_SNAPSHOT;
+            cachedText = null;
+        }
+    }
+
+    /** Discard all snapshots. */
+    public synchronized void clear() {
+        snapshotList.clear();
+        firstId = (headId == NO_SNAPSHOT) ? 0 : headId + 1;
+        lastCheckpointId = NO_SNAPSHOT;
+        headId = NO_SNAPSHOT;
+        headText = null;
+        cachedId = NO_SNAPSHOT;
+        cachedText = null;
+        memoryUsage = 0L;
+    }
+
+    /**
+     * Gets the id of the last snapshot added.
+     *
+     * @return the head id, NO_SNAPSHOT if the store is empty
+     */
+    public synchronized int getHeadId() {
+        return headId;
+    }
+
+    /**
+     * Gets the number of snapshots stored.
+     *
+     * @return the snapshot count
+     */
+    public synchronized int getSnapshotCount() {
+        return snapshotList.size();
+    }
+
+    /**
+     * Gets the estimated memory usage.
+     *
+     * @return the memory usage in bytes
+     */
+    public synchronized long getMemoryUsage() {
+        long headSize = (headText == null) ? 0L : headText.length() * 2L;
+        return memoryUsage + headSize;
+    }
+
+    /**
+     * Creates a checkpoint snapshot.
+     *
+     * @param text the text
+     * @return the snapshot
+     */
+    private static Snapshot createCheckpoint(String text) {
+        Snapshot snapshot = new Snapshot();
+        snapshot.compressed = compress(text);
+        return snapshot;
+    }
+
+    /**
+     * Creates a delta snapshot containing the region of text that differs from the previous text.
+     *
+     * @param previousText the previous text
+     * @param text the text
+     * @return the snapshot
+     */
+    private static Snapshot createDelta(String previousText, String text) {
+        int previousLength = previousText.length();
+        int length = text.length();
+        int maxCommon = Math.min(previousLength, length);
+
+        int prefix = 0;
+        while ((prefix < maxCommon) && (previousText.charAt(prefix) == text.charAt(prefix))) {
+            prefix++;
+        }
+
+        int suffix = 0;
+        while ((suffix < (maxCommon - prefix))
+                && (previousText.charAt(previousLength - suffix - 1)
+                        == text.charAt(length - suffix - 1))) {
+            suffix++;
+        }
+
+        Snapshot snapshot = new Snapshot();
+        snapshot.prefixLength = prefix;
+        snapshot.suffixLength = suffix;
+        snapshot.replacement = text.substring(prefix, length - suffix);
+        return snapshot;
+    }
+
+    /**
+     * Compress the text.
+     *
+     * @param text the text
+     * @return the compressed bytes
+     */
+    private static byte[] compress(String text) {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(byteStream)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(UndoSnapshotStore.class, e);
+        }
+        return byteStream.toByteArray();
+    }
+
+    /**
+     * Decompress the text.
+     *
+     * @param compressed the compressed bytes
+     * @return the text
+     */
+    private static String decompress(byte[] compressed) {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = in.read(buffer)) > 0) {
+                byteStream.write(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(UndoSnapshotStore.class, e);
+            return null;
+        }
+        return new String(byteStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
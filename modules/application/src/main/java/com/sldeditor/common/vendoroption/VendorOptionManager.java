@@ -180,7 +180,7 @@ public class VendorOptionManager {
      *
      * @return single instance of VendorOptionManager
      */
-    public static VendorOptionManager getInstance() {
+    public static synchronized VendorOptionManager getInstance() {
         if (instance == null) {
             instance = new VendorOptionManager();
         }
@@ -189,7 +189,7 @@ public class VendorOptionManager {
     }
 
     /** Destroy instance. */
-    public static void destroyInstance() {
+    public static synchronized void destroyInstance() {
         instance = null;
     }
 
@@ -27,7 +27,11 @@ import com.sldeditor.common.vendoroption.info.VendorOptionInfo;
 import com.sldeditor.ui.panels.GetMinimumVersionInterface;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.geotools.styling.FeatureTypeStyle;
 import org.geotools.styling.Rule;
 import org.geotools.styling.Style;
@@ -48,8 +52,11 @@ public class MinimumVersion {
     /** The vendor options present list. */
     private List<VendorOptionPresent> vendorOptionsPresentList = new ArrayList<>();
 
+    /** The vendor options found for each node of the SLD. */
+    private Map<Object, List<VendorOptionPresent>> nodeCache = new IdentityHashMap<>();
+
     /** The default vendor option version. */
-    private VendorOptionVersion defaultVendorOptionVersion =
+    private final VendorOptionVersion defaultVendorOptionVersion =
             VendorOptionManager.getInstance().getDefaultVendorOptionVersion();
 
     /**
@@ -64,37 +71,43 @@ public class MinimumVersion {
     /**
      * Find minimum version.
      *
+     * <p>The vendor options found for each node of the SLD are cached, only nodes not seen before
+     * or invalidated since the last call are analysed. Nodes are identified by object identity.
+     *
      * @param sld the sld
      */
-    public void findMinimumVersion(StyledLayerDescriptor sld) {
-        vendorOptionsPresentList.clear();
-        Object parentObj = null;
+    public synchronized void findMinimumVersion(StyledLayerDescriptor sld) {
+        vendorOptionsPresentList = removeStrictSLD(findVendorOptions(sld));
+    }
 
-        if ((sld != null) && (uiMgr != null)) {
-            uiMgr.getMinimumVersion(parentObj, sld, vendorOptionsPresentList);
-            List<StyledLayer> styledLayerList = sld.layers();
+    /**
+     * Find the vendor options used by each node of the SLD, unchanged nodes are taken from the
+     * cache. The SLD and the UI manager are accessed so this must be called on the thread editing
+     * the SLD.
+     *
+     * @param sld the sld
+     * @return a snapshot of the vendor options found, including those at the default version
+     */
+    public synchronized List<VendorOptionPresent> findVendorOptions(StyledLayerDescriptor sld) {
+        Map<Object, List<VendorOptionPresent>> visitedCache = new IdentityHashMap<>();
+        Set<VendorOptionPresent> presentSet = new LinkedHashSet<>();
 
-            parentObj = sld;
-            for (StyledLayer styledLayer : styledLayerList) {
-                uiMgr.getMinimumVersion(parentObj, styledLayer, vendorOptionsPresentList);
-                List<Style> styleList = SLDUtils.getStylesList(styledLayer);
+        if ((sld != null) && (uiMgr != null)) {
+            findNode(null, sld, visitedCache, presentSet);
+            for (StyledLayer styledLayer : sld.layers()) {
+                findNode(sld, styledLayer, visitedCache, presentSet);
 
-                parentObj = styledLayer;
-                for (Style style : styleList) {
-                    uiMgr.getMinimumVersion(parentObj, style, vendorOptionsPresentList);
-                    parentObj = style;
+                for (Style style : SLDUtils.getStylesList(styledLayer)) {
+                    findNode(styledLayer, style, visitedCache, presentSet);
 
                     for (FeatureTypeStyle fts : style.featureTypeStyles()) {
-                        uiMgr.getMinimumVersion(parentObj, fts, vendorOptionsPresentList);
-                        parentObj = fts;
+                        findNode(style, fts, visitedCache, presentSet);
 
                         for (Rule rule : fts.rules()) {
-                            uiMgr.getMinimumVersion(parentObj, rule, vendorOptionsPresentList);
-                            parentObj = rule;
+                            findNode(fts, rule, visitedCache, presentSet);
 
                             for (Symbolizer symbolizer : rule.symbolizers()) {
-                                uiMgr.getMinimumVersion(
-                                        parentObj, symbolizer, vendorOptionsPresentList);
+                                findNode(rule, symbolizer, visitedCache, presentSet);
                             }
                         }
                     }
@@ -102,22 +115,69 @@ public class MinimumVersion {
             }
         }
 
-        removeStrictSLD();
+        // Only keep the nodes still in the SLD
+        nodeCache = visitedCache;
+
+        return Collections.unmodifiableList(new ArrayList<>(presentSet));
     }
 
-    /** Removes the strict SLD. */
-    private void removeStrictSLD() {
+    /**
+     * Removes the strict SLD vendor options and sorts the rest.
+     *
+     * @param vendorOptionList the vendor options found
+     * @return the sorted vendor options not at the default version
+     */
+    public List<VendorOptionPresent> removeStrictSLD(List<VendorOptionPresent> vendorOptionList) {
         List<VendorOptionPresent> newList = new ArrayList<>();
 
-        for (VendorOptionPresent obj : vendorOptionsPresentList) {
+        for (VendorOptionPresent obj : vendorOptionList) {
             if (obj.getVendorOptionInfo().getVersionData() != defaultVendorOptionVersion) {
                 newList.add(obj);
             }
         }
 
-        vendorOptionsPresentList = newList;
+        Collections.sort(newList);
+
+        return newList;
+    }
+
+    /**
+     * Find the vendor options used by a single node, using the cached result if available.
+     *
+     * @param parentObj the parent obj
+     * @param sldObj the sld obj
+     * @param visitedCache the cache of the nodes visited
+     * @param presentSet the vendor options present in the SLD
+     */
+    private void findNode(
+            Object parentObj,
+            Object sldObj,
+            Map<Object, List<VendorOptionPresent>> visitedCache,
+            Set<VendorOptionPresent> presentSet) {
+        List<VendorOptionPresent> nodeList = nodeCache.get(sldObj);
+
+        if (nodeList == null) {
+            nodeList = new ArrayList<>();
+            uiMgr.getMinimumVersion(parentObj, sldObj, nodeList);
+        }
+        visitedCache.put(sldObj, nodeList);
+        presentSet.addAll(nodeList);
+    }
+
+    /**
+     * Invalidate the cached vendor options of a node, called when the node has been changed.
+     *
+     * @param sldObj the sld obj
+     */
+    public synchronized void invalidate(Object sldObj) {
+        if (sldObj != null) {
+            nodeCache.remove(sldObj);
+        }
+    }
 
-        Collections.sort(vendorOptionsPresentList);
+    /** Clear the cached vendor options of all nodes. */
+    public synchronized void clearCache() {
+        nodeCache = new IdentityHashMap<>();
     }
 
     /**
@@ -125,7 +185,7 @@ public class MinimumVersion {
      *
      * @return the vendorOptionsPresentList
      */
-    public List<VendorOptionPresent> getVendorOptionsPresentList() {
+    public synchronized List<VendorOptionPresent> getVendorOptionsPresentList() {
         return vendorOptionsPresentList;
     }
 
@@ -135,7 +195,8 @@ public class MinimumVersion {
      * @param userDefaultVendorOption the user default vendor option
      * @return the minimum version
      */
-    public List<VersionData> getMinimumVersion(List<VersionData> userDefaultVendorOption) {
+    public synchronized List<VersionData> getMinimumVersion(
+            List<VersionData> userDefaultVendorOption) {
         List<VersionData> list = new ArrayList<>();
         if (vendorOptionsPresentList.isEmpty()) {
             list = userDefaultVendorOption;
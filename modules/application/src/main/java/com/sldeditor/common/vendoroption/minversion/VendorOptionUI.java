@@ -20,6 +20,7 @@
 package com.sldeditor.common.vendoroption.minversion;
 
 import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.data.SLDTreeUpdatedInterface;
 import com.sldeditor.common.data.SelectedSymbol;
 import com.sldeditor.common.localisation.Localisation;
 import com.sldeditor.common.output.SLDOutputInterface;
@@ -96,6 +97,27 @@ public class VendorOptionUI extends JPanel
 
         minimumVersion = new MinimumVersion(uiMgr);
 
+        // Only nodes replaced while editing need to be analysed again
+        SelectedSymbol.getInstance()
+                .setTreeUpdateListener(
+                        new SLDTreeUpdatedInterface() {
+                            @Override
+                            public void textUpdated() {
+                                // Do nothing
+                            }
+
+                            @Override
+                            public void updateNode(Object objectOld, Object objectNew) {
+                                minimumVersion.invalidate(objectOld);
+                                minimumVersion.invalidate(objectNew);
+                            }
+
+                            @Override
+                            public void leafSelected() {
+                                // Do nothing
+                            }
+                        });
+
         // Listen for changes in the SLD
         RenderPanelFactory.addSLDOutputListener(this);
 
@@ -247,7 +269,7 @@ public class VendorOptionUI extends JPanel
     }
 
     /**
-     * Update panel.
+     * Update panel, only the nodes of the SLD changed since the last update are analysed.
      *
      * @param sld the sld
      */
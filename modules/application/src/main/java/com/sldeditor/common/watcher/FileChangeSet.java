@@ -0,0 +1,192 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.watcher;
+
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent.Kind;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The set of changes to the contents of a watched folder collected over a short period of time.
+ *
+ * <p>Events for the same path are coalesced so that listeners only see the net change, e.g. a file
+ * created and then modified is reported as added, a file deleted and then created again is reported
+ * as modified and a file created and then deleted is not reported at all.
+ *
+ * <p>If the watch service lost events the overflow flag is set and listeners should rescan the
+ * folder.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class FileChangeSet {
+
+    /** The folder. */
+    private final Path folder;
+
+    /** The net change for each path. */
+    private final Map<Path, Kind<?>> changeMap = new LinkedHashMap<>();
+
+    /** The overflow flag, true if events have been lost. */
+    private boolean overflow = false;
+
+    /**
+     * Instantiates a new file change set.
+     *
+     * @param folder the folder
+     */
+    public FileChangeSet(Path folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * Record a watch event, coalescing it with any earlier event for the same path.
+     *
+     * @param kind the kind of event
+     * @param path the path
+     */
+    public void add(Kind<?> kind, Path path) {
+        if (kind == StandardWatchEventKinds.OVERFLOW) {
+            overflow = true;
+            return;
+        }
+
+        if ((kind == null) || (path == null)) {
+            return;
+        }
+
+        Kind<?> previous = changeMap.get(path);
+        Kind<?> result = coalesce(previous, kind);
+        if (result == null) {
+            changeMap.remove(path);
+        } else {
+            changeMap.put(path, result);
+        }
+    }
+
+    /**
+     * Coalesce two events for the same path.
+     *
+     * @param previous the previous event, may be null
+     * @param kind the latest event
+     * @return the net event, null if there is no net change
+     */
+    private static Kind<?> coalesce(Kind<?> previous, Kind<?> kind) {
+        if (previous == null) {
+            return kind;
+        }
+
+        if (previous == StandardWatchEventKinds.ENTRY_CREATE) {
+            // Created then deleted, listeners never need to know
+            return (kind == StandardWatchEventKinds.ENTRY_DELETE) ? null : previous;
+        }
+
+        if (previous == StandardWatchEventKinds.ENTRY_DELETE) {
+            // Deleted then re-created, e.g. an editor saving via a temporary file
+            return (kind == StandardWatchEventKinds.ENTRY_DELETE)
+                    ? previous
+                    : StandardWatchEventKinds.ENTRY_MODIFY;
+        }
+
+        // Previously modified
+        return (kind == StandardWatchEventKinds.ENTRY_DELETE)
+                ? kind
+                : StandardWatchEventKinds.ENTRY_MODIFY;
+    }
+
+    /** Mark the change set as having lost events, the folder needs rescanning. */
+    public void setOverflow() {
+        overflow = true;
+    }
+
+    /**
+     * Checks if events have been lost and the folder needs rescanning.
+     *
+     * @return true, if overflow
+     */
+    public boolean isOverflow() {
+        return overflow;
+    }
+
+    /**
+     * Gets the folder.
+     *
+     * @return the folder
+     */
+    public Path getFolder() {
+        return folder;
+    }
+
+    /**
+     * Gets the paths added.
+     *
+     * @return the added paths
+     */
+    public Set<Path> getAdded() {
+        return getPaths(StandardWatchEventKinds.ENTRY_CREATE);
+    }
+
+    /**
+     * Gets the paths modified.
+     *
+     * @return the modified paths
+     */
+    public Set<Path> getModified() {
+        return getPaths(StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Gets the paths deleted.
+     *
+     * @return the deleted paths
+     */
+    public Set<Path> getDeleted() {
+        return getPaths(StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * Gets the paths with the supplied net change.
+     *
+     * @param kind the kind of change
+     * @return the paths
+     */
+    private Set<Path> getPaths(Kind<?> kind) {
+        Set<Path> pathSet = new LinkedHashSet<>();
+        for (Map.Entry<Path, Kind<?>> entry : changeMap.entrySet()) {
+            if (entry.getValue() == kind) {
+                pathSet.add(entry.getKey());
+            }
+        }
+        return Collections.unmodifiableSet(pathSet);
+    }
+
+    /**
+     * Checks if there are no changes to report.
+     *
+     * @return true, if is empty
+     */
+    public boolean isEmpty() {
+        return changeMap.isEmpty() && !overflow;
+    }
+}
@@ -21,27 +21,59 @@ package com.sldeditor.common.watcher;
 
 import com.sldeditor.common.console.ConsoleManager;
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchEvent.Kind;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class that implements a file watcher to inform the file system tree whether files have been added
  * or deleted.
  *
+ * <p>Events are coalesced per path over a short period of time and delivered to listeners as a
+ * {@link FileChangeSet} per folder. If the watch service loses events the change set is flagged as
+ * overflowed so that listeners, and the {@link ReloadManager}, can rescan the folder. A folder tree
+ * can be watched recursively, sub-folders created later are watched automatically. The total number
+ * of watched folders is bounded.
+ *
  * @author Robert Ward (SCISYS)
  */
 public class FileSystemWatcher implements Runnable {
 
+    /** The Constant DEFAULT_COALESCE_DELAY, time in milliseconds to wait for further events. */
+    private static final long DEFAULT_COALESCE_DELAY = 200L;
+
+    /** The Constant MAX_COALESCE_DELAY, maximum time in milliseconds events are held back. */
+    private static final long MAX_COALESCE_DELAY = 1000L;
+
+    /** The Constant DEFAULT_MAX_KEYS, the maximum number of folders watched. */
+    private static final int DEFAULT_MAX_KEYS = 4096;
+
     /** The watcher map. */
-    private Map<WatchKey, FileWatcherUpdateInterface> watcherMap = new HashMap<>();
+    private Map<WatchKey, WatchedFolder> watcherMap = new HashMap<>();
+
+    /** The watched folders. */
+    private Map<Path, WatchedFolder> folderMap = new HashMap<>();
+
+    /** The pending changes for each folder, only accessed by the watcher thread. */
+    private Map<Path, FileChangeSet> pendingMap = new LinkedHashMap<>();
 
     /** The watch service. */
     private WatchService watchService = null;
@@ -50,10 +82,70 @@ public class FileSystemWatcher implements Runnable {
     private static FileSystemWatcher instance = null;
 
     /** The stop polling flag. */
-    private boolean stopPolling = false;
+    private volatile boolean stopPolling = false;
+
+    /** The coalesce delay in milliseconds. */
+    private long coalesceDelay = DEFAULT_COALESCE_DELAY;
+
+    /** The maximum number of folders watched. */
+    private int maxKeys = DEFAULT_MAX_KEYS;
+
+    /** A watched folder and the listeners interested in it. */
+    private static class WatchedFolder {
+
+        /** The folder. */
+        private final Path folder;
+
+        /** The watch key. */
+        private final WatchKey key;
+
+        /** The listeners. */
+        private final List<FileWatcherUpdateInterface> listenerList = new ArrayList<>();
+
+        /**
+         * The listeners watching the folder and its sub-folders, with the number of levels of
+         * sub-folders below this folder they are interested in.
+         */
+        private final Map<FileWatcherUpdateInterface, Integer> recursiveListenerMap =
+                new LinkedHashMap<>();
+
+        /**
+         * Instantiates a new watched folder.
+         *
+         * @param folder the folder
+         * @param key the key
+         */
+        WatchedFolder(Path folder, WatchKey key) {
+            this.folder = folder;
+            this.key = key;
+        }
+
+        /**
+         * Checks if the folder has no listeners.
+         *
+         * @return true, if is empty
+         */
+        boolean isEmpty() {
+            return listenerList.isEmpty() && recursiveListenerMap.isEmpty();
+        }
+    }
 
     /** Default constructor. */
     private FileSystemWatcher() {
+        this(DEFAULT_COALESCE_DELAY, DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * Instantiates a new file system watcher, call {@link #start()} to start watching.
+     *
+     * @param coalesceDelay the time in milliseconds to wait for further events before informing
+     *     listeners
+     * @param maxKeys the maximum number of folders to watch
+     */
+    public FileSystemWatcher(long coalesceDelay, int maxKeys) {
+        this.coalesceDelay = coalesceDelay;
+        this.maxKeys = maxKeys;
+
         // First create the watch service instance. This service watches a
         // directory for changes.
         try {
@@ -68,26 +160,166 @@ public class FileSystemWatcher implements Runnable {
      *
      * @param parent the parent
      * @param path the path
+     * @return true, if the folder is being watched
      */
-    public void addWatch(FileWatcherUpdateInterface parent, Path path) {
-        if (path != null) {
-            // The directory that has to be watched needs to be registered. Any
-            // object that implements the Watchable interface can be registered.
+    public boolean addWatch(FileWatcherUpdateInterface parent, Path path) {
+        if ((parent == null) || (path == null)) {
+            return false;
+        }
 
-            // Register three events. i.e. whenever a file is created, deleted or
-            // modified the watcher gets informed
-            try {
-                WatchKey key =
-                        path.register(
-                                watchService,
-                                StandardWatchEventKinds.ENTRY_CREATE,
-                                StandardWatchEventKinds.ENTRY_DELETE,
-                                StandardWatchEventKinds.ENTRY_MODIFY);
-                watcherMap.put(key, parent);
-            } catch (IOException e) {
-                // Do nothing
+        synchronized (this) {
+            WatchedFolder watchedFolder = register(path);
+            if (watchedFolder == null) {
+                return false;
+            }
+            if (!watchedFolder.listenerList.contains(parent)) {
+                watchedFolder.listenerList.add(parent);
             }
         }
+        return true;
+    }
+
+    /**
+     * Watch a folder and all its sub-folders, sub-folders created later are watched automatically.
+     * Once the maximum number of watched folders is reached no further sub-folders are watched.
+     *
+     * @param parent the parent
+     * @param root the root folder
+     * @return the number of folders watched for the listener
+     */
+    public int addRecursiveWatch(FileWatcherUpdateInterface parent, Path root) {
+        return addRecursiveWatch(parent, root, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Watch a folder and its sub-folders down to the supplied depth, a depth of 1 watches the
+     * folder and its immediate sub-folders. Sub-folders created later are watched automatically.
+     * Once the maximum number of watched folders is reached no further sub-folders are watched.
+     *
+     * @param parent the parent
+     * @param root the root folder
+     * @param maxDepth the number of levels of sub-folders to watch
+     * @return the number of folders watched for the listener
+     */
+    public int addRecursiveWatch(final FileWatcherUpdateInterface parent, Path root, int maxDepth) {
+        if ((parent == null) || (root == null) || (maxDepth < 0)) {
+            return 0;
+        }
+
+        final int[] count = new int[] {0};
+        try {
+            Files.walkFileTree(
+                    root,
+                    EnumSet.noneOf(FileVisitOption.class),
+                    (maxDepth == Integer.MAX_VALUE) ? maxDepth : maxDepth + 1,
+                    new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult preVisitDirectory(
+                                Path dir, BasicFileAttributes attrs) {
+                            int level = dir.equals(root) ? 0 : root.relativize(dir).getNameCount();
+                            if (!addRecursiveListener(parent, dir, maxDepth - level)) {
+                                return FileVisitResult.TERMINATE;
+                            }
+                            count[0]++;
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                            // Ignore folders that can not be read
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+        return count[0];
+    }
+
+    /**
+     * Adds a recursive listener to a folder.
+     *
+     * @param parent the parent
+     * @param dir the folder
+     * @param depth the number of levels of sub-folders below the folder to watch
+     * @return true, if successful
+     */
+    private synchronized boolean addRecursiveListener(
+            FileWatcherUpdateInterface parent, Path dir, int depth) {
+        WatchedFolder watchedFolder = register(dir);
+        if (watchedFolder == null) {
+            return false;
+        }
+        Integer existingDepth = watchedFolder.recursiveListenerMap.get(parent);
+        if ((existingDepth == null) || (existingDepth < depth)) {
+            watchedFolder.recursiveListenerMap.put(parent, depth);
+        }
+        return true;
+    }
+
+    /**
+     * Stop informing the listener of changes, folders no longer of interest are no longer watched.
+     *
+     * @param parent the parent
+     */
+    public synchronized void removeWatch(FileWatcherUpdateInterface parent) {
+        Iterator<WatchedFolder> iterator = folderMap.values().iterator();
+        while (iterator.hasNext()) {
+            WatchedFolder watchedFolder = iterator.next();
+            watchedFolder.listenerList.remove(parent);
+            watchedFolder.recursiveListenerMap.remove(parent);
+            if (watchedFolder.isEmpty()) {
+                watchedFolder.key.cancel();
+                watcherMap.remove(watchedFolder.key);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of folders being watched.
+     *
+     * @return the watched folder count
+     */
+    public synchronized int getWatchedFolderCount() {
+        return folderMap.size();
+    }
+
+    /**
+     * Register a folder with the watch service, a folder is only registered once.
+     *
+     * @param path the path
+     * @return the watched folder, null if the folder could not be registered
+     */
+    private WatchedFolder register(Path path) {
+        WatchedFolder watchedFolder = folderMap.get(path);
+        if (watchedFolder != null) {
+            return watchedFolder;
+        }
+
+        if ((watchService == null) || (folderMap.size() >= maxKeys)) {
+            return null;
+        }
+
+        // The directory that has to be watched needs to be registered. Any
+        // object that implements the Watchable interface can be registered.
+
+        // Register three events. i.e. whenever a file is created, deleted or
+        // modified the watcher gets informed
+        try {
+            WatchKey key =
+                    path.register(
+                            watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE,
+                            StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedFolder = new WatchedFolder(path, key);
+            watcherMap.put(key, watchedFolder);
+            folderMap.put(path, watchedFolder);
+        } catch (IOException | ClosedWatchServiceException e) {
+            // Do nothing
+        }
+        return watchedFolder;
     }
 
     /**
@@ -98,12 +330,31 @@ public class FileSystemWatcher implements Runnable {
     public static synchronized FileSystemWatcher getInstance() {
         if (instance == null) {
             instance = new FileSystemWatcher();
-            (new Thread(instance)).start();
+            instance.start();
         }
 
         return instance;
     }
 
+    /** Start watching on a background thread. */
+    public void start() {
+        Thread thread = new Thread(this, "SLDEditor-FileSystemWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stop watching, the watch service is closed. */
+    public void stop() {
+        stopPolling = true;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                ConsoleManager.getInstance().exception(this, e);
+            }
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -111,6 +362,10 @@ public class FileSystemWatcher implements Runnable {
      */
     @Override
     public void run() {
+        if (watchService == null) {
+            return;
+        }
+
         internalWatchDirectoryPath();
         // Close the watcher service
         try {
@@ -123,20 +378,34 @@ public class FileSystemWatcher implements Runnable {
     /**
      * Internal watch directory path method.
      *
-     * @throws InterruptedException
-     * @throws IOException Signals that an I/O exception has occurred.
+     * <p>Events are collected until no further events have arrived for the coalesce delay, or until
+     * events have been held back for the maximum coalesce delay, before listeners are informed.
      */
     private void internalWatchDirectoryPath() {
-        WatchKey key = null;
+        long firstEventTime = 0L;
 
         // Poll for events in an infinite loop
-        for (; ; ) {
-            // The take method waits till watch service receives a
-            // notification
+        while (!stopPolling) {
+            WatchKey key = null;
             try {
-                key = watchService.take();
+                if (pendingMap.isEmpty()) {
+                    // The take method waits till watch service receives a
+                    // notification
+                    key = watchService.take();
+                    firstEventTime = System.currentTimeMillis();
+                } else {
+                    long remaining =
+                            firstEventTime + MAX_COALESCE_DELAY - System.currentTimeMillis();
+                    if (remaining > 0) {
+                        key =
+                                watchService.poll(
+                                        Math.min(coalesceDelay, remaining), TimeUnit.MILLISECONDS);
+                    }
+                }
             } catch (InterruptedException e) {
                 // Do nothing
+            } catch (ClosedWatchServiceException e) {
+                break;
             }
 
             // once a key is obtained, we poll for events on that key
@@ -145,11 +414,12 @@ public class FileSystemWatcher implements Runnable {
                 processWatchEvents(key, keys);
 
                 // Reset the key so the further key events may be polled
-                key.reset();
-            }
-
-            if (stopPolling) {
-                break;
+                if (!key.reset()) {
+                    // Folder is no longer accessible
+                    removeKey(key);
+                }
+            } else if (!pendingMap.isEmpty()) {
+                flushChanges();
             }
         }
     }
@@ -161,33 +431,150 @@ public class FileSystemWatcher implements Runnable {
      * @param keys the keys
      */
     private void processWatchEvents(WatchKey key, List<WatchEvent<?>> keys) {
+        WatchedFolder watchedFolder = null;
+        synchronized (this) {
+            watchedFolder = watcherMap.get(key);
+        }
+        if (watchedFolder == null) {
+            return;
+        }
+
+        Path dir = watchedFolder.folder;
+        FileChangeSet changeSet = pendingMap.get(dir);
+        if (changeSet == null) {
+            changeSet = new FileChangeSet(dir);
+            pendingMap.put(dir, changeSet);
+        }
+
         for (WatchEvent<?> watchEvent : keys) {
 
             Kind<?> watchEventKind = watchEvent.kind();
             // Sometimes events are created faster than they are registered
             // or the implementation may specify a maximum number of events
             // and further events are discarded. In these cases an event of
-            // kind overflow is returned. We ignore this case for now
+            // kind overflow is returned, listeners rescan the folder.
             if (watchEventKind == StandardWatchEventKinds.OVERFLOW) {
+                changeSet.setOverflow();
+                watchNewFolders(watchedFolder, dir);
                 continue;
             }
 
-            Path dir = (Path) key.watchable();
             Path fullPath = dir.resolve((Path) watchEvent.context());
+            changeSet.add(watchEventKind, fullPath);
+
+            if (watchEventKind == StandardWatchEventKinds.ENTRY_CREATE) {
+                watchNewFolders(watchedFolder, fullPath);
+            }
+        }
+    }
+
+    /**
+     * Watch any new folders for the recursive listeners of the parent folder.
+     *
+     * @param watchedFolder the parent watched folder
+     * @param path the new path
+     */
+    private void watchNewFolders(WatchedFolder watchedFolder, Path path) {
+        Map<FileWatcherUpdateInterface, Integer> recursiveListenerMap = null;
+        synchronized (this) {
+            recursiveListenerMap = new LinkedHashMap<>(watchedFolder.recursiveListenerMap);
+        }
 
-            FileWatcherUpdateInterface parentObj = watcherMap.get(key);
-            if (parentObj != null) {
-                if (watchEventKind == StandardWatchEventKinds.ENTRY_CREATE) {
-                    // A new file has been created
-                    parentObj.fileAdded(fullPath);
-                } else if (watchEventKind == StandardWatchEventKinds.ENTRY_MODIFY) {
-                    ReloadManager.getInstance().fileModified(fullPath);
-                    // The file has been modified.
-                    parentObj.fileModified(fullPath);
-                } else if (watchEventKind == StandardWatchEventKinds.ENTRY_DELETE) {
-                    parentObj.fileDeleted(fullPath);
+        if (!recursiveListenerMap.isEmpty() && Files.isDirectory(path)) {
+            for (Map.Entry<FileWatcherUpdateInterface, Integer> entry :
+                    recursiveListenerMap.entrySet()) {
+                if (path.equals(watchedFolder.folder)) {
+                    // Events lost, pick up any sub-folders not yet watched
+                    addRecursiveWatch(entry.getKey(), path, entry.getValue());
+                } else if (entry.getValue() > 0) {
+                    addRecursiveWatch(entry.getKey(), path, entry.getValue() - 1);
                 }
             }
         }
     }
+
+    /**
+     * Removes a key that is no longer valid.
+     *
+     * @param key the key
+     */
+    private synchronized void removeKey(WatchKey key) {
+        WatchedFolder watchedFolder = watcherMap.remove(key);
+        if (watchedFolder != null) {
+            folderMap.remove(watchedFolder.folder);
+        }
+    }
+
+    /** Inform the listeners of the pending changes. */
+    private void flushChanges() {
+        List<FileChangeSet> changeSetList = new ArrayList<>(pendingMap.values());
+        pendingMap.clear();
+
+        for (FileChangeSet changeSet : changeSetList) {
+            if (changeSet.isEmpty()) {
+                continue;
+            }
+
+            if (changeSet.isOverflow()) {
+                ReloadManager.getInstance().rescanFolder(changeSet.getFolder());
+            }
+
+            for (Path modified : changeSet.getModified()) {
+                ReloadManager.getInstance().fileModified(modified);
+            }
+
+            for (FileWatcherUpdateInterface listener : getListeners(changeSet.getFolder())) {
+                try {
+                    notifyListener(listener, changeSet);
+                } catch (RuntimeException e) {
+                    ConsoleManager.getInstance().exception(this, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the listeners for a folder.
+     *
+     * @param folder the folder
+     * @return the listeners
+     */
+    private synchronized List<FileWatcherUpdateInterface> getListeners(Path folder) {
+        List<FileWatcherUpdateInterface> listenerList = new ArrayList<>();
+        WatchedFolder watchedFolder = folderMap.get(folder);
+        if (watchedFolder != null) {
+            listenerList.addAll(watchedFolder.listenerList);
+            for (FileWatcherUpdateInterface listener :
+                    watchedFolder.recursiveListenerMap.keySet()) {
+                if (!listenerList.contains(listener)) {
+                    listenerList.add(listener);
+                }
+            }
+        }
+        return listenerList;
+    }
+
+    /**
+     * Notify a listener of the changes, listeners that do not accept change sets are informed one
+     * path at a time.
+     *
+     * @param listener the listener
+     * @param changeSet the change set
+     */
+    private static void notifyListener(
+            FileWatcherUpdateInterface listener, FileChangeSet changeSet) {
+        if (listener instanceof FileWatcherChangeSetInterface) {
+            ((FileWatcherChangeSetInterface) listener).filesChanged(changeSet);
+        } else {
+            for (Path deleted : changeSet.getDeleted()) {
+                listener.fileDeleted(deleted);
+            }
+            for (Path added : changeSet.getAdded()) {
+                listener.fileAdded(added);
+            }
+            for (Path modified : changeSet.getModified()) {
+                listener.fileModified(modified);
+            }
+        }
+    }
 }
@@ -0,0 +1,36 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.watcher;
+
+/**
+ * The Interface FileWatcherChangeSetInterface, implemented by file watcher listeners that want to
+ * receive changes in batches rather than one event at a time.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public interface FileWatcherChangeSetInterface extends FileWatcherUpdateInterface {
+
+    /**
+     * Files changed.
+     *
+     * @param changeSet the coalesced changes to the watched folder
+     */
+    void filesChanged(FileChangeSet changeSet);
+}
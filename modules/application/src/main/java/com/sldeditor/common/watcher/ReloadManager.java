@@ -25,7 +25,9 @@ import com.sldeditor.datasource.SLDEditorDataUpdateInterface;
 import com.sldeditor.datasource.SLDEditorFile;
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -124,6 +126,31 @@ public class ReloadManager implements FileWatcherUpdateInterface, SLDEditorDataU
         }
     }
 
+    /**
+     * Rescan a folder whose file watcher events have been lost, any currently loaded file in the
+     * folder is treated as modified.
+     *
+     * @param folder the folder
+     */
+    public void rescanFolder(Path folder) {
+        if (folder == null) {
+            return;
+        }
+
+        List<Path> modifiedList = new ArrayList<>();
+        synchronized (this) {
+            for (Path loadedFile : currentLoadedFileList.keySet()) {
+                if (folder.equals(loadedFile.getParent())) {
+                    modifiedList.add(loadedFile);
+                }
+            }
+        }
+
+        for (Path modified : modifiedList) {
+            fileModified(modified);
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -21,8 +21,11 @@ package com.sldeditor.common.xml;
 
 import com.sldeditor.common.console.ConsoleManager;
 import com.sldeditor.common.localisation.Localisation;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -38,6 +41,8 @@ import org.xml.sax.SAXException;
 /**
  * Reads/writes an XML file using the generated JAXB classes.
  *
+ * <p>The compiled schemas and JAXB contexts are cached and reused for every file read.
+ *
  * @author Robert Ward (SCISYS)
  */
 public class ParseXML {
@@ -48,6 +53,12 @@ public class ParseXML {
     /** The Constant UI_RESOURCE_FOLDER. */
     private static final String UI_RESOURCE_FOLDER = "/ui/";
 
+    /** The compiled schemas, keyed by schema resource. */
+    private static Map<String, Schema> schemaMap = new ConcurrentHashMap<>();
+
+    /** The JAXB contexts, keyed by class to parse. */
+    private static Map<Class<?>, JAXBContext> contextMap = new ConcurrentHashMap<>();
+
     /** Private default constructor */
     private ParseXML() {
         // Private default constructor
@@ -70,16 +81,34 @@ public class ParseXML {
         String fullResourceName = resourceFolder + resourceName;
 
         logger.debug("Reading : " + fullResourceName);
-        InputStream inputStream = ParseXML.class.getResourceAsStream(fullResourceName);
+        try (InputStream inputStream = ParseXML.class.getResourceAsStream(fullResourceName)) {
+            return parse(inputStream, fullResourceName, schemaResource, classToParse);
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(ParseXML.class, e);
+        }
+        return null;
+    }
 
+    /**
+     * Parses the xml stream, validates against schema and reports any errors.
+     *
+     * @param inputStream the input stream
+     * @param fullResourceName the full resource name, used when reporting errors
+     * @param schemaResource the schema resource
+     * @param classToParse the class to parse
+     * @return the object
+     */
+    public static Object parse(
+            InputStream inputStream,
+            String fullResourceName,
+            String schemaResource,
+            Class<?> classToParse) {
         ValidationEventCollector vec = new ValidationEventCollector();
         URL xsdURL = ParseXML.class.getResource(schemaResource);
         try {
-            SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            Schema schema = getSchema(schemaResource, xsdURL);
 
-            Schema schema = sf.newSchema(xsdURL);
-
-            JAXBContext jaxbContext = JAXBContext.newInstance(classToParse);
+            JAXBContext jaxbContext = getContext(classToParse);
 
             Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
             jaxbUnmarshaller.setSchema(schema);
@@ -96,6 +125,41 @@ public class ParseXML {
         return null;
     }
 
+    /**
+     * Gets the compiled schema, the schema is only compiled the first time it is requested.
+     *
+     * @param schemaResource the schema resource
+     * @param xsdURL the xsd URL
+     * @return the schema
+     * @throws SAXException the SAX exception
+     */
+    private static Schema getSchema(String schemaResource, URL xsdURL) throws SAXException {
+        Schema schema = schemaMap.get(schemaResource);
+        if (schema == null) {
+            SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+
+            schema = sf.newSchema(xsdURL);
+            schemaMap.put(schemaResource, schema);
+        }
+        return schema;
+    }
+
+    /**
+     * Gets the JAXB context, the context is only created the first time it is requested.
+     *
+     * @param classToParse the class to parse
+     * @return the context
+     * @throws JAXBException the JAXB exception
+     */
+    private static JAXBContext getContext(Class<?> classToParse) throws JAXBException {
+        JAXBContext jaxbContext = contextMap.get(classToParse);
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance(classToParse);
+            contextMap.put(classToParse, jaxbContext);
+        }
+        return jaxbContext;
+    }
+
     /**
      * Output parse errors.
      *
@@ -129,7 +193,7 @@ public class ParseXML {
     }
 
     /**
-     * Parses the ui file.
+     * Parses the ui file, the precompiled configuration is used if it is available and up to date.
      *
      * @param resourceString the resource string
      * @param schemaResource the schema resource
@@ -138,6 +202,10 @@ public class ParseXML {
      */
     public static Object parseUIFile(
             String resourceString, String schemaResource, Class<?> classToParse) {
+        Object obj = PrecompiledUIConfig.getInstance().read(resourceString, classToParse);
+        if (obj != null) {
+            return obj;
+        }
         return parseFile(UI_RESOURCE_FOLDER, resourceString, schemaResource, classToParse);
     }
 }
@@ -0,0 +1,353 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.common.xml;
+
+import com.sldeditor.common.xml.ui.MapUnits;
+import com.sldeditor.common.xml.ui.PanelConfig;
+import com.sldeditor.common.xml.ui.XMLSymbolTypeConfig;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import org.apache.log4j.Logger;
+
+/**
+ * Precompiled user interface configuration.
+ *
+ * <p>An optional build step ({@link #main(String[])}) validates every user interface configuration
+ * file against its schema and stores the parsed objects in a compact binary resource. At runtime
+ * the configuration is read from the binary resource without parsing or validating the XML. An
+ * entry is only used if the checksum of the XML resource matches the one recorded at build time,
+ * otherwise the XML is parsed as normal.
+ *
+ * <p>Class is implemented as a singleton.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class PrecompiledUIConfig {
+
+    /** The Constant PRECOMPILED_RESOURCE. */
+    public static final String PRECOMPILED_RESOURCE = "/ui/precompiled.bin";
+
+    /** The Constant UI_RESOURCE_FOLDER. */
+    private static final String UI_RESOURCE_FOLDER = "/ui/";
+
+    /** The Constant FORMAT_VERSION. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** The Constant XML_FILE_EXTENSION. */
+    private static final String XML_FILE_EXTENSION = ".xml";
+
+    /** The logger. */
+    private static Logger logger = Logger.getLogger(PrecompiledUIConfig.class);
+
+    /** The schema for each configuration root class. */
+    private static final Map<Class<?>, String> schemaMap = new LinkedHashMap<>();
+
+    /** The singleton instance. */
+    private static PrecompiledUIConfig instance = null;
+
+    /** The precompiled entries, keyed by resource name relative to the ui resource folder. */
+    private Map<String, PrecompiledEntry> entryMap = null;
+
+    static {
+        schemaMap.put(PanelConfig.class, "/xsd/paneldetails.xsd");
+        schemaMap.put(MapUnits.class, "/xsd/mapunits.xsd");
+        schemaMap.put(XMLSymbolTypeConfig.class, "/xsd/symboltype.xsd");
+    }
+
+    /** A precompiled configuration file. */
+    private static class PrecompiledEntry {
+
+        /** The checksum of the XML the entry was created from. */
+        private final long checksum;
+
+        /** The serialised configuration. */
+        private final byte[] data;
+
+        /**
+         * Instantiates a new precompiled entry.
+         *
+         * @param checksum the checksum
+         * @param data the data
+         */
+        PrecompiledEntry(long checksum, byte[] data) {
+            this.checksum = checksum;
+            this.data = data;
+        }
+    }
+
+    /** Instantiates a new precompiled UI config. */
+    private PrecompiledUIConfig() {
+        // Private default constructor
+    }
+
+    /**
+     * Gets the single instance of PrecompiledUIConfig.
+     *
+     * @return single instance of PrecompiledUIConfig
+     */
+    public static synchronized PrecompiledUIConfig getInstance() {
+        if (instance == null) {
+            instance = new PrecompiledUIConfig();
+        }
+        return instance;
+    }
+
+    /**
+     * Read a precompiled configuration.
+     *
+     * @param resourceName the resource name relative to the ui resource folder
+     * @param classToParse the expected class
+     * @return a new copy of the configuration, null if not available or out of date
+     */
+    public Object read(String resourceName, Class<?> classToParse) {
+        PrecompiledEntry entry = getEntryMap().get(resourceName);
+        if (entry == null) {
+            return null;
+        }
+
+        byte[] source = readResource(UI_RESOURCE_FOLDER + resourceName);
+        if ((source == null) || (checksum(source) != entry.checksum)) {
+            logger.debug("Precompiled configuration out of date : " + resourceName);
+            return null;
+        }
+
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(entry.data))) {
+            Object obj = ois.readObject();
+            if (classToParse.isInstance(obj)) {
+                return obj;
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            logger.debug("Failed to read precompiled configuration : " + resourceName, e);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the precompiled entries, read from the precompiled resource the first time.
+     *
+     * @return the entry map
+     */
+    private synchronized Map<String, PrecompiledEntry> getEntryMap() {
+        if (entryMap == null) {
+            entryMap = Collections.emptyMap();
+
+            InputStream inputStream =
+                    PrecompiledUIConfig.class.getResourceAsStream(PRECOMPILED_RESOURCE);
+            if (inputStream != null) {
+                try (DataInputStream dis =
+                        new DataInputStream(
+                                new BufferedInputStream(new GZIPInputStream(inputStream)))) {
+                    entryMap = readEntries(dis);
+                } catch (IOException e) {
+                    logger.debug("Failed to read precompiled configuration", e);
+                }
+            }
+        }
+        return entryMap;
+    }
+
+    /**
+     * Read the precompiled entries.
+     *
+     * @param dis the input stream
+     * @return the entry map
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static Map<String, PrecompiledEntry> readEntries(DataInputStream dis)
+            throws IOException {
+        Map<String, PrecompiledEntry> map = new HashMap<>();
+        if (dis.readInt() != FORMAT_VERSION) {
+            return map;
+        }
+
+        int count = dis.readInt();
+        for (int index = 0; index < count; index++) {
+            String resourceName = dis.readUTF();
+            long checksum = dis.readLong();
+            byte[] data = new byte[dis.readInt()];
+            dis.readFully(data);
+
+            map.put(resourceName, new PrecompiledEntry(checksum, data));
+        }
+        return map;
+    }
+
+    /**
+     * Validate and precompile all the configuration files in a folder.
+     *
+     * @param uiFolder the folder containing the configuration files
+     * @param outputFile the precompiled output file
+     * @return the number of configuration files precompiled
+     * @throws IOException Signals that an I/O exception has occurred, or a configuration file is
+     *     not valid
+     */
+    public static int compile(File uiFolder, File outputFile) throws IOException {
+        Path rootPath = uiFolder.toPath();
+        List<Path> fileList = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(rootPath)) {
+            stream.filter(p -> p.toString().endsWith(XML_FILE_EXTENSION)).forEach(fileList::add);
+        }
+        Collections.sort(fileList);
+
+        JAXBContext rootContext = null;
+        try {
+            rootContext = JAXBContext.newInstance(schemaMap.keySet().toArray(new Class<?>[0]));
+        } catch (JAXBException e) {
+            throw new IOException(e);
+        }
+
+        Map<String, PrecompiledEntry> map = new LinkedHashMap<>();
+        List<String> invalidList = new ArrayList<>();
+        for (Path path : fileList) {
+            String resourceName = rootPath.relativize(path).toString().replace('\\', '/');
+            byte[] source = Files.readAllBytes(path);
+
+            Class<?> rootClass = null;
+            try {
+                rootClass =
+                        rootContext
+                                .createUnmarshaller()
+                                .unmarshal(new ByteArrayInputStream(source))
+                                .getClass();
+            } catch (JAXBException e) {
+                invalidList.add(resourceName);
+                continue;
+            }
+
+            String schemaResource = schemaMap.get(rootClass);
+            Object obj =
+                    ParseXML.parse(
+                            new ByteArrayInputStream(source),
+                            UI_RESOURCE_FOLDER + resourceName,
+                            schemaResource,
+                            rootClass);
+            if (obj == null) {
+                invalidList.add(resourceName);
+                continue;
+            }
+
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                oos.writeObject(obj);
+            }
+            map.put(resourceName, new PrecompiledEntry(checksum(source), bos.toByteArray()));
+        }
+
+        if (!invalidList.isEmpty()) {
+            throw new IOException("Invalid configuration files : " + invalidList);
+        }
+
+        File parentFolder = outputFile.getParentFile();
+        if (parentFolder != null) {
+            parentFolder.mkdirs();
+        }
+
+        try (DataOutputStream dos =
+                new DataOutputStream(
+                        new BufferedOutputStream(
+                                new GZIPOutputStream(new FileOutputStream(outputFile))))) {
+            dos.writeInt(FORMAT_VERSION);
+            dos.writeInt(map.size());
+            for (Map.Entry<String, PrecompiledEntry> entry : map.entrySet()) {
+                dos.writeUTF(entry.getKey());
+                dos.writeLong(entry.getValue().checksum);
+                dos.writeInt(entry.getValue().data.length);
+                dos.write(entry.getValue().data);
+            }
+        }
+        return map.size();
+    }
+
+    /**
+     * Read a resource.
+     *
+     * @param resourceName the resource name
+     * @return the resource contents, null if the resource does not exist
+     */
+    private static byte[] readResource(String resourceName) {
+        try (InputStream inputStream =
+                PrecompiledUIConfig.class.getResourceAsStream(resourceName)) {
+            if (inputStream == null) {
+                return null;
+            }
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                bos.write(buffer, 0, bytesRead);
+            }
+            return bos.toByteArray();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Calculate the checksum of the data.
+     *
+     * @param data the data
+     * @return the checksum
+     */
+    private static long checksum(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return crc.getValue();
+    }
+
+    /**
+     * The main method, precompiles the user interface configuration files.
+     *
+     * @param args the arguments, the folder containing the configuration files and the output file
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage : PrecompiledUIConfig <ui folder> <output file>");
+            return;
+        }
+
+        int count = compile(new File(args[0]), new File(args[1]));
+        System.out.println("Precompiled " + count + " configuration files to " + args[1]);
+    }
+}
@@ -153,6 +153,17 @@ public class FileSystemNodeManager {
         }
     }
 
+    /**
+     * Node changed, e.g. the node icon has been updated.
+     *
+     * @param node the node
+     */
+    public static void nodeChanged(DefaultMutableTreeNode node) {
+        if (fileSystemTreeComponent != null) {
+            ((DefaultTreeModel) fileSystemTreeComponent.getModel()).nodeChanged(node);
+        }
+    }
+
     /**
      * Node removed.
      *
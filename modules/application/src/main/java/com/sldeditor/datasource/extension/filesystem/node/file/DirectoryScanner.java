@@ -0,0 +1,309 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.extension.filesystem.node.file;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.utils.ExternalFilenames;
+import java.io.IOException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+
+/**
+ * Scans the contents of file system folders for the file system tree.
+ *
+ * <p>The attributes of each entry are read in a single call, entries are sorted once with a
+ * comparator, folders first and then alphabetically ignoring case. Scans can be performed on a
+ * background thread with the results delivered on the event dispatch thread.
+ *
+ * <p>Class is implemented as a singleton.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class DirectoryScanner {
+
+    /** The Constant MAX_THREADS. */
+    private static final int MAX_THREADS = 2;
+
+    /** The singleton instance. */
+    private static DirectoryScanner instance = null;
+
+    /** The thread counter. */
+    private static final AtomicInteger threadCounter = new AtomicInteger(1);
+
+    /** The comparator used to sort folder contents, folders first then by name. */
+    public static final Comparator<DirectoryEntry> ENTRY_COMPARATOR =
+            new Comparator<DirectoryEntry>() {
+                @Override
+                public int compare(DirectoryEntry o1, DirectoryEntry o2) {
+                    if (o1.isDirectory() != o2.isDirectory()) {
+                        return o1.isDirectory() ? -1 : 1;
+                    }
+                    return o1.getName().compareToIgnoreCase(o2.getName());
+                }
+            };
+
+    /** The executor. */
+    private ExecutorService executor = null;
+
+    /** A file or folder found in a folder. */
+    public static class DirectoryEntry {
+
+        /** The name. */
+        private final String name;
+
+        /** The directory flag. */
+        private final boolean directory;
+
+        /** The contents of the folder, null if not scanned. */
+        private List<DirectoryEntry> childEntryList = null;
+
+        /**
+         * Instantiates a new directory entry.
+         *
+         * @param name the name
+         * @param directory the directory flag
+         */
+        public DirectoryEntry(String name, boolean directory) {
+            this.name = name;
+            this.directory = directory;
+        }
+
+        /**
+         * Gets the name.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Checks if is directory.
+         *
+         * @return true, if is directory
+         */
+        public boolean isDirectory() {
+            return directory;
+        }
+
+        /**
+         * Gets the contents of the folder.
+         *
+         * @return the child entry list, null if not scanned
+         */
+        public List<DirectoryEntry> getChildEntryList() {
+            return childEntryList;
+        }
+    }
+
+    /** Interface called on the event dispatch thread when a background scan completes. */
+    public interface ScanCompleteInterface {
+
+        /**
+         * Scan complete.
+         *
+         * @param entryList the sorted folder contents
+         */
+        void scanComplete(List<DirectoryEntry> entryList);
+    }
+
+    /** Instantiates a new directory scanner. */
+    private DirectoryScanner() {
+        executor =
+                Executors.newFixedThreadPool(
+                        MAX_THREADS,
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                Thread thread =
+                                        new Thread(
+                                                r,
+                                                "SLDEditor-DirectoryScanner-"
+                                                        + threadCounter.getAndIncrement());
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+    }
+
+    /**
+     * Gets the single instance of DirectoryScanner.
+     *
+     * @return single instance of DirectoryScanner
+     */
+    public static synchronized DirectoryScanner getInstance() {
+        if (instance == null) {
+            instance = new DirectoryScanner();
+        }
+        return instance;
+    }
+
+    /**
+     * Scan a folder on a background thread, the sub-folders are also scanned to find out whether
+     * they have contents.
+     *
+     * @param folder the folder
+     * @param fileExtensions the file extensions to include
+     * @param listener the listener informed on the event dispatch thread
+     */
+    public void scanInBackground(
+            final Path folder,
+            final Collection<String> fileExtensions,
+            final ScanCompleteInterface listener) {
+        executor.execute(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        final List<DirectoryEntry> entryList = scan(folder, fileExtensions, true);
+
+                        SwingUtilities.invokeLater(
+                                new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        listener.scanComplete(entryList);
+                                    }
+                                });
+                    }
+                });
+    }
+
+    /**
+     * Scan a folder.
+     *
+     * @param folder the folder
+     * @param fileExtensions the file extensions to include
+     * @param descend if true all the folder contents are returned and each sub-folder is scanned
+     *     until its first sub-folder is found, if false scanning stops at the first sub-folder
+     * @return the sorted folder contents
+     */
+    public static List<DirectoryEntry> scan(
+            Path folder, Collection<String> fileExtensions, boolean descend) {
+        List<DirectoryEntry> entryList = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+            for (Path localPath : stream) {
+                Path filename = localPath.getFileName();
+                if (filename == null) {
+                    continue;
+                }
+
+                BasicFileAttributes attributes = readAttributes(localPath);
+                if (attributes == null) {
+                    continue;
+                }
+
+                String name = filename.toString();
+                if (attributes.isDirectory()) {
+                    DirectoryEntry entry = new DirectoryEntry(name, true);
+                    entryList.add(entry);
+
+                    if (!descend) {
+                        // Only need to know that there is a sub-folder
+                        break;
+                    }
+                    entry.childEntryList = scan(localPath, fileExtensions, false);
+                } else if (attributes.isRegularFile() && validFile(name, fileExtensions)) {
+                    entryList.add(new DirectoryEntry(name, false));
+                }
+            }
+        } catch (AccessDeniedException | NotDirectoryException | NoSuchFileException e) {
+            // Ignore
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(DirectoryScanner.class, e);
+        }
+
+        Collections.sort(entryList, ENTRY_COMPARATOR);
+
+        return entryList;
+    }
+
+    /**
+     * Read a single file or folder, a folder is scanned until its first sub-folder is found.
+     *
+     * @param path the path of the file or folder
+     * @param fileExtensions the file extensions to include
+     * @return the directory entry, null if the path does not exist or is not a valid file
+     */
+    public static DirectoryEntry readEntry(Path path, Collection<String> fileExtensions) {
+        Path filename = (path == null) ? null : path.getFileName();
+        if (filename == null) {
+            return null;
+        }
+
+        BasicFileAttributes attributes = readAttributes(path);
+        if (attributes == null) {
+            return null;
+        }
+
+        String name = filename.toString();
+        if (attributes.isDirectory()) {
+            DirectoryEntry entry = new DirectoryEntry(name, true);
+            entry.childEntryList = scan(path, fileExtensions, false);
+            return entry;
+        } else if (attributes.isRegularFile() && validFile(name, fileExtensions)) {
+            return new DirectoryEntry(name, false);
+        }
+        return null;
+    }
+
+    /**
+     * Read the attributes of a file or folder.
+     *
+     * @param path the path
+     * @return the attributes, null if they could not be read
+     */
+    private static BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException | SecurityException e) {
+            // Ignore phantoms or access problems
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the file has one of the supplied file extensions.
+     *
+     * @param filename the filename
+     * @param fileExtensions the file extensions
+     * @return true, if successful
+     */
+    private static boolean validFile(String filename, Collection<String> fileExtensions) {
+        if (fileExtensions == null) {
+            return false;
+        }
+        return fileExtensions.contains(ExternalFilenames.getFileExtension(filename));
+    }
+}
@@ -20,28 +20,36 @@
 package com.sldeditor.datasource.extension.filesystem.node.file;
 
 import com.sldeditor.common.NodeInterface;
-import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.data.SLDData;
+import com.sldeditor.common.data.StyleWrapper;
 import com.sldeditor.common.filesystem.FileSystemInterface;
+import com.sldeditor.common.preferences.PrefManager;
 import com.sldeditor.common.utils.ExternalFilenames;
+import com.sldeditor.common.watcher.FileChangeSet;
 import com.sldeditor.common.watcher.FileSystemWatcher;
-import com.sldeditor.common.watcher.FileWatcherUpdateInterface;
+import com.sldeditor.common.watcher.FileWatcherChangeSetInterface;
 import com.sldeditor.datasource.extension.filesystem.dataflavour.BuiltInDataFlavour;
 import com.sldeditor.datasource.extension.filesystem.dataflavour.DataFlavourManager;
 import com.sldeditor.datasource.extension.filesystem.node.FileSystemNodeManager;
+import com.sldeditor.render.ThumbnailService;
+import com.sldeditor.render.ThumbnailSourceInterface;
+import com.sldeditor.render.ThumbnailUpdateInterface;
 import java.awt.datatransfer.DataFlavor;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.file.AccessDeniedException;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
-import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.swing.Icon;
+import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileSystemView;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
@@ -52,11 +60,20 @@ import javax.swing.tree.DefaultTreeModel;
  * @author Robert Ward (SCISYS)
  */
 public class FileTreeNode extends DefaultMutableTreeNode
-        implements NodeInterface, FileWatcherUpdateInterface {
+        implements NodeInterface,
+                FileWatcherChangeSetInterface,
+                ThumbnailSourceInterface,
+                ThumbnailUpdateInterface {
 
     /** The Constant serialVersionUID. */
     private static final long serialVersionUID = 9156830446596206479L;
 
+    /** The Constant PUBLISH_BATCH_SIZE, number of child nodes published to the tree at once. */
+    private static final int PUBLISH_BATCH_SIZE = 500;
+
+    /** The Constant SLD_FILE_EXTENSION, files displayed with a style thumbnail. */
+    private static final String SLD_FILE_EXTENSION = "sld";
+
     /** The file handler map. */
     private static Map<String, FileHandlerInterface> fileHandlerMap = null;
 
@@ -92,6 +109,12 @@ public class FileTreeNode extends DefaultMutableTreeNode
     /** The file watcher set flag. */
     private boolean fileWatcherSet = false;
 
+    /** The inspected flag, true once the file handler has been asked about the file. */
+    private boolean inspected = false;
+
+    /** The scanning flag, true while the folder contents are scanned in the background. */
+    private transient boolean scanning = false;
+
     /**
      * Instantiates a new file tree node.
      *
@@ -128,7 +151,7 @@ public class FileTreeNode extends DefaultMutableTreeNode
 
         setUserObject(this.name);
 
-        if (isDir()) {
+        if (isDirFlag) {
             FileSystemWatcher.getInstance().addWatch(this, pathPath);
             fileWatcherSet = true;
         }
@@ -158,6 +181,21 @@ public class FileTreeNode extends DefaultMutableTreeNode
         setUserObject(this.name);
     }
 
+    /**
+     * Instantiates a new file tree node from a scanned directory entry, the file system is not
+     * accessed.
+     *
+     * @param parent the parent
+     * @param entry the scanned directory entry
+     */
+    private FileTreeNode(Path parent, DirectoryScanner.DirectoryEntry entry) {
+        this.name = entry.getName();
+        path = Paths.get(parent.toString(), name).toString();
+        isDirFlag = entry.isDirectory();
+
+        setUserObject(this.name);
+    }
+
     /**
      * Checks if is leaf.
      *
@@ -165,6 +203,7 @@ public class FileTreeNode extends DefaultMutableTreeNode
      */
     @Override
     public boolean isLeaf() {
+        inspectFile();
         return !isDirFlag;
     }
 
@@ -193,88 +232,250 @@ public class FileTreeNode extends DefaultMutableTreeNode
         if (!isRoot || (isRoot && descend)) {
             // Do this only once
             if (!populated) {
-                if (interim) {
-                    // We have had a quick look here before:
-                    // remove the dummy node that we added last time
-                    removeAllChildren();
-                    interim = false;
-                }
+                List<DirectoryScanner.DirectoryEntry> entryList =
+                        DirectoryScanner.scan(Paths.get(path), getFileExtensions(), descend);
+
+                addedNodes = populate(entryList, descend);
+            }
+        }
+        return addedNodes;
+    }
+
+    /**
+     * Populate the folder contents on a background thread, the child nodes are published to the
+     * tree model in batches on the event dispatch thread.
+     *
+     * @return true, if a background scan was started
+     */
+    public boolean populateInBackground() {
+        if (populated || scanning || (treeModel == null)) {
+            return false;
+        }
 
-                // Get list of contents
-                List<Path> names = new ArrayList<>();
+        scanning = true;
+        DirectoryScanner.getInstance()
+                .scanInBackground(
+                        Paths.get(path),
+                        getFileExtensions(),
+                        new DirectoryScanner.ScanCompleteInterface() {
+                            @Override
+                            public void scanComplete(
+                                    List<DirectoryScanner.DirectoryEntry> entryList) {
+                                scanning = false;
+                                if (!populated) {
+                                    publish(entryList);
+                                }
+                            }
+                        });
+        return true;
+    }
 
-                DirectoryStream<Path> stream = null;
-                try {
-                    Path pathPath = Paths.get(path);
-                    stream = Files.newDirectoryStream(pathPath);
+    /**
+     * Checks if the folder contents are being scanned in the background.
+     *
+     * @return true, if is scanning
+     */
+    public boolean isScanning() {
+        return scanning;
+    }
 
-                    if (stream != null) {
-                        for (Path localPath : stream) {
-                            names.add(localPath.getFileName());
+    /**
+     * Publish the scanned folder contents to the tree model in batches.
+     *
+     * @param entryList the sorted folder contents
+     */
+    private void publish(final List<DirectoryScanner.DirectoryEntry> entryList) {
+        populated = true;
+        interim = false;
+        addWatch();
+
+        removeAllChildNodes();
+        int batchEnd = Math.min(entryList.size(), PUBLISH_BATCH_SIZE);
+        addEntries(entryList.subList(0, batchEnd));
+        treeModel.nodeStructureChanged(this);
+
+        publishBatch(entryList, batchEnd);
+    }
+
+    /**
+     * Publish the next batch of child nodes, the remaining batches are queued on the event dispatch
+     * thread so that the user interface remains responsive.
+     *
+     * @param entryList the sorted folder contents
+     * @param batchStart the index of the first entry of the batch
+     */
+    private void publishBatch(
+            final List<DirectoryScanner.DirectoryEntry> entryList, final int batchStart) {
+        if (batchStart >= entryList.size()) {
+            return;
+        }
+
+        SwingUtilities.invokeLater(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        if (getChildCount() != batchStart) {
+                            // Folder contents have changed since the last batch, merge the rest
+                            mergeEntries(entryList.subList(batchStart, entryList.size()));
+                            return;
                         }
-                    }
-                } catch (AccessDeniedException e) {
-                    // Access was denied
-                } catch (NotDirectoryException e) {
-                    // Ignore
-                } catch (IOException e) {
-                    ConsoleManager.getInstance().exception(this, e);
-                } finally {
-                    try {
-                        if (stream != null) {
-                            stream.close();
+
+                        int batchEnd = Math.min(entryList.size(), batchStart + PUBLISH_BATCH_SIZE);
+                        addEntries(entryList.subList(batchStart, batchEnd));
+
+                        int[] childIndices = new int[batchEnd - batchStart];
+                        for (int index = 0; index < childIndices.length; index++) {
+                            childIndices[index] = batchStart + index;
                         }
-                    } catch (IOException e) {
-                        ConsoleManager.getInstance().exception(this, e);
+                        treeModel.nodesWereInserted(FileTreeNode.this, childIndices);
+
+                        publishBatch(entryList, batchEnd);
                     }
+                });
+    }
+
+    /**
+     * Merge scanned entries into a folder whose contents have changed, entries already present are
+     * skipped.
+     *
+     * @param entryList the entry list
+     */
+    private void mergeEntries(List<DirectoryScanner.DirectoryEntry> entryList) {
+        Set<String> existingSet = new HashSet<>();
+        for (int index = 0; index < getChildCount(); index++) {
+            existingSet.add(((FileTreeNode) getChildAt(index)).name);
+        }
+
+        Path pathPath = Paths.get(path);
+        for (DirectoryScanner.DirectoryEntry entry : entryList) {
+            if (!existingSet.contains(entry.getName())) {
+                FileTreeNode node = new FileTreeNode(pathPath, entry);
+                insertSorted(node);
+                if (entry.getChildEntryList() != null) {
+                    node.populate(entry.getChildEntryList(), false);
                 }
+            }
+        }
+        treeModel.nodeStructureChanged(this);
+    }
 
-                // Process the directories
-                for (Path filename : names) {
-                    Path d = Paths.get(path, filename.toString());
-                    try {
-                        if (d.toFile().isDirectory()) {
-                            addFolder(descend, filename.toString());
+    /**
+     * Populate the node from the scanned folder contents.
+     *
+     * @param entryList the sorted folder contents
+     * @param descend the descend flag
+     * @return true, if sub-folders were found
+     */
+    private boolean populate(List<DirectoryScanner.DirectoryEntry> entryList, boolean descend) {
+        if (interim) {
+            // We have had a quick look here before:
+            // remove the dummy node that we added last time
+            removeAllChildNodes();
+            interim = false;
+        }
 
-                            addedNodes = true;
+        boolean addedNodes = addEntries(entryList);
 
-                            if (!descend) {
-                                // Only add one node if not descending
-                                break;
-                            }
-                        } else if (d.toFile().isFile()) {
-                            if (validFile(filename.toString())) {
-                                addFile(filename.toString());
-                            }
-                        }
-                    } catch (Exception e) {
-                        // Ignore phantoms or access problems
-                    }
-                }
+        // If we were scanning to get all sub-directories,
+        // or if we found no sub-directories, there is no
+        // reason to look at this directory again, so
+        // set populated to true. Otherwise, we set interim
+        // so that we look again in the future if we need to
+        if (descend || !addedNodes) {
+            populated = true;
+            addWatch();
+        } else {
+            // Just set interim state
+            interim = true;
+        }
+        return addedNodes;
+    }
 
-                // If we were scanning to get all sub-directories,
-                // or if we found no sub-directories, there is no
-                // reason to look at this directory again, so
-                // set populated to true. Otherwise, we set interim
-                // so that we look again in the future if we need to
-                if (descend || !addedNodes) {
-                    populated = true;
-
-                    if (isDir() && !fileWatcherSet) {
-                        Path pathPath = Paths.get(path);
-                        FileSystemWatcher.getInstance().addWatch(this, pathPath);
-                        fileWatcherSet = true;
-                    }
+    /**
+     * Adds child nodes for the scanned entries, the entries are already sorted.
+     *
+     * @param entryList the entry list
+     * @return true, if sub-folders were added
+     */
+    private boolean addEntries(List<DirectoryScanner.DirectoryEntry> entryList) {
+        boolean addedNodes = false;
+        Path pathPath = Paths.get(path);
 
-                } else {
-                    // Just set interim state
-                    interim = true;
+        for (DirectoryScanner.DirectoryEntry entry : entryList) {
+            FileTreeNode node = new FileTreeNode(pathPath, entry);
+            this.add(node);
+
+            if (entry.isDirectory()) {
+                addedNodes = true;
+                if (entry.getChildEntryList() != null) {
+                    node.populate(entry.getChildEntryList(), false);
                 }
             }
         }
         return addedNodes;
     }
 
+    /**
+     * Adds the file system watch for this folder if not already set. The folder and its immediate
+     * sub-folders are watched, the sub-folders are populated when this folder is expanded so their
+     * changes are passed on to the child nodes.
+     */
+    private void addWatch() {
+        if (isDirFlag && !fileWatcherSet) {
+            Path pathPath = Paths.get(path);
+            FileSystemWatcher.getInstance().addRecursiveWatch(this, pathPath, 1);
+            fileWatcherSet = true;
+        }
+    }
+
+    /** Release the file system watches held by this node and all its child nodes. */
+    public void releaseWatch() {
+        for (int index = 0; index < getChildCount(); index++) {
+            if (getChildAt(index) instanceof FileTreeNode) {
+                ((FileTreeNode) getChildAt(index)).releaseWatch();
+            }
+        }
+
+        if (fileWatcherSet) {
+            FileSystemWatcher.getInstance().removeWatch(this);
+            fileWatcherSet = false;
+        }
+    }
+
+    /** Removes all the child nodes, releasing their file system watches. */
+    private void removeAllChildNodes() {
+        for (int index = 0; index < getChildCount(); index++) {
+            if (getChildAt(index) instanceof FileTreeNode) {
+                ((FileTreeNode) getChildAt(index)).releaseWatch();
+            }
+        }
+        removeAllChildren();
+    }
+
+    /**
+     * The folder has been collapsed. The contents of the sub-folders are discarded, and their file
+     * system watches released, they are read again when the sub-folders are next expanded.
+     */
+    public void collapsed() {
+        boolean changed = false;
+        for (int index = 0; index < getChildCount(); index++) {
+            if (getChildAt(index) instanceof FileTreeNode) {
+                FileTreeNode childNode = (FileTreeNode) getChildAt(index);
+                if (childNode.isDirFlag && (childNode.populated || childNode.interim)) {
+                    childNode.removeAllChildNodes();
+                    childNode.releaseWatch();
+                    childNode.populated = false;
+                    childNode.interim = false;
+                    changed = true;
+                }
+            }
+        }
+
+        if (changed && (treeModel != null)) {
+            treeModel.nodeStructureChanged(this);
+        }
+    }
+
     /**
      * Adds the folder.
      *
@@ -286,7 +487,7 @@ public class FileTreeNode extends DefaultMutableTreeNode
     private FileTreeNode addFolder(boolean descend, String name) throws FileNotFoundException {
         Path pathPath = Paths.get(path);
         FileTreeNode node = new FileTreeNode(pathPath, name);
-        this.add(node);
+        insertSorted(node);
         if (descend) {
             node.populateDirectories(false);
         }
@@ -304,14 +505,24 @@ public class FileTreeNode extends DefaultMutableTreeNode
         Path pathPath = Paths.get(path);
 
         FileTreeNode node = new FileTreeNode(pathPath, name);
-        this.add(node);
+        insertSorted(node);
 
-        FileHandlerInterface handler = fileHandlerMap.get(ExternalFilenames.getFileExtension(name));
-        if ((handler != null) && handler.populate(inputInterface, treeModel, node)) {
-            node.isDirFlag = true;
+        return node;
+    }
+
+    /**
+     * Ask the file handler about the file, only done once and only when the information is needed.
+     */
+    private void inspectFile() {
+        if (inspected || isDirFlag || (fileHandlerMap == null)) {
+            return;
         }
+        inspected = true;
 
-        return node;
+        FileHandlerInterface handler = fileHandlerMap.get(ExternalFilenames.getFileExtension(name));
+        if ((handler != null) && handler.populate(inputInterface, treeModel, this)) {
+            isDirFlag = true;
+        }
     }
 
     /**
@@ -329,6 +540,15 @@ public class FileTreeNode extends DefaultMutableTreeNode
         return false;
     }
 
+    /**
+     * Gets the file extensions supported by the file handlers.
+     *
+     * @return the file extensions
+     */
+    private static Set<String> getFileExtensions() {
+        return (fileHandlerMap == null) ? null : fileHandlerMap.keySet();
+    }
+
     /**
      * Sets the file handler map.
      *
@@ -422,6 +642,7 @@ public class FileTreeNode extends DefaultMutableTreeNode
      * @return true, if is dir
      */
     public boolean isDir() {
+        inspectFile();
         return isDirFlag;
     }
 
@@ -458,8 +679,6 @@ public class FileTreeNode extends DefaultMutableTreeNode
             try {
                 FileTreeNode nodeAdded = addFile(filename);
 
-                sort(this);
-
                 int index = this.getIndex(nodeAdded);
                 FileSystemNodeManager.nodeAdded(this, index);
             } catch (Exception e) {
@@ -481,49 +700,46 @@ public class FileTreeNode extends DefaultMutableTreeNode
         } catch (Exception e) {
             // Ignore phantoms or access problems
         }
-        sort(this);
+        if (nodeAdded == null) {
+            return;
+        }
         int index = this.getIndex(nodeAdded);
         FileSystemNodeManager.nodeAdded(this, index);
     }
 
     /**
-     * Sort child nodes alphabetically.
+     * Insert the child node at its sorted position, folders first and then alphabetically.
      *
-     * @param node the node
+     * @param node the node to insert
      */
-    private static void sort(DefaultMutableTreeNode node) {
-        // sort alphabetically
-        for (int i = 0; i < node.getChildCount() - 1; i++) {
-            DefaultMutableTreeNode child = (DefaultMutableTreeNode) node.getChildAt(i);
-            String nt = child.getUserObject().toString();
-
-            for (int j = i + 1; j <= node.getChildCount() - 1; j++) {
-                DefaultMutableTreeNode prevNode = (DefaultMutableTreeNode) node.getChildAt(j);
-                String np = prevNode.getUserObject().toString();
-
-                if (nt.compareToIgnoreCase(np) > 0) {
-                    node.insert(child, j);
-                    node.insert(prevNode, i);
-                }
-            }
-
-            if (child.getChildCount() > 0) {
-                sort(child);
+    private void insertSorted(FileTreeNode node) {
+        int low = 0;
+        int high = getChildCount() - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            FileTreeNode childNode = (FileTreeNode) getChildAt(mid);
+            if (compare(childNode, node) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
             }
         }
+        insert(node, low);
+    }
 
-        // Put folders first - normal on Windows and some flavours of Linux but not on Mac OS X.
-        for (int i = 0; i < node.getChildCount() - 1; i++) {
-            DefaultMutableTreeNode child = (DefaultMutableTreeNode) node.getChildAt(i);
-            for (int j = i + 1; j <= node.getChildCount() - 1; j++) {
-                DefaultMutableTreeNode prevNode = (DefaultMutableTreeNode) node.getChildAt(j);
-
-                if (!prevNode.isLeaf() && child.isLeaf()) {
-                    node.insert(child, j);
-                    node.insert(prevNode, i);
-                }
-            }
+    /**
+     * Compare two nodes, folders first and then alphabetically ignoring case.
+     *
+     * @param node1 the first node
+     * @param node2 the second node
+     * @return the comparison result
+     */
+    private static int compare(FileTreeNode node1, FileTreeNode node2) {
+        if (node1.isDirFlag != node2.isDirFlag) {
+            return node1.isDirFlag ? -1 : 1;
         }
+        return node1.name.compareToIgnoreCase(node2.name);
     }
 
     /**
@@ -553,6 +769,7 @@ public class FileTreeNode extends DefaultMutableTreeNode
                     FileTreeNode childNode = (FileTreeNode) this.getChildAt(childIndex);
 
                     if (childNode.name.compareTo(filename) == 0) {
+                        childNode.releaseWatch();
                         this.remove(childIndex);
                         FileSystemNodeManager.nodeRemoved(this, childIndex, childNode);
                         break;
@@ -562,6 +779,207 @@ public class FileTreeNode extends DefaultMutableTreeNode
         }
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.watcher.FileWatcherChangeSetInterface#filesChanged(com.sldeditor.common.watcher.FileChangeSet)
+     */
+    @Override
+    public void filesChanged(final FileChangeSet changeSet) {
+        SwingUtilities.invokeLater(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        FileTreeNode node = getChangedNode(changeSet.getFolder());
+                        if (node != null) {
+                            node.applyChanges(changeSet);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Gets the node for the folder that has changed, either this folder or one of its sub-folders
+     * that does not have its own file system watch.
+     *
+     * @param folder the folder
+     * @return the node, null if the folder is not shown by this node
+     */
+    private FileTreeNode getChangedNode(Path folder) {
+        Path pathPath = Paths.get(path);
+        if (pathPath.equals(folder)) {
+            return this;
+        }
+
+        if ((folder != null) && pathPath.equals(folder.getParent())) {
+            for (int index = 0; index < getChildCount(); index++) {
+                if (getChildAt(index) instanceof FileTreeNode) {
+                    FileTreeNode childNode = (FileTreeNode) getChildAt(index);
+                    if (!childNode.fileWatcherSet && folder.endsWith(childNode.name)) {
+                        return childNode;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Apply the folder changes to the child nodes. If the watcher lost events the folder is
+     * rescanned. The tree model is informed of the removed and inserted nodes in one event each.
+     *
+     * @param changeSet the change set
+     */
+    private void applyChanges(FileChangeSet changeSet) {
+        if (!populated) {
+            // Folder contents will be read when the folder is expanded
+            return;
+        }
+
+        Set<String> existingSet = new HashSet<>();
+        for (int index = 0; index < getChildCount(); index++) {
+            existingSet.add(((FileTreeNode) getChildAt(index)).name);
+        }
+
+        Set<String> removeSet = new HashSet<>();
+        List<DirectoryScanner.DirectoryEntry> addList = new ArrayList<>();
+
+        if (changeSet.isOverflow()) {
+            List<DirectoryScanner.DirectoryEntry> entryList =
+                    DirectoryScanner.scan(Paths.get(path), getFileExtensions(), true);
+
+            Set<String> scannedSet = new HashSet<>();
+            for (DirectoryScanner.DirectoryEntry entry : entryList) {
+                scannedSet.add(entry.getName());
+                if (!existingSet.contains(entry.getName())) {
+                    addList.add(entry);
+                }
+            }
+
+            for (String existing : existingSet) {
+                if (!scannedSet.contains(existing)) {
+                    removeSet.add(existing);
+                }
+            }
+            invalidateThumbnails(existingSet);
+        } else {
+            Set<String> modifiedSet = new HashSet<>();
+            for (Path modified : changeSet.getModified()) {
+                Path localPath = modified.getFileName();
+                if (localPath != null) {
+                    modifiedSet.add(localPath.toString());
+                }
+            }
+            invalidateThumbnails(modifiedSet);
+
+            for (Path deleted : changeSet.getDeleted()) {
+                Path localPath = deleted.getFileName();
+                if (localPath != null) {
+                    removeSet.add(localPath.toString());
+                }
+            }
+
+            for (Path added : changeSet.getAdded()) {
+                DirectoryScanner.DirectoryEntry entry =
+                        DirectoryScanner.readEntry(added, getFileExtensions());
+                if ((entry != null) && !existingSet.contains(entry.getName())) {
+                    addList.add(entry);
+                }
+            }
+        }
+
+        removeChildren(removeSet);
+        insertChildren(addList);
+    }
+
+    /**
+     * Invalidate the thumbnails of the named child nodes so they are rendered again.
+     *
+     * @param nameSet the names of the child nodes
+     */
+    private void invalidateThumbnails(Set<String> nameSet) {
+        for (int index = 0; index < getChildCount(); index++) {
+            FileTreeNode childNode = (FileTreeNode) getChildAt(index);
+            if (nameSet.contains(childNode.name)) {
+                String thumbnailId = childNode.getThumbnailId();
+                if (thumbnailId != null) {
+                    ThumbnailService.getInstance().invalidate(thumbnailId);
+                    if (treeModel != null) {
+                        treeModel.nodeChanged(childNode);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the named child nodes.
+     *
+     * @param removeSet the names of the child nodes to remove
+     */
+    private void removeChildren(Set<String> removeSet) {
+        if (removeSet.isEmpty()) {
+            return;
+        }
+
+        List<Integer> indexList = new ArrayList<>();
+        List<FileTreeNode> nodeList = new ArrayList<>();
+        for (int index = 0; index < getChildCount(); index++) {
+            FileTreeNode childNode = (FileTreeNode) getChildAt(index);
+            if (removeSet.contains(childNode.name)) {
+                indexList.add(index);
+                nodeList.add(childNode);
+            }
+        }
+
+        if (indexList.isEmpty()) {
+            return;
+        }
+
+        int[] childIndices = new int[indexList.size()];
+        for (int index = indexList.size() - 1; index >= 0; index--) {
+            childIndices[index] = indexList.get(index);
+            nodeList.get(index).releaseWatch();
+            remove(childIndices[index]);
+        }
+
+        if (treeModel != null) {
+            treeModel.nodesWereRemoved(this, childIndices, nodeList.toArray());
+        }
+    }
+
+    /**
+     * Inserts child nodes for the entries at their sorted positions.
+     *
+     * @param addList the entries to add
+     */
+    private void insertChildren(List<DirectoryScanner.DirectoryEntry> addList) {
+        if (addList.isEmpty()) {
+            return;
+        }
+
+        Path pathPath = Paths.get(path);
+        List<FileTreeNode> nodeList = new ArrayList<>();
+        for (DirectoryScanner.DirectoryEntry entry : addList) {
+            FileTreeNode node = new FileTreeNode(pathPath, entry);
+            insertSorted(node);
+            if (entry.getChildEntryList() != null) {
+                node.populate(entry.getChildEntryList(), false);
+            }
+            nodeList.add(node);
+        }
+
+        int[] childIndices = new int[nodeList.size()];
+        for (int index = 0; index < childIndices.length; index++) {
+            childIndices[index] = getIndex(nodeList.get(index));
+        }
+        Arrays.sort(childIndices);
+
+        if (treeModel != null) {
+            treeModel.nodesWereInserted(this, childIndices);
+        }
+    }
+
     /**
      * Gets the destination text.
      *
@@ -578,6 +996,7 @@ public class FileTreeNode extends DefaultMutableTreeNode
      * @return the fileCategory
      */
     public FileTreeNodeTypeEnum getFileCategory() {
+        inspectFile();
         return fileCategory;
     }
 
@@ -597,7 +1016,13 @@ public class FileTreeNode extends DefaultMutableTreeNode
      */
     @Override
     public Icon getIcon() {
+        inspectFile();
         if (!isDirFlag) {
+            Icon thumbnail = ThumbnailService.getInstance().getThumbnail(this, this);
+            if (thumbnail != null) {
+                return thumbnail;
+            }
+
             FileHandlerInterface handler =
                     fileHandlerMap.get(ExternalFilenames.getFileExtension(name));
             if (handler != null) {
@@ -610,4 +1035,56 @@ public class FileTreeNode extends DefaultMutableTreeNode
 
         return null;
     }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.render.ThumbnailSourceInterface#getThumbnailId()
+     */
+    @Override
+    public String getThumbnailId() {
+        if (isDirFlag || !SLD_FILE_EXTENSION.equals(ExternalFilenames.getFileExtension(name))) {
+            return null;
+        }
+        return path;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.render.ThumbnailSourceInterface#getLastModified()
+     */
+    @Override
+    public long getLastModified() {
+        return getFile().lastModified();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.render.ThumbnailSourceInterface#readSLDData()
+     */
+    @Override
+    public SLDDataInterface readSLDData() throws IOException {
+        File file = getFile();
+        byte[] encoded = Files.readAllBytes(file.toPath());
+        String sldContents =
+                new String(encoded, PrefManager.getInstance().getPrefData().getFileEncoding());
+
+        SLDDataInterface sldData = new SLDData(new StyleWrapper(name), sldContents);
+        sldData.setSLDFile(file);
+        return sldData;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.render.ThumbnailUpdateInterface#thumbnailAvailable(javax.swing.Icon)
+     */
+    @Override
+    public void thumbnailAvailable(Icon thumbnail) {
+        if (treeModel != null) {
+            treeModel.nodeChanged(this);
+        }
+    }
 }
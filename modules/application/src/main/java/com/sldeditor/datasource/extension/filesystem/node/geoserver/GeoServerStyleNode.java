@@ -20,11 +20,20 @@
 package com.sldeditor.datasource.extension.filesystem.node.geoserver;
 
 import com.sldeditor.common.NodeInterface;
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.connection.GeoServerConnectionManager;
 import com.sldeditor.common.data.GeoServerConnection;
+import com.sldeditor.common.data.SLDData;
 import com.sldeditor.common.data.StyleWrapper;
 import com.sldeditor.common.filesystem.FileSystemInterface;
 import com.sldeditor.datasource.extension.filesystem.dataflavour.BuiltInDataFlavour;
+import com.sldeditor.datasource.extension.filesystem.node.FileSystemNodeManager;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerClientInterface;
+import com.sldeditor.render.ThumbnailService;
+import com.sldeditor.render.ThumbnailSourceInterface;
+import com.sldeditor.render.ThumbnailUpdateInterface;
 import java.awt.datatransfer.DataFlavor;
+import java.io.IOException;
 import javax.swing.Icon;
 import javax.swing.tree.DefaultMutableTreeNode;
 
@@ -33,7 +42,11 @@ import javax.swing.tree.DefaultMutableTreeNode;
  *
  * @author Robert Ward (SCISYS)
  */
-public class GeoServerStyleNode extends DefaultMutableTreeNode implements NodeInterface {
+public class GeoServerStyleNode extends DefaultMutableTreeNode
+        implements NodeInterface, ThumbnailSourceInterface, ThumbnailUpdateInterface {
+
+    /** The Constant THUMBNAIL_ID_PREFIX. */
+    private static final String THUMBNAIL_ID_PREFIX = "geoserver|";
 
     /** The connection data. */
     private GeoServerConnection connectData = null;
@@ -110,8 +123,77 @@ public class GeoServerStyleNode extends DefaultMutableTreeNode implements NodeIn
         return null;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.NodeInterface#getIcon()
+     */
     @Override
     public Icon getIcon() {
-        return null;
+        return ThumbnailService.getInstance().getThumbnail(this, this);
+    }
+
+    /**
+     * Gets the prefix of the thumbnail identifiers of the styles read from a GeoServer.
+     *
+     * @param connectData the connect data
+     * @return the thumbnail identifier prefix
+     */
+    public static String getThumbnailIdPrefix(GeoServerConnection connectData) {
+        return THUMBNAIL_ID_PREFIX + connectData.getConnectionName() + "|";
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.render.ThumbnailSourceInterface#getThumbnailId()
+     */
+    @Override
+    public String getThumbnailId() {
+        return getThumbnailIdPrefix(connectData) + style.getWorkspace() + "|" + style.getStyle();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.render.ThumbnailSourceInterface#getLastModified()
+     */
+    @Override
+    public long getLastModified() {
+        // GeoServer does not report when a style was modified, the content hash is used
+        return 0L;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.render.ThumbnailSourceInterface#readSLDData()
+     */
+    @Override
+    public SLDDataInterface readSLDData() throws IOException {
+        GeoServerClientInterface client =
+                GeoServerConnectionManager.getInstance().getConnectionMap().get(connectData);
+        if (client == null) {
+            return null;
+        }
+
+        String sldContent = client.getStyle(style);
+        if (sldContent == null) {
+            return null;
+        }
+
+        SLDDataInterface sldData = new SLDData(style, sldContent);
+        sldData.setConnectionData(connectData);
+        return sldData;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.render.ThumbnailUpdateInterface#thumbnailAvailable(javax.swing.Icon)
+     */
+    @Override
+    public void thumbnailAvailable(Icon thumbnail) {
+        FileSystemNodeManager.nodeChanged(this);
     }
 }
@@ -33,6 +33,7 @@ import com.sldeditor.datasource.chooseraster.ChooseRasterFormatPanel;
 import com.sldeditor.datasource.chooseraster.DetermineRasterFormat;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -104,7 +105,7 @@ public class CreateExternalDataSource implements CreateDataSourceInterface {
 
             DataStore dataStore = null;
             try {
-                dataStore = DataStoreFinder.getDataStore(map);
+                dataStore = findDataStore(map);
 
                 if (dataStore != null) {
                     // Try connecting to a vector data source
@@ -113,6 +114,19 @@ public class CreateExternalDataSource implements CreateDataSourceInterface {
                     // Try connecting to a raster data source
                     connectToRasterDataSource(map);
                 }
+            } catch (InterruptedIOException e) {
+                ConsoleManager.getInstance()
+                        .information(
+                                this,
+                                Localisation.getString(
+                                        CreateExternalDataSource.class,
+                                        "CreateExternalDataSource.cancelled"));
+                if (dataStore != null) {
+                    dataStore.dispose();
+                    dataStore = null;
+                }
+                dsInfo.reset();
+                return dataSourceInfoList;
             } catch (IOException e) {
                 ConsoleManager.getInstance().exception(this, e);
             }
@@ -132,6 +146,64 @@ public class CreateExternalDataSource implements CreateDataSourceInterface {
         return dataSourceInfoList;
     }
 
+    /**
+     * Find the data store matching the connection properties, the connection is made away from the
+     * event dispatch thread.
+     *
+     * @param map the connection properties
+     * @return the data store, null if no data store matches
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private DataStore findDataStore(final Map<String, Object> map) throws IOException {
+        return DataSourceLoader.getInstance()
+                .load(
+                        Localisation.getString(
+                                CreateExternalDataSource.class,
+                                "CreateExternalDataSource.connecting"),
+                        new DataSourceLoadTask<DataStore>() {
+                            @Override
+                            public DataStore load() throws IOException {
+                                return DataStoreFinder.getDataStore(map);
+                            }
+
+                            @Override
+                            public void discard(DataStore result) {
+                                if (result != null) {
+                                    result.dispose();
+                                }
+                            }
+                        });
+    }
+
+    /**
+     * Read the schema of a feature type, the schema is read away from the event dispatch thread.
+     *
+     * @param typeName the type name
+     * @param dataStore the data store
+     * @return the schema
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private SimpleFeatureType readSchema(final String typeName, final DataStore dataStore)
+            throws IOException {
+        return DataSourceLoader.getInstance()
+                .load(
+                        Localisation.getString(
+                                CreateExternalDataSource.class,
+                                "CreateExternalDataSource.readingSchema"),
+                        new DataSourceLoadTask<SimpleFeatureType>() {
+                            @Override
+                            public SimpleFeatureType load() throws IOException {
+                                SimpleFeatureSource source = dataStore.getFeatureSource(typeName);
+                                return source.getSchema();
+                            }
+
+                            @Override
+                            public void discard(SimpleFeatureType result) {
+                                // Nothing to release
+                            }
+                        });
+    }
+
     /**
      * Connect to raster data source.
      *
@@ -165,8 +237,10 @@ public class CreateExternalDataSource implements CreateDataSourceInterface {
             throws IOException {
         dsInfo.setTypeName(typeName);
 
-        SimpleFeatureSource source = dataStore.getFeatureSource(typeName);
-        SimpleFeatureType schema = source.getSchema();
+        // Extents cached from an earlier connection may be out of date if not watched for changes
+        DataSourceLoader.getInstance().clearBounds(dataStore);
+
+        SimpleFeatureType schema = readSchema(typeName, dataStore);
 
         if (schema.getCoordinateReferenceSystem() == null) {
             // No crs found to set a default and reload
@@ -182,8 +256,7 @@ public class CreateExternalDataSource implements CreateDataSourceInterface {
                     shapeFileDatastore.forceSchemaCRS(crs);
                 }
 
-                source = dataStore.getFeatureSource(typeName);
-                schema = source.getSchema();
+                schema = readSchema(typeName, dataStore);
             }
         }
         dsInfo.setSchema(schema);
@@ -0,0 +1,48 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.impl;
+
+import java.io.IOException;
+
+/**
+ * The interface DataSourceLoadTask, a slow data source operation run in the background by the
+ * {@link DataSourceLoader}.
+ *
+ * @param <T> the type of the result
+ * @author Robert Ward (SCISYS)
+ */
+public interface DataSourceLoadTask<T> {
+
+    /**
+     * Perform the operation, called on a background thread.
+     *
+     * @return the result
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    T load() throws IOException;
+
+    /**
+     * Discard a result that arrived after the operation was cancelled, e.g. dispose of a data
+     * store.
+     *
+     * @param result the result
+     */
+    void discard(T result);
+}
@@ -0,0 +1,637 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.datasource.impl;
+
+import com.sldeditor.common.Controller;
+import com.sldeditor.common.watcher.FileChangeSet;
+import com.sldeditor.common.watcher.FileSystemWatcher;
+import com.sldeditor.common.watcher.FileWatcherChangeSetInterface;
+import java.awt.GraphicsEnvironment;
+import java.awt.SecondaryLoop;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import org.apache.log4j.Logger;
+import org.geotools.data.DataAccess;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.Query;
+import org.geotools.data.ServiceInfo;
+import org.geotools.feature.FeatureIterator;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.GeometryDescriptor;
+
+/**
+ * The Class DataSourceLoader, performs slow data source operations away from the event dispatch
+ * thread.
+ *
+ * <p>Operations started on the event dispatch thread run on a background thread while the event
+ * dispatch thread continues to process events, a progress dialog allows the user to cancel the
+ * operation. Operations started on any other thread are run directly. While an operation started on
+ * the event dispatch thread is in progress further operations started on the event dispatch thread,
+ * e.g. by events processed while waiting, are refused as if they had been cancelled.
+ *
+ * <p>The extent of feature sources are cached for each connection. The extent is read from the data
+ * source header or metadata where available, otherwise it is estimated from a sample of the
+ * features spread through the data source so that a data source without a cached extent is never
+ * read in full. Cached extents of files are invalidated when the file watcher reports a change,
+ * other cached extents when the data source is connected again.
+ *
+ * <p>Class is implemented as a singleton.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class DataSourceLoader implements FileWatcherChangeSetInterface {
+
+    /** The Constant SAMPLE_SIZE, the number of features read to estimate an extent. */
+    private static final int SAMPLE_SIZE = 1000;
+
+    /** The Constant SAMPLE_PAGES, the number of places in the data source a sample is read from. */
+    private static final int SAMPLE_PAGES = 10;
+
+    /** The Constant POLL_INTERVAL, milliseconds between checks for completion. */
+    private static final int POLL_INTERVAL = 100;
+
+    /** The Constant MILLIS_TO_POPUP, the time before the progress dialog is displayed. */
+    private static final int MILLIS_TO_POPUP = 500;
+
+    /** The Constant RUNNING, the state of an operation in progress. */
+    private static final int RUNNING = 0;
+
+    /** The Constant COMPLETED, the state of an operation that completed before being cancelled. */
+    private static final int COMPLETED = 1;
+
+    /** The Constant CANCELLED, the state of an operation cancelled before completing. */
+    private static final int CANCELLED = 2;
+
+    /** The logger. */
+    private static Logger logger = Logger.getLogger(DataSourceLoader.class);
+
+    /** The singleton instance. */
+    private static DataSourceLoader instance = null;
+
+    /** The thread counter. */
+    private static final AtomicInteger threadCounter = new AtomicInteger(1);
+
+    /** The executor. */
+    private ExecutorService executor = null;
+
+    /** The in progress flag, only accessed on the event dispatch thread. */
+    private boolean inProgress = false;
+
+    /** The extent of each feature source, keyed by connection and type name. */
+    private Map<String, CachedBounds> boundsCache = new ConcurrentHashMap<>();
+
+    /** A cached extent. */
+    private static class CachedBounds {
+
+        /** The extent. */
+        private final ReferencedEnvelope bounds;
+
+        /** The file the feature source is read from, null if not read from a file. */
+        private final Path sourceFile;
+
+        /**
+         * Instantiates a new cached extent.
+         *
+         * @param bounds the extent
+         * @param sourceFile the source file
+         */
+        CachedBounds(ReferencedEnvelope bounds, Path sourceFile) {
+            this.bounds = bounds;
+            this.sourceFile = sourceFile;
+        }
+    }
+
+    /** An extent estimated from a sample of the features, features may lie outside it. */
+    private static class EstimatedEnvelope extends ReferencedEnvelope {
+
+        /** The Constant serialVersionUID. */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Instantiates a new estimated envelope.
+         *
+         * @param bounds the extent of the sampled features
+         */
+        EstimatedEnvelope(ReferencedEnvelope bounds) {
+            super(bounds);
+        }
+    }
+
+    /**
+     * Gets the single instance of DataSourceLoader.
+     *
+     * @return single instance of DataSourceLoader
+     */
+    public static synchronized DataSourceLoader getInstance() {
+        if (instance == null) {
+            instance = new DataSourceLoader();
+        }
+        return instance;
+    }
+
+    /** Instantiates a new data source loader. */
+    private DataSourceLoader() {
+        executor =
+                Executors.newCachedThreadPool(
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                String name =
+                                        "SLDEditor-DataSourceLoader-"
+                                                + threadCounter.getAndIncrement();
+                                Thread thread = new Thread(r, name);
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+    }
+
+    /**
+     * Perform a slow data source operation. When called on the event dispatch thread the operation
+     * runs in the background, events continue to be processed and a progress dialog is displayed if
+     * the operation takes a while. An operation started on the event dispatch thread while another
+     * is in progress is refused.
+     *
+     * @param <T> the type of the result
+     * @param message the message displayed in the progress dialog
+     * @param task the task
+     * @return the result
+     * @throws InterruptedIOException if the user cancelled the operation or another operation is in
+     *     progress
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public <T> T load(String message, final DataSourceLoadTask<T> task) throws IOException {
+        if (!SwingUtilities.isEventDispatchThread() || GraphicsEnvironment.isHeadless()) {
+            return task.load();
+        }
+
+        if (inProgress) {
+            logger.debug(message + " refused, another data source operation is in progress");
+            throw new InterruptedIOException(message);
+        }
+
+        inProgress = true;
+        try {
+            return loadInBackground(message, task);
+        } finally {
+            inProgress = false;
+        }
+    }
+
+    /**
+     * Perform a slow data source operation on a background thread, events are processed on the
+     * event dispatch thread until the operation completes or is cancelled.
+     *
+     * @param <T> the type of the result
+     * @param message the message displayed in the progress dialog
+     * @param task the task
+     * @return the result
+     * @throws InterruptedIOException if the user cancelled the operation
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private <T> T loadInBackground(String message, final DataSourceLoadTask<T> task)
+            throws IOException {
+        // Whichever of completion and cancellation happens first wins
+        final AtomicInteger state = new AtomicInteger(RUNNING);
+        final Future<T> future =
+                executor.submit(
+                        new Callable<T>() {
+                            @Override
+                            public T call() throws IOException {
+                                T result = task.load();
+                                if (!state.compareAndSet(RUNNING, COMPLETED)) {
+                                    task.discard(result);
+                                }
+                                return result;
+                            }
+                        });
+
+        final AtomicBoolean cancelled = new AtomicBoolean(false);
+        final SecondaryLoop loop =
+                Toolkit.getDefaultToolkit().getSystemEventQueue().createSecondaryLoop();
+        final ProgressMonitor progressMonitor =
+                new ProgressMonitor(Controller.getInstance().getFrame(), message, null, 0, 1);
+        progressMonitor.setMillisToDecideToPopup(POLL_INTERVAL);
+        progressMonitor.setMillisToPopup(MILLIS_TO_POPUP);
+
+        Timer timer =
+                new Timer(
+                        POLL_INTERVAL,
+                        new ActionListener() {
+                            @Override
+                            public void actionPerformed(ActionEvent e) {
+                                if (progressMonitor.isCanceled()) {
+                                    cancelled.set(true);
+                                    loop.exit();
+                                } else if (future.isDone()) {
+                                    loop.exit();
+                                } else {
+                                    progressMonitor.setProgress(0);
+                                }
+                            }
+                        });
+        timer.start();
+        loop.enter();
+        timer.stop();
+        progressMonitor.close();
+
+        if (cancelled.get()) {
+            // The result is discarded by the background thread if it has not finished yet
+            if (!state.compareAndSet(RUNNING, CANCELLED)) {
+                discardResult(task, future);
+            }
+            throw new InterruptedIOException(message);
+        }
+        return getResult(future);
+    }
+
+    /**
+     * Discard the result of a completed operation.
+     *
+     * @param <T> the type of the result
+     * @param task the task
+     * @param future the future
+     */
+    private static <T> void discardResult(DataSourceLoadTask<T> task, Future<T> future) {
+        try {
+            task.discard(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Operation failed, nothing to discard
+        }
+    }
+
+    /**
+     * Gets the result of a completed operation.
+     *
+     * @param <T> the type of the result
+     * @param future the future
+     * @return the result
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static <T> T getResult(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Gets the extent of a feature source in its native coordinate reference system. Slow
+     * operation, call on a background thread.
+     *
+     * @param featureSource the feature source
+     * @param cancelled set to stop reading features when estimating the extent
+     * @return the extent, null if not known or cancelled. An extent estimated from a sample of the
+     *     features is identified by {@link #isEstimated(ReferencedEnvelope)}.
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public ReferencedEnvelope getBounds(
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource, AtomicBoolean cancelled)
+            throws IOException {
+        if (featureSource == null) {
+            return null;
+        }
+
+        URI source = getSource(featureSource.getDataStore());
+        String key = (source == null) ? null : getConnectionKey(source, featureSource);
+        if (key != null) {
+            CachedBounds cachedBounds = boundsCache.get(key);
+            if (cachedBounds != null) {
+                return cachedBounds.bounds;
+            }
+        }
+
+        // Data source header or metadata, null if too expensive to calculate
+        ReferencedEnvelope bounds = featureSource.getBounds();
+
+        if ((bounds == null) || bounds.isNull()) {
+            bounds = estimateBounds(featureSource, cancelled);
+        }
+
+        if ((key != null) && (bounds != null) && !cancelled.get()) {
+            Path sourceFile = getSourceFile(source);
+            boundsCache.put(key, new CachedBounds(bounds, sourceFile));
+
+            if (sourceFile != null) {
+                FileSystemWatcher.getInstance().addWatch(this, sourceFile.getParent());
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Checks if an extent was estimated from a sample of the features, features may lie outside an
+     * estimated extent.
+     *
+     * @param bounds the extent
+     * @return true, if the extent is estimated
+     */
+    public static boolean isEstimated(ReferencedEnvelope bounds) {
+        return bounds instanceof EstimatedEnvelope;
+    }
+
+    /**
+     * Estimate the extent of a feature source from a sample of its features.
+     *
+     * @param featureSource the feature source
+     * @param cancelled set to stop reading features
+     * @return the extent, null if cancelled or the feature source has no geometry
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private ReferencedEnvelope estimateBounds(
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource, AtomicBoolean cancelled)
+            throws IOException {
+        SimpleFeatureType schema = featureSource.getSchema();
+        GeometryDescriptor geometryDescriptor = schema.getGeometryDescriptor();
+        if (geometryDescriptor == null) {
+            return null;
+        }
+
+        Query query = new Query(schema.getTypeName());
+        query.setPropertyNames(new String[] {geometryDescriptor.getLocalName()});
+
+        List<Query> queryList = createSampleQueries(featureSource, query, SAMPLE_SIZE);
+        ReferencedEnvelope bounds = new ReferencedEnvelope(schema.getCoordinateReferenceSystem());
+        int count = 0;
+        for (Query sampleQuery : queryList) {
+            try (FeatureIterator<SimpleFeature> iterator =
+                    featureSource.getFeatures(sampleQuery).features()) {
+                while (iterator.hasNext()) {
+                    if (cancelled.get()) {
+                        return null;
+                    }
+
+                    Object geometry = iterator.next().getDefaultGeometry();
+                    if (geometry instanceof Geometry) {
+                        bounds.expandToInclude(((Geometry) geometry).getEnvelopeInternal());
+                    }
+                    count++;
+                }
+            }
+        }
+
+        logger.debug(
+                String.format("Estimated extent of %s from %d features", schema.getName(), count));
+        if (bounds.isNull()) {
+            return null;
+        }
+
+        // Every feature was read if a single query returned fewer features than requested
+        boolean complete = (queryList.size() == 1) && (count < SAMPLE_SIZE);
+        return complete ? bounds : new EstimatedEnvelope(bounds);
+    }
+
+    /**
+     * Creates the queries reading a sample of a feature source. Where the feature source supports
+     * paging the sample is read from pages spread evenly through the data source, otherwise the
+     * first features are read.
+     *
+     * @param featureSource the feature source
+     * @param query the query the sample is read with
+     * @param sampleSize the maximum number of features to read
+     * @return the queries
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static List<Query> createSampleQueries(
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource,
+            Query query,
+            int sampleSize)
+            throws IOException {
+        // Count is -1 when it is too expensive to calculate
+        int count = featureSource.getCount(query);
+        int pageSize = sampleSize / SAMPLE_PAGES;
+
+        if ((count <= sampleSize)
+                || (pageSize == 0)
+                || !featureSource.getQueryCapabilities().isOffsetSupported()) {
+            Query sampleQuery = new Query(query);
+            sampleQuery.setMaxFeatures(sampleSize);
+            return Collections.singletonList(sampleQuery);
+        }
+
+        List<Query> queryList = new ArrayList<>();
+        for (int page = 0; page < SAMPLE_PAGES; page++) {
+            Query sampleQuery = new Query(query);
+            sampleQuery.setStartIndex((int) (((long) page * count) / SAMPLE_PAGES));
+            sampleQuery.setMaxFeatures(pageSize);
+            queryList.add(sampleQuery);
+        }
+        return queryList;
+    }
+
+    /**
+     * Gets the source identifying the connection of a data store.
+     *
+     * @param dataAccess the data store
+     * @return the source, null if the connection can not be identified
+     */
+    private static URI getSource(DataAccess<SimpleFeatureType, SimpleFeature> dataAccess) {
+        if (dataAccess == null) {
+            return null;
+        }
+
+        ServiceInfo info = dataAccess.getInfo();
+        return (info == null) ? null : info.getSource();
+    }
+
+    /**
+     * Gets the key identifying the connection and type of a feature source.
+     *
+     * @param source the source identifying the connection
+     * @param featureSource the feature source
+     * @return the connection key
+     */
+    private static String getConnectionKey(
+            URI source, FeatureSource<SimpleFeatureType, SimpleFeature> featureSource) {
+        return source.toString() + "#" + featureSource.getName();
+    }
+
+    /**
+     * Gets the file a connection reads from.
+     *
+     * @param source the source identifying the connection
+     * @return the file, null if the connection does not read from a file
+     */
+    private static Path getSourceFile(URI source) {
+        if (!"file".equals(source.getScheme())) {
+            return null;
+        }
+
+        try {
+            Path sourceFile = Paths.get(source).toAbsolutePath();
+            return (sourceFile.getParent() == null) ? null : sourceFile;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Invalidate the cached extents of a connection that are not watched for changes, called when
+     * the data source is connected again.
+     *
+     * @param dataAccess the data store
+     */
+    public void clearBounds(DataAccess<SimpleFeatureType, SimpleFeature> dataAccess) {
+        URI source = getSource(dataAccess);
+        if (source == null) {
+            return;
+        }
+
+        String prefix = source.toString() + "#";
+        Iterator<Map.Entry<String, CachedBounds>> iterator = boundsCache.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CachedBounds> entry = iterator.next();
+            if ((entry.getValue().sourceFile == null) && entry.getKey().startsWith(prefix)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /** Clear the cached extents, e.g. when data sources have been modified. */
+    public void clearBoundsCache() {
+        boundsCache.clear();
+    }
+
+    /**
+     * Invalidate the cached extents of the files changed in a folder. A data source may be made up
+     * of several files sharing a name, e.g. the .shp, .shx and .dbf files of a shapefile.
+     *
+     * @param folder the folder
+     * @param changedList the changed files, null if every file in the folder may have changed
+     */
+    private void invalidateBounds(Path folder, List<Path> changedList) {
+        List<String> changedNameList = new ArrayList<>();
+        if (changedList != null) {
+            for (Path changed : changedList) {
+                changedNameList.add(getBaseName(changed));
+            }
+        }
+
+        Iterator<CachedBounds> iterator = boundsCache.values().iterator();
+        while (iterator.hasNext()) {
+            Path sourceFile = iterator.next().sourceFile;
+            if ((sourceFile != null)
+                    && sourceFile.getParent().equals(folder)
+                    && ((changedList == null)
+                            || changedNameList.contains(getBaseName(sourceFile)))) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Gets the name of a file without any extensions.
+     *
+     * @param path the path
+     * @return the base name
+     */
+    private static String getBaseName(Path path) {
+        String name = path.getFileName().toString();
+        int index = name.indexOf('.');
+        return (index > 0) ? name.substring(0, index) : name;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.watcher.FileWatcherChangeSetInterface#filesChanged(com.sldeditor.common.watcher.FileChangeSet)
+     */
+    @Override
+    public void filesChanged(FileChangeSet changeSet) {
+        if (changeSet.isOverflow()) {
+            invalidateBounds(changeSet.getFolder(), null);
+        } else {
+            List<Path> changedList = new ArrayList<>(changeSet.getAdded());
+            changedList.addAll(changeSet.getModified());
+            changedList.addAll(changeSet.getDeleted());
+            invalidateBounds(changeSet.getFolder(), changedList);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.watcher.FileWatcherUpdateInterface#fileAdded(java.nio.file.Path)
+     */
+    @Override
+    public void fileAdded(Path f) {
+        invalidateBounds(f.getParent(), Collections.singletonList(f));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.watcher.FileWatcherUpdateInterface#fileModified(java.nio.file.Path)
+     */
+    @Override
+    public void fileModified(Path f) {
+        invalidateBounds(f.getParent(), Collections.singletonList(f));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.watcher.FileWatcherUpdateInterface#fileDeleted(java.nio.file.Path)
+     */
+    @Override
+    public void fileDeleted(Path f) {
+        invalidateBounds(f.getParent(), Collections.singletonList(f));
+    }
+}
@@ -217,7 +217,13 @@ public class FileSystemExtension
                      * TreeExpansionEvent)
                      */
                     public void treeCollapsed(TreeExpansionEvent evt) {
-                        // Nothing to do
+                        TreePath path = evt.getPath();
+
+                        Object selectedItem = path.getLastPathComponent();
+
+                        for (FileSystemInterface extension : extensionList) {
+                            extension.treeCollapsed(selectedItem);
+                        }
                     }
                 });
 
@@ -205,6 +205,16 @@ public class DatabaseInput
         return false;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.filesystem.FileSystemInterface#treeCollapsed(java.lang.Object)
+     */
+    @Override
+    public void treeCollapsed(Object selectedItem) {
+        // Do nothing
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -202,7 +202,10 @@ public class FileSystemInput implements FileSystemInterface {
             // Get the last component of the path and
             // arrange to have it fully populated.
             FileTreeNode node = (FileTreeNode) selectedItem;
-            if (node.populateDirectories(true)) {
+            if (node.populateInBackground()) {
+                // Tree model is updated when the folder scan completes
+                changed = false;
+            } else if (node.populateDirectories(true)) {
                 changed = true;
             }
         }
@@ -210,6 +213,19 @@ public class FileSystemInput implements FileSystemInterface {
         return changed;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.filesystem.FileSystemInterface#treeCollapsed(java.lang.Object)
+     */
+    @Override
+    public void treeCollapsed(Object selectedItem) {
+        if (selectedItem instanceof FileTreeNode) {
+            // Release the file system watches of the sub-folders that are no longer visible
+            ((FileTreeNode) selectedItem).collapsed();
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
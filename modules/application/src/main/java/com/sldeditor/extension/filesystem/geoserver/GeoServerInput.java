@@ -244,6 +244,16 @@ public class GeoServerInput
         return false;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.common.filesystem.FileSystemInterface#treeCollapsed(java.lang.Object)
+     */
+    @Override
+    public void treeCollapsed(Object selectedItem) {
+        // Do nothing
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -31,10 +31,13 @@ import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerNod
 import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerStyleHeadingNode;
 import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerStyleNode;
 import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerWorkspaceNode;
+import com.sldeditor.render.ThumbnailService;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeNode;
@@ -231,6 +234,10 @@ public class GeoServerReadProgress implements GeoServerReadProgressInterface {
     private void populateStyles(GeoServerConnection connection, GeoServerNode geoServerNode) {
         removeNode(geoServerNode, STYLES_NODE_TITLE);
 
+        // Styles may have changed on the server
+        ThumbnailService.getInstance()
+                .invalidate(GeoServerStyleNode.getThumbnailIdPrefix(connection));
+
         GeoServerStyleHeadingNode styleNode =
                 new GeoServerStyleHeadingNode(this.handler, connection, STYLES_NODE_TITLE);
         geoServerNode.add(styleNode);
@@ -270,6 +277,10 @@ public class GeoServerReadProgress implements GeoServerReadProgressInterface {
 
         workspaceNode.removeAllChildren();
 
+        // Styles may have changed on the server
+        ThumbnailService.getInstance()
+                .invalidate(GeoServerStyleNode.getThumbnailIdPrefix(connection));
+
         Map<String, List<StyleWrapper>> styleMap = geoServerStyleMap.get(connection);
 
         List<StyleWrapper> styleList = styleMap.get(workspaceNode.getWorkspaceName());
@@ -403,6 +414,157 @@ public class GeoServerReadProgress implements GeoServerReadProgressInterface {
         checkPopulateComplete(connection);
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgressInterface#
+     * readWorkspaceLayersComplete(com.sldeditor.common.data.GeoServerConnection, java.lang.String,
+     * java.util.List)
+     */
+    @Override
+    public void readWorkspaceLayersComplete(
+            GeoServerConnection connection, String workspaceName, List<GeoServerLayer> layerList) {
+        if ((connection == null) || (workspaceName == null) || (layerList == null)) {
+            return;
+        }
+
+        Map<String, List<GeoServerLayer>> layerMap = geoServerLayerMap.get(connection);
+        if (layerMap == null) {
+            layerMap = new LinkedHashMap<>();
+            geoServerLayerMap.put(connection, layerMap);
+        }
+
+        if (layerList.isEmpty()) {
+            layerMap.remove(workspaceName);
+        } else {
+            layerMap.put(workspaceName, layerList);
+        }
+
+        GeoServerNode geoServerNode = nodeMap.get(connection);
+
+        if ((geoServerNode != null) && (treeModel != null)) {
+            updateWorkspaceLayers(connection, geoServerNode, workspaceName, layerList);
+        }
+    }
+
+    /**
+     * Update the layer nodes of a workspace, only the layer nodes that have changed are inserted or
+     * removed so the rest of the tree keeps its expansion state.
+     *
+     * @param connection the connection
+     * @param geoServerNode the geo server node
+     * @param workspaceName the workspace name
+     * @param layerList the layers in the workspace
+     */
+    private void updateWorkspaceLayers(
+            GeoServerConnection connection,
+            GeoServerNode geoServerNode,
+            String workspaceName,
+            List<GeoServerLayer> layerList) {
+        DefaultMutableTreeNode layersNode = getNode(geoServerNode, LAYERS_NODE_TITLE);
+
+        if (layersNode == null) {
+            if (layerList.isEmpty()) {
+                return;
+            }
+            layersNode = new GeoServerLayerHeadingNode(this.handler, connection, LAYERS_NODE_TITLE);
+
+            // It is key to invoke this on the TreeModel, and NOT DefaultMutableTreeNode
+            treeModel.insertNodeInto(layersNode, geoServerNode, geoServerNode.getChildCount());
+        }
+
+        GeoServerWorkspaceNode workspaceNode = null;
+        for (int index = 0; index < layersNode.getChildCount(); index++) {
+            TreeNode node = layersNode.getChildAt(index);
+            if ((node instanceof GeoServerWorkspaceNode)
+                    && workspaceName.equals(((GeoServerWorkspaceNode) node).getWorkspaceName())) {
+                workspaceNode = (GeoServerWorkspaceNode) node;
+                break;
+            }
+        }
+
+        if (layerList.isEmpty()) {
+            if (workspaceNode != null) {
+                treeModel.removeNodeFromParent(workspaceNode);
+            }
+            return;
+        }
+
+        if (workspaceNode == null) {
+            workspaceNode =
+                    new GeoServerWorkspaceNode(this.handler, connection, workspaceName, false);
+
+            // It is key to invoke this on the TreeModel, and NOT DefaultMutableTreeNode
+            treeModel.insertNodeInto(workspaceNode, layersNode, layersNode.getChildCount());
+        }
+
+        // Remove the layers that no longer exist
+        for (int index = workspaceNode.getChildCount() - 1; index >= 0; index--) {
+            GeoServerLayer existingLayer = getLayer(workspaceNode.getChildAt(index));
+            boolean found = false;
+            for (GeoServerLayer layer : layerList) {
+                if (isSameLayer(existingLayer, layer)) {
+                    found = true;
+                    break;
+                }
+            }
+
+            if (!found) {
+                treeModel.removeNodeFromParent(
+                        (DefaultMutableTreeNode) workspaceNode.getChildAt(index));
+            }
+        }
+
+        // Insert the new layers in the order they are listed
+        for (int index = 0; index < layerList.size(); index++) {
+            GeoServerLayer layer = layerList.get(index);
+            if ((index >= workspaceNode.getChildCount())
+                    || !isSameLayer(getLayer(workspaceNode.getChildAt(index)), layer)) {
+                GeoServerLayerNode childNode = new GeoServerLayerNode(this.handler, layer);
+
+                // It is key to invoke this on the TreeModel, and NOT DefaultMutableTreeNode
+                treeModel.insertNodeInto(childNode, workspaceNode, index);
+            }
+        }
+
+        // Remove any layers left over after a reorder
+        while (workspaceNode.getChildCount() > layerList.size()) {
+            treeModel.removeNodeFromParent(
+                    (DefaultMutableTreeNode)
+                            workspaceNode.getChildAt(workspaceNode.getChildCount() - 1));
+        }
+    }
+
+    /**
+     * Gets the layer displayed by a tree node.
+     *
+     * @param node the node
+     * @return the layer, null if the node is not a layer node
+     */
+    private static GeoServerLayer getLayer(TreeNode node) {
+        if (node instanceof GeoServerLayerNode) {
+            return ((GeoServerLayerNode) node).getLayer();
+        }
+        return null;
+    }
+
+    /**
+     * Checks if two layers have the same name, workspace and style.
+     *
+     * @param layer1 the first layer
+     * @param layer2 the second layer
+     * @return true, if the layers are the same
+     */
+    private static boolean isSameLayer(GeoServerLayer layer1, GeoServerLayer layer2) {
+        if ((layer1 == null) || (layer2 == null)) {
+            return false;
+        }
+
+        return Objects.equals(layer1.getLayerWorkspace(), layer2.getLayerWorkspace())
+                && Objects.equals(layer1.getLayerName(), layer2.getLayerName())
+                && Objects.equals(layer1.getStyleString(), layer2.getStyleString());
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -69,6 +69,17 @@ public interface GeoServerReadProgressInterface {
     void readLayersComplete(
             GeoServerConnection connection, Map<String, List<GeoServerLayer>> layerMap);
 
+    /**
+     * Read the layers of a workspace complete, called as soon as all the layers in the workspace
+     * have been read. The layers shown for the workspace are replaced by the supplied layers.
+     *
+     * @param connection the connection
+     * @param workspaceName the workspace name
+     * @param layerList the layers in the workspace, empty if the workspace has no layers
+     */
+    void readWorkspaceLayersComplete(
+            GeoServerConnection connection, String workspaceName, List<GeoServerLayer> layerList);
+
     /**
      * Read layers progress.
      *
@@ -0,0 +1,366 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.extension.filesystem.geoserver.client;
+
+import com.sldeditor.common.data.GeoServerConnection;
+import com.sldeditor.common.data.GeoServerLayer;
+import com.sldeditor.common.data.StyleWrapper;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+/**
+ * The cached copy of a GeoServer catalogue, contains the styles and layers in each workspace and
+ * the REST resources, for example SLD bodies, read from the GeoServer instance.
+ *
+ * <p>Connection credentials are not stored, layers are re-attached to the connection when they are
+ * read from the cache.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GeoServerCatalogue implements Serializable {
+
+    /** The Constant serialVersionUID. */
+    private static final long serialVersionUID = 7169483540815284432L;
+
+    /** The cache key identifying the GeoServer instance. */
+    private String key = null;
+
+    /** The style map, workspace name to styles. */
+    private Map<String, List<StyleWrapper>> styleMap = new LinkedHashMap<>();
+
+    /** The layer map, workspace name to layers. */
+    private Map<String, List<CachedLayer>> layerMap = new LinkedHashMap<>();
+
+    /** The REST resources, keyed by path. */
+    private Map<String, CachedResource> resourceMap = new HashMap<>();
+
+    /**
+     * Instantiates a new GeoServer catalogue.
+     *
+     * @param key the cache key
+     */
+    public GeoServerCatalogue(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Gets the cache key.
+     *
+     * @return the key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets a copy of the style map.
+     *
+     * @return the style map
+     */
+    public synchronized Map<String, List<StyleWrapper>> getStyleMap() {
+        Map<String, List<StyleWrapper>> copy = new LinkedHashMap<>();
+
+        for (Entry<String, List<StyleWrapper>> entry : styleMap.entrySet()) {
+            List<StyleWrapper> styleList = new ArrayList<>();
+            for (StyleWrapper styleWrapper : entry.getValue()) {
+                styleList.add(new StyleWrapper(styleWrapper));
+            }
+            copy.put(entry.getKey(), styleList);
+        }
+        return copy;
+    }
+
+    /**
+     * Update the style map.
+     *
+     * @param updatedStyleMap the updated style map
+     * @param partial if true only the supplied workspaces are replaced, otherwise the whole style
+     *     map is replaced
+     */
+    public synchronized void updateStyleMap(
+            Map<String, List<StyleWrapper>> updatedStyleMap, boolean partial) {
+        if (updatedStyleMap == null) {
+            return;
+        }
+
+        if (!partial) {
+            styleMap.clear();
+        }
+
+        for (Entry<String, List<StyleWrapper>> entry : updatedStyleMap.entrySet()) {
+            List<StyleWrapper> styleList = new ArrayList<>();
+            if (entry.getValue() != null) {
+                for (StyleWrapper styleWrapper : entry.getValue()) {
+                    styleList.add(new StyleWrapper(styleWrapper));
+                }
+            }
+            styleMap.put(entry.getKey(), styleList);
+        }
+    }
+
+    /**
+     * Gets the layer map, the layers are attached to the supplied connection.
+     *
+     * @param connection the connection
+     * @return the layer map
+     */
+    public synchronized Map<String, List<GeoServerLayer>> getLayerMap(
+            GeoServerConnection connection) {
+        Map<String, List<GeoServerLayer>> copy = new LinkedHashMap<>();
+
+        for (Entry<String, List<CachedLayer>> entry : layerMap.entrySet()) {
+            List<GeoServerLayer> layerList = new ArrayList<>();
+            for (CachedLayer cachedLayer : entry.getValue()) {
+                GeoServerLayer layer = new GeoServerLayer();
+                layer.setLayerWorkspace(cachedLayer.workspace);
+                layer.setLayerName(cachedLayer.name);
+                layer.setStyle(new StyleWrapper(cachedLayer.styleWorkspace, cachedLayer.style));
+                layer.setConnection(connection);
+                layerList.add(layer);
+            }
+            copy.put(entry.getKey(), layerList);
+        }
+        return copy;
+    }
+
+    /**
+     * Update the layer map.
+     *
+     * @param updatedLayerMap the updated layer map
+     */
+    public synchronized void updateLayerMap(Map<String, List<GeoServerLayer>> updatedLayerMap) {
+        if (updatedLayerMap != null) {
+            layerMap = convertLayerMap(updatedLayerMap);
+        }
+    }
+
+    /**
+     * Checks if the supplied layers are the same as the cached layers.
+     *
+     * @param otherLayerMap the other layer map
+     * @return true, if the layers are the same
+     */
+    public synchronized boolean hasSameLayers(Map<String, List<GeoServerLayer>> otherLayerMap) {
+        if (otherLayerMap == null) {
+            return false;
+        }
+        return layerMap.equals(convertLayerMap(otherLayerMap));
+    }
+
+    /**
+     * Checks if the supplied layers are the same as the cached layers of a workspace.
+     *
+     * @param workspaceName the workspace name
+     * @param otherLayerList the other layer list
+     * @return true, if the layers are the same
+     */
+    public synchronized boolean hasSameLayers(
+            String workspaceName, List<GeoServerLayer> otherLayerList) {
+        List<CachedLayer> layerList = layerMap.get(workspaceName);
+        if ((layerList == null) || (otherLayerList == null)) {
+            return false;
+        }
+
+        List<CachedLayer> otherCachedLayerList = new ArrayList<>();
+        for (GeoServerLayer layer : otherLayerList) {
+            otherCachedLayerList.add(new CachedLayer(layer));
+        }
+        return layerList.equals(otherCachedLayerList);
+    }
+
+    /**
+     * Gets a cached REST resource.
+     *
+     * @param path the resource path
+     * @return the cached resource, null if not cached
+     */
+    public synchronized CachedResource getResource(String path) {
+        return resourceMap.get(path);
+    }
+
+    /**
+     * Store a REST resource.
+     *
+     * @param path the resource path
+     * @param resource the resource
+     */
+    public synchronized void putResource(String path, CachedResource resource) {
+        resourceMap.put(path, resource);
+    }
+
+    /**
+     * Removes a REST resource.
+     *
+     * @param path the resource path
+     * @return true, if the resource was cached
+     */
+    public synchronized boolean removeResource(String path) {
+        return (resourceMap.remove(path) != null);
+    }
+
+    /**
+     * Convert GeoServer layers to the cached form.
+     *
+     * @param geoServerLayerMap the GeoServer layer map
+     * @return the cached layer map
+     */
+    private static Map<String, List<CachedLayer>> convertLayerMap(
+            Map<String, List<GeoServerLayer>> geoServerLayerMap) {
+        Map<String, List<CachedLayer>> cachedLayerMap = new LinkedHashMap<>();
+
+        for (Entry<String, List<GeoServerLayer>> entry : geoServerLayerMap.entrySet()) {
+            List<CachedLayer> layerList = new ArrayList<>();
+            if (entry.getValue() != null) {
+                for (GeoServerLayer layer : entry.getValue()) {
+                    layerList.add(new CachedLayer(layer));
+                }
+            }
+            cachedLayerMap.put(entry.getKey(), layerList);
+        }
+        return cachedLayerMap;
+    }
+
+    /** A layer stored in the cache. */
+    private static class CachedLayer implements Serializable {
+
+        /** The Constant serialVersionUID. */
+        private static final long serialVersionUID = -3577367361935367412L;
+
+        /** The layer workspace. */
+        private String workspace = null;
+
+        /** The layer name. */
+        private String name = null;
+
+        /** The default style workspace. */
+        private String styleWorkspace = null;
+
+        /** The default style. */
+        private String style = null;
+
+        /**
+         * Instantiates a new cached layer.
+         *
+         * @param layer the GeoServer layer
+         */
+        CachedLayer(GeoServerLayer layer) {
+            workspace = layer.getLayerWorkspace();
+            name = layer.getLayerName();
+
+            StyleWrapper styleWrapper = layer.getStyle();
+            if (styleWrapper != null) {
+                styleWorkspace = styleWrapper.getWorkspace();
+                style = styleWrapper.getStyle();
+            }
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(workspace, name, styleWorkspace, style);
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CachedLayer)) {
+                return false;
+            }
+            CachedLayer other = (CachedLayer) obj;
+            return Objects.equals(workspace, other.workspace)
+                    && Objects.equals(name, other.name)
+                    && Objects.equals(styleWorkspace, other.styleWorkspace)
+                    && Objects.equals(style, other.style);
+        }
+    }
+
+    /** A REST resource stored in the cache with the validators used to refresh it. */
+    public static class CachedResource implements Serializable {
+
+        /** The Constant serialVersionUID. */
+        private static final long serialVersionUID = 2254468931760512815L;
+
+        /** The body. */
+        private String body = null;
+
+        /** The entity tag. */
+        private String entityTag = null;
+
+        /** The last modified date. */
+        private String lastModified = null;
+
+        /**
+         * Instantiates a new cached resource.
+         *
+         * @param body the body
+         * @param entityTag the entity tag, can be null
+         * @param lastModified the last modified date, can be null
+         */
+        public CachedResource(String body, String entityTag, String lastModified) {
+            this.body = body;
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Gets the body.
+         *
+         * @return the body
+         */
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * Gets the entity tag.
+         *
+         * @return the entity tag
+         */
+        public String getEntityTag() {
+            return entityTag;
+        }
+
+        /**
+         * Gets the last modified date.
+         *
+         * @return the last modified date
+         */
+        public String getLastModified() {
+            return lastModified;
+        }
+    }
+}
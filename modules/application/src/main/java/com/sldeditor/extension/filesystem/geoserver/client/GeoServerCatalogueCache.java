@@ -0,0 +1,456 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.extension.filesystem.geoserver.client;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.GeoServerConnection;
+import com.sldeditor.common.data.GeoServerLayer;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.common.property.PropertyManagerFactory;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogue.CachedResource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent on-disk cache of GeoServer catalogues.
+ *
+ * <p>The workspace, style and layer lists and the SLD bodies of each GeoServer instance are stored
+ * so that the tree can be shown immediately when a connection is opened. REST resources are
+ * refreshed using conditional requests, when GeoServer supplies an ETag or Last-Modified header the
+ * resource is only downloaded again if it has changed.
+ *
+ * <p>Changes are written to disk in the background. Class is implemented as a singleton.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GeoServerCatalogueCache {
+
+    /** The Constant CACHE_FOLDER. */
+    private static final String CACHE_FOLDER = "geoservercache";
+
+    /** The Constant CACHE_FILE_EXTENSION. */
+    private static final String CACHE_FILE_EXTENSION = ".cache";
+
+    /** The Constant SAVE_DELAY, time in milliseconds to wait before writing changes. */
+    private static final long SAVE_DELAY = 1000L;
+
+    /** The Constant TIMEOUT, connect and read timeout in milliseconds. */
+    private static final int TIMEOUT = 30000;
+
+    /** The Constant BUFFER_SIZE. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The singleton instance. */
+    private static GeoServerCatalogueCache instance = null;
+
+    /** The cache folder. */
+    private File cacheFolder = null;
+
+    /** The catalogues read or created, keyed by cache key. */
+    private Map<String, GeoServerCatalogue> catalogueMap = new HashMap<>();
+
+    /** The keys of the catalogues waiting to be written to disk. */
+    private Set<String> pendingSaveSet = new HashSet<>();
+
+    /** The executor that writes the catalogues to disk. */
+    private ScheduledExecutorService saveExecutor = null;
+
+    /**
+     * Gets the single instance of GeoServerCatalogueCache.
+     *
+     * @return single instance of GeoServerCatalogueCache
+     */
+    public static synchronized GeoServerCatalogueCache getInstance() {
+        if (instance == null) {
+            instance =
+                    new GeoServerCatalogueCache(
+                            new File(PropertyManagerFactory.getConfigFolder(), CACHE_FOLDER));
+        }
+        return instance;
+    }
+
+    /**
+     * Instantiates a new GeoServer catalogue cache.
+     *
+     * @param cacheFolder the folder the catalogues are stored in
+     */
+    public GeoServerCatalogueCache(File cacheFolder) {
+        this.cacheFolder = cacheFolder;
+
+        saveExecutor =
+                Executors.newSingleThreadScheduledExecutor(
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                Thread thread = new Thread(r, "SLDEditor-GeoServerCache");
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+    }
+
+    /**
+     * Gets the cached catalogue for the connection.
+     *
+     * @param connection the connection
+     * @return the catalogue, null if the GeoServer instance has not been cached
+     */
+    public synchronized GeoServerCatalogue getCatalogue(GeoServerConnection connection) {
+        String key = generateKey(connection);
+        if (key == null) {
+            return null;
+        }
+
+        GeoServerCatalogue catalogue = catalogueMap.get(key);
+        if (catalogue == null) {
+            catalogue = readCatalogue(key);
+            if (catalogue != null) {
+                catalogueMap.put(key, catalogue);
+            }
+        }
+        return catalogue;
+    }
+
+    /**
+     * Update the cached styles.
+     *
+     * @param connection the connection
+     * @param styleMap the style map
+     * @param partial if true only the supplied workspaces are replaced
+     */
+    public synchronized void updateStyles(
+            GeoServerConnection connection,
+            Map<String, List<StyleWrapper>> styleMap,
+            boolean partial) {
+        GeoServerCatalogue catalogue = getOrCreateCatalogue(connection);
+        if (catalogue != null) {
+            catalogue.updateStyleMap(styleMap, partial);
+            scheduleSave(catalogue.getKey());
+        }
+    }
+
+    /**
+     * Update the cached layers.
+     *
+     * @param connection the connection
+     * @param layerMap the layer map
+     */
+    public synchronized void updateLayers(
+            GeoServerConnection connection, Map<String, List<GeoServerLayer>> layerMap) {
+        GeoServerCatalogue catalogue = getOrCreateCatalogue(connection);
+        if (catalogue != null) {
+            catalogue.updateLayerMap(layerMap);
+            scheduleSave(catalogue.getKey());
+        }
+    }
+
+    /**
+     * Gets a REST resource, the cached copy is returned if GeoServer reports that it has not been
+     * modified. The cached copy is not used if GeoServer can not be reached as it may be stale.
+     *
+     * @param connection the connection
+     * @param path the path relative to the REST end point
+     * @return the resource body, null if not available or GeoServer could not be reached
+     */
+    public String getResource(GeoServerConnection connection, String path) {
+        GeoServerCatalogue catalogue = null;
+        synchronized (this) {
+            catalogue = getOrCreateCatalogue(connection);
+        }
+
+        if (catalogue == null) {
+            return null;
+        }
+
+        CachedResource cached = catalogue.getResource(path);
+        HttpURLConnection http = null;
+        try {
+            URL url = new URL(GeoServerCatalogueLoader.getRestUrl(connection) + path);
+            http = (HttpURLConnection) url.openConnection();
+            http.setConnectTimeout(TIMEOUT);
+            http.setReadTimeout(TIMEOUT);
+            http.setUseCaches(false);
+
+            if (connection.getUserName() != null) {
+                String credentials = connection.getUserName() + ":" + connection.getPassword();
+                http.setRequestProperty(
+                        "Authorization",
+                        "Basic "
+                                + Base64.getEncoder()
+                                        .encodeToString(
+                                                credentials.getBytes(StandardCharsets.UTF_8)));
+            }
+
+            if (cached != null) {
+                if (cached.getEntityTag() != null) {
+                    http.setRequestProperty("If-None-Match", cached.getEntityTag());
+                }
+                if (cached.getLastModified() != null) {
+                    http.setRequestProperty("If-Modified-Since", cached.getLastModified());
+                }
+            }
+
+            int responseCode = http.getResponseCode();
+            if ((responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) && (cached != null)) {
+                return cached.getBody();
+            }
+
+            if (responseCode == HttpURLConnection.HTTP_OK) {
+                String body = readBody(http);
+                catalogue.putResource(
+                        path,
+                        new CachedResource(
+                                body,
+                                http.getHeaderField("ETag"),
+                                http.getHeaderField("Last-Modified")));
+                scheduleSave(catalogue.getKey());
+                return body;
+            }
+
+            if (catalogue.removeResource(path)) {
+                scheduleSave(catalogue.getKey());
+            }
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        } finally {
+            if (http != null) {
+                http.disconnect();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes a cached REST resource, called when the resource is updated or deleted.
+     *
+     * @param connection the connection
+     * @param path the path relative to the REST end point
+     */
+    public synchronized void removeResource(GeoServerConnection connection, String path) {
+        GeoServerCatalogue catalogue = getCatalogue(connection);
+        if ((catalogue != null) && catalogue.removeResource(path)) {
+            scheduleSave(catalogue.getKey());
+        }
+    }
+
+    /**
+     * Removes the cached catalogue for the connection.
+     *
+     * @param connection the connection
+     */
+    public synchronized void clear(GeoServerConnection connection) {
+        String key = generateKey(connection);
+        if (key != null) {
+            catalogueMap.remove(key);
+            pendingSaveSet.remove(key);
+            File file = getCacheFile(key);
+            if (file.exists() && !file.delete()) {
+                ConsoleManager.getInstance()
+                        .error(this, "Failed to delete " + file.getAbsolutePath());
+            }
+        }
+    }
+
+    /** Write any pending changes to disk immediately. */
+    public void flush() {
+        List<String> keyList;
+        synchronized (this) {
+            keyList = new ArrayList<>(pendingSaveSet);
+        }
+
+        for (String key : keyList) {
+            saveCatalogue(key);
+        }
+    }
+
+    /**
+     * Gets the catalogue for the connection, creating an empty one if it is not cached.
+     *
+     * @param connection the connection
+     * @return the catalogue, null if the connection is not valid
+     */
+    private GeoServerCatalogue getOrCreateCatalogue(GeoServerConnection connection) {
+        GeoServerCatalogue catalogue = getCatalogue(connection);
+        if (catalogue == null) {
+            String key = generateKey(connection);
+            if (key != null) {
+                catalogue = new GeoServerCatalogue(key);
+                catalogueMap.put(key, catalogue);
+            }
+        }
+        return catalogue;
+    }
+
+    /**
+     * Schedule the catalogue to be written to disk, changes made in quick succession are written
+     * together.
+     *
+     * @param key the cache key
+     */
+    private synchronized void scheduleSave(final String key) {
+        if (pendingSaveSet.add(key)) {
+            saveExecutor.schedule(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            saveCatalogue(key);
+                        }
+                    },
+                    SAVE_DELAY,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Write the catalogue to disk, the catalogue is written to a temporary file first so that a
+     * partially written cache file is never read.
+     *
+     * @param key the cache key
+     */
+    private void saveCatalogue(String key) {
+        GeoServerCatalogue catalogue;
+        synchronized (this) {
+            if (!pendingSaveSet.remove(key)) {
+                return;
+            }
+            catalogue = catalogueMap.get(key);
+        }
+
+        if (catalogue == null) {
+            return;
+        }
+
+        if (!cacheFolder.exists() && !cacheFolder.mkdirs()) {
+            ConsoleManager.getInstance()
+                    .error(this, "Failed to create " + cacheFolder.getAbsolutePath());
+            return;
+        }
+
+        File file = getCacheFile(key);
+        File tmpFile = new File(file.getAbsolutePath() + ".tmp");
+
+        synchronized (catalogue) {
+            try (ObjectOutputStream out =
+                    new ObjectOutputStream(
+                            new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                out.writeObject(catalogue);
+            } catch (IOException e) {
+                ConsoleManager.getInstance().exception(this, e);
+                return;
+            }
+        }
+
+        if ((file.exists() && !file.delete()) || !tmpFile.renameTo(file)) {
+            ConsoleManager.getInstance().error(this, "Failed to write " + file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Read a catalogue from disk.
+     *
+     * @param key the cache key
+     * @return the catalogue, null if not cached or the cache file is not valid
+     */
+    private GeoServerCatalogue readCatalogue(String key) {
+        File file = getCacheFile(key);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (ObjectInputStream in =
+                new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            Object obj = in.readObject();
+            if (obj instanceof GeoServerCatalogue) {
+                GeoServerCatalogue catalogue = (GeoServerCatalogue) obj;
+                if (key.equals(catalogue.getKey())) {
+                    return catalogue;
+                }
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            // Cache file is out of date or corrupt, it will be replaced
+            ConsoleManager.getInstance().exception(this, e);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the cache file.
+     *
+     * @param key the cache key
+     * @return the cache file
+     */
+    private File getCacheFile(String key) {
+        return new File(cacheFolder, Integer.toHexString(key.hashCode()) + CACHE_FILE_EXTENSION);
+    }
+
+    /**
+     * Read the response body.
+     *
+     * @param http the http connection
+     * @return the body
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static String readBody(HttpURLConnection http) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = http.getInputStream()) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generate the cache key, identifies a GeoServer instance by its URL and user name.
+     *
+     * @param connection the connection
+     * @return the key, null if the connection has no URL
+     */
+    public static String generateKey(GeoServerConnection connection) {
+        if ((connection == null) || (connection.getUrl() == null)) {
+            return null;
+        }
+        return connection.getUrl().toExternalForm() + "|" + connection.getUserName();
+    }
+}
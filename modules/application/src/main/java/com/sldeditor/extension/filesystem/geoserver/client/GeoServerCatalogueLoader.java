@@ -0,0 +1,511 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.extension.filesystem.geoserver.client;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.GeoServerConnection;
+import com.sldeditor.common.data.GeoServerLayer;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgressInterface;
+import it.geosolutions.geoserver.rest.HTTPUtils;
+import it.geosolutions.geoserver.rest.decoder.RESTLayer;
+import it.geosolutions.geoserver.rest.decoder.RESTLayerList;
+import it.geosolutions.geoserver.rest.decoder.utils.NameLinkElem;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the layer catalogue of a GeoServer instance.
+ *
+ * <p>The layers in each workspace are listed directly using the workspace layers REST end point, so
+ * the workspace of a layer is known without probing every workspace for every layer. The layer
+ * details are then fetched concurrently on a bounded thread pool and progress is reported as each
+ * layer arrives. The layers of each workspace are passed to the progress listener as soon as all
+ * the layers in that workspace have been read, so the tree fills in workspace by workspace.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GeoServerCatalogueLoader {
+
+    /** The Constant DEFAULT_THREADS, the default number of concurrent requests. */
+    public static final int DEFAULT_THREADS = 8;
+
+    /** The Constant REST_PATH. */
+    private static final String REST_PATH = "/rest";
+
+    /** The Constant WORKSPACE_SEPARATOR. */
+    private static final String WORKSPACE_SEPARATOR = ":";
+
+    /** The Constant URL_ENCODING. */
+    private static final String URL_ENCODING = "UTF-8";
+
+    /** The thread counter. */
+    private static final AtomicInteger threadCounter = new AtomicInteger(1);
+
+    /** The connection. */
+    private GeoServerConnection connection = null;
+
+    /** The parent object informed of progress. */
+    private GeoServerReadProgressInterface parentObj = null;
+
+    /** The default workspace name. */
+    private String defaultWorkspaceName = null;
+
+    /** The maximum number of concurrent requests. */
+    private int threads = DEFAULT_THREADS;
+
+    /** The number of layers read. */
+    private int count = 0;
+
+    /** The total number of layers to read. */
+    private int total = 0;
+
+    /**
+     * Instantiates a new GeoServer catalogue loader.
+     *
+     * @param connection the connection
+     * @param parentObj the parent object informed of progress, can be null
+     * @param defaultWorkspaceName the name used for layers that are not in a workspace
+     * @param threads the maximum number of concurrent requests
+     */
+    public GeoServerCatalogueLoader(
+            GeoServerConnection connection,
+            GeoServerReadProgressInterface parentObj,
+            String defaultWorkspaceName,
+            int threads) {
+        this.connection = connection;
+        this.parentObj = parentObj;
+        this.defaultWorkspaceName = defaultWorkspaceName;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Load the layers in the supplied workspaces, layers not listed in any of the workspaces are
+     * added to the default workspace.
+     *
+     * @param workspaceList the workspace list
+     * @return the map of workspace name to layers, workspaces are in the order supplied with the
+     *     default workspace last
+     */
+    public Map<String, List<GeoServerLayer>> loadLayers(List<String> workspaceList) {
+        Map<String, List<GeoServerLayer>> layerMap = new LinkedHashMap<>();
+
+        if ((connection == null) || (connection.getUrl() == null)) {
+            return layerMap;
+        }
+
+        ExecutorService executor = createExecutor();
+        try {
+            Map<String, List<String>> layerNameMap = listLayers(executor, workspaceList);
+
+            synchronized (this) {
+                count = 1;
+                total = 0;
+                for (List<String> layerNameList : layerNameMap.values()) {
+                    total += layerNameList.size();
+                }
+            }
+
+            Map<String, List<Future<GeoServerLayer>>> futureMap = new LinkedHashMap<>();
+            for (Entry<String, List<String>> entry : layerNameMap.entrySet()) {
+                List<String> layerNameList = entry.getValue();
+                WorkspaceLayers workspaceLayers =
+                        new WorkspaceLayers(
+                                (entry.getKey() == null) ? defaultWorkspaceName : entry.getKey(),
+                                layerNameList.size());
+                List<Future<GeoServerLayer>> futureList = new ArrayList<>();
+                for (int index = 0; index < layerNameList.size(); index++) {
+                    futureList.add(
+                            executor.submit(
+                                    new ReadLayerTask(
+                                            entry.getKey(),
+                                            layerNameList.get(index),
+                                            workspaceLayers,
+                                            index)));
+                }
+                futureMap.put(entry.getKey(), futureList);
+            }
+
+            for (Entry<String, List<Future<GeoServerLayer>>> entry : futureMap.entrySet()) {
+                for (Future<GeoServerLayer> future : entry.getValue()) {
+                    GeoServerLayer layer = getResult(future);
+                    if (layer != null) {
+                        List<GeoServerLayer> layerList = layerMap.get(layer.getLayerWorkspace());
+                        if (layerList == null) {
+                            layerList = new ArrayList<>();
+                            layerMap.put(layer.getLayerWorkspace(), layerList);
+                        }
+                        layerList.add(layer);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return layerMap;
+    }
+
+    /**
+     * List the names of the layers in each workspace. Layers in the global layer list that do not
+     * appear in any workspace list are assigned to the default workspace.
+     *
+     * @param executor the executor
+     * @param workspaceList the workspace list
+     * @return the map of workspace name to layer names
+     */
+    private Map<String, List<String>> listLayers(
+            ExecutorService executor, List<String> workspaceList) {
+        Map<String, Future<List<String>>> futureMap = new LinkedHashMap<>();
+
+        if (workspaceList != null) {
+            for (String workspaceName : workspaceList) {
+                if (workspaceName != null) {
+                    final String path =
+                            String.format("/workspaces/%s/layers.xml", encode(workspaceName));
+                    futureMap.put(
+                            workspaceName,
+                            executor.submit(
+                                    new Callable<List<String>>() {
+                                        @Override
+                                        public List<String> call() {
+                                            return getLayerNames(path);
+                                        }
+                                    }));
+                }
+            }
+        }
+
+        List<String> allLayerNames = getLayerNames("/layers.xml");
+
+        Map<String, List<String>> layerNameMap = new LinkedHashMap<>();
+        Set<String> listedLayers = new HashSet<>();
+        for (Entry<String, Future<List<String>>> entry : futureMap.entrySet()) {
+            List<String> layerNameList = getResult(entry.getValue());
+            if (layerNameList != null) {
+                layerNameMap.put(entry.getKey(), layerNameList);
+                for (String layerName : layerNameList) {
+                    listedLayers.add(entry.getKey() + WORKSPACE_SEPARATOR + layerName);
+                }
+            }
+        }
+
+        List<String> defaultLayerList = new ArrayList<>();
+        for (String layerName : allLayerNames) {
+            if (!listedLayers.contains(layerName)) {
+                int index = layerName.indexOf(WORKSPACE_SEPARATOR);
+                String workspaceName = (index < 0) ? null : layerName.substring(0, index);
+                List<String> layerNameList = layerNameMap.get(workspaceName);
+
+                if (layerNameList != null) {
+                    String localName = layerName.substring(index + 1);
+                    if (!layerNameList.contains(localName)) {
+                        layerNameList.add(localName);
+                    }
+                } else {
+                    defaultLayerList.add(layerName);
+                }
+            }
+        }
+
+        if (!defaultLayerList.isEmpty()) {
+            layerNameMap.put(null, defaultLayerList);
+        }
+        return layerNameMap;
+    }
+
+    /**
+     * Gets the layer names from a layer list REST resource.
+     *
+     * @param path the path relative to the REST end point
+     * @return the layer names, empty if the resource could not be read
+     */
+    private List<String> getLayerNames(String path) {
+        List<String> layerNameList = new ArrayList<>();
+
+        String response = load(path);
+        if (response != null) {
+            RESTLayerList layers = RESTLayerList.build(response);
+            if (layers != null) {
+                for (NameLinkElem layer : layers) {
+                    layerNameList.add(layer.getName());
+                }
+            }
+        }
+        return layerNameList;
+    }
+
+    /**
+     * Read the details of a single layer.
+     *
+     * @param workspaceName the workspace name, null for the default workspace
+     * @param layerName the layer name
+     * @return the GeoServer layer, null if it could not be read
+     */
+    private GeoServerLayer readLayer(String workspaceName, String layerName) {
+        String qualifiedName =
+                (workspaceName == null)
+                        ? layerName
+                        : workspaceName + WORKSPACE_SEPARATOR + layerName;
+        String response = load(String.format("/layers/%s.xml", encode(qualifiedName)));
+
+        RESTLayer layer = (response == null) ? null : RESTLayer.build(response);
+        if (layer == null) {
+            return null;
+        }
+
+        GeoServerLayer geoServerlayer = new GeoServerLayer();
+        geoServerlayer.setLayerWorkspace(
+                (workspaceName == null) ? defaultWorkspaceName : workspaceName);
+        geoServerlayer.setLayerName(layer.getName());
+        geoServerlayer.setConnection(connection);
+
+        StyleWrapper styleWrapper = new StyleWrapper();
+        styleWrapper.setStyle(layer.getDefaultStyle());
+
+        String styleWorkspace = layer.getDefaultStyleWorkspace();
+        styleWrapper.setWorkspace((styleWorkspace == null) ? defaultWorkspaceName : styleWorkspace);
+
+        geoServerlayer.setStyle(styleWrapper);
+
+        return geoServerlayer;
+    }
+
+    /**
+     * Report that a layer has been read, the layers of the workspace are reported when it is the
+     * last layer of the workspace to be read.
+     *
+     * @param workspaceLayers the layers of the workspace
+     * @param index the index of the layer in the workspace
+     * @param layer the layer, null if it could not be read
+     */
+    private synchronized void layerRead(
+            WorkspaceLayers workspaceLayers, int index, GeoServerLayer layer) {
+        if (parentObj != null) {
+            parentObj.readLayersProgress(connection, count, total);
+        }
+        count++;
+
+        if (workspaceLayers.layerRead(index, layer) && (parentObj != null)) {
+            List<GeoServerLayer> layerList = workspaceLayers.getLayerList();
+            if (!layerList.isEmpty()) {
+                parentObj.readWorkspaceLayersComplete(
+                        connection, workspaceLayers.workspaceName, layerList);
+            }
+        }
+    }
+
+    /**
+     * Load a REST resource.
+     *
+     * @param path the path relative to the REST end point
+     * @return the response, null if the request failed
+     */
+    private String load(String path) {
+        return HTTPUtils.get(
+                getRestUrl(connection) + path, connection.getUserName(), connection.getPassword());
+    }
+
+    /**
+     * Gets the URL of the REST end point of the GeoServer instance.
+     *
+     * @param connection the connection
+     * @return the REST URL
+     */
+    static String getRestUrl(GeoServerConnection connection) {
+        String url = connection.getUrl().toExternalForm();
+        if (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url + REST_PATH;
+    }
+
+    /**
+     * Encode a name for use in a URL path.
+     *
+     * @param name the name
+     * @return the encoded name
+     */
+    static String encode(String name) {
+        try {
+            return URLEncoder.encode(name, URL_ENCODING).replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            ConsoleManager.getInstance().exception(GeoServerCatalogueLoader.class, e);
+        }
+        return name;
+    }
+
+    /**
+     * Wait for the result of a request.
+     *
+     * @param <T> the result type
+     * @param future the future
+     * @return the result, null if the request failed
+     */
+    private <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+        return null;
+    }
+
+    /**
+     * Creates the bounded executor used for the REST requests.
+     *
+     * @return the executor service
+     */
+    private ExecutorService createExecutor() {
+        return Executors.newFixedThreadPool(
+                threads,
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread =
+                                new Thread(
+                                        r,
+                                        "SLDEditor-GeoServer-" + threadCounter.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    /** The layers of a workspace, collected as they are read. */
+    private static class WorkspaceLayers {
+
+        /** The workspace name. */
+        private final String workspaceName;
+
+        /** The layers, in the order they are listed in the workspace. */
+        private final GeoServerLayer[] layers;
+
+        /** The number of layers still to be read. */
+        private int remaining;
+
+        /**
+         * Instantiates a new workspace layers.
+         *
+         * @param workspaceName the workspace name
+         * @param noOfLayers the number of layers in the workspace
+         */
+        WorkspaceLayers(String workspaceName, int noOfLayers) {
+            this.workspaceName = workspaceName;
+            this.layers = new GeoServerLayer[noOfLayers];
+            this.remaining = noOfLayers;
+        }
+
+        /**
+         * Store a layer that has been read.
+         *
+         * @param index the index of the layer in the workspace
+         * @param layer the layer, null if it could not be read
+         * @return true, if all the layers in the workspace have been read
+         */
+        boolean layerRead(int index, GeoServerLayer layer) {
+            layers[index] = layer;
+            remaining--;
+            return (remaining == 0);
+        }
+
+        /**
+         * Gets the layers that were read.
+         *
+         * @return the layer list
+         */
+        List<GeoServerLayer> getLayerList() {
+            List<GeoServerLayer> layerList = new ArrayList<>();
+            for (GeoServerLayer layer : layers) {
+                if (layer != null) {
+                    layerList.add(layer);
+                }
+            }
+            return layerList;
+        }
+    }
+
+    /** Task that reads a single layer and reports progress when it arrives. */
+    private class ReadLayerTask implements Callable<GeoServerLayer> {
+
+        /** The workspace name. */
+        private final String workspaceName;
+
+        /** The layer name. */
+        private final String layerName;
+
+        /** The layers of the workspace. */
+        private final WorkspaceLayers workspaceLayers;
+
+        /** The index of the layer in the workspace. */
+        private final int index;
+
+        /**
+         * Instantiates a new read layer task.
+         *
+         * @param workspaceName the workspace name
+         * @param layerName the layer name
+         * @param workspaceLayers the layers of the workspace
+         * @param index the index of the layer in the workspace
+         */
+        ReadLayerTask(
+                String workspaceName,
+                String layerName,
+                WorkspaceLayers workspaceLayers,
+                int index) {
+            this.workspaceName = workspaceName;
+            this.layerName = layerName;
+            this.workspaceLayers = workspaceLayers;
+            this.index = index;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.util.concurrent.Callable#call()
+         */
+        @Override
+        public GeoServerLayer call() {
+            GeoServerLayer layer = null;
+            try {
+                layer = readLayer(workspaceName, layerName);
+            } finally {
+                layerRead(workspaceLayers, index, layer);
+            }
+            return layer;
+        }
+    }
+}
@@ -28,16 +28,17 @@ import com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgressInterfa
 import it.geosolutions.geoserver.rest.GeoServerRESTManager;
 import it.geosolutions.geoserver.rest.GeoServerRESTPublisher;
 import it.geosolutions.geoserver.rest.GeoServerRESTReader;
-import it.geosolutions.geoserver.rest.decoder.RESTLayer;
-import it.geosolutions.geoserver.rest.decoder.RESTLayerList;
 import it.geosolutions.geoserver.rest.decoder.RESTStyleList;
-import it.geosolutions.geoserver.rest.decoder.utils.NameLinkElem;
 import it.geosolutions.geoserver.rest.encoder.GSLayerEncoder;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 /**
@@ -53,6 +54,25 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
     /** The Constant DEFAULT_WORKSPACE_NAME. */
     private static final String DEFAULT_WORKSPACE_NAME = "<Default Workspace>";
 
+    /** The thread counter, used to name the worker threads. */
+    private static final AtomicInteger threadCounter = new AtomicInteger(1);
+
+    /** The executor that reads the catalogues from GeoServer. */
+    private static final ExecutorService executor =
+            Executors.newCachedThreadPool(
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread =
+                                    new Thread(
+                                            r,
+                                            "SLDEditor-GeoServerClient-"
+                                                    + threadCounter.getAndIncrement());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+
     /** The parent object. */
     private transient GeoServerReadProgressInterface parentObj = null;
 
@@ -91,12 +111,171 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
                     parentObj.startPopulating(connection);
                 }
 
-                List<String> localWorkspaceList = getWorkspaceList();
+                GeoServerCatalogue catalogue =
+                        GeoServerCatalogueCache.getInstance().getCatalogue(connection);
+
+                if (catalogue != null) {
+                    // Show the cached catalogue straight away and refresh it in the background
+                    if (parentObj != null) {
+                        parentObj.readStylesComplete(connection, catalogue.getStyleMap(), false);
+                        parentObj.readLayersComplete(connection, catalogue.getLayerMap(connection));
+                    }
+                    refreshCatalogue(catalogue);
+                } else {
+                    List<String> localWorkspaceList = getWorkspaceList();
+
+                    parseStyleList(reader, localWorkspaceList);
+                    parseLayerList(localWorkspaceList);
+                }
+            }
+        }
+    }
+
+    /**
+     * Refresh the cached catalogue in the background, only the differences are applied to the tree.
+     *
+     * @param catalogue the cached catalogue
+     */
+    private void refreshCatalogue(GeoServerCatalogue catalogue) {
+        executor.execute(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        refreshCatalogueWorker(catalogue);
+                    }
+                });
+    }
+
+    /**
+     * Refresh the cached catalogue.
+     *
+     * @param catalogue the cached catalogue
+     */
+    private void refreshCatalogueWorker(GeoServerCatalogue catalogue) {
+        GeoServerCatalogueCache cache = GeoServerCatalogueCache.getInstance();
+        List<String> localWorkspaceList = getWorkspaceList();
+
+        Map<String, List<StyleWrapper>> styleMap = readStyleLists(localWorkspaceList);
+        if (styleMap == null) {
+            // GeoServer could not be reached, keep showing the cached catalogue
+            return;
+        }
+
+        Map<String, List<StyleWrapper>> cachedStyleMap = catalogue.getStyleMap();
+
+        if (!styleMap.keySet().equals(cachedStyleMap.keySet())) {
+            // Workspaces have been added or removed
+            if (parentObj != null) {
+                parentObj.readStylesComplete(connection, styleMap, false);
+            }
+        } else {
+            Map<String, List<StyleWrapper>> changedStyleMap = new LinkedHashMap<>();
+            for (Map.Entry<String, List<StyleWrapper>> entry : styleMap.entrySet()) {
+                if (!entry.getValue().equals(cachedStyleMap.get(entry.getKey()))) {
+                    changedStyleMap.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            if (!changedStyleMap.isEmpty() && (parentObj != null)) {
+                parentObj.readStylesComplete(connection, changedStyleMap, true);
+            }
+        }
+        cache.updateStyles(connection, styleMap, false);
+
+        GeoServerCatalogueLoader loader =
+                new GeoServerCatalogueLoader(
+                        connection,
+                        null,
+                        DEFAULT_WORKSPACE_NAME,
+                        GeoServerCatalogueLoader.DEFAULT_THREADS);
+
+        Map<String, List<GeoServerLayer>> layerMap = loader.loadLayers(localWorkspaceList);
+        if (!catalogue.hasSameLayers(layerMap)) {
+            if (parentObj != null) {
+                // Only the workspaces whose layers have been added or removed are updated
+                for (Map.Entry<String, List<GeoServerLayer>> entry : layerMap.entrySet()) {
+                    if (!catalogue.hasSameLayers(entry.getKey(), entry.getValue())) {
+                        parentObj.readWorkspaceLayersComplete(
+                                connection, entry.getKey(), entry.getValue());
+                    }
+                }
+
+                for (String workspaceName : catalogue.getLayerMap(connection).keySet()) {
+                    if (!layerMap.containsKey(workspaceName)) {
+                        parentObj.readWorkspaceLayersComplete(
+                                connection, workspaceName, new ArrayList<GeoServerLayer>());
+                    }
+                }
+            }
+            cache.updateLayers(connection, layerMap);
+        }
+    }
+
+    /**
+     * Read the style lists using conditional requests, unchanged lists are read from the cache.
+     *
+     * @param localWorkspaceList the workspace list
+     * @return the style map, null if the style lists could not be read
+     */
+    private Map<String, List<StyleWrapper>> readStyleLists(List<String> localWorkspaceList) {
+        GeoServerCatalogueCache cache = GeoServerCatalogueCache.getInstance();
+        Map<String, List<StyleWrapper>> styleMap = new LinkedHashMap<>();
+
+        String response = cache.getResource(connection, "/styles.xml");
+        if (response == null) {
+            return null;
+        }
+        styleMap.put(DEFAULT_WORKSPACE_NAME, buildStyleList(DEFAULT_WORKSPACE_NAME, response));
+
+        for (String workspaceName : localWorkspaceList) {
+            response =
+                    cache.getResource(
+                            connection,
+                            String.format(
+                                    "/workspaces/%s/styles.xml",
+                                    GeoServerCatalogueLoader.encode(workspaceName)));
+            if (response == null) {
+                return null;
+            }
+            styleMap.put(workspaceName, buildStyleList(workspaceName, response));
+        }
+        return styleMap;
+    }
+
+    /**
+     * Builds the style list from a style list REST response.
+     *
+     * @param workspaceName the workspace name
+     * @param response the response
+     * @return the style list
+     */
+    private List<StyleWrapper> buildStyleList(String workspaceName, String response) {
+        List<StyleWrapper> styleList = new ArrayList<>();
 
-                parseStyleList(reader, localWorkspaceList);
-                parseLayerList(reader, localWorkspaceList, null);
+        RESTStyleList geoServerStyleList = RESTStyleList.build(response);
+        if (geoServerStyleList != null) {
+            for (String style : geoServerStyleList.getNames()) {
+                styleList.add(new StyleWrapper(workspaceName, style));
             }
         }
+        return styleList;
+    }
+
+    /**
+     * Gets the path of the SLD body of a style relative to the REST end point.
+     *
+     * @param styleWrapper the style wrapper
+     * @return the style path
+     */
+    private String getStylePath(StyleWrapper styleWrapper) {
+        if (isDefaultWorkspace(styleWrapper.getWorkspace())) {
+            return String.format(
+                    "/styles/%s.sld", GeoServerCatalogueLoader.encode(styleWrapper.getStyle()));
+        }
+        return String.format(
+                "/workspaces/%s/styles/%s.sld",
+                GeoServerCatalogueLoader.encode(styleWrapper.getWorkspace()),
+                GeoServerCatalogueLoader.encode(styleWrapper.getStyle()));
     }
 
     /**
@@ -106,52 +285,48 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
      * @param localWorkspaceList the workspace list
      */
     private void parseStyleList(GeoServerRESTReader reader, List<String> localWorkspaceList) {
-        Thread t1 =
-                new Thread(
-                        new Runnable() {
-                            public void run() {
+        executor.execute(
+                new Runnable() {
+                    @Override
+                    public void run() {
 
-                                Map<String, List<StyleWrapper>> styleMap = new LinkedHashMap<>();
+                        Map<String, List<StyleWrapper>> styleMap = new LinkedHashMap<>();
 
-                                int count = 1;
-                                List<StyleWrapper> styleList = new ArrayList<>();
+                        int count = 1;
+                        List<StyleWrapper> styleList = new ArrayList<>();
 
-                                count = parseStyleInDefaultWorkspace(reader, count, styleList);
+                        count = parseStyleInDefaultWorkspace(reader, count, styleList);
 
-                                styleMap.put(DEFAULT_WORKSPACE_NAME, styleList);
+                        styleMap.put(DEFAULT_WORKSPACE_NAME, styleList);
 
-                                // Read styles from workspaces
-                                for (String workspaceName : localWorkspaceList) {
-                                    count =
-                                            parseStyleInWorkspace(
-                                                    reader, styleMap, count, workspaceName);
-                                }
+                        // Read styles from workspaces
+                        for (String workspaceName : localWorkspaceList) {
+                            count = parseStyleInWorkspace(reader, styleMap, count, workspaceName);
+                        }
 
-                                if (parentObj != null) {
-                                    parentObj.readStylesComplete(connection, styleMap, false);
-                                }
-                            }
-                        });
-        t1.start();
+                        if (parentObj != null) {
+                            parentObj.readStylesComplete(connection, styleMap, false);
+                        }
+
+                        GeoServerCatalogueCache.getInstance()
+                                .updateStyles(connection, styleMap, false);
+                    }
+                });
     }
 
     /**
      * Parses the layer list.
      *
-     * @param reader the reader
      * @param existingWorkspaceList the existing workspace list
-     * @param workspaceName the workspace name
      */
-    private void parseLayerList(
-            GeoServerRESTReader reader, List<String> existingWorkspaceList, String workspaceName) {
-        Thread t1 =
-                new Thread(
-                        new Runnable() {
-                            public void run() {
-                                parseLayerListWorker(reader, existingWorkspaceList, workspaceName);
-                            }
-                        });
-        t1.start();
+    private void parseLayerList(List<String> existingWorkspaceList) {
+        executor.execute(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        parseLayerListWorker(existingWorkspaceList);
+                    }
+                });
     }
 
     /**
@@ -170,19 +345,12 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
             return null;
         }
 
-        GeoServerRESTManager manager = GeoServerRESTManagerFactory.getManager(connection);
-        if (manager != null) {
-            GeoServerRESTReader reader = manager.getReader();
-            if (reader != null) {
-                if (isDefaultWorkspace(styleWrapper.getWorkspace())) {
-                    return reader.getSLD(styleWrapper.getStyle());
-                } else {
-                    return reader.getSLD(styleWrapper.getWorkspace(), styleWrapper.getStyle());
-                }
-            }
+        if ((connection == null) || (connection.getUrl() == null)) {
+            return null;
         }
 
-        return null;
+        return GeoServerCatalogueCache.getInstance()
+                .getResource(connection, getStylePath(styleWrapper));
     }
 
     /**
@@ -251,6 +419,9 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
         }
 
         if (result) {
+            GeoServerCatalogueCache.getInstance()
+                    .removeResource(connection, getStylePath(styleWrapper));
+
             ConsoleManager.getInstance()
                     .information(
                             this,
@@ -452,6 +623,11 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
             }
         }
 
+        if (result) {
+            GeoServerCatalogueCache.getInstance()
+                    .removeResource(connection, getStylePath(styleToDelete));
+        }
+
         return result;
     }
 
@@ -574,6 +750,8 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
                 if (parentObj != null) {
                     parentObj.readStylesComplete(connection, styleMap, true);
                 }
+
+                GeoServerCatalogueCache.getInstance().updateStyles(connection, styleMap, true);
             }
         }
     }
@@ -613,105 +791,22 @@ public class GeoServerClient implements Serializable, GeoServerClientInterface {
     /**
      * Parses the layer list worker.
      *
-     * @param reader the reader
      * @param existingWorkspaceList the existing workspace list
-     * @param workspaceName the workspace name
      */
-    private void parseLayerListWorker(
-            GeoServerRESTReader reader, List<String> existingWorkspaceList, String workspaceName) {
-        List<String> localWorkspaceList = null;
-
-        if (workspaceName == null) {
-            localWorkspaceList = existingWorkspaceList;
-            localWorkspaceList.add(null); // Add the default workspace last
-        }
-
-        Map<String, List<GeoServerLayer>> layerMap = new LinkedHashMap<>();
-        RESTLayerList layers = reader.getLayers();
+    private void parseLayerListWorker(List<String> existingWorkspaceList) {
+        GeoServerCatalogueLoader loader =
+                new GeoServerCatalogueLoader(
+                        connection,
+                        parentObj,
+                        DEFAULT_WORKSPACE_NAME,
+                        GeoServerCatalogueLoader.DEFAULT_THREADS);
 
-        parseLayer(reader, localWorkspaceList, layerMap, layers);
+        Map<String, List<GeoServerLayer>> layerMap = loader.loadLayers(existingWorkspaceList);
 
         if (parentObj != null) {
             parentObj.readLayersComplete(connection, layerMap);
         }
-    }
-
-    /**
-     * Parses the layer.
-     *
-     * @param reader the reader
-     * @param localWorkspaceList the local workspace list
-     * @param layerMap the layer map
-     * @param layers the layers
-     */
-    private void parseLayer(
-            GeoServerRESTReader reader,
-            List<String> localWorkspaceList,
-            Map<String, List<GeoServerLayer>> layerMap,
-            RESTLayerList layers) {
-        int count = 1;
-        int total = layers.size();
-
-        for (NameLinkElem featureTypeName : layers) {
-            @SuppressWarnings("deprecation")
-            RESTLayer layer = reader.getLayer(featureTypeName.getName());
-
-            if (layer != null) {
-                String layerName = layer.getName();
-                String workspace = getLayerWorkspace(reader, localWorkspaceList, layerName);
-                GeoServerLayer geoServerlayer = new GeoServerLayer();
-                geoServerlayer.setLayerWorkspace(workspace);
-                geoServerlayer.setLayerName(layerName);
-                geoServerlayer.setConnection(connection);
-
-                StyleWrapper styleWrapper = new StyleWrapper();
-                styleWrapper.setStyle(layer.getDefaultStyle());
-
-                String styleWorkspace = layer.getDefaultStyleWorkspace();
-                styleWrapper.setWorkspace(
-                        (styleWorkspace == null) ? DEFAULT_WORKSPACE_NAME : styleWorkspace);
-
-                geoServerlayer.setStyle(styleWrapper);
-
-                List<GeoServerLayer> layerList = layerMap.get(workspace);
-
-                if (layerList == null) {
-                    layerList = new ArrayList<>();
-                    layerMap.put(workspace, layerList);
-                }
-                layerList.add(geoServerlayer);
-
-                if (parentObj != null) {
-                    parentObj.readLayersProgress(connection, count, total);
-                }
-            }
 
-            count++;
-        }
-    }
-
-    /**
-     * Gets the layer workspace.
-     *
-     * @param reader the reader
-     * @param localWorkspaceList the local workspace list
-     * @param layerName the layer name
-     * @return the layer workspace
-     */
-    private String getLayerWorkspace(
-            GeoServerRESTReader reader, List<String> localWorkspaceList, String layerName) {
-        String workspace = null;
-        for (String workspaceNameToTest : localWorkspaceList) {
-            if (reader.existsLayer(workspaceNameToTest, layerName, true)) {
-                if (workspaceNameToTest == null) {
-                    workspace = DEFAULT_WORKSPACE_NAME;
-                } else {
-                    workspace = workspaceNameToTest;
-                }
-
-                break;
-            }
-        }
-        return workspace;
+        GeoServerCatalogueCache.getInstance().updateLayers(connection, layerMap);
     }
 }
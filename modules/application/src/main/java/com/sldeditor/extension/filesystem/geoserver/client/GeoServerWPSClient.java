@@ -103,9 +103,32 @@ public class GeoServerWPSClient implements GeoServerWPSClientInterface {
      *
      * @return returns true if capabilities read, false if error
      */
-    @SuppressWarnings({"rawtypes"})
     @Override
     public boolean getCapabilities() {
+        return readCapabilities(null, null);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.extension.filesystem.geoserver.client.GeoServerWPSClientInterface#getRenderTransformations(com.sldeditor.common.DataTypeEnum, com.sldeditor.extension.filesystem.geoserver.client.GeoServerWPSProcessFoundInterface)
+     */
+    @Override
+    public boolean getRenderTransformations(
+            DataTypeEnum typeOfData, GeoServerWPSProcessFoundInterface processFound) {
+        return readCapabilities(typeOfData, processFound);
+    }
+
+    /**
+     * Read the capabilities and describe each process.
+     *
+     * @param typeOfData the type of data, null if no process is to be reported
+     * @param processFound informed of each render transformation found, may be null
+     * @return returns true if capabilities read, false if error
+     */
+    @SuppressWarnings({"rawtypes"})
+    private boolean readCapabilities(
+            DataTypeEnum typeOfData, GeoServerWPSProcessFoundInterface processFound) {
         boolean ok = false;
 
         try {
@@ -138,6 +161,10 @@ public class GeoServerWPSClient implements GeoServerWPSClientInterface {
                         (ProcessDescriptionType) processDesc.getProcessDescription().get(0);
 
                 processList.add(pdt);
+
+                if ((processFound != null) && isRenderTransformation(typeOfData, pdt)) {
+                    processFound.processFound(pdt);
+                }
             }
 
             ok = true;
@@ -166,18 +193,7 @@ public class GeoServerWPSClient implements GeoServerWPSClientInterface {
         List<ProcessBriefType> functionList = new ArrayList<>();
 
         for (ProcessDescriptionType processDescription : processList) {
-            ConsoleManager.getInstance()
-                    .information(this, processDescription.getTitle().getValue());
-
-            boolean outputParameter =
-                    getOutputParameter(typeOfData, processDescription.getProcessOutputs());
-            boolean inputParameter = true;
-            //            if (outputParameter) {
-            //                inputParameter = getInputParameter(typeOfData,
-            // processDescription.getDataInputs());
-            //            }
-
-            if (inputParameter && outputParameter) {
+            if (isRenderTransformation(typeOfData, processDescription)) {
                 functionList.add(processDescription);
             }
         }
@@ -185,6 +201,28 @@ public class GeoServerWPSClient implements GeoServerWPSClientInterface {
         return functionList;
     }
 
+    /**
+     * Checks if a process can be used as a render transformation.
+     *
+     * @param typeOfData the type of data
+     * @param processDescription the process description
+     * @return true, if is a render transformation
+     */
+    private boolean isRenderTransformation(
+            DataTypeEnum typeOfData, ProcessDescriptionType processDescription) {
+        ConsoleManager.getInstance().information(this, processDescription.getTitle().getValue());
+
+        boolean outputParameter =
+                getOutputParameter(typeOfData, processDescription.getProcessOutputs());
+        boolean inputParameter = true;
+        //            if (outputParameter) {
+        //                inputParameter = getInputParameter(typeOfData,
+        // processDescription.getDataInputs());
+        //            }
+
+        return inputParameter && outputParameter;
+    }
+
     /**
      * Gets the input parameter.
      *
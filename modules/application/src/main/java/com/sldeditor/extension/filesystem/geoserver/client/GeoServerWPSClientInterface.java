@@ -44,4 +44,15 @@ public interface GeoServerWPSClientInterface {
      * @return the render transformations
      */
     List<ProcessBriefType> getRenderTransformations(DataTypeEnum typeOfData);
+
+    /**
+     * Read the capabilities, each render transformation is reported as soon as it has been
+     * described.
+     *
+     * @param typeOfData the type of data
+     * @param processFound informed of each render transformation found
+     * @return returns true if capabilities read, false if error
+     */
+    boolean getRenderTransformations(
+            DataTypeEnum typeOfData, GeoServerWPSProcessFoundInterface processFound);
 }
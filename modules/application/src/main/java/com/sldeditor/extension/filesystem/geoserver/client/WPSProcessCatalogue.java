@@ -0,0 +1,369 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.extension.filesystem.geoserver.client;
+
+import com.sldeditor.common.DataTypeEnum;
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.GeoServerConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+import net.opengis.wps10.ProcessBriefType;
+
+/**
+ * The Class WPSProcessCatalogue, reads the render transformations offered by GeoServer WPS servers
+ * on a background thread and caches them for each connection.
+ *
+ * <p>The first request for a connection reports each render transformation as soon as it has been
+ * described. Later requests are answered immediately from the cache, once the cached catalogue is
+ * older than the time to live it is refreshed in the background and the refreshed list is reported
+ * when it arrives. Requests for a connection that is already being read join the read in progress.
+ *
+ * <p>Class is implemented as a singleton.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class WPSProcessCatalogue {
+
+    /** The Constant DEFAULT_TIME_TO_LIVE, milliseconds a cached catalogue is considered fresh. */
+    public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(10);
+
+    /** The Constant MAX_THREADS, the number of servers read at the same time. */
+    private static final int MAX_THREADS = 2;
+
+    /** The singleton instance. */
+    private static WPSProcessCatalogue instance = null;
+
+    /** The thread counter. */
+    private static final AtomicInteger threadCounter = new AtomicInteger(1);
+
+    /** The time to live in milliseconds. */
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    /** The executor. */
+    private ExecutorService executor = null;
+
+    /** The cached catalogues. */
+    private Map<String, CatalogueEntry> catalogueMap = new HashMap<>();
+
+    /**
+     * Gets the single instance of WPSProcessCatalogue.
+     *
+     * @return single instance of WPSProcessCatalogue
+     */
+    public static synchronized WPSProcessCatalogue getInstance() {
+        if (instance == null) {
+            instance = new WPSProcessCatalogue(DEFAULT_TIME_TO_LIVE);
+        }
+        return instance;
+    }
+
+    /**
+     * Instantiates a new WPS process catalogue.
+     *
+     * @param timeToLive the time in milliseconds a cached catalogue is considered fresh
+     */
+    public WPSProcessCatalogue(long timeToLive) {
+        this.timeToLive = timeToLive;
+
+        executor =
+                Executors.newFixedThreadPool(
+                        MAX_THREADS,
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                Thread thread =
+                                        new Thread(
+                                                r,
+                                                "SLDEditor-WPS-" + threadCounter.getAndIncrement());
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+    }
+
+    /**
+     * Gets the render transformations offered by a GeoServer instance, the results are reported to
+     * the listener on the event dispatch thread.
+     *
+     * @param connection the connection
+     * @param typeOfData the type of data
+     * @param listener the listener
+     */
+    public synchronized void getRenderTransformations(
+            GeoServerConnection connection,
+            DataTypeEnum typeOfData,
+            WPSProcessCatalogueUpdateInterface listener) {
+        String connectionKey = GeoServerCatalogueCache.generateKey(connection);
+        if ((connectionKey == null) || (typeOfData == null) || (listener == null)) {
+            return;
+        }
+
+        String key = connectionKey + "|" + typeOfData.name();
+        CatalogueEntry entry = catalogueMap.get(key);
+        if (entry == null) {
+            entry = new CatalogueEntry(connection, typeOfData);
+            catalogueMap.put(key, entry);
+        }
+
+        if (entry.processList != null) {
+            publishLoaded(listener, entry.processList, true);
+
+            if (entry.loading) {
+                entry.listenerList.add(listener);
+            } else if (isStale(entry)) {
+                entry.listenerList.add(listener);
+                startLoad(entry);
+            }
+        } else {
+            // Catch up with a read already in progress
+            for (ProcessBriefType process : entry.partialList) {
+                publishAdded(listener, process);
+            }
+            entry.listenerList.add(listener);
+
+            if (!entry.loading) {
+                startLoad(entry);
+            }
+        }
+    }
+
+    /**
+     * Removes a listener, it is not informed of any read still in progress.
+     *
+     * @param listener the listener
+     */
+    public synchronized void removeListener(WPSProcessCatalogueUpdateInterface listener) {
+        for (CatalogueEntry entry : catalogueMap.values()) {
+            entry.listenerList.remove(listener);
+        }
+    }
+
+    /**
+     * Discard the cached catalogues for a connection, e.g. when its details have changed.
+     *
+     * @param connection the connection
+     */
+    public synchronized void clear(GeoServerConnection connection) {
+        String connectionKey = GeoServerCatalogueCache.generateKey(connection);
+        if (connectionKey != null) {
+            for (DataTypeEnum typeOfData : DataTypeEnum.values()) {
+                String key = connectionKey + "|" + typeOfData.name();
+                CatalogueEntry entry = catalogueMap.get(key);
+                if (entry != null) {
+                    if (entry.loading) {
+                        // Keep the listeners of the read in progress, refresh on the next request
+                        entry.loadTime = 0L;
+                    } else {
+                        catalogueMap.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the WPS client, overridden when testing.
+     *
+     * @param connection the connection
+     * @return the GeoServer WPS client
+     */
+    protected GeoServerWPSClientInterface createClient(GeoServerConnection connection) {
+        return new GeoServerWPSClient(connection);
+    }
+
+    /**
+     * Checks if the cached catalogue is older than the time to live.
+     *
+     * @param entry the entry
+     * @return true, if is stale
+     */
+    private boolean isStale(CatalogueEntry entry) {
+        return (System.currentTimeMillis() - entry.loadTime) > timeToLive;
+    }
+
+    /**
+     * Start reading the catalogue in the background.
+     *
+     * @param entry the entry
+     */
+    private void startLoad(final CatalogueEntry entry) {
+        entry.loading = true;
+        entry.partialList.clear();
+
+        executor.submit(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        load(entry);
+                    }
+                });
+    }
+
+    /**
+     * Read the catalogue, called on a background thread.
+     *
+     * @param entry the entry
+     */
+    private void load(final CatalogueEntry entry) {
+        final List<ProcessBriefType> loadedList = new ArrayList<>();
+        boolean ok = false;
+        try {
+            GeoServerWPSClientInterface client = createClient(entry.connection);
+            ok =
+                    client.getRenderTransformations(
+                            entry.typeOfData,
+                            new GeoServerWPSProcessFoundInterface() {
+                                @Override
+                                public void processFound(ProcessBriefType process) {
+                                    loadedList.add(process);
+                                    processRead(entry, process);
+                                }
+                            });
+        } catch (RuntimeException e) {
+            ConsoleManager.getInstance().exception(WPSProcessCatalogue.class, e);
+            ok = false;
+        }
+        loadComplete(entry, loadedList, ok);
+    }
+
+    /**
+     * Process read, reported straight away when nothing has been cached yet.
+     *
+     * @param entry the entry
+     * @param process the process
+     */
+    private synchronized void processRead(CatalogueEntry entry, ProcessBriefType process) {
+        if (entry.processList == null) {
+            entry.partialList.add(process);
+            for (WPSProcessCatalogueUpdateInterface listener : entry.listenerList) {
+                publishAdded(listener, process);
+            }
+        }
+    }
+
+    /**
+     * Load complete, the cache is only replaced by a successful read.
+     *
+     * @param entry the entry
+     * @param loadedList the loaded list
+     * @param ok the ok flag
+     */
+    private synchronized void loadComplete(
+            CatalogueEntry entry, List<ProcessBriefType> loadedList, boolean ok) {
+        entry.loading = false;
+        entry.partialList.clear();
+
+        if (ok) {
+            entry.processList = Collections.unmodifiableList(new ArrayList<>(loadedList));
+            entry.loadTime = System.currentTimeMillis();
+            for (WPSProcessCatalogueUpdateInterface listener : entry.listenerList) {
+                publishLoaded(listener, entry.processList, true);
+            }
+        } else if (entry.processList == null) {
+            for (WPSProcessCatalogueUpdateInterface listener : entry.listenerList) {
+                publishLoaded(listener, null, false);
+            }
+        }
+        // A failed refresh keeps the cached catalogue, the listeners already have it
+        entry.listenerList.clear();
+    }
+
+    /**
+     * Publish a process on the event dispatch thread.
+     *
+     * @param listener the listener
+     * @param process the process
+     */
+    private static void publishAdded(
+            final WPSProcessCatalogueUpdateInterface listener, final ProcessBriefType process) {
+        SwingUtilities.invokeLater(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.processAdded(process);
+                    }
+                });
+    }
+
+    /**
+     * Publish the complete catalogue on the event dispatch thread.
+     *
+     * @param listener the listener
+     * @param processList the process list
+     * @param success the success flag
+     */
+    private static void publishLoaded(
+            final WPSProcessCatalogueUpdateInterface listener,
+            final List<ProcessBriefType> processList,
+            final boolean success) {
+        SwingUtilities.invokeLater(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.catalogueLoaded(processList, success);
+                    }
+                });
+    }
+
+    /** The cached catalogue of a connection and type of data. */
+    private static class CatalogueEntry {
+
+        /** The connection. */
+        private final GeoServerConnection connection;
+
+        /** The type of data. */
+        private final DataTypeEnum typeOfData;
+
+        /** The complete process list, null until the catalogue has been read. */
+        private List<ProcessBriefType> processList = null;
+
+        /** The processes read so far by the first read. */
+        private List<ProcessBriefType> partialList = new ArrayList<>();
+
+        /** The listeners waiting for the read in progress. */
+        private List<WPSProcessCatalogueUpdateInterface> listenerList = new ArrayList<>();
+
+        /** The time the catalogue was read. */
+        private long loadTime = 0L;
+
+        /** The loading flag. */
+        private boolean loading = false;
+
+        /**
+         * Instantiates a new catalogue entry.
+         *
+         * @param connection the connection
+         * @param typeOfData the type of data
+         */
+        CatalogueEntry(GeoServerConnection connection, DataTypeEnum typeOfData) {
+            this.connection = connection;
+            this.typeOfData = typeOfData;
+        }
+    }
+}
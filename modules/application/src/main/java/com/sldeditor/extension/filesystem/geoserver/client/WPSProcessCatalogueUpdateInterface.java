@@ -0,0 +1,50 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.extension.filesystem.geoserver.client;
+
+import java.util.List;
+import net.opengis.wps10.ProcessBriefType;
+
+/**
+ * The Interface WPSProcessCatalogueUpdateInterface, receives the render transformations read by the
+ * {@link WPSProcessCatalogue}.
+ *
+ * <p>Implementations are always called on the event dispatch thread.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public interface WPSProcessCatalogueUpdateInterface {
+
+    /**
+     * Process added, called for each render transformation as it is read from the server for the
+     * first time.
+     *
+     * @param process the process
+     */
+    void processAdded(ProcessBriefType process);
+
+    /**
+     * Catalogue loaded, called with the complete list of render transformations.
+     *
+     * @param processList the process list, null if the catalogue could not be read
+     * @param success true if the catalogue was read successfully
+     */
+    void catalogueLoaded(List<ProcessBriefType> processList, boolean success);
+}
@@ -149,7 +149,7 @@ public class EnvironmentVariableManager implements EnvironmentManagerInterface {
      *
      * @return singleton instance of EnvironmentVariableManager
      */
-    public static EnvironmentManagerInterface getInstance() {
+    public static synchronized EnvironmentManagerInterface getInstance() {
         if (instance == null) {
             instance = new EnvironmentVariableManager();
         }
@@ -398,7 +398,7 @@ public class EnvironmentVariableManager implements EnvironmentManagerInterface {
     }
 
     /** Destroy instance. */
-    public static void destroyInstance() {
+    public static synchronized void destroyInstance() {
         instance = null;
     }
 }
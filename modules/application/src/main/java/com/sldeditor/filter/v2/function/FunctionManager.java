@@ -68,7 +68,7 @@ public class FunctionManager implements FunctionNameInterface {
      *
      * @return single instance of FunctionManager
      */
-    public static FunctionNameInterface getInstance() {
+    public static synchronized FunctionNameInterface getInstance() {
         if (instance == null) {
             instance = new FunctionManager();
         }
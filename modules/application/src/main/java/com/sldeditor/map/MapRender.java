@@ -33,9 +33,14 @@ import com.sldeditor.datasource.RenderSymbolInterface;
 import com.sldeditor.datasource.SLDEditorFile;
 import com.sldeditor.datasource.StickyDataSourceInterface;
 import com.sldeditor.datasource.impl.DataSourceFactory;
+import com.sldeditor.datasource.impl.DataSourceLoader;
 import com.sldeditor.datasource.impl.GeometryTypeEnum;
 import com.sldeditor.filter.v2.envvar.EnvironmentVariableManager;
 import com.sldeditor.filter.v2.envvar.WMSEnvVarValues;
+import com.sldeditor.render.RenderResultInterface;
+import com.sldeditor.render.RenderScheduler;
+import com.sldeditor.render.RenderTask;
+import com.sldeditor.render.RenderTransformationCache;
 import com.sldeditor.ui.render.RuleRenderOptions;
 import java.awt.BorderLayout;
 import java.awt.CardLayout;
@@ -52,12 +57,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JToggleButton;
 import javax.swing.JToolBar;
 import org.geotools.coverage.grid.io.AbstractGridCoverage2DReader;
@@ -81,6 +89,8 @@ import org.geotools.swing.action.ResetAction;
 import org.geotools.swing.action.ZoomInAction;
 import org.geotools.swing.action.ZoomOutAction;
 import org.geotools.swing.control.JMapStatusBar;
+import org.geotools.swing.event.MapPaneAdapter;
+import org.geotools.swing.event.MapPaneEvent;
 import org.locationtech.jts.geom.Envelope;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
@@ -155,6 +165,9 @@ public class MapRender extends JPanel
     private static final String TOOLBAR_STICKY_DATSOURCE_BUTTON_NAME =
             "ToolbarStickyDataSourceButton";
 
+    /** The Constant TOOLBAR_FULL_FIDELITY_BUTTON_NAME. */
+    private static final String TOOLBAR_FULL_FIDELITY_BUTTON_NAME = "ToolbarFullFidelityButton";
+
     /** The click to zoom factor, 1 wheel click is 10% zoom. */
     private static final double CLICK_TO_ZOOM_FACTOR = 0.1;
 
@@ -178,6 +191,48 @@ public class MapRender extends JPanel
     /** The label cache. */
     private transient SynchronizedLabelCache labelCache = new SynchronizedLabelCache();
 
+    /** The display area of each feature source, calculated on a render thread. */
+    // CHECKSTYLE:OFF
+    private transient Map<FeatureSource<SimpleFeatureType, SimpleFeature>, ReferencedEnvelope>
+            displayAreaMap = new ConcurrentHashMap<>();
+    // CHECKSTYLE:ON
+
+    /** The feature sources whose display area the user chose not to wait for. */
+    // CHECKSTYLE:OFF
+    private transient Set<FeatureSource<SimpleFeatureType, SimpleFeature>> skipDisplayAreaSet =
+            ConcurrentHashMap.newKeySet();
+    // CHECKSTYLE:ON
+
+    /** The preview of each large feature source, built on a render thread. */
+    // CHECKSTYLE:OFF
+    private transient Map<FeatureSource<SimpleFeatureType, SimpleFeature>, PreviewFeatureCache>
+            previewMap = new ConcurrentHashMap<>();
+    // CHECKSTYLE:ON
+
+    /** The feature sources rendered without a preview. */
+    // CHECKSTYLE:OFF
+    private transient Set<FeatureSource<SimpleFeatureType, SimpleFeature>> noPreviewSet =
+            ConcurrentHashMap.newKeySet();
+    // CHECKSTYLE:ON
+
+    /** The map layers currently displaying a preview. */
+    private transient Map<Layer, PreviewFeatureCache> previewLayerMap = new HashMap<>();
+
+    /** The owner of preview builds in the render scheduler. */
+    private transient Object previewOwner = new Object();
+
+    /** The owner of level of detail updates in the render scheduler. */
+    private transient Object previewLevelOwner = new Object();
+
+    /** The full fidelity flag, when set every feature is rendered without generalisation. */
+    private boolean fullFidelity = false;
+
+    /** The progress bar displayed while the display area or preview is calculated. */
+    private JProgressBar displayAreaProgressBar = null;
+
+    /** The button to stop calculating the display area or preview. */
+    private JButton cancelDisplayAreaButton = null;
+
     /** Default constructor. */
     public MapRender() {
         setLayout(new BorderLayout());
@@ -212,6 +267,15 @@ public class MapRender extends JPanel
         // Listen for mouse wheel changes
         mapPane.addMouseWheelListener(this);
 
+        // Update the level of detail of previews when zooming
+        mapPane.addMapPaneListener(
+                new MapPaneAdapter() {
+                    @Override
+                    public void onDisplayAreaChanged(MapPaneEvent ev) {
+                        updatePreviewLevel();
+                    }
+                });
+
         SLDEditorFile.getInstance().addStickyDataSourceListener(this);
     }
 
@@ -274,6 +338,45 @@ public class MapRender extends JPanel
                 });
         toolBar.add(stickyDataSourceButton);
 
+        final JToggleButton fullFidelityButton =
+                new JToggleButton(
+                        Localisation.getString(MapRender.class, "MapRender.fullFidelity"));
+        fullFidelityButton.setToolTipText(
+                Localisation.getString(MapRender.class, "MapRender.fullFidelityToolTip"));
+        fullFidelityButton.setName(TOOLBAR_FULL_FIDELITY_BUTTON_NAME);
+        fullFidelityButton.addActionListener(
+                new ActionListener() {
+
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        setFullFidelity(fullFidelityButton.isSelected());
+                    }
+                });
+        toolBar.add(fullFidelityButton);
+
+        toolBar.addSeparator();
+
+        displayAreaProgressBar = new JProgressBar();
+        displayAreaProgressBar.setIndeterminate(true);
+        displayAreaProgressBar.setStringPainted(true);
+        displayAreaProgressBar.setString(
+                Localisation.getString(MapRender.class, "MapRender.calculatingDisplayArea"));
+        displayAreaProgressBar.setVisible(false);
+        toolBar.add(displayAreaProgressBar);
+
+        cancelDisplayAreaButton =
+                new JButton(Localisation.getString(MapRender.class, "MapRender.cancel"));
+        cancelDisplayAreaButton.setVisible(false);
+        cancelDisplayAreaButton.addActionListener(
+                new ActionListener() {
+
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        cancelDisplayArea();
+                    }
+                });
+        toolBar.add(cancelDisplayAreaButton);
+
         return toolBar;
     }
 
@@ -282,32 +385,304 @@ public class MapRender extends JPanel
         internalRenderStyle();
     }
 
-    /** Internal render style. */
+    /**
+     * Internal render style, the display area of each data source is calculated on a render thread
+     * and bursts of requests are coalesced so only the latest style is applied to the map pane.
+     * Under test the display area is calculated on the calling thread.
+     */
     private void internalRenderStyle() {
-        if (!underTest) {
-            if (hasError()) {
-                mapPane.resetRenderer();
-                mapPane.getRenderer().addRenderListener(this);
-                resetError();
+        if (underTest) {
+            mapBounds =
+                    new DisplayAreaTask(getFeatureSourceList(), displayAreaMap, skipDisplayAreaSet)
+                            .render();
+        } else {
+            List<FeatureSource<SimpleFeatureType, SimpleFeature>> featureSourceList =
+                    getFeatureSourceList();
+            DisplayAreaTask task =
+                    new DisplayAreaTask(featureSourceList, displayAreaMap, skipDisplayAreaSet);
+
+            if (task.hasWork()) {
+                showProgress("MapRender.calculatingDisplayArea");
+            }
+
+            RenderScheduler.getInstance()
+                    .submit(
+                            this,
+                            task,
+                            new RenderResultInterface<ReferencedEnvelope>() {
+                                @Override
+                                public void renderComplete(ReferencedEnvelope result) {
+                                    showProgress(null);
+                                    mapBounds = result;
+                                    applyStyle();
+                                    updatePreviews();
+                                }
+                            });
+        }
+    }
+
+    /**
+     * Stop calculating the display area and preview of the data sources, the map is rendered
+     * without waiting for them.
+     */
+    private void cancelDisplayArea() {
+        RenderScheduler.getInstance().cancel(this);
+        RenderScheduler.getInstance().cancel(previewOwner);
+
+        for (FeatureSource<SimpleFeatureType, SimpleFeature> featureSource :
+                getFeatureSourceList()) {
+            if (!displayAreaMap.containsKey(featureSource)) {
+                skipDisplayAreaSet.add(featureSource);
+            }
+
+            if (!previewMap.containsKey(featureSource)) {
+                noPreviewSet.add(featureSource);
+            }
+        }
+        showProgress(null);
+        applyStyle();
+    }
+
+    /**
+     * Show or hide the progress bar.
+     *
+     * @param messageKey the localisation key of the message to display, null to hide the progress
+     */
+    private void showProgress(String messageKey) {
+        boolean show = (messageKey != null);
+
+        if (displayAreaProgressBar != null) {
+            if (show) {
+                displayAreaProgressBar.setString(
+                        Localisation.getString(MapRender.class, messageKey));
+            }
+            displayAreaProgressBar.setVisible(show);
+        }
+
+        if (cancelDisplayAreaButton != null) {
+            cancelDisplayAreaButton.setVisible(show);
+        }
+    }
+
+    /**
+     * Sets the full fidelity flag, when set every feature is rendered without generalisation
+     * otherwise large data sources are rendered from a preview.
+     *
+     * @param fullFidelity the new full fidelity flag
+     */
+    private void setFullFidelity(boolean fullFidelity) {
+        this.fullFidelity = fullFidelity;
+
+        if (fullFidelity) {
+            RenderScheduler.getInstance().cancel(previewOwner);
+            RenderScheduler.getInstance().cancel(previewLevelOwner);
+            showProgress(null);
+            updatePreviewLayers(getPixelSize());
+        } else {
+            updatePreviews();
+            updatePreviewLevel();
+        }
+    }
+
+    /**
+     * Build previews of the large data sources on a render thread, the map layers are switched to
+     * the previews when they are ready.
+     */
+    private void updatePreviews() {
+        if (underTest || fullFidelity) {
+            return;
+        }
+
+        if (RenderScheduler.getInstance().isPending(previewOwner)) {
+            showProgress("MapRender.preparingPreview");
+            return;
+        }
+
+        List<FeatureSource<SimpleFeatureType, SimpleFeature>> pendingList = new ArrayList<>();
+        for (FeatureSource<SimpleFeatureType, SimpleFeature> featureSource :
+                getFeatureSourceList()) {
+            if (displayAreaMap.containsKey(featureSource)
+                    && !previewMap.containsKey(featureSource)
+                    && !noPreviewSet.contains(featureSource)) {
+                pendingList.add(featureSource);
+            }
+        }
+
+        if (pendingList.isEmpty()) {
+            return;
+        }
+
+        showProgress("MapRender.preparingPreview");
+        RenderScheduler.getInstance()
+                .submit(
+                        previewOwner,
+                        new PreviewTask(
+                                pendingList,
+                                displayAreaMap,
+                                previewMap,
+                                noPreviewSet,
+                                getPixelSize()),
+                        new RenderResultInterface<Void>() {
+                            @Override
+                            public void renderComplete(Void result) {
+                                showProgress(null);
+                                updatePreviewLayers(getPixelSize());
+                                updatePreviewLevel();
+                            }
+                        });
+    }
+
+    /**
+     * Generalise the previews for the current scale on a render thread, bursts of changes to the
+     * display area are coalesced.
+     */
+    private void updatePreviewLevel() {
+        if (underTest || fullFidelity || previewMap.isEmpty()) {
+            return;
+        }
+
+        final double pixelSize = getPixelSize();
+        final List<PreviewFeatureCache> previewList = new ArrayList<>(previewMap.values());
+
+        RenderScheduler.getInstance()
+                .submit(
+                        previewLevelOwner,
+                        new RenderTask<Void>() {
+                            @Override
+                            public Void render() {
+                                for (PreviewFeatureCache preview : previewList) {
+                                    preview.getFeatureSource(pixelSize);
+                                }
+                                return null;
+                            }
+
+                            @Override
+                            public void cancel() {
+                                // A level is generalised in one step
+                            }
+                        },
+                        new RenderResultInterface<Void>() {
+                            @Override
+                            public void renderComplete(Void result) {
+                                updatePreviewLayers(pixelSize);
+                            }
+                        });
+    }
+
+    /**
+     * Switch the map layers between their data sources and previews at the level of detail for the
+     * pixel size, called on the event dispatch thread.
+     *
+     * @param pixelSize the pixel size
+     */
+    private void updatePreviewLayers(double pixelSize) {
+        MapContent mapContent = mapPane.getMapContent();
+        if (mapContent == null) {
+            return;
+        }
+
+        Map<Layer, PreviewFeatureCache> updatedLayerMap = new HashMap<>();
+        List<Layer> layerList = new ArrayList<>(mapContent.layers());
+        for (int index = 0; index < layerList.size(); index++) {
+            Layer layer = layerList.get(index);
+            if (!(layer instanceof FeatureLayer)) {
+                continue;
             }
-            wmsEnvVarValues.setImageWidth(mapPane.getWidth());
-            wmsEnvVarValues.setImageHeight(mapPane.getHeight());
 
-            MapContent mapContent = mapPane.getMapContent();
-            if (mapContent == null) {
-                mapContent = new MapContent();
-                mapPane.setMapContent(mapContent);
+            PreviewFeatureCache preview = previewLayerMap.get(layer);
+            if (preview == null) {
+                preview = previewMap.get(layer.getFeatureSource());
             }
 
-            Map<Object, Object> hints = new HashMap<>();
+            if (preview != null) {
+                FeatureSource<SimpleFeatureType, SimpleFeature> featureSource =
+                        fullFidelity
+                                ? preview.getFeatureSource()
+                                : preview.getCachedFeatureSource(pixelSize);
+
+                Layer updatedLayer = layer;
+                if (layer.getFeatureSource() != featureSource) {
+                    updatedLayer =
+                            new FeatureLayer(
+                                    featureSource,
+                                    RenderTransformationCache.getInstance()
+                                            .applyCache(
+                                                    ((FeatureLayer) layer).getStyle(),
+                                                    featureSource,
+                                                    mapContent.getViewport()));
+                    mapContent.removeLayer(layer);
+                    mapContent.addLayer(updatedLayer);
+                    mapContent.moveLayer(mapContent.layers().size() - 1, index);
+                }
+
+                if (!fullFidelity) {
+                    updatedLayerMap.put(updatedLayer, preview);
+                }
+            }
+        }
+        previewLayerMap = updatedLayerMap;
+    }
+
+    /**
+     * Gets the size of a pixel in map units at the current display area.
+     *
+     * @return the pixel size, 0 if not known
+     */
+    private double getPixelSize() {
+        ReferencedEnvelope displayArea = mapPane.getDisplayArea();
+        if ((displayArea == null) || displayArea.isEmpty() || (mapPane.getWidth() <= 0)) {
+            return 0.0;
+        }
+        return displayArea.getWidth() / mapPane.getWidth();
+    }
 
-            clearLabelCache();
-            hints.put(StreamingRenderer.LABEL_CACHE_KEY, labelCache);
-            mapPane.getRenderer().setRendererHints(hints);
+    /** Apply the current style to the map pane, called on the event dispatch thread. */
+    private void applyStyle() {
+        if (hasError()) {
+            mapPane.resetRenderer();
+            mapPane.getRenderer().addRenderListener(this);
+            resetError();
+        }
+        wmsEnvVarValues.setImageWidth(mapPane.getWidth());
+        wmsEnvVarValues.setImageHeight(mapPane.getHeight());
 
-            // Add the layers back with the updated style
-            renderUpdatedStyle(mapContent);
+        MapContent mapContent = mapPane.getMapContent();
+        if (mapContent == null) {
+            mapContent = new MapContent();
+            mapPane.setMapContent(mapContent);
         }
+
+        Map<Object, Object> hints = new HashMap<>();
+
+        clearLabelCache();
+        hints.put(StreamingRenderer.LABEL_CACHE_KEY, labelCache);
+        mapPane.getRenderer().setRendererHints(hints);
+
+        // Add the layers back with the updated style
+        renderUpdatedStyle(mapContent);
+    }
+
+    /**
+     * Gets the feature sources that can be rendered.
+     *
+     * @return the feature source list
+     */
+    private List<FeatureSource<SimpleFeatureType, SimpleFeature>> getFeatureSourceList() {
+        List<FeatureSource<SimpleFeatureType, SimpleFeature>> featureSourceList = new ArrayList<>();
+
+        if (featureList != null) {
+            featureSourceList.add(featureList);
+        }
+
+        if (userLayerFeatureListMap != null) {
+            for (FeatureSource<SimpleFeatureType, SimpleFeature> featureSource :
+                    userLayerFeatureListMap.values()) {
+                if (featureSource != null) {
+                    featureSourceList.add(featureSource);
+                }
+            }
+        }
+        return featureSourceList;
     }
 
     /**
@@ -356,6 +731,7 @@ public class MapRender extends JPanel
         for (Layer layer : mapContent.layers()) {
             mapContent.removeLayer(layer);
         }
+        previewLayerMap.clear();
 
         switch (geometryType) {
             case RASTER:
@@ -393,13 +769,30 @@ public class MapRender extends JPanel
         }
 
         if (tmpFeatureList != null) {
-            mapContent.addLayer(
-                    new FeatureLayer(tmpFeatureList, (org.geotools.styling.Style) style));
-            try {
-                mapPane.setDisplayArea(tmpFeatureList.getBounds());
-            } catch (IOException e) {
-                ConsoleManager.getInstance().exception(this, e);
+            ReferencedEnvelope displayArea = displayAreaMap.get(tmpFeatureList);
+            if (displayArea != null) {
+                mapPane.setDisplayArea(displayArea);
+            }
+
+            PreviewFeatureCache preview = fullFidelity ? null : previewMap.get(tmpFeatureList);
+            FeatureSource<SimpleFeatureType, SimpleFeature> renderFeatureList =
+                    (preview == null)
+                            ? tmpFeatureList
+                            : preview.getCachedFeatureSource(getPixelSize());
+
+            // Rendering transformation results are reused when only the symbolisation changes
+            Layer layer =
+                    new FeatureLayer(
+                            renderFeatureList,
+                            RenderTransformationCache.getInstance()
+                                    .applyCache(
+                                            (org.geotools.styling.Style) style,
+                                            renderFeatureList,
+                                            mapContent.getViewport()));
+            if (preview != null) {
+                previewLayerMap.put(layer, preview);
             }
+            mapContent.addLayer(layer);
         }
     }
 
@@ -411,7 +804,13 @@ public class MapRender extends JPanel
      */
     private void renderRasterSymbol(MapContent mapContent, Style style) {
         GridReaderLayer gridLayer =
-                new GridReaderLayer(gridCoverage, (org.geotools.styling.Style) style);
+                new GridReaderLayer(
+                        gridCoverage,
+                        RenderTransformationCache.getInstance()
+                                .applyCache(
+                                        (org.geotools.styling.Style) style,
+                                        gridCoverage,
+                                        mapContent.getViewport()));
         mapContent.addLayer(gridLayer);
         mapContent.getViewport().setBounds(gridLayer.getBounds());
         if (gridCoverage != null) {
@@ -455,16 +854,29 @@ public class MapRender extends JPanel
             GeometryTypeEnum geometryType, boolean isConnectedToDataSourceFlag) {
 
         this.geometryType = geometryType;
+        displayAreaMap.clear();
+        skipDisplayAreaSet.clear();
+        previewMap.clear();
+        noPreviewSet.clear();
+        previewLayerMap.clear();
+        RenderTransformationCache.getInstance().clear();
+        mapBounds = null;
+        if (!underTest) {
+            RenderScheduler.getInstance().cancel(previewOwner);
+            RenderScheduler.getInstance().cancel(previewLevelOwner);
+        }
         featureList = DataSourceFactory.getDataSource().getFeatureSource();
 
         userLayerFeatureListMap = DataSourceFactory.getDataSource().getUserLayerFeatureSource();
         gridCoverage = DataSourceFactory.getDataSource().getGridCoverageReader();
 
-        calculateMapBounds();
-
         CardLayout cardLayout = (CardLayout) mapPanel.getLayout();
 
         if ((geometryType == GeometryTypeEnum.UNKNOWN) || !isConnectedToDataSourceFlag) {
+            if (!underTest) {
+                RenderScheduler.getInstance().cancel(this);
+            }
+            showProgress(null);
             cardLayout.show(mapPanel, NOMAP_PANEL);
         } else {
             cardLayout.show(mapPanel, MAP_PANEL);
@@ -473,52 +885,13 @@ public class MapRender extends JPanel
         }
     }
 
-    /** Calculate map bounds. */
-    private void calculateMapBounds() {
-        List<ReferencedEnvelope> refEnvList = new ArrayList<>();
-
-        if (featureList != null) {
-            try {
-                refEnvList.add(convertToWGS84(featureList.getFeatures().getBounds()));
-            } catch (IOException e) {
-                ConsoleManager.getInstance().exception(MapRender.class, e);
-            }
-        }
-
-        if (userLayerFeatureListMap != null) {
-            for (Entry<UserLayer, FeatureSource<SimpleFeatureType, SimpleFeature>> entry :
-                    userLayerFeatureListMap.entrySet()) {
-                try {
-                    @SuppressWarnings("unlikely-arg-type")
-                    FeatureSource<SimpleFeatureType, SimpleFeature> featureSource =
-                            userLayerFeatureListMap.get(entry.getValue());
-
-                    if (featureSource != null) {
-                        refEnvList.add(convertToWGS84(featureSource.getFeatures().getBounds()));
-                    }
-                } catch (IOException e) {
-                    ConsoleManager.getInstance().exception(MapRender.class, e);
-                }
-            }
-        }
-
-        if (!refEnvList.isEmpty()) {
-            // Combine all the bounding boxes of all the layers
-            mapBounds = refEnvList.get(0);
-
-            for (int index = 1; index < refEnvList.size(); index++) {
-                mapBounds.expandToInclude(refEnvList.get(index));
-            }
-        }
-    }
-
     /**
      * Convert referenced envelope to WGS 84.
      *
      * @param bounds the bounds
      * @return the referenced envelope
      */
-    private ReferencedEnvelope convertToWGS84(ReferencedEnvelope bounds) {
+    private static ReferencedEnvelope convertToWGS84(ReferencedEnvelope bounds) {
         if (bounds == null) {
             return null;
         }
@@ -537,13 +910,18 @@ public class MapRender extends JPanel
         try {
             transform = CRS.findMathTransform(bounds.getCoordinateReferenceSystem(), wgs84, true);
         } catch (FactoryException e) {
-            ConsoleManager.getInstance().exception(this, e);
+            ConsoleManager.getInstance().exception(MapRender.class, e);
+        }
+
+        if (transform == null) {
+            return null;
         }
+
         Envelope targetGeometry = null;
         try {
             targetGeometry = JTS.transform(bounds, transform);
         } catch (TransformException e) {
-            ConsoleManager.getInstance().exception(this, e);
+            ConsoleManager.getInstance().exception(MapRender.class, e);
         }
 
         if (targetGeometry != null) {
@@ -768,4 +1146,202 @@ public class MapRender extends JPanel
     public void fileEncodingUpdate(Charset fileEncoding) {
         // Do nothing
     }
+
+    /**
+     * Task that calculates the display area of feature sources on a render thread and combines them
+     * into the map bounds.
+     */
+    private static class DisplayAreaTask implements RenderTask<ReferencedEnvelope> {
+
+        /** The feature source list. */
+        private final List<FeatureSource<SimpleFeatureType, SimpleFeature>> featureSourceList;
+
+        /** The display area map to populate. */
+        private final Map<FeatureSource<SimpleFeatureType, SimpleFeature>, ReferencedEnvelope>
+                displayAreaMap;
+
+        /** The feature sources not to calculate a display area for. */
+        private final Set<FeatureSource<SimpleFeatureType, SimpleFeature>> skipSet;
+
+        /** The cancelled flag. */
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        /**
+         * Instantiates a new display area task.
+         *
+         * @param featureSourceList the feature source list
+         * @param displayAreaMap the display area map
+         * @param skipSet the feature sources not to calculate a display area for
+         */
+        DisplayAreaTask(
+                List<FeatureSource<SimpleFeatureType, SimpleFeature>> featureSourceList,
+                Map<FeatureSource<SimpleFeatureType, SimpleFeature>, ReferencedEnvelope>
+                        displayAreaMap,
+                Set<FeatureSource<SimpleFeatureType, SimpleFeature>> skipSet) {
+            this.featureSourceList = featureSourceList;
+            this.displayAreaMap = displayAreaMap;
+            this.skipSet = skipSet;
+        }
+
+        /**
+         * Checks whether any display area still has to be calculated.
+         *
+         * @return true, if a display area has to be calculated
+         */
+        boolean hasWork() {
+            for (FeatureSource<SimpleFeatureType, SimpleFeature> featureSource :
+                    featureSourceList) {
+                if (!displayAreaMap.containsKey(featureSource)
+                        && !skipSet.contains(featureSource)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.render.RenderTask#render()
+         */
+        @Override
+        public ReferencedEnvelope render() {
+            ReferencedEnvelope combinedBounds = null;
+
+            for (FeatureSource<SimpleFeatureType, SimpleFeature> featureSource :
+                    featureSourceList) {
+                if (cancelled.get()) {
+                    return null;
+                }
+
+                ReferencedEnvelope displayArea = displayAreaMap.get(featureSource);
+                if ((displayArea == null) && !skipSet.contains(featureSource)) {
+                    try {
+                        displayArea =
+                                DataSourceLoader.getInstance().getBounds(featureSource, cancelled);
+                        if ((displayArea != null) && !cancelled.get()) {
+                            displayAreaMap.put(featureSource, displayArea);
+                        }
+                    } catch (IOException e) {
+                        ConsoleManager.getInstance().exception(MapRender.class, e);
+                    }
+                }
+
+                if (displayArea != null) {
+                    // Copy so the cached display area is never modified
+                    ReferencedEnvelope bounds = convertToWGS84(new ReferencedEnvelope(displayArea));
+                    if (bounds != null) {
+                        if (combinedBounds == null) {
+                            combinedBounds = new ReferencedEnvelope(bounds);
+                        } else {
+                            combinedBounds.expandToInclude(bounds);
+                        }
+                    }
+                }
+            }
+            return combinedBounds;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.render.RenderTask#cancel()
+         */
+        @Override
+        public void cancel() {
+            cancelled.set(true);
+        }
+    }
+
+    /** Task that builds the previews of large feature sources on a render thread. */
+    private static class PreviewTask implements RenderTask<Void> {
+
+        /** The feature source list. */
+        private final List<FeatureSource<SimpleFeatureType, SimpleFeature>> featureSourceList;
+
+        /** The display area of each feature source. */
+        private final Map<FeatureSource<SimpleFeatureType, SimpleFeature>, ReferencedEnvelope>
+                displayAreaMap;
+
+        /** The preview map to populate. */
+        private final Map<FeatureSource<SimpleFeatureType, SimpleFeature>, PreviewFeatureCache>
+                previewMap;
+
+        /** The feature sources small enough to render without a preview. */
+        private final Set<FeatureSource<SimpleFeatureType, SimpleFeature>> noPreviewSet;
+
+        /** The pixel size the first level of detail is generalised for. */
+        private final double pixelSize;
+
+        /** The cancelled flag. */
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        /**
+         * Instantiates a new preview task.
+         *
+         * @param featureSourceList the feature source list
+         * @param displayAreaMap the display area map
+         * @param previewMap the preview map
+         * @param noPreviewSet the no preview set
+         * @param pixelSize the pixel size
+         */
+        PreviewTask(
+                List<FeatureSource<SimpleFeatureType, SimpleFeature>> featureSourceList,
+                Map<FeatureSource<SimpleFeatureType, SimpleFeature>, ReferencedEnvelope>
+                        displayAreaMap,
+                Map<FeatureSource<SimpleFeatureType, SimpleFeature>, PreviewFeatureCache>
+                        previewMap,
+                Set<FeatureSource<SimpleFeatureType, SimpleFeature>> noPreviewSet,
+                double pixelSize) {
+            this.featureSourceList = featureSourceList;
+            this.displayAreaMap = displayAreaMap;
+            this.previewMap = previewMap;
+            this.noPreviewSet = noPreviewSet;
+            this.pixelSize = pixelSize;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.render.RenderTask#render()
+         */
+        @Override
+        public Void render() {
+            for (FeatureSource<SimpleFeatureType, SimpleFeature> featureSource :
+                    featureSourceList) {
+                try {
+                    PreviewFeatureCache preview =
+                            PreviewFeatureCache.create(
+                                    featureSource,
+                                    displayAreaMap.get(featureSource),
+                                    PreviewFeatureCache.DEFAULT_MAX_FEATURES,
+                                    cancelled);
+                    if (cancelled.get()) {
+                        break;
+                    }
+
+                    if (preview == null) {
+                        noPreviewSet.add(featureSource);
+                    } else {
+                        preview.getFeatureSource(pixelSize);
+                        previewMap.put(featureSource, preview);
+                    }
+                } catch (IOException e) {
+                    ConsoleManager.getInstance().exception(MapRender.class, e);
+                    noPreviewSet.add(featureSource);
+                }
+            }
+            return null;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.render.RenderTask#cancel()
+         */
+        @Override
+        public void cancel() {
+            cancelled.set(true);
+        }
+    }
 }
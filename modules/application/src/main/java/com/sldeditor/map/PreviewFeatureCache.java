@@ -0,0 +1,391 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.map;
+
+import com.sldeditor.datasource.impl.DataSourceLoader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.log4j.Logger;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.Query;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.collection.SpatialIndexFeatureCollection;
+import org.geotools.data.collection.SpatialIndexFeatureSource;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.FeatureIterator;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+
+/**
+ * The Class PreviewFeatureCache, an in memory sample of a large feature source used to preview
+ * styles without reading every feature for every render.
+ *
+ * <p>The sample is spatially stratified, the extent is divided into a grid and an equal share of
+ * the features is read from each cell so sparse areas are represented as well as dense ones. The
+ * cell queries are bounding box queries so the spatial index of the data source is used where it
+ * has one. An extent estimated from a sample may not contain every feature, so the features are
+ * then sampled from throughout the data source instead of from a grid.
+ *
+ * <p>Geometries are generalised for each level of detail to a tolerance below the size of a pixel
+ * at that level. Each level is served from a feature source indexed with an STRtree, the most
+ * recently used levels are kept.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class PreviewFeatureCache {
+
+    /** The Constant DEFAULT_MAX_FEATURES, the maximum number of features sampled. */
+    public static final int DEFAULT_MAX_FEATURES = 50000;
+
+    /** The Constant NO_GENERALISATION, the level at which geometries are not generalised. */
+    public static final int NO_GENERALISATION = -1;
+
+    /** The Constant GRID_SIZE, the number of cells across the extent the sample is drawn from. */
+    private static final int GRID_SIZE = 8;
+
+    /** The Constant TILE_SIZE, the number of pixels across the extent at level 0. */
+    private static final int TILE_SIZE = 256;
+
+    /** The Constant MAX_LEVEL, the deepest level at which geometries are generalised. */
+    private static final int MAX_LEVEL = 16;
+
+    /** The Constant MAX_CACHED_LEVELS. */
+    private static final int MAX_CACHED_LEVELS = 4;
+
+    /** The logger. */
+    private static Logger logger = Logger.getLogger(PreviewFeatureCache.class);
+
+    /** The filter factory. */
+    private static FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2();
+
+    /** The feature source the sample was read from. */
+    private final FeatureSource<SimpleFeatureType, SimpleFeature> featureSource;
+
+    /** The schema. */
+    private final SimpleFeatureType schema;
+
+    /** The sampled features. */
+    private final List<SimpleFeature> sampleList;
+
+    /** The largest dimension of the extent. */
+    private final double extent;
+
+    /** The generalise flag, false for point geometries. */
+    private final boolean generalise;
+
+    /** The feature source for each cached level, in least recently used order. */
+    private Map<Integer, SimpleFeatureSource> levelMap =
+            new LinkedHashMap<Integer, SimpleFeatureSource>(MAX_CACHED_LEVELS + 1, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<Integer, SimpleFeatureSource> eldest) {
+                    return size() > MAX_CACHED_LEVELS;
+                }
+            };
+
+    /**
+     * Instantiates a new preview feature cache.
+     *
+     * @param featureSource the feature source the sample was read from
+     * @param sampleList the sampled features
+     * @param bounds the extent of the feature source
+     */
+    private PreviewFeatureCache(
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource,
+            List<SimpleFeature> sampleList,
+            ReferencedEnvelope bounds) {
+        this.featureSource = featureSource;
+        this.schema = featureSource.getSchema();
+        this.sampleList = sampleList;
+        this.extent = Math.max(bounds.getWidth(), bounds.getHeight());
+
+        Class<?> binding = schema.getGeometryDescriptor().getType().getBinding();
+        this.generalise =
+                !Point.class.isAssignableFrom(binding)
+                        && !MultiPoint.class.isAssignableFrom(binding);
+    }
+
+    /**
+     * Read a preview of a feature source. Slow operation, call on a background thread.
+     *
+     * @param featureSource the feature source
+     * @param bounds the extent of the feature source in its native coordinate reference system, may
+     *     be estimated
+     * @param maxFeatures the maximum number of features to sample
+     * @param cancelled set to stop reading features
+     * @return the preview, null if the feature source is small enough to render directly, has no
+     *     geometry or reading was cancelled
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static PreviewFeatureCache create(
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource,
+            ReferencedEnvelope bounds,
+            int maxFeatures,
+            AtomicBoolean cancelled)
+            throws IOException {
+        if ((featureSource == null) || (bounds == null) || bounds.isNull()) {
+            return null;
+        }
+
+        // Count is -1 when it is too expensive to calculate
+        int count = featureSource.getCount(Query.ALL);
+        if ((count >= 0) && (count <= maxFeatures)) {
+            return null;
+        }
+
+        SimpleFeatureType schema = featureSource.getSchema();
+        GeometryDescriptor geometryDescriptor = schema.getGeometryDescriptor();
+        if (geometryDescriptor == null) {
+            return null;
+        }
+
+        // Features overlapping several cells are only sampled once
+        Map<String, SimpleFeature> sampleMap = new LinkedHashMap<>();
+        ReferencedEnvelope sampleBounds = new ReferencedEnvelope(bounds);
+
+        if (DataSourceLoader.isEstimated(bounds)) {
+            // Features may lie outside an estimated extent, so the sample is not clipped to it
+            Query query = new Query(schema.getTypeName());
+            for (Query sampleQuery :
+                    DataSourceLoader.createSampleQueries(featureSource, query, maxFeatures)) {
+                if (!readSample(featureSource, sampleQuery, sampleMap, cancelled)) {
+                    return null;
+                }
+            }
+
+            for (SimpleFeature feature : sampleMap.values()) {
+                Object geometry = feature.getDefaultGeometry();
+                if (geometry instanceof Geometry) {
+                    sampleBounds.expandToInclude(((Geometry) geometry).getEnvelopeInternal());
+                }
+            }
+        } else {
+            int cellQuota = Math.max(1, maxFeatures / (GRID_SIZE * GRID_SIZE));
+            double cellWidth = bounds.getWidth() / GRID_SIZE;
+            double cellHeight = bounds.getHeight() / GRID_SIZE;
+
+            for (int row = 0; row < GRID_SIZE; row++) {
+                for (int col = 0; col < GRID_SIZE; col++) {
+                    ReferencedEnvelope cell =
+                            new ReferencedEnvelope(
+                                    bounds.getMinX() + (col * cellWidth),
+                                    bounds.getMinX() + ((col + 1) * cellWidth),
+                                    bounds.getMinY() + (row * cellHeight),
+                                    bounds.getMinY() + ((row + 1) * cellHeight),
+                                    bounds.getCoordinateReferenceSystem());
+
+                    Filter filter = ff.bbox(ff.property(geometryDescriptor.getLocalName()), cell);
+                    Query query = new Query(schema.getTypeName(), filter);
+                    query.setMaxFeatures(cellQuota);
+
+                    if (!readSample(featureSource, query, sampleMap, cancelled)) {
+                        return null;
+                    }
+                }
+            }
+        }
+
+        logger.debug(
+                String.format(
+                        "Preview of %s sampled %d of %d features",
+                        schema.getName(), sampleMap.size(), count));
+
+        return new PreviewFeatureCache(
+                featureSource, new ArrayList<>(sampleMap.values()), sampleBounds);
+    }
+
+    /**
+     * Read the features matching a query in to the sample.
+     *
+     * @param featureSource the feature source
+     * @param query the query
+     * @param sampleMap the sampled features, keyed by feature id
+     * @param cancelled set to stop reading features
+     * @return true, if not cancelled
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static boolean readSample(
+            FeatureSource<SimpleFeatureType, SimpleFeature> featureSource,
+            Query query,
+            Map<String, SimpleFeature> sampleMap,
+            AtomicBoolean cancelled)
+            throws IOException {
+        try (FeatureIterator<SimpleFeature> iterator =
+                featureSource.getFeatures(query).features()) {
+            while (iterator.hasNext()) {
+                if (cancelled.get()) {
+                    return false;
+                }
+
+                SimpleFeature feature = iterator.next();
+                sampleMap.putIfAbsent(feature.getID(), feature);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the feature source the sample was read from.
+     *
+     * @return the feature source
+     */
+    public FeatureSource<SimpleFeatureType, SimpleFeature> getFeatureSource() {
+        return featureSource;
+    }
+
+    /**
+     * Gets the number of features sampled.
+     *
+     * @return the sample size
+     */
+    public int getSampleSize() {
+        return sampleList.size();
+    }
+
+    /**
+     * Gets the level of detail for a pixel size.
+     *
+     * @param pixelSize the size of a pixel in the units of the feature source, 0 if not known
+     * @return the level, NO_GENERALISATION if geometries are not to be generalised
+     */
+    public int getLevel(double pixelSize) {
+        if (!generalise || (pixelSize <= 0.0) || (extent <= 0.0)) {
+            return NO_GENERALISATION;
+        }
+
+        int level = (int) Math.ceil(Math.log(extent / (TILE_SIZE * pixelSize)) / Math.log(2.0));
+        if (level > MAX_LEVEL) {
+            return NO_GENERALISATION;
+        }
+        return Math.max(0, level);
+    }
+
+    /**
+     * Gets the preview for a pixel size, the level is generalised if it is not cached. Slow
+     * operation when the level is not cached, call on a background thread. The level is generalised
+     * without holding the lock so the cached levels remain available meanwhile.
+     *
+     * @param pixelSize the size of a pixel in the units of the feature source, 0 if not known
+     * @return the feature source
+     */
+    public SimpleFeatureSource getFeatureSource(double pixelSize) {
+        int level = getLevel(pixelSize);
+
+        synchronized (this) {
+            SimpleFeatureSource source = levelMap.get(level);
+            if (source != null) {
+                return source;
+            }
+        }
+
+        SimpleFeatureSource source = createLevel(level);
+
+        synchronized (this) {
+            // Another thread may have generalised the same level meanwhile
+            SimpleFeatureSource existing = levelMap.get(level);
+            if (existing != null) {
+                return existing;
+            }
+            levelMap.put(level, source);
+        }
+        return source;
+    }
+
+    /**
+     * Gets the cached preview closest to a pixel size without generalising a new level. If no level
+     * has been cached yet the sample is returned as it is, without a spatial index.
+     *
+     * @param pixelSize the size of a pixel in the units of the feature source, 0 if not known
+     * @return the feature source
+     */
+    public SimpleFeatureSource getCachedFeatureSource(double pixelSize) {
+        int level = getLevel(pixelSize);
+
+        synchronized (this) {
+            SimpleFeatureSource source = levelMap.get(level);
+            if (source != null) {
+                return source;
+            }
+
+            int closest = Integer.MAX_VALUE;
+            for (Map.Entry<Integer, SimpleFeatureSource> entry : levelMap.entrySet()) {
+                int difference = Math.abs(entry.getKey() - level);
+                if (difference < closest) {
+                    closest = difference;
+                    source = entry.getValue();
+                }
+            }
+
+            if (source != null) {
+                return source;
+            }
+        }
+
+        return DataUtilities.source(new ListFeatureCollection(schema, sampleList));
+    }
+
+    /**
+     * Generalise the sample for a level and index it.
+     *
+     * @param level the level
+     * @return the feature source
+     */
+    private SimpleFeatureSource createLevel(int level) {
+        SpatialIndexFeatureCollection collection = new SpatialIndexFeatureCollection(schema);
+
+        if (level == NO_GENERALISATION) {
+            collection.addAll(sampleList);
+        } else {
+            double tolerance = extent / (TILE_SIZE * Math.pow(2.0, level));
+
+            List<SimpleFeature> generalisedList = new ArrayList<>(sampleList.size());
+            for (SimpleFeature feature : sampleList) {
+                Object geometry = feature.getDefaultGeometry();
+                if (geometry instanceof Geometry) {
+                    SimpleFeature generalised = SimpleFeatureBuilder.copy(feature);
+                    generalised.setDefaultGeometry(
+                            TopologyPreservingSimplifier.simplify((Geometry) geometry, tolerance));
+                    generalisedList.add(generalised);
+                } else {
+                    generalisedList.add(feature);
+                }
+            }
+            collection.addAll(generalisedList);
+        }
+        return new SpatialIndexFeatureSource(collection);
+    }
+}
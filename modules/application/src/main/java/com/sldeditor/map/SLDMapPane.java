@@ -234,6 +234,8 @@ public class SLDMapPane extends AbstractMapPane {
                 }
 
                 if (mapContent != null && !mapContent.layers().isEmpty()) {
+                    // Only the latest render is of interest, abandon any in progress
+                    getRenderingExecutor().cancelAll();
                     getRenderingExecutor()
                             .submit(mapContent, getRenderer(), baseImageGraphics, this);
                 }
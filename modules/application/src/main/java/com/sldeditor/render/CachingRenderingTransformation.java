@@ -0,0 +1,235 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.render;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.geotools.data.Query;
+import org.geotools.filter.function.EnvFunction;
+import org.geotools.filter.function.RenderingTransformation;
+import org.geotools.filter.text.ecql.ECQL;
+import org.geotools.map.MapViewport;
+import org.geotools.util.Converters;
+import org.opengis.coverage.grid.GridGeometry;
+import org.opengis.filter.capability.FunctionName;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.ExpressionVisitor;
+import org.opengis.filter.expression.Literal;
+
+/**
+ * Rendering transformation that memoises the results of another rendering transformation in the
+ * {@link RenderTransformationCache}.
+ *
+ * <p>Results are keyed by the transformation expression and its parameters, the input data source,
+ * the map viewport and the environment variables, so re-rendering after an edit that only affects
+ * symbolisation reuses the transformed data.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class CachingRenderingTransformation implements RenderingTransformation {
+
+    /** The transformation being cached. */
+    private final RenderingTransformation transformation;
+
+    /** The identifier of the input data source. */
+    private final long inputId;
+
+    /** The map viewport, null if the result does not depend on it. */
+    private final MapViewport viewport;
+
+    /** The cache. */
+    private final RenderTransformationCache cache;
+
+    /** The transformation expression and its parameters. */
+    private String expressionKey = null;
+
+    /**
+     * Instantiates a new caching rendering transformation.
+     *
+     * @param transformation the transformation being cached
+     * @param inputId the identifier of the input data source
+     * @param viewport the map viewport, may be null
+     * @param cache the cache
+     */
+    public CachingRenderingTransformation(
+            RenderingTransformation transformation,
+            long inputId,
+            MapViewport viewport,
+            RenderTransformationCache cache) {
+        this.transformation = transformation;
+        this.inputId = inputId;
+        this.viewport = viewport;
+        this.cache = cache;
+    }
+
+    /**
+     * Gets the transformation being cached.
+     *
+     * @return the transformation
+     */
+    public RenderingTransformation getTransformation() {
+        return transformation;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.opengis.filter.expression.Expression#evaluate(java.lang.Object)
+     */
+    @Override
+    public Object evaluate(Object object) {
+        String key = getKey();
+
+        Object result = cache.get(key);
+        if (result == null) {
+            result = cache.put(key, transformation.evaluate(object));
+        }
+        return result;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.opengis.filter.expression.Expression#evaluate(java.lang.Object, java.lang.Class)
+     */
+    @Override
+    public <T> T evaluate(Object object, Class<T> context) {
+        Object result = evaluate(object);
+        if (context == null) {
+            @SuppressWarnings("unchecked")
+            T castResult = (T) result;
+            return castResult;
+        }
+        return Converters.convert(result, context);
+    }
+
+    /**
+     * Gets the cache key for the current viewport and environment.
+     *
+     * @return the key
+     */
+    String getKey() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getExpressionKey());
+        sb.append('|');
+        sb.append(inputId);
+
+        if (viewport != null) {
+            sb.append('|');
+            sb.append(viewport.getBounds());
+            sb.append('|');
+            sb.append(viewport.getScreenArea());
+        }
+
+        // Parameters may refer to environment variables, e.g. wms_bbox
+        Map<String, Object> envMap = new TreeMap<>(EnvFunction.getGlobalValues());
+        envMap.putAll(EnvFunction.getLocalValues());
+        sb.append('|');
+        sb.append(envMap);
+        return sb.toString();
+    }
+
+    /**
+     * Gets the transformation expression and its parameters as a string.
+     *
+     * @return the expression key
+     */
+    private synchronized String getExpressionKey() {
+        if (expressionKey == null) {
+            try {
+                expressionKey = ECQL.toCQL(transformation);
+            } catch (RuntimeException e) {
+                expressionKey = transformation.getName() + transformation.getParameters();
+            }
+        }
+        return expressionKey;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.filter.function.RenderingTransformation#invertQuery(org.geotools.data.Query, org.opengis.coverage.grid.GridGeometry)
+     */
+    @Override
+    public Query invertQuery(Query targetQuery, GridGeometry gridGeometry) {
+        return transformation.invertQuery(targetQuery, gridGeometry);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.geotools.filter.function.RenderingTransformation#invertGridGeometry(org.geotools.data.Query, org.opengis.coverage.grid.GridGeometry)
+     */
+    @Override
+    public GridGeometry invertGridGeometry(Query targetQuery, GridGeometry targetGridGeometry) {
+        return transformation.invertGridGeometry(targetQuery, targetGridGeometry);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.opengis.filter.expression.Function#getName()
+     */
+    @Override
+    public String getName() {
+        return transformation.getName();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.opengis.filter.expression.Function#getFunctionName()
+     */
+    @Override
+    public FunctionName getFunctionName() {
+        return transformation.getFunctionName();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.opengis.filter.expression.Function#getParameters()
+     */
+    @Override
+    public List<Expression> getParameters() {
+        return transformation.getParameters();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.opengis.filter.expression.Function#getFallbackValue()
+     */
+    @Override
+    public Literal getFallbackValue() {
+        return transformation.getFallbackValue();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.opengis.filter.expression.Expression#accept(org.opengis.filter.expression.ExpressionVisitor, java.lang.Object)
+     */
+    @Override
+    public Object accept(ExpressionVisitor visitor, Object extraData) {
+        return transformation.accept(visitor, extraData);
+    }
+}
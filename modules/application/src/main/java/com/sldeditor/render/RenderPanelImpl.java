@@ -41,7 +41,6 @@ import com.sldeditor.filter.v2.envvar.WMSEnvVarValues;
 import com.sldeditor.ui.render.RuleRenderOptions;
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.LayoutManager;
@@ -68,6 +67,7 @@ import org.geotools.map.MapContent;
 import org.geotools.map.MapViewport;
 import org.geotools.referencing.crs.DefaultGeographicCRS;
 import org.geotools.renderer.GTRenderer;
+import org.geotools.renderer.RenderListener;
 import org.geotools.renderer.label.LabelCacheImpl;
 import org.geotools.renderer.lite.StreamingRenderer;
 import org.geotools.resources.CRSUtilities;
@@ -146,8 +146,8 @@ public class RenderPanelImpl extends JPanel
     /** The data loaded. */
     private boolean dataLoaded = false;
 
-    /** The renderer. */
-    private transient GTRenderer renderer = new StreamingRenderer();
+    /** The listener informed of render errors. */
+    private transient RenderListener renderErrorListener = null;
 
     /** The geometry type. */
     private GeometryTypeEnum geometryType = GeometryTypeEnum.UNKNOWN;
@@ -179,7 +179,7 @@ public class RenderPanelImpl extends JPanel
         PrefManager.getInstance().addListener(this);
         VendorOptionManager.getInstance().addVendorOptionListener(this);
 
-        renderer.addRenderListener(RendererErrors.getInstance());
+        renderErrorListener = RendererErrors.getInstance();
     }
 
     /**
@@ -273,7 +273,8 @@ public class RenderPanelImpl extends JPanel
     }
 
     /**
-     * Render symbol.
+     * Render symbol, the map is built on the calling thread and then painted in the background by
+     * the render scheduler.
      *
      * @param style the style
      */
@@ -283,32 +284,51 @@ public class RenderPanelImpl extends JPanel
 
             Rectangle imageSize = new Rectangle(0, 0, this.getWidth(), this.getHeight());
 
+            SymbolRenderTask task = null;
             switch (geometryType) {
                 case RASTER:
-                    renderRasterMap(imageSize, style, DPI);
+                    task = createRasterTask(imageSize, style, DPI);
                     break;
                 case POINT:
                 case LINE:
                 case POLYGON:
-                    renderVectorMap(featureList, imageSize, style, DPI);
+                    task = createVectorTask(featureList, imageSize, style, DPI);
                     break;
                 default:
                     validSymbol = false;
                     break;
             }
 
-            repaint();
+            if (task == null) {
+                RenderScheduler.getInstance().cancel(this);
+                repaint();
+            } else {
+                RenderScheduler.getInstance().submit(this, task, this::renderComplete);
+            }
+        }
+    }
+
+    /**
+     * Called on the event dispatch thread when the background render has finished.
+     *
+     * @param image the rendered image, null if nothing was rendered
+     */
+    private void renderComplete(BufferedImage image) {
+        if (image != null) {
+            this.bImage = image;
         }
+        repaint();
     }
 
     /**
-     * Render raster map.
+     * Creates the task to render the raster map.
      *
      * @param imageSize the image size
      * @param style the style
      * @param dpi the dpi
+     * @return the symbol render task
      */
-    private void renderRasterMap(Rectangle imageSize, Style style, int dpi) {
+    private SymbolRenderTask createRasterTask(Rectangle imageSize, Style style, int dpi) {
         DataSourceInterface dataSource = DataSourceFactory.getDataSource();
         AbstractGridCoverage2DReader gridCoverage = dataSource.getGridCoverageReader();
 
@@ -316,77 +336,37 @@ public class RenderPanelImpl extends JPanel
             validSymbol = false;
         }
 
-        GridReaderLayer rasterLayer = null;
+        ReferencedEnvelope bounds = null;
         MapViewport viewport = null;
         List<Layer> layerList = new ArrayList<>();
         if (style != null) {
-            rasterLayer = new GridReaderLayer(gridCoverage, style);
+            GridReaderLayer rasterLayer = new GridReaderLayer(gridCoverage, style);
             layerList.add(rasterLayer);
-            viewport = new MapViewport(rasterLayer.getBounds());
+            bounds = rasterLayer.getBounds();
+            viewport = new MapViewport(bounds);
         }
 
-        boolean hasGeometry = validSymbol;
-
-        MapContent map = new MapContent();
-        map.addLayers(layerList);
-        map.setViewport(viewport);
-        try {
-            Map<Object, Object> hints = new HashMap<>();
-            if (OVERRIDE_DPI) {
-                hints.put(StreamingRenderer.DPI_KEY, dpi);
-            }
-            // This ensures all the labelling is cleared
-            hints.put(StreamingRenderer.LABEL_CACHE_KEY, new LabelCacheImpl());
-
-            renderer.setRendererHints(hints);
-            renderer.setMapContent(map);
-            BufferedImage image =
-                    new BufferedImage(
-                            imageSize.width, imageSize.height, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D graphics = image.createGraphics();
-
-            if (useAntiAlias) {
-                graphics.setRenderingHints(
-                        new RenderingHints(
-                                RenderingHints.KEY_ANTIALIASING,
-                                RenderingHints.VALUE_ANTIALIAS_ON));
-            }
-
-            try {
-                if (!hasGeometry) {
-                    graphics.setColor(Color.BLACK);
-                    int y = imageSize.height / 2;
-                    Font font = new Font(Font.SERIF, Font.BOLD, 14);
-                    graphics.setFont(font);
-                    graphics.drawString(
-                            Localisation.getString(RenderPanelImpl.class, "RenderPanelImpl.error1"),
-                            10,
-                            y - 14);
-                } else {
-                    if (rasterLayer != null) {
-                        ReferencedEnvelope bounds = rasterLayer.getBounds();
-                        renderer.paint(graphics, imageSize, bounds);
-                    }
-
-                    this.bImage = image;
-                }
-            } finally {
-                graphics.dispose();
-            }
-        } finally {
-            map.dispose();
-        }
+        return new SymbolRenderTask(
+                layerList,
+                viewport,
+                bounds,
+                imageSize,
+                validSymbol,
+                dpi,
+                useAntiAlias,
+                renderErrorListener);
     }
 
     /**
-     * Render vector map.
+     * Creates the task to render the vector map.
      *
      * @param features the results
      * @param imageSize the image size
      * @param style the style
      * @param dpi the dpi
+     * @return the symbol render task
      */
-    private void renderVectorMap(
+    private SymbolRenderTask createVectorTask(
             FeatureSource<SimpleFeatureType, SimpleFeature> features,
             Rectangle imageSize,
             Style style,
@@ -401,7 +381,7 @@ public class RenderPanelImpl extends JPanel
         ReferencedEnvelope bounds = null;
 
         if (features != null) {
-            bounds = calculateBounds();
+            bounds = calculateBounds(features);
 
             wmsEnvVarValues.setMapBounds(bounds);
 
@@ -412,23 +392,66 @@ public class RenderPanelImpl extends JPanel
             }
         }
 
-        internalRenderMap(layerList, bounds, imageSize, hasGeometry, dpi);
+        return new SymbolRenderTask(
+                layerList,
+                null,
+                bounds,
+                imageSize,
+                hasGeometry,
+                dpi,
+                useAntiAlias,
+                renderErrorListener);
+    }
+
+    /**
+     * Render the example features to an image on the calling thread, used to create style
+     * thumbnails.
+     *
+     * @param features the example features
+     * @param style the style
+     * @param imageSize the image size
+     * @return the rendered image, null if nothing could be rendered
+     */
+    static BufferedImage renderExample(
+            FeatureSource<SimpleFeatureType, SimpleFeature> features,
+            Style style,
+            Rectangle imageSize) {
+        if ((features == null) || (style == null) || (features.getSchema() == null)) {
+            return null;
+        }
+
+        List<Layer> layerList = new ArrayList<>();
+        layerList.add(new FeatureLayer(features, style));
+
+        SymbolRenderTask task =
+                new SymbolRenderTask(
+                        layerList,
+                        null,
+                        calculateBounds(features),
+                        imageSize,
+                        (features.getSchema().getGeometryDescriptor() != null),
+                        DPI,
+                        true,
+                        null);
+        return task.render();
     }
 
     /**
      * Calculate bounds.
      *
+     * @param features the features
      * @return the referenced envelope
      */
-    private ReferencedEnvelope calculateBounds() {
+    private static ReferencedEnvelope calculateBounds(
+            FeatureSource<SimpleFeatureType, SimpleFeature> features) {
         ReferencedEnvelope bounds = null;
 
         try {
-            bounds = featureList.getBounds();
+            bounds = features.getBounds();
 
             if (bounds == null) {
                 // It could be that the above call was too costly!
-                bounds = featureList.getFeatures().getBounds();
+                bounds = features.getFeatures().getBounds();
             }
 
             if (bounds.getCoordinateReferenceSystem() == null) {
@@ -441,7 +464,7 @@ public class RenderPanelImpl extends JPanel
                 expandEnvelope(bounds);
             }
         } catch (IOException e) {
-            ConsoleManager.getInstance().exception(this, e);
+            ConsoleManager.getInstance().exception(RenderPanelImpl.class, e);
         }
         return bounds;
     }
@@ -451,7 +474,7 @@ public class RenderPanelImpl extends JPanel
      *
      * @param bounds the bounds
      */
-    private void expandEnvelope(ReferencedEnvelope bounds) {
+    private static void expandEnvelope(ReferencedEnvelope bounds) {
         Unit<?> unit =
                 CRSUtilities.getUnit(bounds.getCoordinateReferenceSystem().getCoordinateSystem());
 
@@ -480,68 +503,6 @@ public class RenderPanelImpl extends JPanel
         bounds.expandBy(width, height);
     }
 
-    /**
-     * Internal render map.
-     *
-     * @param layers the layers
-     * @param bounds the bounds
-     * @param imageSize the image size
-     * @param hasGeometry the has geometry
-     * @param dpi the dpi
-     */
-    private void internalRenderMap(
-            List<Layer> layers,
-            ReferencedEnvelope bounds,
-            Rectangle imageSize,
-            boolean hasGeometry,
-            int dpi) {
-        MapContent map = new MapContent();
-        map.addLayers(layers);
-        try {
-            Map<Object, Object> hints = new HashMap<>();
-            if (OVERRIDE_DPI) {
-                hints.put(StreamingRenderer.DPI_KEY, dpi);
-            }
-            // This ensures all the labelling is cleared
-            hints.put(StreamingRenderer.LABEL_CACHE_KEY, new LabelCacheImpl());
-
-            renderer.setRendererHints(hints);
-            renderer.setMapContent(map);
-            BufferedImage image =
-                    new BufferedImage(
-                            imageSize.width, imageSize.height, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D graphics = image.createGraphics();
-
-            if (useAntiAlias) {
-                graphics.setRenderingHints(
-                        new RenderingHints(
-                                RenderingHints.KEY_ANTIALIASING,
-                                RenderingHints.VALUE_ANTIALIAS_ON));
-            }
-
-            try {
-                if (!hasGeometry) {
-                    graphics.setColor(Color.BLACK);
-                    int y = imageSize.height / 2;
-                    Font font = new Font(Font.SERIF, Font.BOLD, 14);
-                    graphics.setFont(font);
-                    graphics.drawString(
-                            Localisation.getString(RenderPanelImpl.class, "RenderPanelImpl.error1"),
-                            10,
-                            y - 14);
-                } else {
-                    renderer.paint(graphics, imageSize, bounds);
-
-                    this.bImage = image;
-                }
-            } finally {
-                graphics.dispose();
-            }
-        } finally {
-            map.dispose();
-        }
-    }
-
     /** Creates the feature. */
     private void createFeature() {
 
@@ -674,4 +635,127 @@ public class RenderPanelImpl extends JPanel
     public void fileEncodingUpdate(Charset fileEncoding) {
         // Do nothing
     }
+
+    /** Task that paints the symbol map content to an image on a render thread. */
+    private static class SymbolRenderTask implements RenderTask<BufferedImage> {
+
+        /** The layers. */
+        private final List<Layer> layers;
+
+        /** The viewport, may be null. */
+        private final MapViewport viewport;
+
+        /** The bounds. */
+        private final ReferencedEnvelope bounds;
+
+        /** The image size. */
+        private final Rectangle imageSize;
+
+        /** The has geometry flag. */
+        private final boolean hasGeometry;
+
+        /** The dpi. */
+        private final int dpi;
+
+        /** The use anti alias flag. */
+        private final boolean useAntiAlias;
+
+        /** The renderer, one per task so renders on different threads do not interfere. */
+        private final GTRenderer renderer = new StreamingRenderer();
+
+        /**
+         * Instantiates a new symbol render task.
+         *
+         * @param layers the layers
+         * @param viewport the viewport
+         * @param bounds the bounds
+         * @param imageSize the image size
+         * @param hasGeometry the has geometry flag
+         * @param dpi the dpi
+         * @param useAntiAlias the use anti alias flag
+         * @param renderListener the render listener
+         */
+        SymbolRenderTask(
+                List<Layer> layers,
+                MapViewport viewport,
+                ReferencedEnvelope bounds,
+                Rectangle imageSize,
+                boolean hasGeometry,
+                int dpi,
+                boolean useAntiAlias,
+                RenderListener renderListener) {
+            this.layers = layers;
+            this.viewport = viewport;
+            this.bounds = bounds;
+            this.imageSize = imageSize;
+            this.hasGeometry = hasGeometry;
+            this.dpi = dpi;
+            this.useAntiAlias = useAntiAlias;
+
+            if (renderListener != null) {
+                renderer.addRenderListener(renderListener);
+            }
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.render.RenderTask#render()
+         */
+        @Override
+        public BufferedImage render() {
+            if (!hasGeometry || imageSize.isEmpty()) {
+                return null;
+            }
+
+            MapContent map = new MapContent();
+            map.addLayers(layers);
+            if (viewport != null) {
+                map.setViewport(viewport);
+            }
+            try {
+                Map<Object, Object> hints = new HashMap<>();
+                if (OVERRIDE_DPI) {
+                    hints.put(StreamingRenderer.DPI_KEY, dpi);
+                }
+                // This ensures all the labelling is cleared
+                hints.put(StreamingRenderer.LABEL_CACHE_KEY, new LabelCacheImpl());
+
+                renderer.setRendererHints(hints);
+                renderer.setMapContent(map);
+                BufferedImage image =
+                        new BufferedImage(
+                                imageSize.width, imageSize.height, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D graphics = image.createGraphics();
+
+                if (useAntiAlias) {
+                    graphics.setRenderingHints(
+                            new RenderingHints(
+                                    RenderingHints.KEY_ANTIALIASING,
+                                    RenderingHints.VALUE_ANTIALIAS_ON));
+                }
+
+                try {
+                    if (bounds != null) {
+                        renderer.paint(graphics, imageSize, bounds);
+                    }
+                } finally {
+                    graphics.dispose();
+                }
+                return image;
+            } finally {
+                map.dispose();
+            }
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.render.RenderTask#cancel()
+         */
+        @Override
+        public void cancel() {
+            renderer.stopRendering();
+        }
+    }
 }
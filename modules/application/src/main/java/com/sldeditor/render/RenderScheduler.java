@@ -0,0 +1,281 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.render;
+
+import com.sldeditor.common.console.ConsoleManager;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+
+/**
+ * Schedules render requests on a background executor so that rendering does not block the event
+ * dispatch thread.
+ *
+ * <p>Requests are grouped by owner. A burst of requests from the same owner is coalesced so that
+ * only the latest request is rendered, a render already in progress is cancelled as soon as a newer
+ * request arrives and only the result of the latest request is published back on the event dispatch
+ * thread.
+ *
+ * <p>Class is implemented as a singleton.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RenderScheduler {
+
+    /** The Constant DEFAULT_COALESCE_DELAY, time in milliseconds to wait for further requests. */
+    private static final long DEFAULT_COALESCE_DELAY = 40L;
+
+    /** The Constant MAX_THREADS. */
+    private static final int MAX_THREADS = 4;
+
+    /** The singleton instance. */
+    private static RenderScheduler instance = null;
+
+    /** The thread counter. */
+    private static final AtomicInteger threadCounter = new AtomicInteger(1);
+
+    /** The executor. */
+    private ScheduledExecutorService executor = null;
+
+    /** The coalesce delay in milliseconds. */
+    private long coalesceDelay = DEFAULT_COALESCE_DELAY;
+
+    /** The latest job for each owner. */
+    private Map<Object, RenderJob<?>> jobMap = new HashMap<>();
+
+    /**
+     * Gets the single instance of RenderScheduler.
+     *
+     * @return single instance of RenderScheduler
+     */
+    public static synchronized RenderScheduler getInstance() {
+        if (instance == null) {
+            int threads =
+                    Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+            instance = new RenderScheduler(threads, DEFAULT_COALESCE_DELAY);
+        }
+        return instance;
+    }
+
+    /**
+     * Instantiates a new render scheduler.
+     *
+     * @param threads the number of render threads
+     * @param coalesceDelay the time in milliseconds to wait for further requests before rendering
+     */
+    public RenderScheduler(int threads, long coalesceDelay) {
+        this.coalesceDelay = coalesceDelay;
+
+        ScheduledThreadPoolExecutor threadPool =
+                new ScheduledThreadPoolExecutor(
+                        threads,
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                String name = "SLDEditor-Render-" + threadCounter.getAndIncrement();
+                                Thread thread = new Thread(r, name);
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+        threadPool.setRemoveOnCancelPolicy(true);
+        executor = threadPool;
+    }
+
+    /**
+     * Submit a render request, any pending or in progress request for the same owner is cancelled.
+     *
+     * @param <T> the type of the render result
+     * @param owner the object requesting the render
+     * @param task the render task
+     * @param listener the listener informed on the event dispatch thread of the result
+     */
+    public <T> void submit(Object owner, RenderTask<T> task, RenderResultInterface<T> listener) {
+        if ((owner == null) || (task == null)) {
+            return;
+        }
+
+        RenderJob<T> job = new RenderJob<>(owner, task, listener);
+
+        synchronized (this) {
+            RenderJob<?> previousJob = jobMap.put(owner, job);
+            if (previousJob != null) {
+                previousJob.cancel();
+            }
+            job.setFuture(executor.schedule(job, coalesceDelay, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Cancel any pending or in progress render for the owner.
+     *
+     * @param owner the owner
+     */
+    public synchronized void cancel(Object owner) {
+        RenderJob<?> job = jobMap.remove(owner);
+        if (job != null) {
+            job.cancel();
+        }
+    }
+
+    /**
+     * Checks if a render is pending or in progress for the owner.
+     *
+     * @param owner the owner
+     * @return true, if is pending
+     */
+    public synchronized boolean isPending(Object owner) {
+        return jobMap.containsKey(owner);
+    }
+
+    /** Shutdown the scheduler, all pending renders are cancelled. */
+    public synchronized void shutdown() {
+        for (RenderJob<?> job : jobMap.values()) {
+            job.cancel();
+        }
+        jobMap.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks if the job is the latest one for its owner.
+     *
+     * @param job the job
+     * @return true, if is latest
+     */
+    private synchronized boolean isLatest(RenderJob<?> job) {
+        return jobMap.get(job.getOwner()) == job;
+    }
+
+    /**
+     * Removes the job if it is still the latest for its owner.
+     *
+     * @param job the job
+     * @return true, if the job was the latest
+     */
+    private synchronized boolean complete(RenderJob<?> job) {
+        return jobMap.remove(job.getOwner(), job);
+    }
+
+    /**
+     * A single render request.
+     *
+     * @param <T> the type of the render result
+     */
+    private class RenderJob<T> implements Runnable {
+
+        /** The owner. */
+        private final Object owner;
+
+        /** The task. */
+        private final RenderTask<T> task;
+
+        /** The listener. */
+        private final RenderResultInterface<T> listener;
+
+        /** The future. */
+        private ScheduledFuture<?> future = null;
+
+        /** The cancelled flag. */
+        private volatile boolean cancelled = false;
+
+        /**
+         * Instantiates a new render job.
+         *
+         * @param owner the owner
+         * @param task the task
+         * @param listener the listener
+         */
+        RenderJob(Object owner, RenderTask<T> task, RenderResultInterface<T> listener) {
+            this.owner = owner;
+            this.task = task;
+            this.listener = listener;
+        }
+
+        /**
+         * Gets the owner.
+         *
+         * @return the owner
+         */
+        Object getOwner() {
+            return owner;
+        }
+
+        /**
+         * Sets the future.
+         *
+         * @param future the new future
+         */
+        void setFuture(ScheduledFuture<?> future) {
+            this.future = future;
+        }
+
+        /**
+         * Cancel the job. The render thread is deliberately not interrupted, interrupting a thread
+         * reading a file channel closes the channel for every other reader of the data source.
+         */
+        void cancel() {
+            cancelled = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+            task.cancel();
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Runnable#run()
+         */
+        @Override
+        public void run() {
+            if (cancelled || !isLatest(this)) {
+                return;
+            }
+
+            T result = null;
+            try {
+                result = task.render();
+            } catch (RuntimeException e) {
+                ConsoleManager.getInstance().exception(RenderScheduler.class, e);
+                complete(this);
+                return;
+            }
+
+            if (cancelled || !isLatest(this)) {
+                return;
+            }
+
+            final T renderResult = result;
+            SwingUtilities.invokeLater(
+                    () -> {
+                        if (!cancelled && complete(this) && (listener != null)) {
+                            listener.renderComplete(renderResult);
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.render;
+
+/**
+ * Interface describing a unit of render work that can be executed by the {@link RenderScheduler} on
+ * a background thread.
+ *
+ * @param <T> the type of the render result
+ * @author Robert Ward (SCISYS)
+ */
+public interface RenderTask<T> {
+
+    /**
+     * Perform the render, called on a background thread.
+     *
+     * @return the render result, may be null
+     */
+    T render();
+
+    /** Cancel the render, called when the render has been superseded by a newer request. */
+    void cancel();
+}
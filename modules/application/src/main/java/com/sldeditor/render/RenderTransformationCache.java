@@ -0,0 +1,397 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.render;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.RenderedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.apache.log4j.Logger;
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.Parameter;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.FeatureCollection;
+import org.geotools.feature.FeatureIterator;
+import org.geotools.filter.function.RenderingTransformation;
+import org.geotools.map.MapViewport;
+import org.geotools.process.Processors;
+import org.geotools.process.function.ProcessFunction;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.FeatureTypeStyleImpl;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyleFactory;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.coverage.grid.GridCoverageReader;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.type.Name;
+import org.opengis.filter.expression.Expression;
+
+/**
+ * The Class RenderTransformationCache, memoises the results of rendering transformations (e.g.
+ * heatmap, contour, point stacker) so that re-rendering a style after an edit that only affects
+ * symbolisation does not execute the transformation again.
+ *
+ * <p>Only transformations of vector data sources are cached. Feature collection results are copied
+ * into memory and coverage results are kept as they are. The cache is bounded by the estimated
+ * memory size of the results, the least recently used results are evicted first.
+ *
+ * <p>Class is implemented as a singleton.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RenderTransformationCache {
+
+    /** The Constant MIN_MAX_SIZE, the smallest memory size in bytes of the default cache. */
+    private static final long MIN_MAX_SIZE = 16L * 1024L * 1024L;
+
+    /** The Constant MEMORY_FRACTION, the fraction of the heap used by the default cache. */
+    private static final int MEMORY_FRACTION = 16;
+
+    /** The Constant FEATURE_SIZE, the estimated size in bytes of a feature without attributes. */
+    private static final long FEATURE_SIZE = 64L;
+
+    /** The Constant ATTRIBUTE_SIZE, the estimated size in bytes of an attribute value. */
+    private static final long ATTRIBUTE_SIZE = 32L;
+
+    /** The Constant COORDINATE_SIZE, the estimated size in bytes of a coordinate. */
+    private static final long COORDINATE_SIZE = 40L;
+
+    /** The logger. */
+    private static Logger logger = Logger.getLogger(RenderTransformationCache.class);
+
+    /** The style factory. */
+    private static StyleFactory styleFactory = CommonFactoryFinder.getStyleFactory();
+
+    /** The singleton instance. */
+    private static RenderTransformationCache instance = null;
+
+    /** The maximum memory size of the cached results in bytes. */
+    private long maxSize;
+
+    /** The memory size of the cached results in bytes. */
+    private long size = 0L;
+
+    /** The cached results, in least recently used order. */
+    private Map<String, CachedResult> resultMap = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The identifier of each input data source. */
+    private Map<Object, Long> inputIdMap = new WeakHashMap<>();
+
+    /** The next input identifier. */
+    private long nextInputId = 1L;
+
+    /**
+     * Gets the single instance of RenderTransformationCache.
+     *
+     * @return single instance of RenderTransformationCache
+     */
+    public static synchronized RenderTransformationCache getInstance() {
+        if (instance == null) {
+            long defaultSize =
+                    Math.max(MIN_MAX_SIZE, Runtime.getRuntime().maxMemory() / MEMORY_FRACTION);
+            instance = new RenderTransformationCache(defaultSize);
+        }
+        return instance;
+    }
+
+    /**
+     * Instantiates a new render transformation cache.
+     *
+     * @param maxSize the maximum memory size of the cached results in bytes
+     */
+    public RenderTransformationCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Copy a style so that its rendering transformations are cached. The style being edited is not
+     * modified.
+     *
+     * @param style the style
+     * @param input the data source the style is applied to
+     * @param viewport the map viewport, may be null
+     * @return the style to render, the original style if it has no rendering transformation that
+     *     can be cached
+     */
+    public Style applyCache(Style style, Object input, MapViewport viewport) {
+        if ((style == null) || !isCacheableInput(input) || !hasTransformation(style)) {
+            return style;
+        }
+
+        // Shallow copy, the rules are shared with the style being edited
+        Style copy = styleFactory.createStyle();
+        copy.setName(style.getName());
+        copy.setDefault(style.isDefault());
+
+        long inputId = getInputId(input);
+        for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+            FeatureTypeStyle ftsCopy = new FeatureTypeStyleImpl(fts);
+            ftsCopy.getOptions().putAll(fts.getOptions());
+
+            RenderingTransformation transformation = getTransformation(fts.getTransformation());
+            if ((transformation != null) && !readsCoverage(transformation)) {
+                ftsCopy.setTransformation(
+                        new CachingRenderingTransformation(
+                                transformation, inputId, viewport, this));
+            }
+            copy.featureTypeStyles().add(ftsCopy);
+        }
+        return copy;
+    }
+
+    /**
+     * Gets a cached result.
+     *
+     * @param key the key
+     * @return the result, null if not cached
+     */
+    public synchronized Object get(String key) {
+        CachedResult cachedResult = resultMap.get(key);
+        return (cachedResult == null) ? null : cachedResult.result;
+    }
+
+    /**
+     * Cache the result of a transformation.
+     *
+     * @param key the key
+     * @param result the result
+     * @return the result to render, feature collections are replaced by an in memory copy
+     */
+    public Object put(String key, Object result) {
+        Object cacheableResult;
+        long resultSize;
+        if (result instanceof SimpleFeatureCollection) {
+            ListFeatureCollection collection =
+                    new ListFeatureCollection(((SimpleFeatureCollection) result).getSchema());
+            resultSize = copyFeatures((SimpleFeatureCollection) result, collection);
+            cacheableResult = collection;
+        } else if (result instanceof GridCoverage2D) {
+            resultSize = getCoverageSize((GridCoverage2D) result);
+            cacheableResult = result;
+        } else {
+            // Unknown result type, not cached
+            return result;
+        }
+
+        synchronized (this) {
+            if (resultSize <= maxSize) {
+                CachedResult previous =
+                        resultMap.put(key, new CachedResult(cacheableResult, resultSize));
+                if (previous != null) {
+                    size -= previous.size;
+                }
+                size += resultSize;
+                evict();
+            } else {
+                logger.debug(
+                        String.format(
+                                "Transformation result of %d bytes too large to cache",
+                                resultSize));
+            }
+        }
+        return cacheableResult;
+    }
+
+    /** Clear the cached results, e.g. when the data source has changed. */
+    public synchronized void clear() {
+        resultMap.clear();
+        size = 0L;
+    }
+
+    /**
+     * Gets the memory size of the cached results.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of cached results.
+     *
+     * @return the number of cached results
+     */
+    public synchronized int getCount() {
+        return resultMap.size();
+    }
+
+    /** Evict the least recently used results until the cache is within its memory size. */
+    private void evict() {
+        Iterator<CachedResult> iterator = resultMap.values().iterator();
+        while ((size > maxSize) && iterator.hasNext()) {
+            size -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Gets the identifier of an input data source.
+     *
+     * @param input the input data source
+     * @return the input identifier
+     */
+    private synchronized long getInputId(Object input) {
+        Long inputId = inputIdMap.get(input);
+        if (inputId == null) {
+            inputId = nextInputId++;
+            inputIdMap.put(input, inputId);
+        }
+        return inputId;
+    }
+
+    /**
+     * Checks whether the results of transforming an input can be cached. Only vector inputs are
+     * cached, for raster inputs the coverage is read before the transformation is evaluated so a
+     * cached result saves nothing.
+     *
+     * @param input the input data source
+     * @return true, if the input is a vector data source
+     */
+    private static boolean isCacheableInput(Object input) {
+        return (input instanceof FeatureSource) || (input instanceof FeatureCollection);
+    }
+
+    /**
+     * Checks whether a transformation is a process taking a coverage reader. The renderer
+     * recognises these by their process function type, which a caching wrapper would hide.
+     *
+     * @param transformation the transformation
+     * @return true, if the transformation reads a coverage
+     */
+    private static boolean readsCoverage(RenderingTransformation transformation) {
+        if (transformation instanceof ProcessFunction) {
+            Name processName = ((ProcessFunction) transformation).getProcessName();
+            Map<String, Parameter<?>> parameterMap =
+                    (processName == null) ? null : Processors.getParameterInfo(processName);
+            if (parameterMap != null) {
+                for (Parameter<?> parameter : parameterMap.values()) {
+                    if (GridCoverageReader.class.isAssignableFrom(parameter.getType())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a style has a rendering transformation that can be cached.
+     *
+     * @param style the style
+     * @return true, if the style has a rendering transformation that can be cached
+     */
+    private static boolean hasTransformation(Style style) {
+        for (FeatureTypeStyle fts : style.featureTypeStyles()) {
+            RenderingTransformation transformation = getTransformation(fts.getTransformation());
+            if ((transformation != null) && !readsCoverage(transformation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the rendering transformation to cache.
+     *
+     * @param expression the transformation expression
+     * @return the rendering transformation, null if the expression is not a rendering
+     *     transformation
+     */
+    private static RenderingTransformation getTransformation(Expression expression) {
+        if (expression instanceof CachingRenderingTransformation) {
+            return ((CachingRenderingTransformation) expression).getTransformation();
+        } else if (expression instanceof RenderingTransformation) {
+            return (RenderingTransformation) expression;
+        }
+        return null;
+    }
+
+    /**
+     * Copy features into memory.
+     *
+     * @param source the source feature collection
+     * @param destination the destination feature collection
+     * @return the estimated memory size of the features in bytes
+     */
+    private static long copyFeatures(
+            SimpleFeatureCollection source, ListFeatureCollection destination) {
+        long featureSize = 0L;
+        try (FeatureIterator<SimpleFeature> iterator = source.features()) {
+            while (iterator.hasNext()) {
+                SimpleFeature feature = iterator.next();
+                destination.add(feature);
+
+                featureSize += FEATURE_SIZE + (feature.getAttributeCount() * ATTRIBUTE_SIZE);
+                Object geometry = feature.getDefaultGeometry();
+                if (geometry instanceof Geometry) {
+                    featureSize += ((Geometry) geometry).getNumPoints() * COORDINATE_SIZE;
+                }
+            }
+        }
+        return featureSize;
+    }
+
+    /**
+     * Gets the estimated memory size of a coverage.
+     *
+     * @param coverage the coverage
+     * @return the size in bytes
+     */
+    private static long getCoverageSize(GridCoverage2D coverage) {
+        RenderedImage image = coverage.getRenderedImage();
+        if (image == null) {
+            return 0L;
+        }
+
+        int dataType = image.getSampleModel().getDataType();
+        long bytesPerSample = Math.max(1, DataBuffer.getDataTypeSize(dataType) / 8);
+        return (long) image.getWidth()
+                * image.getHeight()
+                * image.getSampleModel().getNumBands()
+                * bytesPerSample;
+    }
+
+    /** A cached result and its estimated memory size. */
+    private static class CachedResult {
+
+        /** The result. */
+        private final Object result;
+
+        /** The size in bytes. */
+        private final long size;
+
+        /**
+         * Instantiates a new cached result.
+         *
+         * @param result the result
+         * @param size the size in bytes
+         */
+        CachedResult(Object result, long size) {
+            this.result = result;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,691 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.render;
+
+import com.sldeditor.common.DataSourcePropertiesInterface;
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.SLDUtils;
+import com.sldeditor.common.preferences.PrefManager;
+import com.sldeditor.common.property.PropertyManagerFactory;
+import com.sldeditor.datasource.SLDEditorFileInterface;
+import com.sldeditor.datasource.impl.CreateInternalDataSource;
+import com.sldeditor.datasource.impl.DataSourceInfo;
+import com.sldeditor.datasource.impl.GeometryTypeEnum;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.styling.SLDParser;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyledLayer;
+import org.geotools.styling.StyledLayerDescriptor;
+
+/**
+ * Creates the style thumbnails displayed in the file system and GeoServer trees.
+ *
+ * <p>Each style is rendered with the example data used by the render panel on a small pool of
+ * background threads. The most recently requested thumbnails are rendered first, the tree only asks
+ * for the thumbnails of the rows it paints so visible rows take priority. When more requests are
+ * waiting than the pool can sensibly catch up with the oldest are dropped, they are requested again
+ * if the row is painted again.
+ *
+ * <p>Thumbnails are held in memory and written to the configuration folder keyed by the content
+ * hash and modification time of the style, so a style is only rendered again when it changes. When
+ * the cache folder holds too many thumbnails the least recently used are deleted. Styles that
+ * cannot be read are not remembered, they are read again the next time they are requested.
+ *
+ * <p>Class is implemented as a singleton.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class ThumbnailService {
+
+    /** The Constant THUMBNAIL_SIZE, the width and height of a thumbnail in pixels. */
+    public static final int THUMBNAIL_SIZE = 16;
+
+    /** The Constant RENDER_SIZE, the size the style is rendered at before it is scaled down. */
+    private static final int RENDER_SIZE = 48;
+
+    /** The Constant CACHE_FOLDER. */
+    private static final String CACHE_FOLDER = "thumbnails";
+
+    /** The Constant IMAGE_FORMAT. */
+    private static final String IMAGE_FORMAT = "png";
+
+    /** The Constant CACHE_FILE_EXTENSION. */
+    private static final String CACHE_FILE_EXTENSION = "." + IMAGE_FORMAT;
+
+    /** The Constant MAX_THREADS. */
+    private static final int MAX_THREADS = 2;
+
+    /** The Constant MAX_PENDING, the maximum number of thumbnails waiting to be created. */
+    private static final int MAX_PENDING = 256;
+
+    /** The Constant MAX_CACHED_THUMBNAILS, the maximum number of thumbnails held in memory. */
+    private static final int MAX_CACHED_THUMBNAILS = 2000;
+
+    /** The Constant MAX_CACHE_FILES, the maximum number of thumbnails in the cache folder. */
+    private static final int MAX_CACHE_FILES = 5000;
+
+    /** The Constant NO_THUMBNAIL, marks a style for which no thumbnail can be created. */
+    private static final Icon NO_THUMBNAIL = new ImageIcon();
+
+    /** The singleton instance. */
+    private static ThumbnailService instance = null;
+
+    /** The thread counter. */
+    private static final AtomicInteger threadCounter = new AtomicInteger(1);
+
+    /** The thumbnails held in memory, in least recently used order. */
+    private Map<String, Icon> thumbnailMap =
+            new LinkedHashMap<String, Icon>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Icon> eldest) {
+                    return size() > MAX_CACHED_THUMBNAILS;
+                }
+            };
+
+    /** The requests waiting to be processed, in the order they were last requested. */
+    private Map<String, ThumbnailRequest> pendingMap = new LinkedHashMap<>();
+
+    /** The requests being processed. */
+    private Map<String, ThumbnailRequest> inProgressMap = new HashMap<>();
+
+    /** The generation, incremented when thumbnails are invalidated. */
+    private long generation = 0L;
+
+    /** The cache folder, null if the thumbnails are only held in memory. */
+    private File cacheFolder = null;
+
+    /** The maximum number of thumbnails in the cache folder. */
+    private int maxCacheFiles = MAX_CACHE_FILES;
+
+    /** The number of thumbnails in the cache folder, -1 until the folder has been counted. */
+    private int cacheFileCount = -1;
+
+    /** The lock guarding the cache folder file count. */
+    private final Object cacheFolderLock = new Object();
+
+    /** The executor. */
+    private ExecutorService executor = null;
+
+    /**
+     * Gets the single instance of ThumbnailService.
+     *
+     * @return single instance of ThumbnailService
+     */
+    public static synchronized ThumbnailService getInstance() {
+        if (instance == null) {
+            instance =
+                    new ThumbnailService(
+                            new File(PropertyManagerFactory.getConfigFolder(), CACHE_FOLDER),
+                            MAX_THREADS);
+        }
+        return instance;
+    }
+
+    /**
+     * Instantiates a new thumbnail service.
+     *
+     * @param cacheFolder the cache folder, null to only hold thumbnails in memory
+     * @param threads the number of threads creating thumbnails
+     */
+    public ThumbnailService(File cacheFolder, int threads) {
+        this(cacheFolder, threads, MAX_CACHE_FILES);
+    }
+
+    /**
+     * Instantiates a new thumbnail service.
+     *
+     * @param cacheFolder the cache folder, null to only hold thumbnails in memory
+     * @param threads the number of threads creating thumbnails
+     * @param maxCacheFiles the maximum number of thumbnails in the cache folder
+     */
+    public ThumbnailService(File cacheFolder, int threads, int maxCacheFiles) {
+        this.cacheFolder = cacheFolder;
+        this.maxCacheFiles = Math.max(1, maxCacheFiles);
+        executor =
+                Executors.newFixedThreadPool(
+                        Math.max(1, threads),
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                String name =
+                                        "SLDEditor-Thumbnail-" + threadCounter.getAndIncrement();
+                                Thread thread = new Thread(r, name);
+                                thread.setDaemon(true);
+                                thread.setPriority(Thread.MIN_PRIORITY);
+                                return thread;
+                            }
+                        });
+    }
+
+    /**
+     * Gets the thumbnail of a style. If the thumbnail is not in memory it is created in the
+     * background and the listener informed on the event dispatch thread when it is available.
+     *
+     * @param source the style to get the thumbnail for
+     * @param listener the listener, may be null to just fill the cache
+     * @return the thumbnail, null if it is not available yet or cannot be created
+     */
+    public Icon getThumbnail(ThumbnailSourceInterface source, ThumbnailUpdateInterface listener) {
+        if (source == null) {
+            return null;
+        }
+
+        String id = source.getThumbnailId();
+        if (id == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            Icon thumbnail = thumbnailMap.get(id);
+            if (thumbnail != null) {
+                return (thumbnail == NO_THUMBNAIL) ? null : thumbnail;
+            }
+
+            ThumbnailRequest request = inProgressMap.get(id);
+            if (request != null) {
+                request.listener = listener;
+                return null;
+            }
+
+            // Move the request to the end of the queue, the most recent requests are taken first
+            request = pendingMap.remove(id);
+            boolean submit = (request == null);
+            if (submit) {
+                request = new ThumbnailRequest(id, source, generation);
+            }
+            request.listener = listener;
+            pendingMap.put(id, request);
+
+            if (pendingMap.size() > MAX_PENDING) {
+                Iterator<String> iterator = pendingMap.keySet().iterator();
+                iterator.next();
+                iterator.remove();
+            }
+
+            if (!submit) {
+                return null;
+            }
+        }
+
+        executor.execute(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        processNext();
+                    }
+                });
+        return null;
+    }
+
+    /**
+     * Invalidate the thumbnails held in memory whose identifier starts with the prefix, they are
+     * created again the next time they are requested.
+     *
+     * @param idPrefix the thumbnail identifier prefix
+     */
+    public synchronized void invalidate(String idPrefix) {
+        if (idPrefix == null) {
+            return;
+        }
+
+        generation++;
+        Iterator<String> iterator = thumbnailMap.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().startsWith(idPrefix)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /** Clear the thumbnails held in memory. */
+    public synchronized void clear() {
+        generation++;
+        thumbnailMap.clear();
+    }
+
+    /** Process the most recently requested thumbnail. */
+    private void processNext() {
+        ThumbnailRequest request;
+        synchronized (this) {
+            request = takeNewest();
+            if (request == null) {
+                return;
+            }
+            inProgressMap.put(request.id, request);
+        }
+
+        Icon thumbnail = null;
+        boolean readFailed = false;
+        try {
+            thumbnail = createThumbnail(request.source);
+        } catch (IOException e) {
+            // Style could not be read, the tree shows the default icon until it is requested again
+            readFailed = true;
+        } catch (RuntimeException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+
+        final ThumbnailUpdateInterface listener;
+        synchronized (this) {
+            inProgressMap.remove(request.id);
+            if (!readFailed && (request.generation == generation)) {
+                thumbnailMap.put(request.id, (thumbnail == null) ? NO_THUMBNAIL : thumbnail);
+            }
+            listener = request.listener;
+        }
+
+        if ((thumbnail == null) || (listener == null)) {
+            return;
+        }
+
+        final Icon availableThumbnail = thumbnail;
+        SwingUtilities.invokeLater(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.thumbnailAvailable(availableThumbnail);
+                    }
+                });
+    }
+
+    /**
+     * Take the most recently requested thumbnail request from the queue.
+     *
+     * @return the thumbnail request, null if the queue is empty
+     */
+    private ThumbnailRequest takeNewest() {
+        ThumbnailRequest request = null;
+        for (ThumbnailRequest pending : pendingMap.values()) {
+            request = pending;
+        }
+        if (request != null) {
+            pendingMap.remove(request.id);
+        }
+        return request;
+    }
+
+    /**
+     * Create the thumbnail of a style, the thumbnail is read from the cache folder if the style has
+     * not changed since it was last rendered.
+     *
+     * @param source the style
+     * @return the thumbnail, null if no thumbnail can be created
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private Icon createThumbnail(ThumbnailSourceInterface source) throws IOException {
+        SLDDataInterface sldData = source.readSLDData();
+        if ((sldData == null) || (sldData.getSld() == null)) {
+            return null;
+        }
+
+        File cacheFile = getCacheFile(getKey(sldData.getSld(), source.getLastModified()));
+        BufferedImage image = read(cacheFile);
+        if (image != null) {
+            // Mark the thumbnail as recently used so it is kept when the cache folder is pruned
+            cacheFile.setLastModified(System.currentTimeMillis());
+        } else {
+            image = render(sldData);
+            if (image == null) {
+                return null;
+            }
+            write(cacheFile, image);
+        }
+        return new ImageIcon(image);
+    }
+
+    /**
+     * Render the thumbnail of a style with the example data.
+     *
+     * @param sldData the SLD data
+     * @return the thumbnail image, null if the style could not be rendered
+     */
+    static BufferedImage render(final SLDDataInterface sldData) {
+        final StyledLayerDescriptor sld = parse(sldData);
+        Style style = getFirstStyle(sld);
+        if (style == null) {
+            return null;
+        }
+
+        CreateInternalDataSource internalDataSource = new CreateInternalDataSource();
+        List<DataSourceInfo> dataSourceInfoList =
+                internalDataSource.connect(
+                        null,
+                        null,
+                        new SLDEditorFileInterface() {
+                            @Override
+                            public SLDDataInterface getSLDData() {
+                                return sldData;
+                            }
+
+                            @Override
+                            public DataSourcePropertiesInterface getDataSource() {
+                                return null;
+                            }
+
+                            @Override
+                            public StyledLayerDescriptor getSLD() {
+                                return sld;
+                            }
+                        });
+        DataSourceInfo dataSourceInfo = dataSourceInfoList.get(0);
+
+        GeometryTypeEnum geometryType = dataSourceInfo.getGeometryType();
+        if ((geometryType == GeometryTypeEnum.UNKNOWN)
+                || (geometryType == GeometryTypeEnum.RASTER)) {
+            // No example raster data to render
+            return null;
+        }
+
+        BufferedImage image =
+                RenderPanelImpl.renderExample(
+                        dataSourceInfo.getFeatures(),
+                        style,
+                        new Rectangle(0, 0, RENDER_SIZE, RENDER_SIZE));
+        return (image == null) ? null : scale(image);
+    }
+
+    /**
+     * Parse the style, parse errors are not reported because they are reported when the style is
+     * opened.
+     *
+     * @param sldData the SLD data
+     * @return the styled layer descriptor, null if the style could not be parsed
+     */
+    private static StyledLayerDescriptor parse(SLDDataInterface sldData) {
+        Charset fileEncoding = PrefManager.getInstance().getPrefData().getFileEncoding();
+        SLDParser styleReader =
+                new SLDParser(
+                        CommonFactoryFinder.getStyleFactory(),
+                        new ByteArrayInputStream(sldData.getSld().getBytes(fileEncoding)));
+        SLDUtils.setResourcelocator(styleReader, SLDUtils.getResourceLocator(sldData));
+
+        try {
+            return styleReader.parseSLD();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the first style of the first styled layer.
+     *
+     * @param sld the styled layer descriptor
+     * @return the style, null if there is no style
+     */
+    private static Style getFirstStyle(StyledLayerDescriptor sld) {
+        if (sld == null) {
+            return null;
+        }
+
+        for (StyledLayer styledLayer : sld.layers()) {
+            List<Style> styleList = SLDUtils.getStylesList(styledLayer);
+            if ((styleList != null) && !styleList.isEmpty()) {
+                return styleList.get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Scale the rendered image down to the thumbnail size.
+     *
+     * @param image the rendered image
+     * @return the thumbnail image
+     */
+    private static BufferedImage scale(BufferedImage image) {
+        BufferedImage thumbnail =
+                new BufferedImage(THUMBNAIL_SIZE, THUMBNAIL_SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(
+                    RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(
+                    RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, THUMBNAIL_SIZE, THUMBNAIL_SIZE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    /**
+     * Gets the key identifying the thumbnail of a style on disk.
+     *
+     * @param sld the SLD contents
+     * @param lastModified the modification time of the style
+     * @return the key
+     */
+    static String getKey(String sld, long lastModified) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            for (byte b : digest.digest(sld.getBytes(StandardCharsets.UTF_8))) {
+                sb.append(String.format("%02x", b));
+            }
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-1, fall back to the string hash code
+            sb.append(String.format("%08x", sld.hashCode()));
+        }
+        sb.append(String.format("_%x_%d", lastModified, THUMBNAIL_SIZE));
+        return sb.toString();
+    }
+
+    /**
+     * Gets the cache file for a thumbnail key.
+     *
+     * @param key the thumbnail key
+     * @return the cache file, null if thumbnails are only held in memory
+     */
+    private File getCacheFile(String key) {
+        return (cacheFolder == null) ? null : new File(cacheFolder, key + CACHE_FILE_EXTENSION);
+    }
+
+    /**
+     * Read a thumbnail from a cache file.
+     *
+     * @param file the file
+     * @return the thumbnail image, null if the file does not exist or is corrupt
+     */
+    private static BufferedImage read(File file) {
+        if ((file == null) || !file.isFile()) {
+            return null;
+        }
+
+        try {
+            return ImageIO.read(file);
+        } catch (IOException e) {
+            // Cache file is corrupt, it will be replaced
+            return null;
+        }
+    }
+
+    /**
+     * Write a thumbnail to a cache file, the file is replaced atomically where possible. Failing to
+     * write the cache is reported but otherwise ignored.
+     *
+     * @param file the file
+     * @param image the thumbnail image
+     */
+    private void write(File file, BufferedImage image) {
+        if (file == null) {
+            return;
+        }
+
+        File folder = file.getParentFile();
+        if (!folder.exists() && !folder.mkdirs()) {
+            ConsoleManager.getInstance()
+                    .error(this, "Failed to create " + folder.getAbsolutePath());
+            return;
+        }
+
+        File tmpFile = new File(file.getAbsolutePath() + ".tmp");
+        try {
+            ImageIO.write(image, IMAGE_FORMAT, tmpFile);
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(this, e);
+            return;
+        }
+
+        boolean replaced = file.exists();
+        if ((replaced && !file.delete()) || !tmpFile.renameTo(file)) {
+            ConsoleManager.getInstance().error(this, "Failed to write " + file.getAbsolutePath());
+            return;
+        }
+
+        if (!replaced) {
+            fileAdded(folder);
+        }
+    }
+
+    /**
+     * Count a thumbnail added to the cache folder, the least recently used thumbnails are deleted
+     * when the folder holds too many. The folder is pruned to three quarters of the maximum so it
+     * is not listed again on every write.
+     *
+     * @param folder the cache folder
+     */
+    private void fileAdded(File folder) {
+        synchronized (cacheFolderLock) {
+            if (cacheFileCount < 0) {
+                cacheFileCount = listCacheFiles(folder).length;
+            } else {
+                cacheFileCount++;
+            }
+
+            if (cacheFileCount > maxCacheFiles) {
+                cacheFileCount = prune(folder, Math.max(1, (maxCacheFiles * 3) / 4));
+            }
+        }
+    }
+
+    /**
+     * Delete the least recently used thumbnails from the cache folder.
+     *
+     * @param folder the cache folder
+     * @param retain the number of thumbnails to keep
+     * @return the number of thumbnails left in the cache folder
+     */
+    private int prune(File folder, int retain) {
+        File[] files = listCacheFiles(folder);
+        if (files.length <= retain) {
+            return files.length;
+        }
+
+        // Read the modification times once, they may change while sorting
+        final Map<File, Long> lastModifiedMap = new HashMap<>();
+        for (File file : files) {
+            lastModifiedMap.put(file, file.lastModified());
+        }
+        Arrays.sort(
+                files,
+                new Comparator<File>() {
+                    @Override
+                    public int compare(File o1, File o2) {
+                        return Long.compare(lastModifiedMap.get(o2), lastModifiedMap.get(o1));
+                    }
+                });
+
+        int remaining = files.length;
+        for (int index = retain; index < files.length; index++) {
+            if (files[index].delete()) {
+                remaining--;
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * List the thumbnails in the cache folder.
+     *
+     * @param folder the cache folder
+     * @return the thumbnail files
+     */
+    private static File[] listCacheFiles(File folder) {
+        File[] files =
+                folder.listFiles(
+                        new FileFilter() {
+                            @Override
+                            public boolean accept(File file) {
+                                return file.isFile()
+                                        && file.getName().endsWith(CACHE_FILE_EXTENSION);
+                            }
+                        });
+        return (files == null) ? new File[0] : files;
+    }
+
+    /** A request for a thumbnail. */
+    private static class ThumbnailRequest {
+
+        /** The thumbnail identifier. */
+        private final String id;
+
+        /** The style. */
+        private final ThumbnailSourceInterface source;
+
+        /** The generation the request was made in. */
+        private final long generation;
+
+        /** The listener informed when the thumbnail is available. */
+        private ThumbnailUpdateInterface listener = null;
+
+        /**
+         * Instantiates a new thumbnail request.
+         *
+         * @param id the thumbnail identifier
+         * @param source the style
+         * @param generation the generation
+         */
+        ThumbnailRequest(String id, ThumbnailSourceInterface source, long generation) {
+            this.id = id;
+            this.source = source;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.render;
+
+import com.sldeditor.common.SLDDataInterface;
+import java.io.IOException;
+
+/**
+ * Interface implemented by tree nodes that can be displayed with a style thumbnail.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public interface ThumbnailSourceInterface {
+
+    /**
+     * Gets the identifier of the thumbnail held in memory, called on the event dispatch thread so
+     * it must not access the file system or network.
+     *
+     * @return the thumbnail identifier, null if no thumbnail is available
+     */
+    String getThumbnailId();
+
+    /**
+     * Gets the modification time of the style, called on a background thread.
+     *
+     * @return the modification time, 0 if not known
+     */
+    long getLastModified();
+
+    /**
+     * Read the style, called on a background thread.
+     *
+     * @return the SLD data, null if the style could not be read
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    SLDDataInterface readSLDData() throws IOException;
+}
@@ -30,8 +30,8 @@ import com.sldeditor.common.vendoroption.VendorOptionManager;
 import com.sldeditor.common.vendoroption.VersionData;
 import com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgress;
 import com.sldeditor.extension.filesystem.geoserver.client.GeoServerClientInterface;
-import com.sldeditor.extension.filesystem.geoserver.client.GeoServerWPSClient;
-import com.sldeditor.extension.filesystem.geoserver.client.GeoServerWPSClientInterface;
+import com.sldeditor.extension.filesystem.geoserver.client.WPSProcessCatalogue;
+import com.sldeditor.extension.filesystem.geoserver.client.WPSProcessCatalogueUpdateInterface;
 import com.sldeditor.filter.ExpressionPanelFactory;
 import com.sldeditor.filter.ExpressionPanelInterface;
 import java.awt.BorderLayout;
@@ -44,8 +44,11 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.swing.DefaultListModel;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
@@ -56,7 +59,6 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.ListSelectionModel;
-import javax.swing.SwingUtilities;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import javax.swing.table.TableColumn;
@@ -85,14 +87,14 @@ public class RenderTransformationDialog extends JDialog {
     /** The geo server connection manager. */
     private transient GeoServerConnectionManagerInterface geoServerConnectionManager = null;
 
-    /** The GeoServer WPS client. */
-    private transient GeoServerWPSClientInterface client = null;
+    /** The listener for the catalogue currently being read. */
+    private transient WPSProcessCatalogueUpdateInterface catalogueListener = null;
 
     /** The connection map. */
     private transient Map<String, GeoServerConnection> connectionMap = new HashMap<>();
 
     /** The available function list. */
-    private transient List<ProcessBriefType> availableFunctionList = null;
+    private transient List<ProcessBriefType> availableFunctionList = new ArrayList<>();
 
     /** The function list. */
     private JList<String> functionList;
@@ -451,7 +453,7 @@ public class RenderTransformationDialog extends JDialog {
      *
      * @param selectedItem the selected item
      */
-    private void populateFunctionList(String selectedItem) {
+    protected void populateFunctionList(String selectedItem) {
 
         GeoServerConnection connection = connectionMap.get(selectedItem);
 
@@ -464,22 +466,29 @@ public class RenderTransformationDialog extends JDialog {
                         connection.getUrl().toString());
         showMessage(message, false);
 
-        // Make sure the above messages are displayed by trying to connect to
-        // a WPS server in a separate thread.
-        SwingUtilities.invokeLater(
-                new Runnable() {
-                    public void run() {
-                        client = new GeoServerWPSClient(connection);
-                        if (client.getCapabilities()) {
-                            availableFunctionList =
-                                    client.getRenderTransformations(DataTypeEnum.E_VECTOR);
+        // Processes from a previously selected connection are removed
+        updateFunctionList(new ArrayList<ProcessBriefType>());
 
-                            functionListModel.removeAllElements();
+        // The catalogue is read on a background thread, the processes are added as they
+        // arrive and ignored once another connection has been selected
+        catalogueListener =
+                new WPSProcessCatalogueUpdateInterface() {
+                    @Override
+                    public void processAdded(ProcessBriefType process) {
+                        if (catalogueListener == this) {
+                            addFunction(process);
+                        }
+                    }
+
+                    @Override
+                    public void catalogueLoaded(
+                            List<ProcessBriefType> processList, boolean success) {
+                        if (catalogueListener != this) {
+                            return;
+                        }
 
-                            populateBuiltInProcessFunctions();
-                            for (ProcessBriefType function : availableFunctionList) {
-                                functionListModel.addElement(function.getIdentifier().getValue());
-                            }
+                        if (success) {
+                            updateFunctionList(processList);
 
                             // Clear info field
                             showMessage("", false);
@@ -495,7 +504,57 @@ public class RenderTransformationDialog extends JDialog {
                         // Make ui available again
                         updateButtonState(true);
                     }
-                });
+                };
+
+        getProcessCatalogue()
+                .getRenderTransformations(connection, DataTypeEnum.E_VECTOR, catalogueListener);
+    }
+
+    /**
+     * Adds a process read from GeoServer to the function list.
+     *
+     * @param function the function
+     */
+    private void addFunction(ProcessBriefType function) {
+        String identifier = function.getIdentifier().getValue();
+
+        // Always keep the latest description, the list entry may already be shown
+        Iterator<ProcessBriefType> iterator = availableFunctionList.iterator();
+        while (iterator.hasNext()) {
+            if (identifier.equals(iterator.next().getIdentifier().getValue())) {
+                iterator.remove();
+            }
+        }
+        availableFunctionList.add(function);
+
+        if (!functionListModel.contains(identifier)) {
+            functionListModel.addElement(identifier);
+        }
+    }
+
+    /**
+     * Update the processes read from GeoServer in the function list, the built in process functions
+     * and the selection are kept.
+     *
+     * @param processList the process list
+     */
+    private void updateFunctionList(List<ProcessBriefType> processList) {
+        Set<String> identifierSet = new HashSet<>();
+        for (ProcessBriefType function : processList) {
+            identifierSet.add(function.getIdentifier().getValue());
+        }
+
+        for (ProcessBriefType function : availableFunctionList) {
+            String identifier = function.getIdentifier().getValue();
+            if (!identifierSet.contains(identifier)) {
+                functionListModel.removeElement(identifier);
+            }
+        }
+
+        availableFunctionList = new ArrayList<>();
+        for (ProcessBriefType function : processList) {
+            addFunction(function);
+        }
     }
 
     /** Populate connection combo box. */
@@ -592,6 +651,12 @@ public class RenderTransformationDialog extends JDialog {
         internalShowDialog(existingProcessFunction);
         setVisible(true);
 
+        if (catalogueListener != null) {
+            getProcessCatalogue().removeListener(catalogueListener);
+            catalogueListener = null;
+            updateButtonState(true);
+        }
+
         return okButtonPressed;
     }
 
@@ -607,6 +672,25 @@ public class RenderTransformationDialog extends JDialog {
         }
     }
 
+    /**
+     * Gets the catalogue of the render transformations offered by GeoServer, overridden when
+     * testing.
+     *
+     * @return the WPS process catalogue
+     */
+    protected WPSProcessCatalogue getProcessCatalogue() {
+        return WPSProcessCatalogue.getInstance();
+    }
+
+    /**
+     * Gets the number of parameters of the selected function.
+     *
+     * @return the parameter count
+     */
+    protected int getParameterCount() {
+        return functionParameterTableModel.getRowCount();
+    }
+
     /**
      * Gets the transformation process function.
      *
@@ -0,0 +1,93 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.convert;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+import org.geotools.util.URLs;
+
+/**
+ * The Class ExternalImageCopier, copies the external images referenced by styles.
+ *
+ * <p>Local files are copied file to file by {@link Files#copy(java.nio.file.Path,
+ * java.nio.file.Path, java.nio.file.CopyOption...)}, other resources are streamed to the
+ * destination. Graphics shared by several styles are only copied once by each copier.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class ExternalImageCopier {
+
+    /** The images already copied, source and destination. */
+    private Set<String> copiedSet = new HashSet<>();
+
+    /** Default constructor. */
+    public ExternalImageCopier() {
+        // Default constructor
+    }
+
+    /**
+     * Checks if the image has already been copied to the destination.
+     *
+     * @param source the source
+     * @param destination the destination
+     * @return true, if is copied
+     */
+    public boolean isCopied(URL source, File destination) {
+        return copiedSet.contains(createKey(source, destination));
+    }
+
+    /**
+     * Copy an image, replacing the destination if it exists.
+     *
+     * @param source the source
+     * @param destination the destination
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void copy(URL source, File destination) throws IOException {
+        File sourceFile = URLs.urlToFile(source);
+
+        if (sourceFile != null) {
+            Files.copy(
+                    sourceFile.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            try (InputStream inputStream = source.openStream()) {
+                Files.copy(inputStream, destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        copiedSet.add(createKey(source, destination));
+    }
+
+    /**
+     * Creates the key identifying a copy.
+     *
+     * @param source the source
+     * @param destination the destination
+     * @return the key
+     */
+    private static String createKey(URL source, File destination) {
+        return source.toExternalForm() + "|" + destination.getAbsolutePath();
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.convert;
+
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.SLDExternalImages;
+import com.sldeditor.common.data.SLDUtils;
+import com.sldeditor.common.output.SLDOutputFormatEnum;
+import com.sldeditor.common.output.SLDWriterInterface;
+import com.sldeditor.common.output.impl.SLDWriterFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geotools.styling.StyledLayerDescriptor;
+
+/**
+ * The Class SLDConversionPipeline, converts a list of styles to a new format.
+ *
+ * <p>Conversion is split in to three stages connected by bounded queues. Styles are parsed and
+ * encoded by pools of background threads while the calling thread writes the encoded styles. The
+ * styles are written in the order they were supplied, so the writer may prompt the user, and the
+ * bounded queues limit the number of parsed styles held in memory when the writer falls behind.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class SLDConversionPipeline {
+
+    /** The Constant MAX_THREADS, the maximum number of threads for each stage. */
+    private static final int MAX_THREADS = 4;
+
+    /** The Constant QUEUE_FACTOR, the size of the queues relative to the number of threads. */
+    private static final int QUEUE_FACTOR = 2;
+
+    /** The thread counter. */
+    private static final AtomicInteger threadCounter = new AtomicInteger(1);
+
+    /** The sld writer. */
+    private final SLDWriterInterface sldWriter;
+
+    /** The find external images flag. */
+    private final boolean findExternalImages;
+
+    /** The number of parse threads. */
+    private final int parseThreads;
+
+    /** The number of encode threads. */
+    private final int encodeThreads;
+
+    /** The aborted flag, set when the write stage stops early. */
+    private volatile boolean aborted = false;
+
+    /** A style passing through the pipeline. */
+    private static class ConvertedStyle {
+
+        /** The index of the style in the list being converted, -1 marks the end of a queue. */
+        private final int index;
+
+        /** The style. */
+        private final SLDDataInterface sldData;
+
+        /** The parsed style, null if the style could not be parsed. */
+        private StyledLayerDescriptor sld = null;
+
+        /** The encoded style. */
+        private String encodedSLD = null;
+
+        /** The external images. */
+        private List<String> externalImageList = Collections.emptyList();
+
+        /**
+         * Instantiates a new converted style.
+         *
+         * @param index the index
+         * @param sldData the style
+         */
+        ConvertedStyle(int index, SLDDataInterface sldData) {
+            this.index = index;
+            this.sldData = sldData;
+        }
+
+        /**
+         * Checks if this marks the end of a queue.
+         *
+         * @return true, if is end
+         */
+        boolean isEnd() {
+            return index < 0;
+        }
+    }
+
+    /** The marker placed on a queue when the stage feeding it has finished. */
+    private static final ConvertedStyle END = new ConvertedStyle(-1, null);
+
+    /**
+     * Instantiates a new SLD conversion pipeline using a thread for each available processor.
+     *
+     * @param format the output format, null for the default format
+     * @param findExternalImages true to find the external images referenced by each style
+     */
+    public SLDConversionPipeline(SLDOutputFormatEnum format, boolean findExternalImages) {
+        this(
+                format,
+                findExternalImages,
+                Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()),
+                Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Instantiates a new SLD conversion pipeline.
+     *
+     * @param format the output format, null for the default format
+     * @param findExternalImages true to find the external images referenced by each style
+     * @param parseThreads the number of parse threads
+     * @param encodeThreads the number of encode threads
+     */
+    public SLDConversionPipeline(
+            SLDOutputFormatEnum format,
+            boolean findExternalImages,
+            int parseThreads,
+            int encodeThreads) {
+        this.sldWriter = SLDWriterFactory.createWriter(format);
+        this.findExternalImages = findExternalImages;
+        this.parseThreads = Math.max(1, parseThreads);
+        this.encodeThreads = Math.max(1, encodeThreads);
+    }
+
+    /**
+     * Convert the styles, blocks until every style has been written. Styles that can not be parsed
+     * are skipped.
+     *
+     * @param sldDataList the styles
+     * @param writer the writer called on this thread for each converted style
+     * @return the conversion statistics
+     */
+    public SLDConversionStatistics convert(
+            final List<SLDDataInterface> sldDataList, SLDConversionWriterInterface writer) {
+        SLDConversionStatistics statistics =
+                new SLDConversionStatistics(parseThreads, encodeThreads);
+        if ((sldDataList == null) || sldDataList.isEmpty()) {
+            return statistics;
+        }
+
+        long startTime = System.nanoTime();
+        aborted = false;
+
+        final BlockingQueue<ConvertedStyle> parseQueue =
+                new ArrayBlockingQueue<>(QUEUE_FACTOR * encodeThreads);
+        final BlockingQueue<ConvertedStyle> writeQueue =
+                new ArrayBlockingQueue<>(QUEUE_FACTOR * encodeThreads);
+        final AtomicInteger nextIndex = new AtomicInteger(0);
+        final AtomicInteger activeParsers = new AtomicInteger(parseThreads);
+        final AtomicInteger activeEncoders = new AtomicInteger(encodeThreads);
+
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        parseThreads + encodeThreads,
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                String name =
+                                        "SLDEditor-Convert-" + threadCounter.getAndIncrement();
+                                Thread thread = new Thread(r, name);
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+
+        for (int thread = 0; thread < parseThreads; thread++) {
+            executor.execute(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            parseStage(
+                                    sldDataList, nextIndex, parseQueue, activeParsers, statistics);
+                        }
+                    });
+        }
+
+        for (int thread = 0; thread < encodeThreads; thread++) {
+            executor.execute(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            encodeStage(parseQueue, writeQueue, activeEncoders, statistics);
+                        }
+                    });
+        }
+
+        try {
+            writeStage(writeQueue, writer, statistics);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+
+        statistics.setElapsedNanos(System.nanoTime() - startTime);
+        ConsoleManager.getInstance().information(this, statistics.toString());
+        return statistics;
+    }
+
+    /**
+     * Parse stage, called on a parse thread.
+     *
+     * @param sldDataList the styles
+     * @param nextIndex the index of the next style to parse
+     * @param parseQueue the queue of parsed styles
+     * @param activeParsers the number of parse threads still running
+     * @param statistics the statistics
+     */
+    private void parseStage(
+            List<SLDDataInterface> sldDataList,
+            AtomicInteger nextIndex,
+            BlockingQueue<ConvertedStyle> parseQueue,
+            AtomicInteger activeParsers,
+            SLDConversionStatistics statistics) {
+        try {
+            int index = nextIndex.getAndIncrement();
+            while ((index < sldDataList.size()) && !aborted) {
+                ConvertedStyle style = new ConvertedStyle(index, sldDataList.get(index));
+
+                long startTime = System.nanoTime();
+                try {
+                    style.sld = SLDUtils.createSLDFromString(style.sldData);
+                } catch (RuntimeException e) {
+                    ConsoleManager.getInstance().exception(this, e);
+                }
+                statistics.recordParse(System.nanoTime() - startTime, style.sld != null);
+
+                // Styles that fail to parse are still passed on to keep the output in order
+                parseQueue.put(style);
+                index = nextIndex.getAndIncrement();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (activeParsers.decrementAndGet() == 0) {
+                for (int thread = 0; thread < encodeThreads; thread++) {
+                    putEnd(parseQueue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Encode stage, called on an encode thread.
+     *
+     * @param parseQueue the queue of parsed styles
+     * @param writeQueue the queue of encoded styles
+     * @param activeEncoders the number of encode threads still running
+     * @param statistics the statistics
+     */
+    private void encodeStage(
+            BlockingQueue<ConvertedStyle> parseQueue,
+            BlockingQueue<ConvertedStyle> writeQueue,
+            AtomicInteger activeEncoders,
+            SLDConversionStatistics statistics) {
+        try {
+            ConvertedStyle style = parseQueue.take();
+            while (!style.isEnd()) {
+                if ((style.sld != null) && !aborted) {
+                    long startTime = System.nanoTime();
+                    try {
+                        style.encodedSLD =
+                                sldWriter.encodeSLD(style.sldData.getResourceLocator(), style.sld);
+                        if (findExternalImages) {
+                            style.externalImageList =
+                                    SLDExternalImages.getExternalImages(
+                                            style.sldData.getResourceLocator(), style.sld);
+                        }
+                        statistics.recordEncode(System.nanoTime() - startTime);
+                    } catch (RuntimeException e) {
+                        ConsoleManager.getInstance().exception(this, e);
+                    }
+                }
+
+                // Release the parsed style, only the encoded style is needed from now on
+                style.sld = null;
+                writeQueue.put(style);
+                style = parseQueue.take();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (activeEncoders.decrementAndGet() == 0) {
+                putEnd(writeQueue);
+            }
+        }
+    }
+
+    /**
+     * Write stage, called on the thread converting the styles. Encoded styles arrive in the order
+     * they were completed and are held until the styles before them have been written.
+     *
+     * @param writeQueue the queue of encoded styles
+     * @param writer the writer
+     * @param statistics the statistics
+     * @throws InterruptedException the interrupted exception
+     */
+    private void writeStage(
+            BlockingQueue<ConvertedStyle> writeQueue,
+            SLDConversionWriterInterface writer,
+            SLDConversionStatistics statistics)
+            throws InterruptedException {
+        Map<Integer, ConvertedStyle> pendingMap = new TreeMap<>();
+        int nextToWrite = 0;
+        boolean finished = false;
+
+        try {
+            ConvertedStyle style = writeQueue.take();
+            while (!style.isEnd()) {
+                pendingMap.put(style.index, style);
+
+                ConvertedStyle next = pendingMap.remove(nextToWrite);
+                while (next != null) {
+                    write(next, writer, statistics);
+                    nextToWrite++;
+                    next = pendingMap.remove(nextToWrite);
+                }
+                style = writeQueue.take();
+            }
+            finished = true;
+        } finally {
+            if (!finished) {
+                // Stop the other stages and let them run to completion
+                aborted = true;
+                drain(writeQueue);
+            }
+        }
+    }
+
+    /**
+     * Write an encoded style.
+     *
+     * @param style the style
+     * @param writer the writer
+     * @param statistics the statistics
+     */
+    private void write(
+            ConvertedStyle style,
+            SLDConversionWriterInterface writer,
+            SLDConversionStatistics statistics) {
+        if (style.encodedSLD == null) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            writer.write(style.sldData, style.encodedSLD, new ArrayList<>(style.externalImageList));
+            statistics.recordWrite(System.nanoTime() - startTime);
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+    }
+
+    /**
+     * Put the end marker on a queue. The queue always has room eventually as the next stage keeps
+     * taking until it sees the marker.
+     *
+     * @param queue the queue
+     */
+    private static void putEnd(BlockingQueue<ConvertedStyle> queue) {
+        boolean interrupted = false;
+        boolean done = false;
+        while (!done) {
+            try {
+                queue.put(END);
+                done = true;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Take from the queue until the end marker is found, so the stages feeding it can finish.
+     *
+     * @param queue the queue
+     */
+    private static void drain(BlockingQueue<ConvertedStyle> queue) {
+        boolean interrupted = Thread.interrupted();
+        boolean done = false;
+        while (!done) {
+            try {
+                done = queue.take().isEnd();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.convert;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The Class SLDConversionStatistics, the number of styles processed and the time spent by each
+ * stage of a {@link SLDConversionPipeline}.
+ *
+ * <p>Time is measured per style and summed across the threads of a stage, throughput is the number
+ * of styles the stage processed for each second of its threads' time multiplied by the number of
+ * threads.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class SLDConversionStatistics {
+
+    /** The number of parse threads. */
+    private final int parseThreads;
+
+    /** The number of encode threads. */
+    private final int encodeThreads;
+
+    /** The number of styles parsed. */
+    private final AtomicInteger parsedCount = new AtomicInteger(0);
+
+    /** The number of styles that could not be parsed. */
+    private final AtomicInteger failedCount = new AtomicInteger(0);
+
+    /** The number of styles encoded. */
+    private final AtomicInteger encodedCount = new AtomicInteger(0);
+
+    /** The number of styles written. */
+    private final AtomicInteger writtenCount = new AtomicInteger(0);
+
+    /** The time spent parsing in nanoseconds. */
+    private final AtomicLong parseNanos = new AtomicLong(0L);
+
+    /** The time spent encoding in nanoseconds. */
+    private final AtomicLong encodeNanos = new AtomicLong(0L);
+
+    /** The time spent writing in nanoseconds. */
+    private final AtomicLong writeNanos = new AtomicLong(0L);
+
+    /** The elapsed time of the whole conversion in nanoseconds. */
+    private volatile long elapsedNanos = 0L;
+
+    /**
+     * Instantiates a new SLD conversion statistics.
+     *
+     * @param parseThreads the number of parse threads
+     * @param encodeThreads the number of encode threads
+     */
+    public SLDConversionStatistics(int parseThreads, int encodeThreads) {
+        this.parseThreads = parseThreads;
+        this.encodeThreads = encodeThreads;
+    }
+
+    /**
+     * Record a style parsed.
+     *
+     * @param nanos the time taken in nanoseconds
+     * @param success true if the style was parsed successfully
+     */
+    void recordParse(long nanos, boolean success) {
+        parseNanos.addAndGet(nanos);
+        if (success) {
+            parsedCount.incrementAndGet();
+        } else {
+            failedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Record a style encoded.
+     *
+     * @param nanos the time taken in nanoseconds
+     */
+    void recordEncode(long nanos) {
+        encodeNanos.addAndGet(nanos);
+        encodedCount.incrementAndGet();
+    }
+
+    /**
+     * Record a style written.
+     *
+     * @param nanos the time taken in nanoseconds
+     */
+    void recordWrite(long nanos) {
+        writeNanos.addAndGet(nanos);
+        writtenCount.incrementAndGet();
+    }
+
+    /**
+     * Sets the elapsed time of the whole conversion.
+     *
+     * @param elapsedNanos the elapsed time in nanoseconds
+     */
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of styles parsed.
+     *
+     * @return the parsed count
+     */
+    public int getParsedCount() {
+        return parsedCount.get();
+    }
+
+    /**
+     * Gets the number of styles that could not be parsed.
+     *
+     * @return the failed count
+     */
+    public int getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Gets the number of styles encoded.
+     *
+     * @return the encoded count
+     */
+    public int getEncodedCount() {
+        return encodedCount.get();
+    }
+
+    /**
+     * Gets the number of styles written.
+     *
+     * @return the written count
+     */
+    public int getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * Gets the elapsed time of the whole conversion.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * Gets the parse throughput.
+     *
+     * @return the styles parsed per second
+     */
+    public double getParseThroughput() {
+        return throughput(parsedCount.get() + failedCount.get(), parseNanos.get(), parseThreads);
+    }
+
+    /**
+     * Gets the encode throughput.
+     *
+     * @return the styles encoded per second
+     */
+    public double getEncodeThroughput() {
+        return throughput(encodedCount.get(), encodeNanos.get(), encodeThreads);
+    }
+
+    /**
+     * Gets the write throughput.
+     *
+     * @return the styles written per second
+     */
+    public double getWriteThroughput() {
+        return throughput(writtenCount.get(), writeNanos.get(), 1);
+    }
+
+    /**
+     * Calculate the throughput of a stage.
+     *
+     * @param count the number of styles processed
+     * @param nanos the time spent in nanoseconds
+     * @param threads the number of threads
+     * @return the styles processed per second
+     */
+    private static double throughput(int count, long nanos, int threads) {
+        if (nanos <= 0L) {
+            return 0.0;
+        }
+        return (count * (double) TimeUnit.SECONDS.toNanos(1) * threads) / nanos;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                Locale.UK,
+                "Converted %d styles in %d ms (%d failed) : "
+                        + "parse %.1f/s x%d, encode %.1f/s x%d, write %.1f/s",
+                writtenCount.get(),
+                getElapsedMillis(),
+                failedCount.get(),
+                getParseThroughput(),
+                parseThreads,
+                getEncodeThroughput(),
+                encodeThreads,
+                getWriteThroughput());
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.convert;
+
+import com.sldeditor.common.SLDDataInterface;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The interface SLDConversionWriterInterface, writes the styles converted by the {@link
+ * SLDConversionPipeline}.
+ *
+ * <p>Styles are written one at a time on the thread running the pipeline, in the order they were
+ * supplied, so implementations need not be thread safe and may interact with the user.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public interface SLDConversionWriterInterface {
+
+    /**
+     * Write a converted style.
+     *
+     * @param sldData the style
+     * @param encodedSLD the encoded style
+     * @param externalImageList the external images referenced by the style, empty if external
+     *     images were not requested
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    void write(SLDDataInterface sldData, String encodedSLD, List<String> externalImageList)
+            throws IOException;
+}
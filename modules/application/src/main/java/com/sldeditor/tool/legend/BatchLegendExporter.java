@@ -0,0 +1,242 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.legend;
+
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.data.SLDUtils;
+import com.sldeditor.ui.legend.LegendManager;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geotools.styling.StyledLayerDescriptor;
+
+/**
+ * Exports the legends of many styles to a folder, parsing and rendering the styles in parallel on a
+ * pool of worker threads.
+ *
+ * <p>Each legend image is written as soon as it is rendered so only the images being rendered are
+ * held in memory. The export blocks the calling thread until all the styles have been processed or
+ * the export is cancelled, progress is reported on the calling thread. No user interface is used so
+ * the export can also be run headless, see {@link LegendExportCommand}.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class BatchLegendExporter {
+
+    /** The Constant MAX_THREADS. */
+    private static final int MAX_THREADS = 8;
+
+    /** The thread counter. */
+    private static final AtomicInteger threadCounter = new AtomicInteger(1);
+
+    /** The number of worker threads. */
+    private final int threads;
+
+    /** The cancelled flag. */
+    private volatile boolean cancelled = false;
+
+    /** The result of exporting the legend of one style. */
+    private static class ExportResult {
+
+        /** The index of the style in the list being exported. */
+        private final int index;
+
+        /** The style. */
+        private final SLDDataInterface sldData;
+
+        /** The success flag. */
+        private final boolean success;
+
+        /** The files written. */
+        private final List<String> filenameList;
+
+        /**
+         * Instantiates a new export result.
+         *
+         * @param index the index
+         * @param sldData the style
+         * @param success the success flag
+         * @param filenameList the files written
+         */
+        ExportResult(
+                int index, SLDDataInterface sldData, boolean success, List<String> filenameList) {
+            this.index = index;
+            this.sldData = sldData;
+            this.success = success;
+            this.filenameList = filenameList;
+        }
+    }
+
+    /** Instantiates a new batch legend exporter using a thread for each available processor. */
+    public BatchLegendExporter() {
+        this(Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Instantiates a new batch legend exporter.
+     *
+     * @param threads the number of worker threads
+     */
+    public BatchLegendExporter(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Export the legends of the styles to a folder.
+     *
+     * @param sldDataList the styles
+     * @param destinationFolder the destination folder
+     * @param progress the progress listener, may be null
+     * @return the files written, in the order of the styles
+     */
+    public List<String> export(
+            List<SLDDataInterface> sldDataList,
+            final File destinationFolder,
+            LegendExportProgressInterface progress) {
+        List<String> allFilenameList = new ArrayList<>();
+        if ((sldDataList == null) || sldDataList.isEmpty()) {
+            return allFilenameList;
+        }
+
+        if (!destinationFolder.exists() && !destinationFolder.mkdirs()) {
+            ConsoleManager.getInstance()
+                    .error(this, "Failed to create " + destinationFolder.getAbsolutePath());
+            return allFilenameList;
+        }
+
+        int total = sldDataList.size();
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Math.min(threads, total),
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                String name = "SLDEditor-Legend-" + threadCounter.getAndIncrement();
+                                Thread thread = new Thread(r, name);
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+
+        List<List<String>> resultList = new ArrayList<>(total);
+        try {
+            CompletionService<ExportResult> completionService =
+                    new ExecutorCompletionService<>(executor);
+            for (int index = 0; index < total; index++) {
+                final int styleIndex = index;
+                final SLDDataInterface sldData = sldDataList.get(index);
+                resultList.add(null);
+                completionService.submit(
+                        new Callable<ExportResult>() {
+                            @Override
+                            public ExportResult call() {
+                                return exportLegend(styleIndex, sldData, destinationFolder);
+                            }
+                        });
+            }
+
+            int completed = 0;
+            for (int count = 0; count < total; count++) {
+                ExportResult result = completionService.take().get();
+                resultList.set(result.index, result.filenameList);
+
+                // Styles skipped after the export was cancelled are not reported
+                if (!cancelled) {
+                    completed++;
+                    if (progress != null) {
+                        progress.legendExported(result.sldData, result.success, completed, total);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelled = true;
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (List<String> filenameList : resultList) {
+            if (filenameList != null) {
+                allFilenameList.addAll(filenameList);
+            }
+        }
+        return allFilenameList;
+    }
+
+    /**
+     * Export the legend of one style, called on a worker thread.
+     *
+     * @param index the index of the style
+     * @param sldData the style
+     * @param destinationFolder the destination folder
+     * @return the export result
+     */
+    private ExportResult exportLegend(int index, SLDDataInterface sldData, File destinationFolder) {
+        List<String> filenameList = new ArrayList<>();
+        boolean success = false;
+
+        if (!cancelled) {
+            try {
+                StyledLayerDescriptor sld = SLDUtils.createSLDFromString(sldData);
+
+                if ((sld != null) && !cancelled) {
+                    success =
+                            LegendManager.getInstance()
+                                    .exportLegendImage(
+                                            sld,
+                                            destinationFolder,
+                                            sldData.getLayerNameWithOutSuffix(),
+                                            filenameList);
+                }
+            } catch (RuntimeException e) {
+                ConsoleManager.getInstance().exception(this, e);
+            }
+        }
+        return new ExportResult(index, sldData, success, filenameList);
+    }
+
+    /**
+     * Cancel the export, may be called from any thread. Legends already being rendered are
+     * completed, the remaining styles are skipped.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks if the export has been cancelled.
+     *
+     * @return true, if is cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.legend;
+
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.data.SLDData;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.common.preferences.PrefManager;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command line entry point exporting the legends of SLD files to a folder without displaying the
+ * SLD Editor.
+ *
+ * <p>Usage : LegendExportCommand &lt;destination folder&gt; &lt;sld file or folder&gt;...
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class LegendExportCommand {
+
+    /** The Constant SLD_FILE_EXTENSION. */
+    private static final String SLD_FILE_EXTENSION = ".sld";
+
+    /** Private default constructor. */
+    private LegendExportCommand() {
+        // Private default constructor
+    }
+
+    /**
+     * Find the SLD files, folders are searched for SLD files but not their sub-folders.
+     *
+     * @param pathList the files and folders
+     * @return the SLD files
+     */
+    static List<File> findSLDFiles(List<String> pathList) {
+        List<File> fileList = new ArrayList<>();
+
+        for (String path : pathList) {
+            File file = new File(path);
+            if (file.isDirectory()) {
+                File[] children = file.listFiles();
+                if (children != null) {
+                    Arrays.sort(children);
+                    for (File child : children) {
+                        if (child.isFile()
+                                && child.getName()
+                                        .toLowerCase(Locale.ROOT)
+                                        .endsWith(SLD_FILE_EXTENSION)) {
+                            fileList.add(child);
+                        }
+                    }
+                }
+            } else if (file.isFile()) {
+                fileList.add(file);
+            } else {
+                System.err.println("Not found : " + path);
+            }
+        }
+        return fileList;
+    }
+
+    /**
+     * Read the SLD files.
+     *
+     * @param fileList the SLD files
+     * @return the styles
+     */
+    static List<SLDDataInterface> readSLDFiles(List<File> fileList) {
+        Charset fileEncoding = PrefManager.getInstance().getPrefData().getFileEncoding();
+        List<SLDDataInterface> sldDataList = new ArrayList<>();
+
+        for (File file : fileList) {
+            try {
+                String contents = new String(Files.readAllBytes(file.toPath()), fileEncoding);
+                SLDData sldData = new SLDData(new StyleWrapper(file.getName()), contents);
+                sldData.setSLDFile(file);
+                sldDataList.add(sldData);
+            } catch (IOException e) {
+                System.err.println("Failed to read " + file.getAbsolutePath() + " : " + e);
+            }
+        }
+        return sldDataList;
+    }
+
+    /**
+     * The main method, exports the legends of SLD files.
+     *
+     * @param args the arguments, the destination folder followed by SLD files or folders
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println(
+                    "Usage : LegendExportCommand <destination folder> <sld file or folder>...");
+            return;
+        }
+
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+
+        File destinationFolder = new File(args[0]);
+        List<SLDDataInterface> sldDataList =
+                readSLDFiles(findSLDFiles(Arrays.asList(args).subList(1, args.length)));
+
+        long startTime = System.currentTimeMillis();
+        final int[] failed = {0};
+        BatchLegendExporter exporter = new BatchLegendExporter();
+        List<String> filenameList =
+                exporter.export(
+                        sldDataList,
+                        destinationFolder,
+                        new LegendExportProgressInterface() {
+                            @Override
+                            public void legendExported(
+                                    SLDDataInterface sldData,
+                                    boolean success,
+                                    int completed,
+                                    int total) {
+                                if (!success) {
+                                    failed[0]++;
+                                }
+                                System.out.println(
+                                        String.format(
+                                                "%d/%d %s %s",
+                                                completed,
+                                                total,
+                                                sldData.getLayerNameWithOutSuffix(),
+                                                success ? "exported" : "failed"));
+                            }
+                        });
+
+        System.out.println(
+                String.format(
+                        "Exported %d legend images from %d styles to %s in %d ms, %d failed",
+                        filenameList.size(),
+                        sldDataList.size(),
+                        destinationFolder.getAbsolutePath(),
+                        System.currentTimeMillis() - startTime,
+                        failed[0]));
+    }
+}
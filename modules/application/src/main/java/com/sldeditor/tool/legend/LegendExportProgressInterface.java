@@ -0,0 +1,42 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.legend;
+
+import com.sldeditor.common.SLDDataInterface;
+
+/**
+ * The interface LegendExportProgressInterface, informed of the progress of a batch legend export.
+ *
+ * <p>Methods are called on the thread running the export.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public interface LegendExportProgressInterface {
+
+    /**
+     * Called after the legend of a style has been exported, or failed to export.
+     *
+     * @param sldData the style
+     * @param success the success flag
+     * @param completed the number of styles completed so far
+     * @param total the total number of styles
+     */
+    void legendExported(SLDDataInterface sldData, boolean success, int completed, int total);
+}
@@ -21,7 +21,7 @@ package com.sldeditor.tool.legend;
 
 import com.sldeditor.common.NodeInterface;
 import com.sldeditor.common.SLDDataInterface;
-import com.sldeditor.common.data.SLDUtils;
+import com.sldeditor.common.console.ConsoleManager;
 import com.sldeditor.common.localisation.Localisation;
 import com.sldeditor.common.preferences.PrefManager;
 import com.sldeditor.datasource.attribute.DataSourceAttributeList;
@@ -32,7 +32,6 @@ import com.sldeditor.tool.ToolButton;
 import com.sldeditor.tool.ToolInterface;
 import com.sldeditor.tool.ToolPanel;
 import com.sldeditor.tool.html.ExportHTML;
-import com.sldeditor.ui.legend.LegendManager;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
@@ -45,8 +44,9 @@ import javax.swing.BorderFactory;
 import javax.swing.JButton;
 import javax.swing.JFileChooser;
 import javax.swing.JPanel;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
 import org.apache.log4j.Logger;
-import org.geotools.styling.StyledLayerDescriptor;
 
 /**
  * Groups all the legend tools together.
@@ -119,7 +119,7 @@ public class LegendTool implements ToolInterface {
                         chooser.setAcceptAllFileFilterUsed(false);
 
                         if (chooser.showSaveDialog(saveAllLegend) == JFileChooser.APPROVE_OPTION) {
-                            saveAllLegendToFolder(chooser.getSelectedFile());
+                            exportLegendsInBackground(chooser.getSelectedFile());
                         }
                     }
                 });
@@ -182,33 +182,109 @@ public class LegendTool implements ToolInterface {
     }
 
     /**
-     * Save all legend to folder.
+     * Save all legend to folder, blocks until all the legends have been exported.
      *
      * @param destinationFolder the destination folder
      */
     protected void saveAllLegendToFolder(File destinationFolder) {
-        if (!destinationFolder.exists()) {
-            destinationFolder.mkdirs();
-        }
-
-        logger.info(Localisation.getString(LegendTool.class, "LegendTool.saveAllLayerLegends"));
-
-        for (SLDDataInterface sldData : sldDataList) {
-            StyledLayerDescriptor sld = SLDUtils.createSLDFromString(sldData);
+        exportLegends(destinationFolder, sldDataList, new BatchLegendExporter(), null);
+    }
 
-            if (sld != null) {
-                String heading = null;
-                String filename = null;
+    /**
+     * Export the legends of the selected styles on a background thread, showing the progress in a
+     * dialog from which the export can be cancelled.
+     *
+     * @param destinationFolder the destination folder
+     */
+    private void exportLegendsInBackground(final File destinationFolder) {
+        final List<SLDDataInterface> exportList = new ArrayList<>(sldDataList);
+        final BatchLegendExporter exporter = new BatchLegendExporter();
+        final ProgressMonitor progressMonitor =
+                new ProgressMonitor(
+                        legendPanel,
+                        Localisation.getString(LegendTool.class, "LegendTool.exportProgress"),
+                        null,
+                        0,
+                        exportList.size());
+        saveAllLegend.setEnabled(false);
 
-                String layerName = sldData.getLayerNameWithOutSuffix();
+        final LegendExportProgressInterface progress =
+                new LegendExportProgressInterface() {
+                    @Override
+                    public void legendExported(
+                            final SLDDataInterface sldData,
+                            boolean success,
+                            final int completed,
+                            int total) {
+                        SwingUtilities.invokeLater(
+                                new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        if (progressMonitor.isCanceled()) {
+                                            exporter.cancel();
+                                        } else {
+                                            progressMonitor.setNote(
+                                                    sldData.getLayerNameWithOutSuffix());
+                                            progressMonitor.setProgress(completed);
+                                        }
+                                    }
+                                });
+                    }
+                };
+
+        Thread thread =
+                new Thread(
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                final List<String> filenameList =
+                                        exportLegends(
+                                                destinationFolder, exportList, exporter, progress);
+
+                                SwingUtilities.invokeLater(
+                                        new Runnable() {
+                                            @Override
+                                            public void run() {
+                                                progressMonitor.close();
+                                                saveAllLegend.setEnabled(
+                                                        (sldDataList != null)
+                                                                && !sldDataList.isEmpty());
+                                                ConsoleManager.getInstance()
+                                                        .information(
+                                                                LegendTool.this,
+                                                                String.format(
+                                                                        Localisation.getString(
+                                                                                LegendTool.class,
+                                                                                "LegendTool.exportComplete"),
+                                                                        filenameList.size(),
+                                                                        destinationFolder
+                                                                                .getAbsolutePath()));
+                                            }
+                                        });
+                            }
+                        },
+                        "SLDEditor-LegendExport");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-                List<String> filenameList = new ArrayList<>();
+    /**
+     * Export the legends of the styles to a folder.
+     *
+     * @param destinationFolder the destination folder
+     * @param exportList the styles to export
+     * @param exporter the exporter
+     * @param progress the progress listener, may be null
+     * @return the files written
+     */
+    private List<String> exportLegends(
+            File destinationFolder,
+            List<SLDDataInterface> exportList,
+            BatchLegendExporter exporter,
+            LegendExportProgressInterface progress) {
+        logger.info(Localisation.getString(LegendTool.class, "LegendTool.saveAllLayerLegends"));
 
-                LegendManager.getInstance()
-                        .saveLegendImage(
-                                sld, destinationFolder, layerName, heading, filename, filenameList);
-            }
-        }
+        return exporter.export(exportList, destinationFolder, progress);
     }
 
     /*
@@ -0,0 +1,211 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.raster;
+
+import java.util.Arrays;
+
+/**
+ * Counts the occurrences of double values using open addressing on primitive arrays, avoiding the
+ * boxing of every sample value.
+ *
+ * <p>The number of distinct values is capped, once the limit is exceeded no further values are
+ * stored and {@link #isLimitExceeded()} returns true.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class DoubleCountMap {
+
+    /** The Constant MIN_CAPACITY. */
+    private static final int MIN_CAPACITY = 16;
+
+    /** The Constant MIX_1, first multiplier of the 64 bit hash finaliser. */
+    private static final long MIX_1 = 0xFF51AFD7ED558CCDL;
+
+    /** The Constant MIX_2, second multiplier of the 64 bit hash finaliser. */
+    private static final long MIX_2 = 0xC4CEB9FE1A85EC53L;
+
+    /** The maximum number of distinct values. */
+    private final int limit;
+
+    /** The keys, the bits of the double values. */
+    private long[] keys;
+
+    /** The counts, a count of zero marks an empty slot. */
+    private long[] counts;
+
+    /** The number of distinct values. */
+    private int size = 0;
+
+    /** The limit exceeded flag. */
+    private boolean limitExceeded = false;
+
+    /**
+     * Instantiates a new double count map.
+     *
+     * @param limit the maximum number of distinct values
+     */
+    public DoubleCountMap(int limit) {
+        this.limit = Math.max(1, limit);
+
+        int capacity = MIN_CAPACITY;
+        while ((capacity < (this.limit * 2)) && (capacity < (1 << 30))) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        counts = new long[keys.length];
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value
+     * @return true, if the value was counted, false if the limit has been exceeded
+     */
+    public boolean add(double value) {
+        return add(value, 1L);
+    }
+
+    /**
+     * Adds a number of occurrences of a value.
+     *
+     * @param value the value
+     * @param count the number of occurrences
+     * @return true, if the value was counted, false if the limit has been exceeded
+     */
+    public boolean add(double value, long count) {
+        if (limitExceeded) {
+            return false;
+        }
+
+        // Adding zero converts -0.0 to 0.0 so both are counted as the same value
+        long key = Double.doubleToLongBits(value + 0.0);
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+
+        while (counts[index] != 0) {
+            if (keys[index] == key) {
+                counts[index] += count;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+
+        if (size >= limit) {
+            limitExceeded = true;
+            return false;
+        }
+
+        keys[index] = key;
+        counts[index] = count;
+        size++;
+        return true;
+    }
+
+    /**
+     * Adds all the values from another map.
+     *
+     * @param other the other map
+     * @return true, if all values were counted, false if the limit has been exceeded
+     */
+    public boolean addAll(DoubleCountMap other) {
+        if (other.isLimitExceeded()) {
+            limitExceeded = true;
+        }
+
+        for (int index = 0; (index < other.keys.length) && !limitExceeded; index++) {
+            if (other.counts[index] != 0) {
+                add(Double.longBitsToDouble(other.keys[index]), other.counts[index]);
+            }
+        }
+        return !limitExceeded;
+    }
+
+    /**
+     * Gets the count for a value.
+     *
+     * @param value the value
+     * @return the number of occurrences
+     */
+    public long getCount(double value) {
+        long key = Double.doubleToLongBits(value + 0.0);
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+
+        while (counts[index] != 0) {
+            if (keys[index] == key) {
+                return counts[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return 0L;
+    }
+
+    /**
+     * Gets the distinct values in ascending order.
+     *
+     * @return the values
+     */
+    public double[] getValues() {
+        double[] values = new double[size];
+        int valueIndex = 0;
+        for (int index = 0; index < keys.length; index++) {
+            if (counts[index] != 0) {
+                values[valueIndex++] = Double.longBitsToDouble(keys[index]);
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    /**
+     * Gets the number of distinct values.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the limit of distinct values has been exceeded.
+     *
+     * @return true, if is limit exceeded
+     */
+    public boolean isLimitExceeded() {
+        return limitExceeded;
+    }
+
+    /**
+     * Calculate the hash of a key. The bits of whole numbers stored as doubles are all in the top
+     * of the long so every bit is mixed into the lower bits used as the table index.
+     *
+     * @param key the key
+     * @return the hash
+     */
+    private static int hash(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= MIX_1;
+        hash ^= hash >>> 33;
+        hash *= MIX_2;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+}
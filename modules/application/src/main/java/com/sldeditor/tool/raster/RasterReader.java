@@ -28,20 +28,18 @@ import com.sldeditor.common.output.SLDWriterInterface;
 import com.sldeditor.common.output.impl.SLDWriterFactory;
 import com.sldeditor.common.utils.ColourUtils;
 import com.sldeditor.common.utils.ExternalFilenames;
-import java.awt.image.BufferedImage;
-import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import javax.imageio.ImageIO;
 import org.geotools.coverage.GridSampleDimension;
 import org.geotools.coverage.grid.GridCoverage2D;
 import org.geotools.coverage.grid.GridEnvelope2D;
+import org.geotools.coverage.grid.GridGeometry2D;
 import org.geotools.coverage.grid.io.AbstractGridCoverage2DReader;
 import org.geotools.coverage.grid.io.AbstractGridFormat;
 import org.geotools.coverage.grid.io.GridFormatFinder;
+import org.geotools.coverage.grid.io.OverviewPolicy;
 import org.geotools.factory.CommonFactoryFinder;
 import org.geotools.styling.ChannelSelection;
 import org.geotools.styling.ColorMap;
@@ -56,8 +54,11 @@ import org.geotools.styling.SelectedChannelType;
 import org.geotools.styling.Style;
 import org.geotools.styling.StyleFactory;
 import org.geotools.styling.StyledLayerDescriptor;
+import org.opengis.coverage.grid.GridEnvelope;
 import org.opengis.filter.FilterFactory2;
 import org.opengis.filter.expression.Literal;
+import org.opengis.parameter.GeneralParameterValue;
+import org.opengis.parameter.ParameterValue;
 import org.opengis.style.ContrastMethod;
 
 /**
@@ -67,6 +68,15 @@ import org.opengis.style.ContrastMethod;
  */
 public class RasterReader implements RasterReaderInterface {
 
+    /**
+     * The Constant MAX_STATISTICS_PIXELS, larger rasters are read at a lower resolution, using an
+     * overview if available, to calculate the colour map.
+     */
+    private static final long MAX_STATISTICS_PIXELS = 4096L * 4096L;
+
+    /** The Constant RAMP_ENTRIES, the number of colour map entries when values are ramped. */
+    private static final int RAMP_ENTRIES = 10;
+
     /** The style factory. */
     private static StyleFactory sf = CommonFactoryFinder.getStyleFactory(null);
 
@@ -104,17 +114,18 @@ public class RasterReader implements RasterReaderInterface {
             return null;
         }
 
-        BufferedImage img = null;
+        Style style = null;
         try {
-            img = ImageIO.read(rasterFile);
+            GridCoverage2D cov = readCoverage(reader);
+            style = createRGBStyle(cov);
+            cov.dispose(true);
         } catch (IOException e) {
             ConsoleManager.getInstance().exception(this, e);
             return null;
+        } finally {
+            reader.dispose();
         }
 
-        WritableRaster raster = img.getRaster();
-
-        Style style = createRGBStyle(reader, raster);
         sld = sf.createStyledLayerDescriptor();
         NamedLayer namedLayer = sf.createNamedLayer();
         namedLayer.addStyle(style);
@@ -132,25 +143,59 @@ public class RasterReader implements RasterReaderInterface {
     }
 
     /**
-     * Creates the rgb style.
+     * Read the coverage, deferring the loading of image tiles until they are used. Rasters larger
+     * than MAX_STATISTICS_PIXELS are read at a lower resolution.
      *
      * @param reader the reader
-     * @param raster the raster
+     * @return the grid coverage
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private GridCoverage2D readCoverage(AbstractGridCoverage2DReader reader) throws IOException {
+        List<GeneralParameterValue> parameterList = new ArrayList<>();
+
+        ParameterValue<Boolean> useImageRead = AbstractGridFormat.USE_JAI_IMAGEREAD.createValue();
+        useImageRead.setValue(true);
+        parameterList.add(useImageRead);
+
+        GridEnvelope originalRange = reader.getOriginalGridRange();
+        long width = originalRange.getSpan(0);
+        long height = originalRange.getSpan(1);
+        if ((width * height) > MAX_STATISTICS_PIXELS) {
+            double scale = Math.sqrt((double) MAX_STATISTICS_PIXELS / (width * height));
+            GridEnvelope2D range =
+                    new GridEnvelope2D(
+                            0,
+                            0,
+                            (int) Math.max(1, width * scale),
+                            (int) Math.max(1, height * scale));
+
+            ParameterValue<GridGeometry2D> gridGeometry =
+                    AbstractGridFormat.READ_GRIDGEOMETRY2D.createValue();
+            gridGeometry.setValue(new GridGeometry2D(range, reader.getOriginalEnvelope()));
+            parameterList.add(gridGeometry);
+
+            ParameterValue<OverviewPolicy> overviewPolicy =
+                    AbstractGridFormat.OVERVIEW_POLICY.createValue();
+            overviewPolicy.setValue(OverviewPolicy.QUALITY);
+            parameterList.add(overviewPolicy);
+        }
+
+        return reader.read(parameterList.toArray(new GeneralParameterValue[0]));
+    }
+
+    /**
+     * Creates the rgb style.
+     *
+     * @param cov the coverage
      * @return the style
      */
-    private Style createRGBStyle(AbstractGridCoverage2DReader reader, WritableRaster raster) {
+    private Style createRGBStyle(GridCoverage2D cov) {
         RasterSymbolizer sym = sf.getDefaultRasterSymbolizer();
 
-        GridCoverage2D cov = null;
-        try {
-            cov = reader.read(null);
-        } catch (IOException giveUp) {
-            throw new RuntimeException(giveUp);
-        }
         // We need at least three bands to create an RGB style
         int numBands = cov.getNumSampleDimensions();
         if (numBands < 3) {
-            createRGBImageSymbol(sym, cov, raster);
+            createRGBImageSymbol(sym, cov);
         } else {
             createRGBChannelSymbol(sym, cov, numBands);
         }
@@ -158,52 +203,60 @@ public class RasterReader implements RasterReaderInterface {
     }
 
     /**
-     * Creates the rgb image symbol.
+     * Creates the rgb image symbol, a colour map entry is created for each distinct value in the
+     * first band or, if there are too many distinct values, a ramp over the range of values.
      *
      * @param sym the sym
      * @param cov the cov
-     * @param raster the raster
      */
-    private void createRGBImageSymbol(
-            RasterSymbolizer sym, GridCoverage2D cov, WritableRaster raster) {
-        double dest;
-        List<Double> valueList = new ArrayList<>();
-
-        GridEnvelope2D gridRange2D = cov.getGridGeometry().getGridRange2D();
-        for (int x = 0; x < gridRange2D.getWidth(); x++) {
-            for (int y = 0; y < gridRange2D.getHeight(); y++) {
-                try {
-                    dest = raster.getSampleDouble(x, y, 0);
-
-                    if (!valueList.contains(dest)) {
-                        valueList.add(dest);
-                    }
-                } catch (Exception e) {
-                    ConsoleManager.getInstance().exception(this, e);
-                }
-            }
-        }
+    private void createRGBImageSymbol(RasterSymbolizer sym, GridCoverage2D cov) {
+        RasterStatisticsCalculator calculator = new RasterStatisticsCalculator();
+        calculator.setNoDataValues(cov.getSampleDimension(0).getNoDataValues());
+
+        RasterStatistics statistics = calculator.calculate(cov.getRenderedImage(), 0);
 
         ColorMapImpl colourMap = new ColorMapImpl();
 
-        // Sort the unique sample values in ascending order
-        Collections.sort(valueList);
+        double[] distinctValues = statistics.getDistinctValues();
+        if (distinctValues != null) {
+            // Create colour map entries in the colour map for all the sample values
+            for (double value : distinctValues) {
+                addColourMapEntry(colourMap, value);
+            }
 
-        // Create colour amp entries in the colour map for all the sample values
-        for (Double value : valueList) {
-            ColorMapEntry entry = new ColorMapEntryImpl();
-            Literal colourExpression =
-                    ff.literal(ColourUtils.fromColour(ColourUtils.createRandomColour()));
-            entry.setColor(colourExpression);
-            entry.setQuantity(ff.literal(value.doubleValue()));
+            colourMap.setType(ColorMap.TYPE_VALUES);
+        } else {
+            // Too many values, ramp between values at equal steps through the histogram
+            double lastValue = Double.NEGATIVE_INFINITY;
+            for (int index = 0; index < RAMP_ENTRIES; index++) {
+                double value = statistics.getQuantile((double) index / (RAMP_ENTRIES - 1));
+                if (value > lastValue) {
+                    addColourMapEntry(colourMap, value);
+                    lastValue = value;
+                }
+            }
 
-            colourMap.addColorMapEntry(entry);
+            colourMap.setType(ColorMap.TYPE_RAMP);
         }
-
-        colourMap.setType(ColorMap.TYPE_VALUES);
         sym.setColorMap(colourMap);
     }
 
+    /**
+     * Adds a colour map entry with a random colour.
+     *
+     * @param colourMap the colour map
+     * @param value the quantity
+     */
+    private void addColourMapEntry(ColorMapImpl colourMap, double value) {
+        ColorMapEntry entry = new ColorMapEntryImpl();
+        Literal colourExpression =
+                ff.literal(ColourUtils.fromColour(ColourUtils.createRandomColour()));
+        entry.setColor(colourExpression);
+        entry.setQuantity(ff.literal(value));
+
+        colourMap.addColorMapEntry(entry);
+    }
+
     /**
      * Creates the RGB channel symbol.
      *
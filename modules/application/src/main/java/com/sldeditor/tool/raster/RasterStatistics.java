@@ -0,0 +1,163 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.raster;
+
+/**
+ * The statistics of a single raster band, calculated by {@link RasterStatisticsCalculator}.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RasterStatistics {
+
+    /** The number of valid samples. */
+    private final long count;
+
+    /** The minimum sample value. */
+    private final double minimum;
+
+    /** The maximum sample value. */
+    private final double maximum;
+
+    /** The histogram, equal width bins from the minimum to the maximum value. */
+    private final long[] histogram;
+
+    /** The distinct values in ascending order, null if there were too many to record. */
+    private final double[] distinctValues;
+
+    /**
+     * Instantiates a new raster statistics.
+     *
+     * @param count the number of valid samples
+     * @param minimum the minimum sample value
+     * @param maximum the maximum sample value
+     * @param histogram the histogram
+     * @param distinctValues the distinct values, null if there were too many to record
+     */
+    public RasterStatistics(
+            long count, double minimum, double maximum, long[] histogram, double[] distinctValues) {
+        this.count = count;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.histogram = histogram;
+        this.distinctValues = distinctValues;
+    }
+
+    /**
+     * Gets the number of valid samples.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the minimum sample value.
+     *
+     * @return the minimum, NaN if there are no valid samples
+     */
+    public double getMinimum() {
+        return minimum;
+    }
+
+    /**
+     * Gets the maximum sample value.
+     *
+     * @return the maximum, NaN if there are no valid samples
+     */
+    public double getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * Gets the histogram.
+     *
+     * @return the histogram
+     */
+    public long[] getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Gets the width of a histogram bin.
+     *
+     * @return the bin width
+     */
+    public double getBinWidth() {
+        if ((count == 0) || (histogram.length == 0)) {
+            return 0.0;
+        }
+        return (maximum - minimum) / histogram.length;
+    }
+
+    /**
+     * Gets the distinct values in ascending order.
+     *
+     * @return the distinct values, null if the distinct value limit was exceeded
+     */
+    public double[] getDistinctValues() {
+        return distinctValues;
+    }
+
+    /**
+     * Checks if there were too many distinct values to record.
+     *
+     * @return true, if the distinct value limit was exceeded
+     */
+    public boolean isDistinctValueLimitExceeded() {
+        return (distinctValues == null);
+    }
+
+    /**
+     * Gets the approximate value below which the given fraction of samples fall, estimated from the
+     * histogram.
+     *
+     * @param fraction the fraction, 0.0 to 1.0
+     * @return the value, NaN if there are no valid samples
+     */
+    public double getQuantile(double fraction) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        if (fraction <= 0.0) {
+            return minimum;
+        }
+
+        if (fraction >= 1.0) {
+            return maximum;
+        }
+
+        double target = fraction * count;
+        double binWidth = getBinWidth();
+        long cumulative = 0;
+
+        for (int index = 0; index < histogram.length; index++) {
+            long binCount = histogram[index];
+            if ((binCount > 0) && ((cumulative + binCount) >= target)) {
+                double withinBin = (target - cumulative) / binCount;
+                return Math.min(maximum, minimum + ((index + withinBin) * binWidth));
+            }
+            cumulative += binCount;
+        }
+
+        return maximum;
+    }
+}
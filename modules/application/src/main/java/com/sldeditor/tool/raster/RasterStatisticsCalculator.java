@@ -0,0 +1,324 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.tool.raster;
+
+import java.awt.Rectangle;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Calculates the statistics of a raster band.
+ *
+ * <p>The image is read a window at a time, windows are aligned to the image tiles where the tiles
+ * are of a reasonable size, so that only the tiles being processed are loaded. Windows are
+ * processed in parallel, each window is read once to calculate the sample count, minimum, maximum,
+ * distinct values and a histogram over the range of the window. The window results are then merged,
+ * the histograms being re-binned over the range of the whole band.
+ *
+ * <p>Distinct values are counted in a primitive hash table, {@link DoubleCountMap}, capped at the
+ * distinct value limit. Samples that are NaN or match one of the no data values are ignored.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RasterStatisticsCalculator {
+
+    /** The Constant DEFAULT_DISTINCT_VALUE_LIMIT. */
+    public static final int DEFAULT_DISTINCT_VALUE_LIMIT = 1024;
+
+    /** The Constant DEFAULT_HISTOGRAM_BINS. */
+    public static final int DEFAULT_HISTOGRAM_BINS = 256;
+
+    /** The Constant DEFAULT_WINDOW_SIZE, used when the image tiles are too large. */
+    private static final int DEFAULT_WINDOW_SIZE = 512;
+
+    /** The Constant MAX_TILE_SIZE, the largest tile used as a window. */
+    private static final int MAX_TILE_SIZE = 1024;
+
+    /** The distinct value limit. */
+    private int distinctValueLimit = DEFAULT_DISTINCT_VALUE_LIMIT;
+
+    /** The number of histogram bins. */
+    private int histogramBins = DEFAULT_HISTOGRAM_BINS;
+
+    /** The no data values. */
+    private double[] noDataValues = null;
+
+    /** The parallel flag. */
+    private boolean parallel = true;
+
+    /** The statistics of a single window. */
+    private static class WindowStatistics {
+
+        /** The number of valid samples. */
+        private long count = 0;
+
+        /** The minimum. */
+        private double minimum = Double.POSITIVE_INFINITY;
+
+        /** The maximum. */
+        private double maximum = Double.NEGATIVE_INFINITY;
+
+        /** The histogram over the range of the window. */
+        private long[] histogram = null;
+
+        /** The distinct values, null if the limit was exceeded. */
+        private DoubleCountMap values = null;
+    }
+
+    /** Instantiates a new raster statistics calculator. */
+    public RasterStatisticsCalculator() {
+        // Default constructor
+    }
+
+    /**
+     * Sets the distinct value limit.
+     *
+     * @param distinctValueLimit the maximum number of distinct values to record
+     */
+    public void setDistinctValueLimit(int distinctValueLimit) {
+        this.distinctValueLimit = Math.max(1, distinctValueLimit);
+    }
+
+    /**
+     * Sets the number of histogram bins.
+     *
+     * @param histogramBins the number of histogram bins
+     */
+    public void setHistogramBins(int histogramBins) {
+        this.histogramBins = Math.max(1, histogramBins);
+    }
+
+    /**
+     * Sets the no data values.
+     *
+     * @param noDataValues the no data values, may be null
+     */
+    public void setNoDataValues(double[] noDataValues) {
+        this.noDataValues = (noDataValues == null) ? null : noDataValues.clone();
+    }
+
+    /**
+     * Sets the parallel flag.
+     *
+     * @param parallel true to process windows in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Calculate the statistics of a band.
+     *
+     * @param image the image
+     * @param band the band
+     * @return the raster statistics
+     */
+    public RasterStatistics calculate(final RenderedImage image, final int band) {
+        final List<Rectangle> windowList = getWindows(image);
+
+        IntStream indexStream = IntStream.range(0, windowList.size());
+        if (parallel) {
+            indexStream = indexStream.parallel();
+        }
+
+        List<WindowStatistics> windowStatsList =
+                indexStream
+                        .mapToObj(index -> calculateWindow(image, windowList.get(index), band))
+                        .collect(Collectors.toList());
+
+        return merge(windowStatsList);
+    }
+
+    /**
+     * Gets the windows to read the image in.
+     *
+     * @param image the image
+     * @return the windows
+     */
+    private List<Rectangle> getWindows(RenderedImage image) {
+        int windowWidth = image.getTileWidth();
+        int windowHeight = image.getTileHeight();
+        int startX = image.getTileGridXOffset() + (image.getMinTileX() * windowWidth);
+        int startY = image.getTileGridYOffset() + (image.getMinTileY() * windowHeight);
+
+        if ((windowWidth > MAX_TILE_SIZE) || (windowHeight > MAX_TILE_SIZE)) {
+            windowWidth = Math.min(windowWidth, DEFAULT_WINDOW_SIZE);
+            windowHeight = Math.min(windowHeight, DEFAULT_WINDOW_SIZE);
+            startX = image.getMinX();
+            startY = image.getMinY();
+        }
+
+        Rectangle bounds =
+                new Rectangle(
+                        image.getMinX(), image.getMinY(), image.getWidth(), image.getHeight());
+        List<Rectangle> windowList = new ArrayList<>();
+        for (int y = startY; y < bounds.y + bounds.height; y += windowHeight) {
+            for (int x = startX; x < bounds.x + bounds.width; x += windowWidth) {
+                Rectangle window =
+                        bounds.intersection(new Rectangle(x, y, windowWidth, windowHeight));
+                if (!window.isEmpty()) {
+                    windowList.add(window);
+                }
+            }
+        }
+        return windowList;
+    }
+
+    /**
+     * Calculate the statistics of a window.
+     *
+     * @param image the image
+     * @param window the window
+     * @param band the band
+     * @return the window statistics
+     */
+    private WindowStatistics calculateWindow(RenderedImage image, Rectangle window, int band) {
+        Raster data = image.getData(window);
+        double[] samples =
+                data.getSamples(
+                        window.x, window.y, window.width, window.height, band, (double[]) null);
+
+        WindowStatistics stats = new WindowStatistics();
+        stats.values = new DoubleCountMap(distinctValueLimit);
+
+        for (double sample : samples) {
+            if (!isNoData(sample)) {
+                stats.count++;
+                if (sample < stats.minimum) {
+                    stats.minimum = sample;
+                }
+                if (sample > stats.maximum) {
+                    stats.maximum = sample;
+                }
+                if ((stats.values != null) && !stats.values.add(sample)) {
+                    stats.values = null;
+                }
+            }
+        }
+
+        if (stats.count > 0) {
+            // The samples are already in memory so the histogram is built over the window range
+            stats.histogram = new long[histogramBins];
+            double binWidth = (stats.maximum - stats.minimum) / histogramBins;
+            for (double sample : samples) {
+                if (!isNoData(sample)) {
+                    stats.histogram[getBin(sample, stats.minimum, binWidth)]++;
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Merge the window statistics.
+     *
+     * @param windowStatsList the window statistics list
+     * @return the raster statistics
+     */
+    private RasterStatistics merge(List<WindowStatistics> windowStatsList) {
+        long count = 0;
+        double minimum = Double.POSITIVE_INFINITY;
+        double maximum = Double.NEGATIVE_INFINITY;
+        DoubleCountMap values = new DoubleCountMap(distinctValueLimit);
+
+        for (WindowStatistics stats : windowStatsList) {
+            if (stats.count > 0) {
+                count += stats.count;
+                minimum = Math.min(minimum, stats.minimum);
+                maximum = Math.max(maximum, stats.maximum);
+                if ((values != null) && ((stats.values == null) || !values.addAll(stats.values))) {
+                    values = null;
+                }
+            }
+        }
+
+        long[] histogram = new long[histogramBins];
+        if (count == 0) {
+            return new RasterStatistics(0, Double.NaN, Double.NaN, histogram, new double[0]);
+        }
+
+        double binWidth = (maximum - minimum) / histogramBins;
+        double[] distinctValues = null;
+        if (values != null) {
+            // Exact histogram from the distinct values
+            distinctValues = values.getValues();
+            for (double value : distinctValues) {
+                histogram[getBin(value, minimum, binWidth)] += values.getCount(value);
+            }
+        } else {
+            // Re-bin each window histogram using the centre of each window bin
+            for (WindowStatistics stats : windowStatsList) {
+                if (stats.count > 0) {
+                    double windowBinWidth = (stats.maximum - stats.minimum) / histogramBins;
+                    for (int index = 0; index < histogramBins; index++) {
+                        long binCount = stats.histogram[index];
+                        if (binCount > 0) {
+                            double centre = stats.minimum + ((index + 0.5) * windowBinWidth);
+                            histogram[getBin(centre, minimum, binWidth)] += binCount;
+                        }
+                    }
+                }
+            }
+        }
+
+        return new RasterStatistics(count, minimum, maximum, histogram, distinctValues);
+    }
+
+    /**
+     * Gets the histogram bin for a value.
+     *
+     * @param value the value
+     * @param minimum the minimum value of the histogram
+     * @param binWidth the bin width
+     * @return the bin index
+     */
+    private int getBin(double value, double minimum, double binWidth) {
+        if (binWidth <= 0.0) {
+            return 0;
+        }
+        int index = (int) ((value - minimum) / binWidth);
+        return Math.max(0, Math.min(histogramBins - 1, index));
+    }
+
+    /**
+     * Checks if a sample is a no data value.
+     *
+     * @param sample the sample
+     * @return true, if sample is no data
+     */
+    private boolean isNoData(double sample) {
+        if (Double.isNaN(sample)) {
+            return true;
+        }
+
+        if (noDataValues != null) {
+            for (double noDataValue : noDataValues) {
+                if (sample == noDataValue) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
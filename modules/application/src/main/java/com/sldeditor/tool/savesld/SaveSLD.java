@@ -21,27 +21,21 @@ package com.sldeditor.tool.savesld;
 
 import com.sldeditor.common.SLDDataInterface;
 import com.sldeditor.common.console.ConsoleManager;
-import com.sldeditor.common.data.SLDExternalImages;
-import com.sldeditor.common.data.SLDUtils;
 import com.sldeditor.common.localisation.Localisation;
-import com.sldeditor.common.output.SLDWriterInterface;
-import com.sldeditor.common.output.impl.SLDWriterFactory;
 import com.sldeditor.common.utils.ExternalFilenames;
 import com.sldeditor.datasource.SLDEditorFile;
 import com.sldeditor.tool.ToolPanel;
-import java.io.BufferedReader;
+import com.sldeditor.tool.convert.ExternalImageCopier;
+import com.sldeditor.tool.convert.SLDConversionPipeline;
+import com.sldeditor.tool.convert.SLDConversionWriterInterface;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.util.List;
 import org.apache.log4j.Logger;
-import org.geotools.styling.StyledLayerDescriptor;
 import org.geotools.util.URLs;
 
 /**
@@ -51,15 +45,15 @@ import org.geotools.util.URLs;
  */
 public class SaveSLD implements SaveSLDInterface {
 
-    /** The Constant BUFFER_SIZE. */
-    private static final int BUFFER_SIZE = 4096;
-
     /** The logger. */
     private static Logger logger = Logger.getLogger(ToolPanel.class);
 
     /** The overwrite destination dlg. */
     private SaveSLDDestinationInterface overwriteDestinationDlg = new SaveSLDDestination();
 
+    /** The yes to all flag, set when the user chooses to overwrite all existing files. */
+    private boolean yesToAll = false;
+
     /** The suffix, separator and file extension */
     private final String suffix =
             ExternalFilenames.addFileExtensionSeparator(SLDEditorFile.getSLDFileExtension());
@@ -73,52 +67,66 @@ public class SaveSLD implements SaveSLDInterface {
     @Override
     public void saveAllSLDToFolder(
             List<SLDDataInterface> sldDataList,
-            File destinationFolder,
-            boolean saveExternalResources) {
-        SLDWriterInterface sldWriter = SLDWriterFactory.createWriter(null);
-
+            final File destinationFolder,
+            final boolean saveExternalResources) {
         if (!destinationFolder.exists()) {
             destinationFolder.mkdirs();
         }
 
         logger.info(Localisation.getString(SaveSLDTool.class, "SaveSLDTool.saveAllSLD"));
 
-        boolean yesToAll = false;
-
-        for (SLDDataInterface sldData : sldDataList) {
-            StyledLayerDescriptor sld = SLDUtils.createSLDFromString(sldData);
-
-            if (sld != null) {
-                String sldString = sldWriter.encodeSLD(sldData.getResourceLocator(), sld);
+        yesToAll = false;
+        final ExternalImageCopier imageCopier = new ExternalImageCopier();
+
+        SLDConversionPipeline pipeline = new SLDConversionPipeline(null, saveExternalResources);
+        pipeline.convert(
+                sldDataList,
+                new SLDConversionWriterInterface() {
+                    @Override
+                    public void write(
+                            SLDDataInterface sldData,
+                            String encodedSLD,
+                            List<String> externalImageList) {
+                        writeSLD(destinationFolder, sldData, encodedSLD);
+
+                        // Save external images if requested
+                        if (saveExternalResources) {
+                            saveExternalResources(
+                                    destinationFolder, sldData, externalImageList, imageCopier);
+                        }
+                    }
+                });
+    }
 
-                StringBuilder sldFilename = new StringBuilder(sldData.getLayerName());
+    /**
+     * Write the encoded SLD to the destination folder.
+     *
+     * @param destinationFolder the destination folder
+     * @param sldData the sld data
+     * @param sldString the encoded sld
+     */
+    private void writeSLD(File destinationFolder, SLDDataInterface sldData, String sldString) {
+        StringBuilder sldFilename = new StringBuilder(sldData.getLayerName());
 
-                // Ensure we don't get duplicate sld file extensions
-                if (!sldFilename.toString().endsWith(suffix)) {
-                    sldFilename.append(suffix);
-                }
+        // Ensure we don't get duplicate sld file extensions
+        if (!sldFilename.toString().endsWith(suffix)) {
+            sldFilename.append(suffix);
+        }
 
-                File fileToSave = new File(destinationFolder, sldFilename.toString());
+        File fileToSave = new File(destinationFolder, sldFilename.toString());
 
-                ConsoleManager.getInstance()
-                        .information(
-                                this,
-                                Localisation.getField(SaveSLDTool.class, "SaveSLDTool.savingSLD")
-                                        + " "
-                                        + sldData.getLayerName());
-
-                // Write SLD string to file
-                try (BufferedWriter out = new BufferedWriter(new FileWriter(fileToSave))) {
-                    out.write(sldString);
-                } catch (IOException e) {
-                    ConsoleManager.getInstance().exception(this, e);
-                }
+        ConsoleManager.getInstance()
+                .information(
+                        this,
+                        Localisation.getField(SaveSLDTool.class, "SaveSLDTool.savingSLD")
+                                + " "
+                                + sldData.getLayerName());
 
-                // Save external images if requested
-                if (saveExternalResources) {
-                    yesToAll = saveExternalResources(destinationFolder, yesToAll, sldData, sld);
-                }
-            }
+        // Write SLD string to file
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(fileToSave))) {
+            out.write(sldString);
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(this, e);
         }
     }
 
@@ -126,26 +134,35 @@ public class SaveSLD implements SaveSLDInterface {
      * Save external resources.
      *
      * @param destinationFolder the destination folder
-     * @param yesToAll the yes to all
      * @param sldData the sld data
-     * @param sld the sld
-     * @return true, if successful
+     * @param externalImageList the external images referenced by the sld
+     * @param imageCopier the image copier
      */
-    private boolean saveExternalResources(
+    private void saveExternalResources(
             File destinationFolder,
-            boolean yesToAll,
             SLDDataInterface sldData,
-            StyledLayerDescriptor sld) {
-        List<String> externalImageList =
-                SLDExternalImages.getExternalImages(sldData.getResourceLocator(), sld);
-
+            List<String> externalImageList,
+            ExternalImageCopier imageCopier) {
         for (String externalImage : externalImageList) {
             File output = new File(destinationFolder, externalImage);
 
+            URL input = null;
+            try {
+                input = URLs.extendUrl(sldData.getResourceLocator(), externalImage);
+            } catch (MalformedURLException e) {
+                ConsoleManager.getInstance().exception(this, e);
+                continue;
+            }
+
+            // Images shared by several styles are only written once
+            if (imageCopier.isCopied(input, output)) {
+                continue;
+            }
+
             File parentFolder = output.getParentFile();
 
             // Check to see if the destination folder exists
-            if (!parentFolder.exists() && output.getParentFile().mkdirs()) {
+            if (!parentFolder.exists() && !parentFolder.mkdirs()) {
                 ConsoleManager.getInstance()
                         .error(
                                 this,
@@ -164,53 +181,34 @@ public class SaveSLD implements SaveSLDInterface {
                 }
 
                 if (writeOutputFileFlag) {
-                    writeOutputFile(sldData, externalImage, output);
+                    writeOutputFile(imageCopier, input, externalImage, output);
                 }
             }
         }
-        return yesToAll;
     }
 
     /**
      * Write output file.
      *
-     * @param sldData the sld data
-     * @param externalImage the external image
+     * @param imageCopier the image copier
+     * @param input the external image to copy
+     * @param externalImage the external image name
      * @param output the output
      */
-    private void writeOutputFile(SLDDataInterface sldData, String externalImage, File output) {
-        URL input;
-        InputStream inputStream = null;
+    private void writeOutputFile(
+            ExternalImageCopier imageCopier, URL input, String externalImage, File output) {
         try {
-            input = URLs.extendUrl(sldData.getResourceLocator(), externalImage);
-            URLConnection connection = input.openConnection();
-
-            inputStream = connection.getInputStream();
+            imageCopier.copy(input, output);
+            ConsoleManager.getInstance()
+                    .information(
+                            this,
+                            Localisation.getField(
+                                            SaveSLDTool.class, "SaveSLDTool.savingExternalImage")
+                                    + " "
+                                    + externalImage);
         } catch (IOException e) {
             ConsoleManager.getInstance().exception(this, e);
         }
-
-        if (inputStream != null) {
-            try (FileOutputStream outputStream = new FileOutputStream(output);
-                    BufferedReader in = new BufferedReader(new InputStreamReader(inputStream)); ) {
-                byte[] buffer = new byte[BUFFER_SIZE];
-                int n = -1;
-
-                while ((n = inputStream.read(buffer)) != -1) {
-                    outputStream.write(buffer, 0, n);
-                }
-                ConsoleManager.getInstance()
-                        .information(
-                                this,
-                                Localisation.getField(
-                                                SaveSLDTool.class,
-                                                "SaveSLDTool.savingExternalImage")
-                                        + " "
-                                        + externalImage);
-            } catch (IOException e) {
-                ConsoleManager.getInstance().exception(this, e);
-            }
-        }
     }
 
     /**
@@ -22,11 +22,8 @@ package com.sldeditor.tool.ysld;
 import com.sldeditor.common.NodeInterface;
 import com.sldeditor.common.SLDDataInterface;
 import com.sldeditor.common.console.ConsoleManager;
-import com.sldeditor.common.data.SLDUtils;
 import com.sldeditor.common.localisation.Localisation;
 import com.sldeditor.common.output.SLDOutputFormatEnum;
-import com.sldeditor.common.output.SLDWriterInterface;
-import com.sldeditor.common.output.impl.SLDWriterFactory;
 import com.sldeditor.common.utils.ExternalFilenames;
 import com.sldeditor.datasource.SLDEditorFile;
 import com.sldeditor.datasource.extension.filesystem.node.file.FileTreeNode;
@@ -35,6 +32,8 @@ import com.sldeditor.tool.GenerateFilename;
 import com.sldeditor.tool.ToolButton;
 import com.sldeditor.tool.ToolInterface;
 import com.sldeditor.tool.ToolPanel;
+import com.sldeditor.tool.convert.SLDConversionPipeline;
+import com.sldeditor.tool.convert.SLDConversionWriterInterface;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
@@ -47,7 +46,6 @@ import java.util.List;
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
 import javax.swing.JPanel;
-import org.geotools.styling.StyledLayerDescriptor;
 
 /**
  * Tool which given a list of SLD objects saves them to SLD files.
@@ -164,96 +162,78 @@ public class YSLDTool implements ToolInterface {
 
     /** Export to YSLD. */
     private void exportToYSLD() {
-
-        SLDWriterInterface ysldWriter = SLDWriterFactory.createWriter(SLDOutputFormatEnum.YSLD);
-
-        for (SLDDataInterface sldData : sldDataList) {
-            StyledLayerDescriptor sld = SLDUtils.createSLDFromString(sldData);
-
-            String layerName = sldData.getLayerNameWithOutSuffix();
-
-            if (sld != null) {
-                String sldString = ysldWriter.encodeSLD(sldData.getResourceLocator(), sld);
-
-                String destinationFolder = sldData.getSLDFile().getParent();
-
-                File fileToSave =
-                        GenerateFilename.findUniqueName(
-                                destinationFolder, layerName, YSLDTool.YSLD_FILE_EXTENSION);
-
-                String ysldFilename = fileToSave.getName();
-
-                if (fileToSave.exists()) {
-                    ConsoleManager.getInstance()
-                            .error(
-                                    this,
-                                    Localisation.getField(
-                                                    YSLDTool.class,
-                                                    "YSLDTool.destinationAlreadyExists")
-                                            + " "
-                                            + ysldFilename);
-                } else {
-                    ConsoleManager.getInstance()
-                            .information(
-                                    this,
-                                    Localisation.getField(
-                                                    YSLDTool.class, "YSLDTool.exportToYSLDMsg")
-                                            + " "
-                                            + ysldFilename);
-
-                    try (BufferedWriter out = new BufferedWriter(new FileWriter(fileToSave))) {
-                        out.write(sldString);
-                    } catch (IOException e) {
-                        ConsoleManager.getInstance().exception(this, e);
-                    }
-                }
-            }
-        }
+        export(SLDOutputFormatEnum.YSLD, YSLDTool.YSLD_FILE_EXTENSION, "YSLDTool.exportToYSLDMsg");
     }
 
     /** Export to SLD. */
     private void exportToSLD() {
-        SLDWriterInterface sldWriter = SLDWriterFactory.createWriter(SLDOutputFormatEnum.SLD);
-
-        for (SLDDataInterface sldData : sldDataList) {
-            StyledLayerDescriptor sld = SLDUtils.createSLDFromString(sldData);
-
-            String layerName = sldData.getLayerNameWithOutSuffix();
-
-            if (sld != null) {
-                String sldString = sldWriter.encodeSLD(sldData.getResourceLocator(), sld);
-
-                String destinationFolder = sldData.getSLDFile().getParent();
-
-                File fileToSave =
-                        GenerateFilename.findUniqueName(
-                                destinationFolder, layerName, SLDEditorFile.getSLDFileExtension());
-
-                String sldFilename = fileToSave.getName();
-
-                if (fileToSave.exists()) {
-                    ConsoleManager.getInstance()
-                            .error(
-                                    this,
-                                    Localisation.getField(
-                                                    YSLDTool.class,
-                                                    "YSLDTool.destinationAlreadyExists")
-                                            + " "
-                                            + sldFilename);
-                } else {
-                    ConsoleManager.getInstance()
-                            .information(
-                                    this,
-                                    Localisation.getField(YSLDTool.class, "YSLDTool.exportToSLDMsg")
-                                            + " "
-                                            + sldFilename);
-
-                    try (BufferedWriter out = new BufferedWriter(new FileWriter(fileToSave))) {
-                        out.write(sldString);
-                    } catch (IOException e) {
-                        ConsoleManager.getInstance().exception(this, e);
+        export(
+                SLDOutputFormatEnum.SLD,
+                SLDEditorFile.getSLDFileExtension(),
+                "YSLDTool.exportToSLDMsg");
+    }
+
+    /**
+     * Convert the selected styles and write them alongside the original files.
+     *
+     * @param format the output format
+     * @param fileExtension the file extension of the output files
+     * @param messageKey the localisation key of the message logged for each file written
+     */
+    private void export(
+            SLDOutputFormatEnum format, final String fileExtension, final String messageKey) {
+        SLDConversionPipeline pipeline = new SLDConversionPipeline(format, false);
+
+        pipeline.convert(
+                sldDataList,
+                new SLDConversionWriterInterface() {
+                    @Override
+                    public void write(
+                            SLDDataInterface sldData,
+                            String encodedSLD,
+                            List<String> externalImageList) {
+                        writeFile(sldData, encodedSLD, fileExtension, messageKey);
                     }
-                }
+                });
+    }
+
+    /**
+     * Write a converted style to a new file alongside the original file.
+     *
+     * @param sldData the sld data
+     * @param sldString the converted style
+     * @param fileExtension the file extension of the output file
+     * @param messageKey the localisation key of the message logged when the file is written
+     */
+    private void writeFile(
+            SLDDataInterface sldData, String sldString, String fileExtension, String messageKey) {
+        String layerName = sldData.getLayerNameWithOutSuffix();
+
+        String destinationFolder = sldData.getSLDFile().getParent();
+
+        File fileToSave =
+                GenerateFilename.findUniqueName(destinationFolder, layerName, fileExtension);
+
+        String filename = fileToSave.getName();
+
+        if (fileToSave.exists()) {
+            ConsoleManager.getInstance()
+                    .error(
+                            this,
+                            Localisation.getField(
+                                            YSLDTool.class, "YSLDTool.destinationAlreadyExists")
+                                    + " "
+                                    + filename);
+        } else {
+            ConsoleManager.getInstance()
+                    .information(
+                            this,
+                            Localisation.getField(YSLDTool.class, messageKey) + " " + filename);
+
+            try (BufferedWriter out = new BufferedWriter(new FileWriter(fileToSave))) {
+                out.write(sldString);
+            } catch (IOException e) {
+                ConsoleManager.getInstance().exception(this, e);
             }
         }
     }
@@ -63,8 +63,8 @@ import org.geotools.styling.UserLayerImpl;
  * The Class SymbolizerDetailsPanel handles the display of the correct panel when the user clicks on
  * the SLD tree structure.
  *
- * <p>Implemented as panel with a card layout, all possible panels are added to the layout and
- * displayed accordingly.
+ * <p>Implemented as panel with a card layout, panels are created and added to the layout the first
+ * time they are displayed.
  *
  * @author Robert Ward (SCISYS)
  */
@@ -76,10 +76,19 @@ public class SymbolizerDetailsPanel extends JPanel implements SymbolizerSelected
     /** The Constant serialVersionUID. */
     private static final long serialVersionUID = 1L;
 
-    /** The panel map. */
+    /** The panel map, only contains the panels that have been created. */
     private transient Map<String, List<PopulateDetailsInterface>> panelMap =
             new ConcurrentHashMap<>();
 
+    /** The map of panel key to the classes of the panels to create. */
+    private Map<String, List<Class<?>>> classMap = new ConcurrentHashMap<>();
+
+    /** The renderer list. */
+    private transient List<RenderSymbolInterface> rendererList = null;
+
+    /** The sld tree. */
+    private transient SLDTreeUpdatedInterface sldTree = null;
+
     /** The details panel. */
     private JPanel detailsPanel = null;
 
@@ -97,7 +106,9 @@ public class SymbolizerDetailsPanel extends JPanel implements SymbolizerSelected
     public SymbolizerDetailsPanel(
             List<RenderSymbolInterface> rendererList, SLDTreeUpdatedInterface sldTree) {
 
-        Map<String, List<Class<?>>> classMap = new ConcurrentHashMap<>();
+        this.rendererList = rendererList;
+        this.sldTree = sldTree;
+
         classMap.put(EMPTY_PANEL_KEY, Arrays.asList(EmptyPanel.class));
         classMap.put(
                 PointSymbolizerImpl.class.toString(), Arrays.asList(PointSymbolizerDetails.class));
@@ -124,24 +135,9 @@ public class SymbolizerDetailsPanel extends JPanel implements SymbolizerSelected
                 FillImpl.class.toString(),
                 Arrays.asList(PointFillDetails.class, PolygonFillDetails.class));
 
-        populateMap(classMap);
-
         fillMap.put(PointSymbolizerImpl.class, PointFillDetails.class);
         fillMap.put(PolygonSymbolizerImpl.class, PolygonFillDetails.class);
 
-        for (Entry<String, List<PopulateDetailsInterface>> entry : panelMap.entrySet()) {
-            for (PopulateDetailsInterface panelInterface : entry.getValue()) {
-                BasePanel panel = (BasePanel) panelInterface;
-
-                if (rendererList != null) {
-                    for (RenderSymbolInterface renderer : rendererList) {
-                        panel.addRenderer(renderer);
-                    }
-                }
-                panel.addTreeUpdate(sldTree);
-            }
-        }
-
         setBorder(new LineBorder(Color.BLACK));
         setLayout(new BorderLayout(0, 0));
 
@@ -150,57 +146,74 @@ public class SymbolizerDetailsPanel extends JPanel implements SymbolizerSelected
         detailsPanel = new JPanel(false);
         detailsPanel.setLayout(new CardLayout());
 
-        for (Entry<String, List<PopulateDetailsInterface>> entry : panelMap.entrySet()) {
-            List<PopulateDetailsInterface> panelList = entry.getValue();
+        getPanelList(EMPTY_PANEL_KEY);
 
-            for (PopulateDetailsInterface panel : panelList) {
-                JPanel component = (JPanel) panel;
+        add(detailsPanel, BorderLayout.CENTER);
+    }
 
-                detailsPanel.add(component, encodePanelKey(entry.getKey(), panel));
+    /**
+     * Gets the panels for a key, the panels are created and added to the card layout the first time
+     * they are requested.
+     *
+     * @param key the key
+     * @return the panel list, null if the key is not recognised
+     */
+    private synchronized List<PopulateDetailsInterface> getPanelList(String key) {
+        List<PopulateDetailsInterface> panelList = panelMap.get(key);
+
+        if (panelList == null) {
+            List<Class<?>> clazzList = classMap.get(key);
+
+            if (clazzList != null) {
+                panelList = new ArrayList<>();
+                for (Class<?> clazz : clazzList) {
+                    PopulateDetailsInterface panelDetails = createPanel(clazz);
+
+                    if (panelDetails != null) {
+                        panelList.add(panelDetails);
+
+                        detailsPanel.add((JPanel) panelDetails, encodePanelKey(key, panelDetails));
+                    }
+                }
+                panelMap.put(key, panelList);
             }
         }
 
-        add(detailsPanel, BorderLayout.CENTER);
+        return panelList;
     }
 
     /**
-     * Populate map.
+     * Creates a panel and connects it to the renderers and sld tree.
      *
-     * @param classMap the class map
+     * @param clazz the panel class
+     * @return the populate details interface, null if the panel could not be created
      */
-    private void populateMap(Map<String, List<Class<?>>> classMap) {
-        Set<String> keySet = classMap.keySet();
+    private PopulateDetailsInterface createPanel(Class<?> clazz) {
+        PopulateDetailsInterface panelDetails = null;
+        try {
+            panelDetails = (PopulateDetailsInterface) clazz.newInstance();
+        } catch (IllegalAccessException | InstantiationException e) {
+            ConsoleManager.getInstance().exception(this, e);
+            return null;
+        }
 
-        for (String key : keySet) {
-            List<PopulateDetailsInterface> panelList = panelMap.get(key);
+        BasePanel panel = (BasePanel) panelDetails;
 
-            if (panelList == null) {
-                panelList = new ArrayList<>();
-                panelMap.put(key, panelList);
+        if (rendererList != null) {
+            for (RenderSymbolInterface renderer : rendererList) {
+                panel.addRenderer(renderer);
             }
         }
+        panel.addTreeUpdate(sldTree);
 
-        keySet.parallelStream()
-                .forEach(
-                        key -> {
-                            List<PopulateDetailsInterface> panelList = panelMap.get(key);
-
-                            if (panelList != null) {
-                                List<Class<?>> clazzList = classMap.get(key);
-
-                                for (Class<?> clazz : clazzList) {
-                                    PopulateDetailsInterface panelDetails = null;
-                                    try {
-                                        panelDetails =
-                                                (PopulateDetailsInterface) clazz.newInstance();
-                                    } catch (IllegalAccessException | InstantiationException e) {
-                                        ConsoleManager.getInstance().exception(this, e);
-                                    }
-
-                                    panelList.add(panelDetails);
-                                }
-                            }
-                        });
+        return panelDetails;
+    }
+
+    /** Creates all the panels that have not yet been created. */
+    private void createAllPanels() {
+        for (String key : classMap.keySet()) {
+            getPanelList(key);
+        }
     }
 
     /**
@@ -223,11 +236,11 @@ public class SymbolizerDetailsPanel extends JPanel implements SymbolizerSelected
      */
     @Override
     public PopulateDetailsInterface getPanel(Class<?> parentClass, String key) {
-        List<PopulateDetailsInterface> panelList = panelMap.get(key);
+        List<PopulateDetailsInterface> panelList = getPanelList(key);
 
         if (panelList == null) {
             key = EMPTY_PANEL_KEY;
-            panelList = panelMap.get(key);
+            panelList = getPanelList(key);
         }
 
         if (panelList.size() == 1) {
@@ -285,7 +298,7 @@ public class SymbolizerDetailsPanel extends JPanel implements SymbolizerSelected
      */
     @Override
     public Set<String> getPanelIds() {
-        return panelMap.keySet();
+        return classMap.keySet();
     }
 
     /**
@@ -294,6 +307,7 @@ public class SymbolizerDetailsPanel extends JPanel implements SymbolizerSelected
      * @param mergedData the merged data
      */
     public void mergeFieldDataManager(GraphicPanelFieldManager mergedData) {
+        createAllPanels();
 
         for (Entry<String, List<PopulateDetailsInterface>> entry : panelMap.entrySet()) {
             List<PopulateDetailsInterface> panelList = entry.getValue();
@@ -304,7 +318,7 @@ public class SymbolizerDetailsPanel extends JPanel implements SymbolizerSelected
         }
     }
 
-    /** Method called before symbol loaded. */
+    /** Method called before symbol loaded, panels not yet created need no preparation. */
     public void preLoadSymbol() {
         for (Entry<String, List<PopulateDetailsInterface>> entry : panelMap.entrySet()) {
             List<PopulateDetailsInterface> panelList = entry.getValue();
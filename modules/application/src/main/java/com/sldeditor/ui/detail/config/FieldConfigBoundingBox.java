@@ -20,6 +20,7 @@
 package com.sldeditor.ui.detail.config;
 
 import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.coordinate.CRSListUpdateInterface;
 import com.sldeditor.common.coordinate.CoordManager;
 import com.sldeditor.common.localisation.Localisation;
 import com.sldeditor.common.undo.UndoActionInterface;
@@ -179,9 +180,18 @@ public class FieldConfigBoundingBox extends FieldConfigBase implements UndoActio
         fieldPanel.add(lbl);
 
         // Populate data list
-        List<ValueComboBoxData> crsDataList = CoordManager.getInstance().getCRSList();
         crsComboBox = new ValueComboBox();
+        List<ValueComboBoxData> crsDataList =
+                CoordManager.getInstance()
+                        .getCRSList(
+                                new CRSListUpdateInterface() {
+                                    @Override
+                                    public void crsListUpdated(List<ValueComboBoxData> crsList) {
+                                        crsComboBox.updateValues(crsList);
+                                    }
+                                });
         crsComboBox.initialiseSingle(crsDataList);
+        crsComboBox.setSearch(CoordManager.getInstance());
         crsComboBox.setBounds(
                 xPos + BasePanel.WIDGET_X_START,
                 getRowY(row),
@@ -19,6 +19,7 @@
 
 package com.sldeditor.ui.detail.config.inlinefeature;
 
+import com.sldeditor.common.coordinate.CRSListUpdateInterface;
 import com.sldeditor.common.coordinate.CoordManager;
 import com.sldeditor.common.localisation.Localisation;
 import com.sldeditor.ui.detail.BasePanel;
@@ -272,9 +273,18 @@ public class InlineFeaturePanel extends JPanel {
         parentPanel.add(lbl);
 
         // Populate data list
-        List<ValueComboBoxData> crsDataList = CoordManager.getInstance().getCRSList();
         crsComboBox = new ValueComboBox();
+        List<ValueComboBoxData> crsDataList =
+                CoordManager.getInstance()
+                        .getCRSList(
+                                new CRSListUpdateInterface() {
+                                    @Override
+                                    public void crsListUpdated(List<ValueComboBoxData> crsList) {
+                                        crsComboBox.updateValues(crsList);
+                                    }
+                                });
         crsComboBox.initialiseSingle(crsDataList);
+        crsComboBox.setSearch(CoordManager.getInstance());
         crsComboBox.setBounds(
                 xPos + BasePanel.WIDGET_X_START,
                 0,
@@ -110,6 +110,7 @@ public class TTFDetails extends StandardPanel
 
         if (wellKnownName != null) {
             fieldConfigVisitor.populateTextField(FieldIdEnum.TTF_SYMBOL, wellKnownName);
+            CharMap4.prefetchGlyphCoverage(wellKnownName);
         }
     }
 
@@ -47,11 +47,14 @@ import javax.imageio.metadata.IIOInvalidTreeException;
 import javax.imageio.metadata.IIOMetadata;
 import javax.imageio.metadata.IIOMetadataNode;
 import javax.imageio.stream.ImageOutputStream;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
 import org.geoserver.platform.resource.Files;
 import org.geoserver.wms.GetLegendGraphicRequest;
 import org.geoserver.wms.GetLegendGraphicRequest.LegendRequest;
 import org.geoserver.wms.legendgraphic.SLDEditorBufferedImageLegendGraphicBuilder;
 import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.Rule;
 import org.geotools.styling.Style;
 import org.geotools.styling.StyledLayer;
 import org.geotools.styling.StyledLayerDescriptor;
@@ -59,15 +62,24 @@ import org.geotools.styling.StyledLayerDescriptor;
 /**
  * Manager object, implemented as a singleton, that controls the creation of SLD legend images.
  *
+ * <p>Legends may be created on any thread, each thread has its own legend builder. The batch export
+ * of legends uses {@link #exportLegendImage(StyledLayerDescriptor, File, String, List)} which does
+ * not depend on the symbol selected in the editor.
+ *
  * @author Robert Ward (SCISYS)
  */
 public class LegendManager implements LegendOptionDataUpdateInterface {
     /** The singleton instance. */
     private static LegendManager instance = null;
 
-    /** The legend builder. */
-    private SLDEditorBufferedImageLegendGraphicBuilder legendBuilder =
-            new SLDEditorBufferedImageLegendGraphicBuilder();
+    /** The legend builder for each thread, a legend builder is not thread safe. */
+    private static final ThreadLocal<SLDEditorBufferedImageLegendGraphicBuilder> legendBuilder =
+            new ThreadLocal<SLDEditorBufferedImageLegendGraphicBuilder>() {
+                @Override
+                protected SLDEditorBufferedImageLegendGraphicBuilder initialValue() {
+                    return new SLDEditorBufferedImageLegendGraphicBuilder();
+                }
+            };
 
     /** The legend option data. */
     private LegendOptionData legendOptionData = new LegendOptionData();
@@ -78,12 +90,43 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
     /** The Constant LEGEND_IMAGE_FORMAT. */
     private static final String LEGEND_IMAGE_FORMAT = "png";
 
+    /** The Constant RULE_ICON_SIZE, the size in pixels of a rule swatch. */
+    private static final int RULE_ICON_SIZE = 16;
+
     /** The Constant INCH_2_CM. */
     private static final double INCH_2_CM = 2.54;
 
     /** The legend option panel. */
     private LegendOptionPanel legendOptionPanel = null;
 
+    /**
+     * Gets the swatch icon of a rule, the icon is taken from the rule icon cache unless the rule
+     * symbolizers have changed.
+     *
+     * @param rule the rule
+     * @return the rule icon, null if the rule could not be rendered
+     */
+    public Icon getRuleIcon(Rule rule) {
+        if (rule == null) {
+            return null;
+        }
+
+        GetLegendGraphicRequest request = new GetLegendGraphicRequest();
+        request.setWidth(RULE_ICON_SIZE);
+        request.setHeight(RULE_ICON_SIZE);
+        request.setTransparent(true);
+        request.setStrict(false);
+        request.setLegendOptions(new HashMap<String, Object>());
+
+        BufferedImage image = null;
+        try {
+            image = legendBuilder.get().buildRuleGraphic(request, rule);
+        } catch (Exception e) {
+            // Ignore
+        }
+        return (image == null) ? null : new ImageIcon(image);
+    }
+
     /**
      * Creates the legend.
      *
@@ -118,6 +161,29 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
             String heading,
             String filename,
             boolean separateSymbolizers) {
+        return createLegend(
+                sld, heading, filename, separateSymbolizers, getLegendOptionData(), true);
+    }
+
+    /**
+     * Creates the legend.
+     *
+     * @param sld the sld
+     * @param heading the heading
+     * @param filename the filename
+     * @param separateSymbolizers the separate symbolizers
+     * @param optionData the legend option data
+     * @param useSelectedSymbol the use selected symbol flag, if true only the style selected in the
+     *     editor is included in the legend
+     * @return the map
+     */
+    private Map<String, BufferedImage> createLegend(
+            StyledLayerDescriptor sld,
+            String heading,
+            String filename,
+            boolean separateSymbolizers,
+            LegendOptionData optionData,
+            boolean useSelectedSymbol) {
         Map<String, BufferedImage> imageMap = new HashMap<>();
 
         //
@@ -133,25 +199,19 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
             legendOptions.put("filename", filename);
         }
 
-        if (legendOptionData == null) {
-            legendOptionData = new LegendOptionData();
-        }
-
         GetLegendGraphicRequest request = new GetLegendGraphicRequest();
-        request.setWidth(legendOptionData.getImageWidth());
-        request.setHeight(legendOptionData.getImageHeight());
-        request.setTransparent(legendOptionData.isTransparent());
+        request.setWidth(optionData.getImageWidth());
+        request.setHeight(optionData.getImageHeight());
+        request.setTransparent(optionData.isTransparent());
         request.setStrict(false);
 
-        legendOptions.put(
-                "bgColor", ColourUtils.fromColour(legendOptionData.getBackgroundColour()));
-        legendOptions.put(
-                "fontColor", ColourUtils.fromColour(legendOptionData.getLabelFontColour()));
+        legendOptions.put("bgColor", ColourUtils.fromColour(optionData.getBackgroundColour()));
+        legendOptions.put("fontColor", ColourUtils.fromColour(optionData.getLabelFontColour()));
 
         //
         // Label Font
         //
-        Font font = legendOptionData.getLabelFont();
+        Font font = optionData.getLabelFont();
         legendOptions.put("fontName", font.getFontName());
         String styleValue = null;
         if ((font.getStyle() & java.awt.Font.BOLD) == java.awt.Font.BOLD) {
@@ -165,25 +225,26 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
         }
 
         legendOptions.put("fontSize", String.valueOf(font.getSize()));
-        legendOptions.put("dpi", Integer.valueOf(legendOptionData.getDpi()));
+        legendOptions.put("dpi", Integer.valueOf(optionData.getDpi()));
         legendOptions.put(
-                "fontAntiAliasing", getBooleanValueOnOff(legendOptionData.isFontAntiAliasing()));
-        legendOptions.put("forceLabels", getBooleanValueOnOff(legendOptionData.isShowLabels()));
-        legendOptions.put("forceTitles", getBooleanValueOnOff(legendOptionData.isShowTitle()));
-        legendOptions.put(
-                "bandInfo", getBooleanValueTrueFalse(legendOptionData.isBandInformation()));
-        legendOptions.put("border", getBooleanValueTrueFalse(legendOptionData.isBorder()));
-        legendOptions.put(
-                "borderColor", ColourUtils.fromColour(legendOptionData.getBorderColour()));
-        legendOptions.put(
-                "imageSizeFactor", String.valueOf(legendOptionData.getImageSize() / 100.0));
+                "fontAntiAliasing", getBooleanValueOnOff(optionData.isFontAntiAliasing()));
+        legendOptions.put("forceLabels", getBooleanValueOnOff(optionData.isShowLabels()));
+        legendOptions.put("forceTitles", getBooleanValueOnOff(optionData.isShowTitle()));
+        legendOptions.put("bandInfo", getBooleanValueTrueFalse(optionData.isBandInformation()));
+        legendOptions.put("border", getBooleanValueTrueFalse(optionData.isBorder()));
+        legendOptions.put("borderColor", ColourUtils.fromColour(optionData.getBorderColour()));
+        legendOptions.put("imageSizeFactor", String.valueOf(optionData.getImageSize() / 100.0));
 
         request.setLegendOptions(legendOptions);
 
         if (sld != null) {
             Map<String, Style> styleMap = new LinkedHashMap<>();
-            StyledLayer selectedStyledLayer = SelectedSymbol.getInstance().getStyledLayer();
-            Style selectedStyle = SelectedSymbol.getInstance().getStyle();
+            StyledLayer selectedStyledLayer = null;
+            Style selectedStyle = null;
+            if (useSelectedSymbol) {
+                selectedStyledLayer = SelectedSymbol.getInstance().getStyledLayer();
+                selectedStyle = SelectedSymbol.getInstance().getStyle();
+            }
             if (selectedStyle != null) {
                 createSingleStyleLegend(styleMap, selectedStyledLayer, selectedStyle);
             } else {
@@ -221,7 +282,7 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
             BufferedImage legendGraphic = null;
 
             try {
-                legendGraphic = legendBuilder.buildLegendGraphic(request);
+                legendGraphic = legendBuilder.get().buildLegendGraphic(request);
             } catch (Exception e) {
                 // Ignore
             }
@@ -257,7 +318,7 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
         BufferedImage legendGraphic = null;
 
         try {
-            legendGraphic = legendBuilder.buildLegendGraphic(request);
+            legendGraphic = legendBuilder.get().buildLegendGraphic(request);
         } catch (Exception e) {
             // Ignore
         }
@@ -351,7 +412,7 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
      *
      * @return single instance of LegendManager
      */
-    public static LegendManager getInstance() {
+    public static synchronized LegendManager getInstance() {
         if (instance == null) {
             instance = new LegendManager();
         }
@@ -367,7 +428,9 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
      */
     @Override
     public void updateLegendOptionData(LegendOptionData data) {
-        legendOptionData = data;
+        synchronized (this) {
+            legendOptionData = data;
+        }
 
         if (refreshSymbol != null) {
             refreshSymbol.renderSymbol();
@@ -401,11 +464,54 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
             String heading,
             String filename,
             List<String> filenameList) {
-        boolean ok = false;
+        LegendOptionData optionData = getLegendOptionData();
 
         Map<String, BufferedImage> imageMap =
-                LegendManager.getInstance()
-                        .createLegend(sld, heading, filename, legendOptionData.splitSymbolizers());
+                createLegend(
+                        sld, heading, filename, optionData.splitSymbolizers(), optionData, true);
+
+        return writeLegendImages(imageMap, destinationFolder, layerName, optionData, filenameList);
+    }
+
+    /**
+     * Export the legend image of all the styles in an SLD, may be called from any thread.
+     *
+     * @param sld the sld
+     * @param destinationFolder the destination folder
+     * @param layerName the layer name
+     * @param filenameList the filename list
+     * @return true, if successful
+     */
+    public boolean exportLegendImage(
+            StyledLayerDescriptor sld,
+            File destinationFolder,
+            String layerName,
+            List<String> filenameList) {
+        LegendOptionData optionData = getLegendOptionData();
+
+        Map<String, BufferedImage> imageMap =
+                createLegend(sld, null, null, optionData.splitSymbolizers(), optionData, false);
+
+        return writeLegendImages(imageMap, destinationFolder, layerName, optionData, filenameList);
+    }
+
+    /**
+     * Write legend images.
+     *
+     * @param imageMap the image map
+     * @param destinationFolder the destination folder
+     * @param layerName the layer name
+     * @param optionData the legend option data
+     * @param filenameList the filename list
+     * @return true, if successful
+     */
+    private boolean writeLegendImages(
+            Map<String, BufferedImage> imageMap,
+            File destinationFolder,
+            String layerName,
+            LegendOptionData optionData,
+            List<String> filenameList) {
+        boolean ok = false;
 
         if (imageMap != null) {
             for (Entry<String, BufferedImage> entry : imageMap.entrySet()) {
@@ -433,7 +539,7 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
                                         image,
                                         getLegendImageFormat(),
                                         fileToSave,
-                                        legendOptionData.getDpi());
+                                        optionData.getDpi());
                     } catch (IOException e) {
                         ConsoleManager.getInstance().exception(this, e);
                     }
@@ -444,6 +550,18 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
         return ok;
     }
 
+    /**
+     * Gets the legend option data.
+     *
+     * @return the legend option data
+     */
+    private synchronized LegendOptionData getLegendOptionData() {
+        if (legendOptionData == null) {
+            legendOptionData = new LegendOptionData();
+        }
+        return legendOptionData;
+    }
+
     /**
      * Save legend image.
      *
@@ -454,7 +572,7 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
     public void saveLegendImage(BufferedImage image, String extension, File fileToSave) {
         if (image != null) {
             try {
-                saveGridImage(image, extension, fileToSave, legendOptionData.getDpi());
+                saveGridImage(image, extension, fileToSave, getLegendOptionData().getDpi());
             } catch (IOException e) {
                 ConsoleManager.getInstance().exception(this, e);
             }
@@ -510,6 +628,7 @@ public class LegendManager implements LegendOptionDataUpdateInterface {
                     writer.write(metadata, new IIOImage(image, null, metadata), writeParam);
                 } finally {
                     stream.close();
+                    writer.dispose();
                 }
                 finish = true;
             }
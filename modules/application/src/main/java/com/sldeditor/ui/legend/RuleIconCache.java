@@ -0,0 +1,288 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.ui.legend;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.styling.Rule;
+import org.geotools.styling.StyleFactory;
+import org.geotools.styling.Symbolizer;
+import org.geotools.styling.visitor.DuplicatingStyleVisitor;
+import org.opengis.style.GraphicLegend;
+
+/**
+ * The Class RuleIconCache, holds the legend icon of each rule so that when a style is edited only
+ * the rules that have changed are rendered again.
+ *
+ * <p>Icons are keyed by the structure of the rule symbolizers and legend graphic together with the
+ * parameters the icon was rendered with, the rule name, title and filter do not affect the icon.
+ * The cache is bounded by the memory size of the icons, the least recently used icons are evicted
+ * first.
+ *
+ * <p>Class is implemented as a singleton.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RuleIconCache {
+
+    /** The Constant DEFAULT_MAX_SIZE, the default maximum memory size of the icons in bytes. */
+    private static final long DEFAULT_MAX_SIZE = 16L * 1024L * 1024L;
+
+    /** The Constant BYTES_PER_PIXEL. */
+    private static final long BYTES_PER_PIXEL = 4L;
+
+    /** The style factory. */
+    private static StyleFactory styleFactory = CommonFactoryFinder.getStyleFactory();
+
+    /** The singleton instance. */
+    private static RuleIconCache instance = null;
+
+    /** The maximum memory size of the icons in bytes. */
+    private long maxSize;
+
+    /** The memory size of the icons in bytes. */
+    private long size = 0L;
+
+    /** The icons, in least recently used order. */
+    private Map<RuleKey, BufferedImage> iconMap = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Gets the single instance of RuleIconCache.
+     *
+     * @return single instance of RuleIconCache
+     */
+    public static synchronized RuleIconCache getInstance() {
+        if (instance == null) {
+            instance = new RuleIconCache(DEFAULT_MAX_SIZE);
+        }
+        return instance;
+    }
+
+    /**
+     * Instantiates a new rule icon cache.
+     *
+     * @param maxSize the maximum memory size of the icons in bytes
+     */
+    public RuleIconCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Creates the key identifying the icon of a rule. The key refers to the rule being edited, it
+     * is only copied when an icon is stored.
+     *
+     * @param rule the rule
+     * @param parameters the parameters the icon is rendered with
+     * @return the key
+     */
+    public static RuleKey createKey(Rule rule, Object... parameters) {
+        if (rule == null) {
+            return null;
+        }
+        return new RuleKey(rule.symbolizers(), rule.getLegend(), Arrays.asList(parameters));
+    }
+
+    /**
+     * Gets the icon of a rule.
+     *
+     * @param key the key
+     * @return a copy of the icon, null if the icon is not cached
+     */
+    public BufferedImage get(RuleKey key) {
+        if (key == null) {
+            return null;
+        }
+
+        BufferedImage image;
+        synchronized (this) {
+            image = iconMap.get(key);
+        }
+        return (image == null) ? null : copyImage(image);
+    }
+
+    /**
+     * Cache the icon of a rule, a copy of the rule symbolizers and icon is stored so later edits to
+     * the rule do not affect the cache.
+     *
+     * @param key the key
+     * @param image the icon
+     */
+    public void put(RuleKey key, BufferedImage image) {
+        if ((key == null) || (image == null)) {
+            return;
+        }
+
+        RuleKey storedKey = key.copy();
+        BufferedImage storedImage = copyImage(image);
+        long imageSize = getImageSize(storedImage);
+
+        synchronized (this) {
+            if (imageSize > maxSize) {
+                return;
+            }
+
+            BufferedImage previous = iconMap.put(storedKey, storedImage);
+            if (previous != null) {
+                size -= getImageSize(previous);
+            }
+            size += imageSize;
+
+            Iterator<BufferedImage> iterator = iconMap.values().iterator();
+            while ((size > maxSize) && iterator.hasNext()) {
+                size -= getImageSize(iterator.next());
+                iterator.remove();
+            }
+        }
+    }
+
+    /** Clear the cached icons. */
+    public synchronized void clear() {
+        iconMap.clear();
+        size = 0L;
+    }
+
+    /**
+     * Gets the memory size of the cached icons.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of cached icons.
+     *
+     * @return the number of cached icons
+     */
+    public synchronized int getCount() {
+        return iconMap.size();
+    }
+
+    /**
+     * Gets the memory size of an icon.
+     *
+     * @param image the icon
+     * @return the size in bytes
+     */
+    private static long getImageSize(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * Copy an image, the legend builder draws on the images it is given.
+     *
+     * @param image the image
+     * @return the copy
+     */
+    private static BufferedImage copyImage(BufferedImage image) {
+        ColorModel colourModel = image.getColorModel();
+        return new BufferedImage(
+                colourModel, image.copyData(null), colourModel.isAlphaPremultiplied(), null);
+    }
+
+    /** The key identifying the icon of a rule. */
+    public static class RuleKey {
+
+        /** The symbolizers. */
+        private final List<Symbolizer> symbolizers;
+
+        /** The legend graphic, may be null. */
+        private final GraphicLegend legend;
+
+        /** The parameters the icon is rendered with. */
+        private final List<Object> parameters;
+
+        /** The hash code, calculated once as the structure of the rule is hashed. */
+        private final int hashCode;
+
+        /**
+         * Instantiates a new rule key.
+         *
+         * @param symbolizers the symbolizers
+         * @param legend the legend graphic
+         * @param parameters the parameters
+         */
+        RuleKey(List<Symbolizer> symbolizers, GraphicLegend legend, List<Object> parameters) {
+            this.symbolizers = symbolizers;
+            this.legend = legend;
+            this.parameters = parameters;
+            this.hashCode = Objects.hash(symbolizers, legend, parameters);
+        }
+
+        /**
+         * Copy the key so that it does not refer to the rule being edited.
+         *
+         * @return the copy
+         */
+        RuleKey copy() {
+            Rule rule = styleFactory.createRule();
+            rule.symbolizers().addAll(symbolizers);
+            rule.setLegend(legend);
+
+            DuplicatingStyleVisitor duplicator = new DuplicatingStyleVisitor();
+            rule.accept(duplicator);
+            Rule ruleCopy = (Rule) duplicator.getCopy();
+
+            return new RuleKey(
+                    new ArrayList<>(ruleCopy.symbolizers()),
+                    ruleCopy.getLegend(),
+                    new ArrayList<>(parameters));
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof RuleKey)) {
+                return false;
+            }
+            RuleKey other = (RuleKey) obj;
+            return (hashCode == other.hashCode)
+                    && symbolizers.equals(other.symbolizers)
+                    && Objects.equals(legend, other.legend)
+                    && parameters.equals(other.parameters);
+        }
+    }
+}
@@ -29,6 +29,8 @@ import com.sldeditor.common.vendoroption.VendorOptionManager;
 import com.sldeditor.datasource.SLDEditorDataUpdateInterface;
 import com.sldeditor.datasource.SLDEditorFile;
 import com.sldeditor.render.RenderPanelFactory;
+import com.sldeditor.render.RenderScheduler;
+import com.sldeditor.render.RenderTask;
 import com.sldeditor.ui.detail.BasePanel;
 import com.sldeditor.ui.widgets.ValueComboBox;
 import com.sldeditor.ui.widgets.ValueComboBoxData;
@@ -36,6 +38,7 @@ import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
@@ -43,7 +46,9 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
+import javax.swing.Timer;
 import org.geotools.styling.StyledLayerDescriptor;
+import org.geotools.styling.visitor.DuplicatingStyleVisitor;
 
 /**
  * Text area component that displays the SLD as xml.
@@ -51,6 +56,9 @@ import org.geotools.styling.StyledLayerDescriptor;
  * @author Robert Ward (SCISYS)
  */
 public class SLDTextArea implements SLDOutputInterface, SLDEditorDataUpdateInterface {
+    /** The Constant ENCODE_DELAY, quiet period in milliseconds before the SLD is encoded. */
+    private static final int ENCODE_DELAY = 250;
+
     /** The sld source text area. */
     private JTextArea sldSourceTextArea;
 
@@ -69,6 +77,12 @@ public class SLDTextArea implements SLDOutputInterface, SLDEditorDataUpdateInter
     /** The resource locator. */
     private URL resourceLocator = null;
 
+    /** The timer used to debounce SLD updates. */
+    private Timer encodeTimer = null;
+
+    /** The flag indicating the displayed text does not match the SLD. */
+    private boolean textOutOfDate = false;
+
     /**
      * Gets the panel.
      *
@@ -88,6 +102,9 @@ public class SLDTextArea implements SLDOutputInterface, SLDEditorDataUpdateInter
         RenderPanelFactory.addSLDOutputListener(this);
 
         SLDEditorFile.getInstance().addSLDEditorFileUpdateListener(this);
+
+        encodeTimer = new Timer(ENCODE_DELAY, e -> outputTextIfVisible());
+        encodeTimer.setRepeats(false);
     }
 
     /**
@@ -138,7 +155,8 @@ public class SLDTextArea implements SLDOutputInterface, SLDEditorDataUpdateInter
                             String name = localComboBox.getSelectedValue().getKey();
                             outputFormat =
                                     SLDOutputFormatEnum.valueOf(SLDOutputFormatEnum.class, name);
-                            outputText();
+                            textOutOfDate = true;
+                            outputTextIfVisible();
                         }
                     }
                 });
@@ -155,6 +173,15 @@ public class SLDTextArea implements SLDOutputInterface, SLDEditorDataUpdateInter
         sldSourceTextArea.setLineWrap(true);
 
         sldSourcePanel.add(scrollPane, BorderLayout.CENTER);
+
+        // Only encode the SLD when the text is visible
+        sldSourcePanel.addHierarchyListener(
+                e -> {
+                    if (((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0)
+                            && sldSourcePanel.isShowing()) {
+                        outputTextIfVisible();
+                    }
+                });
         return sldSourcePanel;
     }
 
@@ -168,16 +195,68 @@ public class SLDTextArea implements SLDOutputInterface, SLDEditorDataUpdateInter
     public void updatedSLD(SLDDataInterface sldData, StyledLayerDescriptor sld) {
         this.displayedSld = sld;
         this.resourceLocator = sldData.getResourceLocator();
+        this.textOutOfDate = true;
 
-        outputText();
+        encodeTimer.restart();
     }
 
-    /** Output text. */
+    /** Output the text if it is out of date and the text area is visible. */
+    private void outputTextIfVisible() {
+        if (textOutOfDate && (sldSourceTextArea != null) && sldSourceTextArea.isShowing()) {
+            outputText();
+        }
+    }
+
+    /**
+     * Output text, a copy of the SLD is encoded in the background and the text area updated when
+     * done. The SLD being edited is only accessed on the event dispatch thread.
+     */
     private void outputText() {
-        SLDWriterInterface sldWriter = SLDWriterFactory.createWriter(outputFormat);
+        textOutOfDate = false;
+
+        StyledLayerDescriptor sldCopy = copySLD(displayedSld);
+        if (sldCopy == null) {
+            // The SLD could not be copied, encode it here instead
+            RenderScheduler.getInstance().cancel(this);
+            String encodedSLD =
+                    new EncodeTask(outputFormat, resourceLocator, displayedSld).render();
+            if (encodedSLD != null) {
+                TextDocumentUpdater.update(sldSourceTextArea.getDocument(), encodedSLD);
+            }
+            return;
+        }
 
-        String encodedSLD = sldWriter.encodeSLD(resourceLocator, displayedSld);
-        sldSourceTextArea.setText(encodedSLD);
+        RenderScheduler.getInstance()
+                .submit(
+                        this,
+                        new EncodeTask(outputFormat, resourceLocator, sldCopy),
+                        encodedSLD -> {
+                            if (encodedSLD != null) {
+                                TextDocumentUpdater.update(
+                                        sldSourceTextArea.getDocument(), encodedSLD);
+                            }
+                        });
+    }
+
+    /**
+     * Copy the SLD so that it can be encoded while the original is edited.
+     *
+     * @param sld the sld
+     * @return the copy, null if the SLD could not be copied
+     */
+    private static StyledLayerDescriptor copySLD(StyledLayerDescriptor sld) {
+        if (sld == null) {
+            return null;
+        }
+
+        try {
+            DuplicatingStyleVisitor duplicator = new DuplicatingStyleVisitor();
+            sld.accept(duplicator);
+            return (StyledLayerDescriptor) duplicator.getCopy();
+        } catch (RuntimeException e) {
+            // e.g. a rendering transformation whose process is not available locally
+            return null;
+        }
     }
 
     /**
@@ -201,4 +280,58 @@ public class SLDTextArea implements SLDOutputInterface, SLDEditorDataUpdateInter
             comboBox.setSelectValueKey(outputFormat.name());
         }
     }
+
+    /** Task that encodes the SLD on a background thread. */
+    private static class EncodeTask implements RenderTask<String> {
+
+        /** The output format. */
+        private final SLDOutputFormatEnum format;
+
+        /** The resource locator. */
+        private final URL resourceLocator;
+
+        /** The sld, a copy when encoded on a background thread. */
+        private final StyledLayerDescriptor sld;
+
+        /** The cancelled flag. */
+        private volatile boolean cancelled = false;
+
+        /**
+         * Instantiates a new encode task.
+         *
+         * @param format the format
+         * @param resourceLocator the resource locator
+         * @param sld the sld
+         */
+        EncodeTask(SLDOutputFormatEnum format, URL resourceLocator, StyledLayerDescriptor sld) {
+            this.format = format;
+            this.resourceLocator = resourceLocator;
+            this.sld = sld;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.render.RenderTask#render()
+         */
+        @Override
+        public String render() {
+            SLDWriterInterface sldWriter = SLDWriterFactory.createWriter(format);
+
+            String encodedSLD = sldWriter.encodeSLD(resourceLocator, sld);
+
+            // A newer request follows
+            return cancelled ? null : encodedSLD;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.render.RenderTask#cancel()
+         */
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.ui.sldtext;
+
+import com.sldeditor.common.console.ConsoleManager;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+/**
+ * Updates the contents of a text document by only replacing the region of text that has changed.
+ *
+ * <p>Replacing the whole document causes the text component to re-layout every line and lose the
+ * scroll position, whereas editing a symbol usually only changes a few lines of the encoded SLD.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class TextDocumentUpdater {
+
+    /** Private default constructor. */
+    private TextDocumentUpdater() {
+        // Private default constructor
+    }
+
+    /**
+     * Update the document so that it contains the new text.
+     *
+     * @param document the document
+     * @param newText the new text
+     */
+    public static void update(Document document, String newText) {
+        if (document == null) {
+            return;
+        }
+
+        String updatedText = (newText == null) ? "" : newText;
+
+        try {
+            String oldText = document.getText(0, document.getLength());
+
+            int oldLength = oldText.length();
+            int newLength = updatedText.length();
+            int maxCommon = Math.min(oldLength, newLength);
+
+            int prefix = 0;
+            while ((prefix < maxCommon) && (oldText.charAt(prefix) == updatedText.charAt(prefix))) {
+                prefix++;
+            }
+
+            int suffix = 0;
+            while ((suffix < (maxCommon - prefix))
+                    && (oldText.charAt(oldLength - suffix - 1)
+                            == updatedText.charAt(newLength - suffix - 1))) {
+                suffix++;
+            }
+
+            int removeLength = oldLength - prefix - suffix;
+            if (removeLength > 0) {
+                document.remove(prefix, removeLength);
+            }
+
+            String insertText = updatedText.substring(prefix, newLength - suffix);
+            if (!insertText.isEmpty()) {
+                document.insertString(prefix, insertText, null);
+            }
+        } catch (BadLocationException e) {
+            ConsoleManager.getInstance().exception(TextDocumentUpdater.class, e);
+        }
+    }
+}
@@ -20,9 +20,12 @@
 package com.sldeditor.ui.tree;
 
 import com.sldeditor.common.tree.leaf.SLDTreeLeafFactory;
+import com.sldeditor.ui.legend.LegendManager;
 import com.sldeditor.ui.tree.item.SLDTreeItemInterface;
 import com.sldeditor.ui.tree.item.TreeItemMap;
 import java.awt.Component;
+import javax.swing.Icon;
+import javax.swing.JLabel;
 import javax.swing.JTree;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreeCellRenderer;
@@ -30,6 +33,7 @@ import org.geotools.styling.ExternalGraphicImpl;
 import org.geotools.styling.Fill;
 import org.geotools.styling.PolygonSymbolizer;
 import org.geotools.styling.RasterSymbolizer;
+import org.geotools.styling.Rule;
 import org.geotools.styling.Stroke;
 import org.geotools.styling.Symbolizer;
 import org.geotools.styling.TextSymbolizer;
@@ -109,8 +113,18 @@ public class ComponentCellRenderer implements TreeCellRenderer {
             }
         }
 
-        return renderer.getTreeCellRendererComponent(
-                tree, name, selected, expanded, isLeaf, row, hasFocus);
+        Component component =
+                renderer.getTreeCellRendererComponent(
+                        tree, name, selected, expanded, isLeaf, row, hasFocus);
+
+        // Show a swatch of the rule symbols, only rules that have changed are rendered again
+        if ((userObject instanceof Rule) && (component instanceof JLabel)) {
+            Icon ruleIcon = LegendManager.getInstance().getRuleIcon((Rule) userObject);
+            if (ruleIcon != null) {
+                ((JLabel) component).setIcon(ruleIcon);
+            }
+        }
+        return component;
     }
 
     /**
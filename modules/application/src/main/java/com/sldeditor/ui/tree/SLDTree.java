@@ -111,6 +111,9 @@ public class SLDTree extends JPanel
     /** The tree tools. */
     private transient SLDTreeTools treeTools = null;
 
+    /** The tree synchroniser, applies incremental changes to the tree. */
+    private transient SLDTreeSynchroniser treeSynchroniser = null;
+
     /** The current geometry type of the loaded data source. */
     private GeometryTypeEnum currentGeometryType = GeometryTypeEnum.UNKNOWN;
 
@@ -164,6 +167,8 @@ public class SLDTree extends JPanel
         symbolTree.setEditable(true);
         symbolTree.setRowHeight(0);
 
+        treeSynchroniser = new SLDTreeSynchroniser(treeModel, symbolTree, nodeMap);
+
         // Listen for when the selection changes.
         symbolTree.addTreeSelectionListener(this);
         panelSymbolMarkerTree.setLayout(new BorderLayout(0, 0));
@@ -215,6 +220,7 @@ public class SLDTree extends JPanel
         rootNode.removeAllChildren(); // This removes all nodes
         treeModel.reload(); // This notifies the listeners and changes the GUI
         nodeMap.clear();
+        treeSynchroniser.reset();
     }
 
     /*
@@ -284,6 +290,8 @@ public class SLDTree extends JPanel
                 }
             }
         }
+
+        treeSynchroniser.snapshot(rootNode);
     }
 
     /**
@@ -408,10 +416,16 @@ public class SLDTree extends JPanel
      */
     @Override
     public void textUpdated() {
+        SelectedSymbol selectedSymbol = SelectedSymbol.getInstance();
 
-        int[] selectedRows = symbolTree.getSelectionRows();
-        populateSLD();
-        symbolTree.setSelectionRows(selectedRows);
+        if ((selectedSymbol == null) || (selectedSymbol.getSld() == null)) {
+            int[] selectedRows = symbolTree.getSelectionRows();
+            populateSLD();
+            symbolTree.setSelectionRows(selectedRows);
+        } else {
+            // Only update the nodes that have changed, retains selection and expansion state
+            treeSynchroniser.synchronise(rootNode, selectedSymbol.getSld());
+        }
     }
 
     /**
@@ -432,6 +446,18 @@ public class SLDTree extends JPanel
             String newKey = SLDTreeItemWrapper.generateKey(objectNew);
             nodeMap.put(newKey, node);
             treeModel.nodeChanged(node);
+
+            // The rule row shows a swatch of its symbolizers, repaint it too
+            if (!(objectNew instanceof Rule)) {
+                DefaultMutableTreeNode parentNode = (DefaultMutableTreeNode) node.getParent();
+                while ((parentNode != null) && !(parentNode.getUserObject() instanceof Rule)) {
+                    parentNode = (DefaultMutableTreeNode) parentNode.getParent();
+                }
+
+                if (parentNode != null) {
+                    treeModel.nodeChanged(parentNode);
+                }
+            }
         }
     }
 
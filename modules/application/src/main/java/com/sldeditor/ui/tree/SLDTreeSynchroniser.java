@@ -0,0 +1,487 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.ui.tree;
+
+import com.sldeditor.common.tree.leaf.SLDTreeLeafFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import javax.swing.JTree;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.LineSymbolizer;
+import org.geotools.styling.NamedLayerImpl;
+import org.geotools.styling.PointSymbolizer;
+import org.geotools.styling.PolygonSymbolizer;
+import org.geotools.styling.RasterSymbolizer;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyledLayer;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.geotools.styling.Symbolizer;
+import org.geotools.styling.UserLayerImpl;
+
+/**
+ * Synchronises the SLD tree nodes with the structure of an SLD without rebuilding the tree.
+ *
+ * <p>The SLD is walked in the same order as SLDTree.populateSLD(), existing nodes are matched first
+ * by object identity using the node map and then by position and class. Only nodes that have been
+ * added, removed, moved or whose display text has changed generate tree model events, so the
+ * selection and expansion state of the unchanged nodes is retained.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class SLDTreeSynchroniser {
+
+    /** The tree model. */
+    private DefaultTreeModel treeModel = null;
+
+    /** The tree. */
+    private JTree symbolTree = null;
+
+    /** The node map. */
+    private Map<String, DefaultMutableTreeNode> nodeMap = null;
+
+    /** The last display text of each node. */
+    private Map<DefaultMutableTreeNode, String> textMap = new WeakHashMap<>();
+
+    /**
+     * Instantiates a new SLD tree synchroniser.
+     *
+     * @param treeModel the tree model
+     * @param symbolTree the symbol tree
+     * @param nodeMap the node map
+     */
+    SLDTreeSynchroniser(
+            DefaultTreeModel treeModel,
+            JTree symbolTree,
+            Map<String, DefaultMutableTreeNode> nodeMap) {
+        this.treeModel = treeModel;
+        this.symbolTree = symbolTree;
+        this.nodeMap = nodeMap;
+    }
+
+    /** Forget the display text of all nodes, called when the tree is rebuilt. */
+    void reset() {
+        textMap.clear();
+    }
+
+    /**
+     * Record the display text of all nodes as the baseline for the next synchronisation, called
+     * when the tree has been populated so only nodes that change afterwards generate events.
+     *
+     * @param rootNode the root node
+     */
+    void snapshot(DefaultMutableTreeNode rootNode) {
+        textMap.clear();
+        recordText(rootNode);
+    }
+
+    /**
+     * Record the display text of the node and all its descendants.
+     *
+     * @param node the node
+     */
+    private void recordText(DefaultMutableTreeNode node) {
+        Enumeration<?> nodes = node.breadthFirstEnumeration();
+        while (nodes.hasMoreElements()) {
+            DefaultMutableTreeNode descendant = (DefaultMutableTreeNode) nodes.nextElement();
+            textMap.put(
+                    descendant,
+                    ComponentCellRenderer.getItemText(descendant, descendant.getUserObject()));
+        }
+    }
+
+    /**
+     * Synchronise the tree with the SLD.
+     *
+     * @param rootNode the root node
+     * @param sld the sld
+     */
+    void synchronise(DefaultMutableTreeNode rootNode, StyledLayerDescriptor sld) {
+        TreePath[] selectedPaths = symbolTree.getSelectionPaths();
+
+        if (rootNode.getUserObject() != sld) {
+            rootNode.setUserObject(sld);
+            treeModel.nodeChanged(rootNode);
+        }
+
+        synchroniseChildren(rootNode, getChildObjects(sld));
+
+        restoreSelection(selectedPaths);
+    }
+
+    /**
+     * Synchronise the children of a node with the wanted child objects.
+     *
+     * @param parentNode the parent node
+     * @param childObjectList the wanted child objects
+     */
+    private void synchroniseChildren(
+            DefaultMutableTreeNode parentNode, List<Object> childObjectList) {
+        Set<Object> wantedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        wantedSet.addAll(childObjectList);
+
+        removeUnwantedNodes(
+                parentNode, wantedSet, parentNode.getChildCount() - childObjectList.size());
+
+        for (int index = 0; index < childObjectList.size(); index++) {
+            Object childObject = childObjectList.get(index);
+            DefaultMutableTreeNode childNode = findNode(parentNode, childObject, index, wantedSet);
+
+            if (childNode == null) {
+                childNode = createNode(childObject);
+                parentNode.insert(childNode, index);
+                treeModel.nodesWereInserted(parentNode, new int[] {index});
+                expandAll(childNode);
+                recordText(childNode);
+            } else {
+                int currentIndex = parentNode.getIndex(childNode);
+                if (currentIndex != index) {
+                    moveNode(parentNode, childNode, currentIndex, index);
+                }
+
+                if (childNode.getUserObject() != childObject) {
+                    updateUserObject(childNode, childObject);
+                }
+
+                if (textChanged(childNode)) {
+                    treeModel.nodeChanged(childNode);
+                }
+
+                synchroniseChildren(childNode, getChildObjects(childObject));
+            }
+        }
+
+        removeTrailingNodes(parentNode, childObjectList.size());
+    }
+
+    /**
+     * Find the existing node for the object. Nodes are matched by identity, if not found the node
+     * at the same position is reused if it is of the same class and its object is no longer wanted.
+     *
+     * @param parentNode the parent node
+     * @param childObject the child object
+     * @param index the index
+     * @param wantedSet the objects wanted under the parent
+     * @return the existing node, null if not found
+     */
+    private DefaultMutableTreeNode findNode(
+            DefaultMutableTreeNode parentNode,
+            Object childObject,
+            int index,
+            Set<Object> wantedSet) {
+        DefaultMutableTreeNode node = nodeMap.get(SLDTreeItemWrapper.generateKey(childObject));
+
+        if ((node != null) && (node.getParent() == parentNode)) {
+            return node;
+        }
+
+        if (index < parentNode.getChildCount()) {
+            node = (DefaultMutableTreeNode) parentNode.getChildAt(index);
+            Object existingObject = node.getUserObject();
+
+            if ((existingObject != null)
+                    && (existingObject.getClass() == childObject.getClass())
+                    && !wantedSet.contains(existingObject)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Move a node to a new position under the same parent, the expanded state of the node is
+     * restored after the move.
+     *
+     * @param parentNode the parent node
+     * @param node the node
+     * @param fromIndex the current index
+     * @param toIndex the new index
+     */
+    private void moveNode(
+            DefaultMutableTreeNode parentNode,
+            DefaultMutableTreeNode node,
+            int fromIndex,
+            int toIndex) {
+        List<TreePath> expandedList = new ArrayList<>();
+        TreePath path = new TreePath(node.getPath());
+        if (symbolTree.isExpanded(path)) {
+            expandedList.add(path);
+        }
+        Enumeration<TreePath> expandedPaths = symbolTree.getExpandedDescendants(path);
+        if (expandedPaths != null) {
+            expandedList.addAll(Collections.list(expandedPaths));
+        }
+
+        parentNode.remove(fromIndex);
+        treeModel.nodesWereRemoved(parentNode, new int[] {fromIndex}, new Object[] {node});
+        parentNode.insert(node, toIndex);
+        treeModel.nodesWereInserted(parentNode, new int[] {toIndex});
+
+        for (TreePath expandedPath : expandedList) {
+            symbolTree.expandPath(expandedPath);
+        }
+    }
+
+    /**
+     * Update the user object of a node and its node map entry.
+     *
+     * @param node the node
+     * @param userObject the new user object
+     */
+    private void updateUserObject(DefaultMutableTreeNode node, Object userObject) {
+        removeKey(node);
+        node.setUserObject(userObject);
+        nodeMap.put(SLDTreeItemWrapper.generateKey(userObject), node);
+    }
+
+    /**
+     * Removes nodes whose objects are no longer wanted, so that deleting a child does not move all
+     * of its following siblings. Only as many nodes are removed as there are surplus children, the
+     * remaining unwanted nodes are available to be reused.
+     *
+     * @param parentNode the parent node
+     * @param wantedSet the objects wanted under the parent
+     * @param surplus the number of surplus children
+     */
+    private void removeUnwantedNodes(
+            DefaultMutableTreeNode parentNode, Set<Object> wantedSet, int surplus) {
+        if (surplus <= 0) {
+            return;
+        }
+
+        List<Integer> indexList = new ArrayList<>();
+        List<Object> removedList = new ArrayList<>();
+        for (int index = 0;
+                (index < parentNode.getChildCount()) && (removedList.size() < surplus);
+                index++) {
+            DefaultMutableTreeNode node = (DefaultMutableTreeNode) parentNode.getChildAt(index);
+            if (!wantedSet.contains(node.getUserObject())) {
+                indexList.add(index);
+                removedList.add(node);
+            }
+        }
+
+        if (removedList.isEmpty()) {
+            return;
+        }
+
+        int[] indices = new int[indexList.size()];
+        for (int i = indices.length - 1; i >= 0; i--) {
+            indices[i] = indexList.get(i);
+            parentNode.remove(indices[i]);
+            removeKeys((DefaultMutableTreeNode) removedList.get(i));
+        }
+        treeModel.nodesWereRemoved(parentNode, indices, removedList.toArray());
+    }
+
+    /**
+     * Removes the nodes after the last wanted child.
+     *
+     * @param parentNode the parent node
+     * @param childCount the number of wanted children
+     */
+    private void removeTrailingNodes(DefaultMutableTreeNode parentNode, int childCount) {
+        int noOfNodesToRemove = parentNode.getChildCount() - childCount;
+
+        if (noOfNodesToRemove > 0) {
+            int[] indices = new int[noOfNodesToRemove];
+            Object[] removedNodes = new Object[noOfNodesToRemove];
+
+            for (int i = 0; i < noOfNodesToRemove; i++) {
+                indices[i] = childCount + i;
+                removedNodes[i] = parentNode.getChildAt(childCount + i);
+            }
+
+            for (int i = noOfNodesToRemove - 1; i >= 0; i--) {
+                parentNode.remove(indices[i]);
+                removeKeys((DefaultMutableTreeNode) removedNodes[i]);
+            }
+            treeModel.nodesWereRemoved(parentNode, indices, removedNodes);
+        }
+    }
+
+    /**
+     * Creates a detached node, and all its children, for the object.
+     *
+     * @param userObject the user object
+     * @return the tree node
+     */
+    private DefaultMutableTreeNode createNode(Object userObject) {
+        DefaultMutableTreeNode node = new DefaultMutableTreeNode(userObject);
+        nodeMap.put(SLDTreeItemWrapper.generateKey(userObject), node);
+
+        for (Object childObject : getChildObjects(userObject)) {
+            node.add(createNode(childObject));
+        }
+        return node;
+    }
+
+    /**
+     * Expand the node and all its descendants, new nodes are shown expanded as they are when the
+     * tree is populated.
+     *
+     * @param node the node
+     */
+    private void expandAll(DefaultMutableTreeNode node) {
+        Enumeration<?> nodes = node.breadthFirstEnumeration();
+        while (nodes.hasMoreElements()) {
+            DefaultMutableTreeNode descendant = (DefaultMutableTreeNode) nodes.nextElement();
+            if (!descendant.isLeaf()) {
+                symbolTree.expandPath(new TreePath(descendant.getPath()));
+            }
+        }
+    }
+
+    /**
+     * Removes the node map entries for the node and all its descendants.
+     *
+     * @param node the node
+     */
+    private void removeKeys(DefaultMutableTreeNode node) {
+        Enumeration<?> nodes = node.breadthFirstEnumeration();
+        while (nodes.hasMoreElements()) {
+            removeKey((DefaultMutableTreeNode) nodes.nextElement());
+        }
+    }
+
+    /**
+     * Removes the node map entry for the node, if it still refers to the node.
+     *
+     * @param node the node
+     */
+    private void removeKey(DefaultMutableTreeNode node) {
+        String key = SLDTreeItemWrapper.generateKey(node.getUserObject());
+        if (nodeMap.get(key) == node) {
+            nodeMap.remove(key);
+        }
+    }
+
+    /**
+     * Checks whether the display text of the node has changed since it was last synchronised.
+     *
+     * @param node the node
+     * @return true, if text has changed
+     */
+    private boolean textChanged(DefaultMutableTreeNode node) {
+        String text = ComponentCellRenderer.getItemText(node, node.getUserObject());
+        boolean known = textMap.containsKey(node);
+        String previousText = textMap.put(node, text);
+
+        return !known || !Objects.equals(text, previousText);
+    }
+
+    /**
+     * Restore the selection if any of the selected nodes were moved.
+     *
+     * @param selectedPaths the previously selected paths
+     */
+    private void restoreSelection(TreePath[] selectedPaths) {
+        if (selectedPaths == null) {
+            return;
+        }
+
+        List<TreePath> validPaths = new ArrayList<>();
+        for (TreePath path : selectedPaths) {
+            DefaultMutableTreeNode node = (DefaultMutableTreeNode) path.getLastPathComponent();
+            if (node.getRoot() == treeModel.getRoot()) {
+                validPaths.add(new TreePath(node.getPath()));
+            }
+        }
+
+        boolean selectionLost = false;
+        for (TreePath path : validPaths) {
+            if (!symbolTree.isPathSelected(path)) {
+                selectionLost = true;
+            }
+        }
+
+        if (selectionLost) {
+            symbolTree.setSelectionPaths(validPaths.toArray(new TreePath[0]));
+        }
+    }
+
+    /**
+     * Gets the objects that are displayed as children of the object, must match the structure
+     * created by SLDTree.populateSLD().
+     *
+     * @param userObject the user object
+     * @return the child objects
+     */
+    static List<Object> getChildObjects(Object userObject) {
+        List<Object> childList = new ArrayList<>();
+
+        if (userObject instanceof StyledLayerDescriptor) {
+            for (StyledLayer styledLayer : ((StyledLayerDescriptor) userObject).layers()) {
+                if ((styledLayer instanceof NamedLayerImpl)
+                        || (styledLayer instanceof UserLayerImpl)) {
+                    childList.add(styledLayer);
+                }
+            }
+        } else if (userObject instanceof NamedLayerImpl) {
+            childList.addAll(((NamedLayerImpl) userObject).styles());
+        } else if (userObject instanceof UserLayerImpl) {
+            childList.addAll(((UserLayerImpl) userObject).userStyles());
+        } else if (userObject instanceof Style) {
+            childList.addAll(((Style) userObject).featureTypeStyles());
+        } else if (userObject instanceof FeatureTypeStyle) {
+            childList.addAll(((FeatureTypeStyle) userObject).rules());
+        } else if (userObject instanceof Rule) {
+            childList.addAll(((Rule) userObject).symbolizers());
+        } else if (userObject instanceof Symbolizer) {
+            getSymbolizerChildObjects((Symbolizer) userObject, childList);
+        }
+        return childList;
+    }
+
+    /**
+     * Gets the fill, stroke and image outline objects displayed as children of the symbolizer.
+     *
+     * @param symbolizer the symbolizer
+     * @param childList the child list to populate
+     */
+    private static void getSymbolizerChildObjects(Symbolizer symbolizer, List<Object> childList) {
+        if ((symbolizer instanceof PointSymbolizer) || (symbolizer instanceof PolygonSymbolizer)) {
+            childList.add(SLDTreeLeafFactory.getInstance().getFill(symbolizer));
+        }
+
+        if ((symbolizer instanceof PolygonSymbolizer) || (symbolizer instanceof LineSymbolizer)) {
+            childList.add(SLDTreeLeafFactory.getInstance().getStroke(symbolizer));
+        }
+
+        if (symbolizer instanceof RasterSymbolizer) {
+            Symbolizer outlineSymbolizer = ((RasterSymbolizer) symbolizer).getImageOutline();
+
+            if ((outlineSymbolizer instanceof LineSymbolizer)
+                    || (outlineSymbolizer instanceof PolygonSymbolizer)) {
+                childList.add(outlineSymbolizer);
+            }
+        }
+    }
+}
@@ -26,7 +26,7 @@ import com.sldeditor.common.localisation.Localisation;
 import com.sldeditor.common.output.SLDWriterInterface;
 import com.sldeditor.common.output.impl.SLDWriterFactory;
 import com.sldeditor.common.tree.leaf.SLDTreeLeafFactory;
-import com.sldeditor.common.undo.UndoEvent;
+import com.sldeditor.common.undo.SnapshotUndoEvent;
 import com.sldeditor.common.undo.UndoManager;
 import com.sldeditor.common.xml.ParseXML;
 import com.sldeditor.datasource.RenderSymbolInterface;
@@ -379,7 +379,7 @@ public class SLDTreeTools {
         Object obj = lastNode.getUserObject();
 
         // CHECKSTYLE:OFF
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
         // CHECKSTYLE:ON
 
         if (obj instanceof NamedLayer) {
@@ -422,11 +422,11 @@ public class SLDTreeTools {
             }
         }
 
-        Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
         UndoManager.getInstance()
                 .addUndoEvent(
-                        new UndoEvent(
+                        new SnapshotUndoEvent(
                                 sldTree.getUndoObject(),
                                 getClass().getName(),
                                 oldValueObj,
@@ -498,7 +498,7 @@ public class SLDTreeTools {
         Object obj = lastNode.getUserObject();
 
         // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
         if (obj instanceof String) {
             StyledLayerDescriptor sld = DefaultSymbols.createNewSLD();
@@ -555,11 +555,11 @@ public class SLDTreeTools {
             symbolTree.setSelectionPath(newPath);
 
             // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+            String newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
             UndoManager.getInstance()
                     .addUndoEvent(
-                            new UndoEvent(
+                            new SnapshotUndoEvent(
                                     sldTree.getUndoObject(),
                                     getClass().getName(),
                                     oldValueObj,
@@ -614,7 +614,7 @@ public class SLDTreeTools {
         }
 
         // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
         PointSymbolizer newPointSymbolizer = DefaultSymbols.createDefaultPointSymbolizer();
 
@@ -635,11 +635,11 @@ public class SLDTreeTools {
             symbolTree.setSelectionPath(newPath);
 
             // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+            String newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
             UndoManager.getInstance()
                     .addUndoEvent(
-                            new UndoEvent(
+                            new SnapshotUndoEvent(
                                     sldTree.getUndoObject(),
                                     getClass().getName(),
                                     oldValueObj,
@@ -653,7 +653,7 @@ public class SLDTreeTools {
             return;
         }
         // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
         RasterSymbolizer newRasterSymbolizer = DefaultSymbols.createDefaultRasterSymbolizer();
         DefaultMutableTreeNode ruleNode = getRuleTreeNode();
@@ -670,11 +670,11 @@ public class SLDTreeTools {
             symbolTree.setSelectionPath(newPath);
 
             // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+            String newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
             UndoManager.getInstance()
                     .addUndoEvent(
-                            new UndoEvent(
+                            new SnapshotUndoEvent(
                                     sldTree.getUndoObject(),
                                     getClass().getName(),
                                     oldValueObj,
@@ -697,7 +697,7 @@ public class SLDTreeTools {
             return;
         }
         // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
         PointSymbolizer pointSymbolizer = DefaultSymbols.createArrow(isSourceArrow);
         DefaultMutableTreeNode ruleNode = getRuleTreeNode();
@@ -720,11 +720,11 @@ public class SLDTreeTools {
             }
 
             // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+            String newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
             UndoManager.getInstance()
                     .addUndoEvent(
-                            new UndoEvent(
+                            new SnapshotUndoEvent(
                                     sldTree.getUndoObject(),
                                     getClass().getName(),
                                     oldValueObj,
@@ -744,7 +744,7 @@ public class SLDTreeTools {
         }
 
         // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
         TextSymbolizer newTextSymbolizer = DefaultSymbols.createDefaultTextSymbolizer();
         DefaultMutableTreeNode ruleNode = getRuleTreeNode();
@@ -761,11 +761,11 @@ public class SLDTreeTools {
             symbolTree.setSelectionPath(newPath);
 
             // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+            String newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
             UndoManager.getInstance()
                     .addUndoEvent(
-                            new UndoEvent(
+                            new SnapshotUndoEvent(
                                     sldTree.getUndoObject(),
                                     getClass().getName(),
                                     oldValueObj,
@@ -779,7 +779,7 @@ public class SLDTreeTools {
             return;
         }
         // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
         LineSymbolizer newLineSymbolizer = DefaultSymbols.createDefaultLineSymbolizer();
 
@@ -800,11 +800,11 @@ public class SLDTreeTools {
             symbolTree.setSelectionPath(newPath);
 
             // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+            String newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
             UndoManager.getInstance()
                     .addUndoEvent(
-                            new UndoEvent(
+                            new SnapshotUndoEvent(
                                     sldTree.getUndoObject(),
                                     getClass().getName(),
                                     oldValueObj,
@@ -818,7 +818,7 @@ public class SLDTreeTools {
             return;
         }
         // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
         LineSymbolizer newLineSymbolizer = DefaultSymbols.createDefaultLineSymbolizer();
 
@@ -839,11 +839,11 @@ public class SLDTreeTools {
             symbolTree.setSelectionPath(newPath);
 
             // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+            String newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
             UndoManager.getInstance()
                     .addUndoEvent(
-                            new UndoEvent(
+                            new SnapshotUndoEvent(
                                     sldTree.getUndoObject(),
                                     getClass().getName(),
                                     oldValueObj,
@@ -857,7 +857,7 @@ public class SLDTreeTools {
             return;
         }
         // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
         PolygonSymbolizer newPolygonSymbolizer = DefaultSymbols.createDefaultPolygonSymbolizer();
 
@@ -882,11 +882,11 @@ public class SLDTreeTools {
             symbolTree.setSelectionPath(newPath);
 
             // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+            String newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
             UndoManager.getInstance()
                     .addUndoEvent(
-                            new UndoEvent(
+                            new SnapshotUndoEvent(
                                     sldTree.getUndoObject(),
                                     getClass().getName(),
                                     oldValueObj,
@@ -900,7 +900,7 @@ public class SLDTreeTools {
             return;
         }
         // Store current state of the SLD before the add
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
         PolygonSymbolizer newPolygonSymbolizer = DefaultSymbols.createDefaultPolygonSymbolizer();
 
@@ -925,11 +925,11 @@ public class SLDTreeTools {
             symbolTree.setSelectionPath(newPath);
 
             // Store current state of the SLD after the add
-            Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+            String newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
             UndoManager.getInstance()
                     .addUndoEvent(
-                            new UndoEvent(
+                            new SnapshotUndoEvent(
                                     sldTree.getUndoObject(),
                                     getClass().getName(),
                                     oldValueObj,
@@ -998,7 +998,7 @@ public class SLDTreeTools {
 
         // Store current state of the SLD before the move
         // CHECKSTYLE:OFF
-        Object oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String oldValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
         // CHECKSTYLE:ON
 
         if (obj instanceof StyledLayer) {
@@ -1110,11 +1110,11 @@ public class SLDTreeTools {
         }
 
         // Store current state of the SLD after the move
-        Object newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
+        String newValueObj = sldWriter.encodeSLD(null, SelectedSymbol.getInstance().getSld());
 
         UndoManager.getInstance()
                 .addUndoEvent(
-                        new UndoEvent(
+                        new SnapshotUndoEvent(
                                 sldTree.getUndoObject(),
                                 getClass().getName(),
                                 oldValueObj,
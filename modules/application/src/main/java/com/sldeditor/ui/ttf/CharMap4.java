@@ -1061,6 +1061,7 @@ public class CharMap4 extends JDialog {
      */
     private void setDisplayFont() {
         displayFont = new Font(fontName, Font.PLAIN, fontSize);
+        GlyphCoverageCache.getInstance().requestCoverage(displayFont, null);
 
         if (gridPanel != null) {
             validate(); // redo the application window layout
@@ -1374,6 +1375,23 @@ public class CharMap4 extends JDialog {
         selectedCharField.setText(ttfFontString);
     }
 
+    /**
+     * Start creating the glyph coverage of the font in a TTF string in the background, so the
+     * character map opens quickly when the font is displayed.
+     *
+     * @param ttfFontString the TTF string
+     */
+    public static void prefetchGlyphCoverage(String ttfFontString) {
+        if ((ttfFontString != null) && ttfFontString.startsWith(TTF_PREFIX)) {
+            String[] components = ttfFontString.substring(TTF_PREFIX.length()).split("#");
+
+            if (components.length == 2) {
+                GlyphCoverageCache.getInstance()
+                        .requestCoverage(new Font(components[0], Font.PLAIN, DEFAULT_SIZE), null);
+            }
+        }
+    }
+
     /**
      * Show dialog.
      *
@@ -101,7 +101,11 @@ import javax.swing.event.ChangeListener;
  * are handled by the main class and mimic the scroll bar.
  */
 class CharMap4Grid extends JPanel
-        implements ChangeListener, MouseListener, MouseMotionListener, MouseWheelListener {
+        implements ChangeListener,
+                MouseListener,
+                MouseMotionListener,
+                MouseWheelListener,
+                GlyphCoverageUpdateInterface {
 
     /** The Constant serialVersionUID. */
     private static final long serialVersionUID = 1L;
@@ -620,8 +624,7 @@ class CharMap4Grid extends JPanel
     @Override
     protected void paintComponent(Graphics context) {
         Graphics2D gr2d; // special subclass of graphics context
-        int i;
-        int k; // index variables
+        int i; // index variable
         FontRenderContext render; // needed for displaying low-level glyphs
 
         // Most of this code would work with the standard Graphics object, but some
@@ -664,95 +667,43 @@ class CharMap4Grid extends JPanel
             horizStep = maxWidth + (2 * TEXT_MARGIN) + GRID_WIDTH; // between cells
             vertiStep = lineHeight + (2 * TEXT_MARGIN) + GRID_WIDTH; // between cells
 
-            // The <charTemp> array is indexed by Unicode character number and has a
-            // non-negative glyph number for each character, or -1 for no mapping. We
-            // only need the first non-spacing glyph even if a character maps to more
-            // than one glyph.
-
-            charCount = 0; // start with no characters in the list
-            int[] charTemp = new int[CharMap4.getMaxUnicode() + 1]; // use maximum size
-            for (i = 0; i < charTemp.length; i++) {
-                charTemp[i] = -1; // default to no mapping for all characters
+            // Enumerating every Unicode character of a large font takes seconds, so the
+            // mapping between characters and glyphs is created in the background and
+            // cached. Until it is available show a message and try again when it arrives.
+
+            GlyphCoverage coverage = GlyphCoverageCache.getInstance().getCoverage(panelFont);
+            if ((coverage == null)
+                    && GlyphCoverageCache.getInstance().isCoverageFailed(panelFont)) {
+                charMap4.setStatusText(
+                        "Unable to list the characters of " + panelFont.getFontName());
+                cellCount = 0;
+                panelFont = null; // nothing to display for this font
+                return;
+            } else if (coverage == null) {
+                GlyphCoverageCache.getInstance().requestCoverage(panelFont, this);
+                charMap4.setStatusText("Loading " + panelFont.getFontName() + "...");
+                cellCount = 0;
+                panelFont = null; // paint again when the glyph coverage is available
+                return;
             }
 
             // The <glyphChar> array is indexed by internal glyph number and has a
             // non-negative character number for each glyph, or -1 for no mapping. We
             // save only the first character even if a glyph is used by more than one
-            // character. It would be nice to have a complete list of characters that
-            // map to each glyph, but with upwards of 50,000 glyphs in some fonts, this
-            // would take too many resources (too much memory for Vector objects and too
-            // much processing time).
-
-            glyphCount = Math.max(0, panelFont.getNumGlyphs()); // don't trust source
-            int glymissing = panelFont.getMissingGlyphCode(); // undefined characters
-            glyphChar = new int[glyphCount]; // we always know final size for these
+            // character.
+
+            glyphCount = coverage.getGlyphCount();
+            glyphChar = coverage.getGlyphCharacters();
             glyphGlyph = new int[glyphCount];
             for (i = 0; i < glyphCount; i++) {
-                glyphChar[i] = -1; // default to no mapping for all glyphs
                 glyphGlyph[i] = i; // assume that all glyphs map to themselves!
             }
 
-            // Enumerate all possible Unicode characters.
-
-            for (i = CharMap4.getMinUnicode(); i <= CharMap4.getMaxUnicode(); i++) {
-                /* Ignore characters that Java knows it can't display. */
-
-                // if (panelFont.canDisplay((char) i) == false) // Java 1.4
-                if (panelFont.canDisplay(i) == false) // Java 5.0
-                {
-                    continue; // jump to next interaction of <for> loop
-                }
-                // Update mapping information between characters and glyphs. Early
-                // Java 5.0 on the Apple Macintosh has a bug where canDisplay() returns
-                // true for every possible Unicode character number. Ignore characters
-                // that map to the "missing" glyph (usually number 0) or to a "spacing"
-                // glyph (often the out-of-range glyph number of 65,535).
-
-                String charToString = CharMap4.charToString(i);
-                GlyphVector glyvector =
-                        panelFont.createGlyphVector(
-                                render, charToString); // get glyph list for this character
-                int glycount = glyvector.getNumGlyphs(); // supposed number of glyphs
-                for (k = 0; k < glycount; k++) // for each glyph in the glyph vector
-                {
-                    int glyph = glyvector.getGlyphCode(k); // get one glyph number
-                    if ((glyph >= 0)
-                            && (glyph < glyphCount)
-                            && (glyph != glymissing)) { // ignore missing and spacing glyphs
-                        if (charTemp[i] < 0) // does this character already have a glyph?
-                        {
-                            charTemp[i] = glyph; // no, save the first good glyph we find
-                        }
-
-                        if (glyphChar[glyph] < 0) // does this glyph already have a char?
-                        {
-                            glyphChar[glyph] = i; // no, save the first character we find
-                        }
-                    }
-                }
-
-                if (charTemp[i] >= 0) // count each character as displayable ...
-                {
-                    charCount++; // ... only if a non-spacing glyph found
-                }
-            }
-
-            // Use <charTemp> to create compressed (smaller) arrays for only those
-            // characters that can be displayed.
+            // Compressed arrays for only those characters that can be displayed.
 
-            charChar = new int[charCount]; // list of Unicode character numbers
-            charGlyph = new int[charCount]; // list of internal glyph numbers
-            k = 0; // place displayable entries starting here
-            for (i = CharMap4.getMinUnicode(); i <= CharMap4.getMaxUnicode(); i++) {
-                int glyph = charTemp[i]; // get glyph number, if any
-                if (glyph >= 0) // if character mapped to at least one glyph
-                {
-                    charChar[k] = i; // save Unicode character number
-                    charGlyph[k] = glyph; // save glyph number, if any
-                    k++; // finish one more displayable character
-                }
-            }
-            charTemp = null; // release memory used by this larger array
+            charCount = coverage.getCharCount();
+            charChar = coverage.getCharacters(); // list of Unicode character numbers
+            charGlyph = coverage.getCharacterGlyphs(); // list of internal glyph numbers
 
             // Protect ourselves from fonts that have no displayable characters.
 
@@ -1008,4 +959,28 @@ class CharMap4Grid extends JPanel
         pendingUpdates = true;
         repaint();
     }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.ui.ttf.GlyphCoverageUpdateInterface#glyphCoverageAvailable(java.awt.Font, com.sldeditor.ui.ttf.GlyphCoverage)
+     */
+    @Override
+    public void glyphCoverageAvailable(Font font, GlyphCoverage coverage) {
+        if (font.equals(charMap4.getDisplayFont())) {
+            this.repaint(); // mark ourselves as needing to be repainted
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.sldeditor.ui.ttf.GlyphCoverageUpdateInterface#glyphCoverageFailed(java.awt.Font)
+     */
+    @Override
+    public void glyphCoverageFailed(Font font) {
+        if (font.equals(charMap4.getDisplayFont())) {
+            this.repaint(); // repaint to show the error
+        }
+    }
 }
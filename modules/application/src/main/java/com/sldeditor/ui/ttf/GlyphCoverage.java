@@ -0,0 +1,390 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.ui.ttf;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The characters a font can display and the glyph each character maps to.
+ *
+ * <p>The mapping is stored compactly as runs, a run being consecutive characters that map to
+ * consecutive glyphs. Most fonts map whole Unicode blocks this way so a font with tens of thousands
+ * of characters is typically stored in a few hundred runs.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GlyphCoverage {
+
+    /** The Constant BATCH_SIZE, number of characters mapped to glyphs at a time. */
+    private static final int BATCH_SIZE = 4096;
+
+    /** The Constant SURROGATE_START. */
+    private static final int SURROGATE_START = 0xD800;
+
+    /** The Constant SURROGATE_END. */
+    private static final int SURROGATE_END = 0xDFFF;
+
+    /** The number of glyphs in the font. */
+    private final int glyphCount;
+
+    /** The number of characters. */
+    private final int charCount;
+
+    /** The first character of each run. */
+    private final int[] runChar;
+
+    /** The glyph of the first character of each run. */
+    private final int[] runGlyph;
+
+    /** The number of characters in each run. */
+    private final int[] runLength;
+
+    /** Builds the runs of a glyph coverage, characters must be added in ascending order. */
+    private static class RunBuilder {
+
+        /** The run count. */
+        private int runCount = 0;
+
+        /** The char count. */
+        private int charCount = 0;
+
+        /** The first character of each run. */
+        private int[] runChar = new int[16];
+
+        /** The glyph of the first character of each run. */
+        private int[] runGlyph = new int[16];
+
+        /** The number of characters in each run. */
+        private int[] runLength = new int[16];
+
+        /**
+         * Adds a character.
+         *
+         * @param character the character
+         * @param glyph the glyph
+         */
+        void add(int character, int glyph) {
+            charCount++;
+            if (runCount > 0) {
+                int last = runCount - 1;
+                if ((character == (runChar[last] + runLength[last]))
+                        && (glyph == (runGlyph[last] + runLength[last]))) {
+                    runLength[last]++;
+                    return;
+                }
+            }
+
+            if (runCount == runChar.length) {
+                runChar = Arrays.copyOf(runChar, runCount * 2);
+                runGlyph = Arrays.copyOf(runGlyph, runCount * 2);
+                runLength = Arrays.copyOf(runLength, runCount * 2);
+            }
+            runChar[runCount] = character;
+            runGlyph[runCount] = glyph;
+            runLength[runCount] = 1;
+            runCount++;
+        }
+    }
+
+    /**
+     * Instantiates a new glyph coverage.
+     *
+     * @param glyphCount the glyph count
+     * @param runChar the first character of each run
+     * @param runGlyph the glyph of the first character of each run
+     * @param runLength the number of characters in each run
+     */
+    private GlyphCoverage(int glyphCount, int[] runChar, int[] runGlyph, int[] runLength) {
+        this.glyphCount = glyphCount;
+        this.runChar = runChar;
+        this.runGlyph = runGlyph;
+        this.runLength = runLength;
+
+        int count = 0;
+        for (int length : runLength) {
+            count += length;
+        }
+        this.charCount = count;
+    }
+
+    /**
+     * Create the glyph coverage of a font. Characters the font can not display, or that map to the
+     * missing glyph or a glyph outside the font, are ignored.
+     *
+     * <p>Characters are mapped to glyphs in batches, this is slow for large fonts so should not be
+     * called on the event dispatch thread.
+     *
+     * @param font the font
+     * @return the glyph coverage
+     */
+    public static GlyphCoverage create(Font font) {
+        FontRenderContext render = new FontRenderContext(null, false, false);
+        int glyphCount = Math.max(0, font.getNumGlyphs());
+        int missingGlyph = font.getMissingGlyphCode();
+
+        RunBuilder builder = new RunBuilder();
+        char[] chars = new char[BATCH_SIZE * 2];
+        int[] batchChars = new int[BATCH_SIZE];
+        int[] batchOffsets = new int[BATCH_SIZE];
+        int batchCount = 0;
+        int length = 0;
+
+        for (int character = CharMap4.getMinUnicode();
+                character <= CharMap4.getMaxUnicode();
+                character++) {
+            if ((character >= SURROGATE_START) && (character <= SURROGATE_END)) {
+                continue;
+            }
+
+            if (font.canDisplay(character)) {
+                batchChars[batchCount] = character;
+                batchOffsets[batchCount] = length;
+                length += Character.toChars(character, chars, length);
+                batchCount++;
+
+                if (batchCount == BATCH_SIZE) {
+                    mapBatch(
+                            font,
+                            render,
+                            builder,
+                            chars,
+                            length,
+                            batchChars,
+                            batchOffsets,
+                            batchCount,
+                            glyphCount,
+                            missingGlyph);
+                    batchCount = 0;
+                    length = 0;
+                }
+            }
+        }
+
+        mapBatch(
+                font,
+                render,
+                builder,
+                chars,
+                length,
+                batchChars,
+                batchOffsets,
+                batchCount,
+                glyphCount,
+                missingGlyph);
+
+        return new GlyphCoverage(
+                glyphCount,
+                Arrays.copyOf(builder.runChar, builder.runCount),
+                Arrays.copyOf(builder.runGlyph, builder.runCount),
+                Arrays.copyOf(builder.runLength, builder.runCount));
+    }
+
+    /**
+     * Map a batch of characters to glyphs. The characters are mapped without layout so there is one
+     * glyph per UTF-16 char, the glyph of a supplementary character is at its high surrogate.
+     *
+     * @param font the font
+     * @param render the font render context
+     * @param builder the run builder
+     * @param chars the UTF-16 chars of the batch
+     * @param length the number of chars
+     * @param batchChars the characters in the batch
+     * @param batchOffsets the offset of each character in the chars
+     * @param batchCount the number of characters in the batch
+     * @param glyphCount the number of glyphs in the font
+     * @param missingGlyph the missing glyph
+     */
+    private static void mapBatch(
+            Font font,
+            FontRenderContext render,
+            RunBuilder builder,
+            char[] chars,
+            int length,
+            int[] batchChars,
+            int[] batchOffsets,
+            int batchCount,
+            int glyphCount,
+            int missingGlyph) {
+        if (batchCount == 0) {
+            return;
+        }
+
+        GlyphVector glyphVector = font.createGlyphVector(render, Arrays.copyOf(chars, length));
+        boolean oneGlyphPerChar = (glyphVector.getNumGlyphs() == length);
+        int[] glyphs = oneGlyphPerChar ? glyphVector.getGlyphCodes(0, length, null) : null;
+
+        for (int index = 0; index < batchCount; index++) {
+            int glyph = -1;
+            if (oneGlyphPerChar) {
+                glyph = glyphs[batchOffsets[index]];
+            } else {
+                // Unexpected layout, map the character on its own
+                GlyphVector charVector =
+                        font.createGlyphVector(render, CharMap4.charToString(batchChars[index]));
+                for (int k = 0; (k < charVector.getNumGlyphs()) && (glyph < 0); k++) {
+                    int charGlyph = charVector.getGlyphCode(k);
+                    if ((charGlyph >= 0)
+                            && (charGlyph < glyphCount)
+                            && (charGlyph != missingGlyph)) {
+                        glyph = charGlyph;
+                    }
+                }
+            }
+
+            if ((glyph >= 0) && (glyph < glyphCount) && (glyph != missingGlyph)) {
+                builder.add(batchChars[index], glyph);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of glyphs in the font.
+     *
+     * @return the glyph count
+     */
+    public int getGlyphCount() {
+        return glyphCount;
+    }
+
+    /**
+     * Gets the number of characters the font can display.
+     *
+     * @return the char count
+     */
+    public int getCharCount() {
+        return charCount;
+    }
+
+    /**
+     * Gets the number of runs.
+     *
+     * @return the run count
+     */
+    public int getRunCount() {
+        return runChar.length;
+    }
+
+    /**
+     * Gets the characters the font can display in ascending order.
+     *
+     * @return the characters
+     */
+    public int[] getCharacters() {
+        int[] characters = new int[charCount];
+        int index = 0;
+        for (int run = 0; run < runChar.length; run++) {
+            for (int offset = 0; offset < runLength[run]; offset++) {
+                characters[index++] = runChar[run] + offset;
+            }
+        }
+        return characters;
+    }
+
+    /**
+     * Gets the glyph of each character, in the same order as {@link #getCharacters()}.
+     *
+     * @return the character glyphs
+     */
+    public int[] getCharacterGlyphs() {
+        int[] glyphs = new int[charCount];
+        int index = 0;
+        for (int run = 0; run < runChar.length; run++) {
+            for (int offset = 0; offset < runLength[run]; offset++) {
+                glyphs[index++] = runGlyph[run] + offset;
+            }
+        }
+        return glyphs;
+    }
+
+    /**
+     * Gets the first character that maps to each glyph.
+     *
+     * @return the character of each glyph, -1 if no character maps to the glyph
+     */
+    public int[] getGlyphCharacters() {
+        int[] characters = new int[glyphCount];
+        Arrays.fill(characters, -1);
+        for (int run = 0; run < runChar.length; run++) {
+            for (int offset = 0; offset < runLength[run]; offset++) {
+                int glyph = runGlyph[run] + offset;
+                if (characters[glyph] < 0) {
+                    characters[glyph] = runChar[run] + offset;
+                }
+            }
+        }
+        return characters;
+    }
+
+    /**
+     * Write the glyph coverage.
+     *
+     * @param out the output stream
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(glyphCount);
+        out.writeInt(runChar.length);
+        for (int run = 0; run < runChar.length; run++) {
+            out.writeInt(runChar[run]);
+            out.writeInt(runGlyph[run]);
+            out.writeInt(runLength[run]);
+        }
+    }
+
+    /**
+     * Read a glyph coverage.
+     *
+     * @param in the input stream
+     * @return the glyph coverage
+     * @throws IOException Signals that an I/O exception has occurred, or the data is invalid.
+     */
+    public static GlyphCoverage read(DataInputStream in) throws IOException {
+        int glyphCount = in.readInt();
+        int runCount = in.readInt();
+        if ((glyphCount < 0) || (runCount < 0)) {
+            throw new IOException("Invalid glyph coverage");
+        }
+
+        int[] runChar = new int[runCount];
+        int[] runGlyph = new int[runCount];
+        int[] runLength = new int[runCount];
+        int lastChar = -1;
+        for (int run = 0; run < runCount; run++) {
+            runChar[run] = in.readInt();
+            runGlyph[run] = in.readInt();
+            runLength[run] = in.readInt();
+
+            if ((runChar[run] <= lastChar)
+                    || (runLength[run] <= 0)
+                    || (runGlyph[run] < 0)
+                    || ((runGlyph[run] + runLength[run]) > glyphCount)) {
+                throw new IOException("Invalid glyph coverage");
+            }
+            lastChar = runChar[run] + runLength[run] - 1;
+        }
+        return new GlyphCoverage(glyphCount, runChar, runGlyph, runLength);
+    }
+}
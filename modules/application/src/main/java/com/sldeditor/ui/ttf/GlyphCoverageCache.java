@@ -0,0 +1,354 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.ui.ttf;
+
+import com.sldeditor.common.console.ConsoleManager;
+import com.sldeditor.common.property.PropertyManagerFactory;
+import java.awt.Font;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import javax.swing.SwingUtilities;
+
+/**
+ * Caches the glyph coverage of fonts so the TTF character map only enumerates the characters of a
+ * font once.
+ *
+ * <p>Glyph coverage is held in memory and written to the configuration folder so it survives
+ * restarts. Missing coverage is created on a single background thread, the listeners waiting for it
+ * are informed on the event dispatch thread. Fonts whose coverage could not be created are
+ * remembered so they are not tried again.
+ *
+ * <p>Class is implemented as a singleton.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GlyphCoverageCache {
+
+    /** The Constant CACHE_FOLDER. */
+    private static final String CACHE_FOLDER = "glyphcoverage";
+
+    /** The Constant CACHE_FILE_EXTENSION. */
+    private static final String CACHE_FILE_EXTENSION = ".cache";
+
+    /** The Constant FILE_MAGIC, identifies a glyph coverage cache file. */
+    private static final int FILE_MAGIC = 0x474C5943;
+
+    /** The Constant FORMAT_VERSION. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** The Constant BUFFER_SIZE. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** The singleton instance. */
+    private static GlyphCoverageCache instance = null;
+
+    /** The glyph coverage of each font, keyed by font key. */
+    private Map<String, GlyphCoverage> coverageMap = new HashMap<>();
+
+    /** The listeners waiting for glyph coverage, keyed by font key. */
+    private Map<String, List<GlyphCoverageUpdateInterface>> pendingMap = new HashMap<>();
+
+    /** The keys of the fonts whose glyph coverage could not be created. */
+    private Set<String> failedSet = new HashSet<>();
+
+    /** The cache folder, null if the coverage is only held in memory. */
+    private File cacheFolder = null;
+
+    /** The executor. */
+    private ExecutorService executor = null;
+
+    /**
+     * Gets the single instance of GlyphCoverageCache.
+     *
+     * @return single instance of GlyphCoverageCache
+     */
+    public static synchronized GlyphCoverageCache getInstance() {
+        if (instance == null) {
+            instance =
+                    new GlyphCoverageCache(
+                            new File(PropertyManagerFactory.getConfigFolder(), CACHE_FOLDER));
+        }
+        return instance;
+    }
+
+    /**
+     * Instantiates a new glyph coverage cache.
+     *
+     * @param cacheFolder the cache folder, null to only hold coverage in memory
+     */
+    public GlyphCoverageCache(File cacheFolder) {
+        this.cacheFolder = cacheFolder;
+        executor =
+                Executors.newSingleThreadExecutor(
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                Thread thread = new Thread(r, "SLDEditor-GlyphCoverage");
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+    }
+
+    /**
+     * Gets the glyph coverage of a font if it is in memory.
+     *
+     * @param font the font
+     * @return the glyph coverage, null if it is not available yet
+     */
+    public synchronized GlyphCoverage getCoverage(Font font) {
+        if (font == null) {
+            return null;
+        }
+        return coverageMap.get(getKey(font));
+    }
+
+    /**
+     * Checks if the glyph coverage of a font could not be created.
+     *
+     * @param font the font
+     * @return true, if the glyph coverage of the font could not be created
+     */
+    public synchronized boolean isCoverageFailed(Font font) {
+        if (font == null) {
+            return false;
+        }
+        return failedSet.contains(getKey(font));
+    }
+
+    /**
+     * Request the glyph coverage of a font. The coverage is read from the cache folder or created
+     * in the background, the listener is informed on the event dispatch thread. If the coverage is
+     * already in memory, or could not be created before, the listener is not called, use {@link
+     * #getCoverage(Font)} and {@link #isCoverageFailed(Font)} first.
+     *
+     * @param font the font
+     * @param listener the listener, may be null to just fill the cache
+     */
+    public void requestCoverage(final Font font, GlyphCoverageUpdateInterface listener) {
+        if (font == null) {
+            return;
+        }
+
+        final String key = getKey(font);
+        synchronized (this) {
+            if (coverageMap.containsKey(key) || failedSet.contains(key)) {
+                return;
+            }
+
+            List<GlyphCoverageUpdateInterface> listenerList = pendingMap.get(key);
+            boolean submit = (listenerList == null);
+            if (submit) {
+                listenerList = new ArrayList<>();
+                pendingMap.put(key, listenerList);
+            }
+
+            if ((listener != null) && !listenerList.contains(listener)) {
+                listenerList.add(listener);
+            }
+
+            if (!submit) {
+                return;
+            }
+        }
+
+        executor.execute(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        loadCoverage(font, key);
+                    }
+                });
+    }
+
+    /**
+     * Load the glyph coverage of a font from the cache folder, or create it.
+     *
+     * @param font the font
+     * @param key the font key
+     */
+    private void loadCoverage(final Font font, String key) {
+        GlyphCoverage coverage = null;
+        try {
+            File cacheFile = getCacheFile(key);
+            coverage = read(cacheFile, key);
+            if (coverage == null) {
+                coverage = GlyphCoverage.create(font);
+                write(cacheFile, key, coverage);
+            }
+        } catch (RuntimeException e) {
+            ConsoleManager.getInstance().exception(this, e);
+        }
+
+        final List<GlyphCoverageUpdateInterface> listenerList;
+        synchronized (this) {
+            listenerList = pendingMap.remove(key);
+            if (coverage != null) {
+                coverageMap.put(key, coverage);
+            } else {
+                failedSet.add(key);
+            }
+        }
+
+        if ((listenerList == null) || listenerList.isEmpty()) {
+            return;
+        }
+
+        final GlyphCoverage availableCoverage = coverage;
+        SwingUtilities.invokeLater(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        for (GlyphCoverageUpdateInterface listener : listenerList) {
+                            if (availableCoverage == null) {
+                                listener.glyphCoverageFailed(font);
+                            } else {
+                                listener.glyphCoverageAvailable(font, availableCoverage);
+                            }
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Gets the key identifying the glyph coverage of a font. The coverage does not depend on the
+     * font size or style so the face name and number of glyphs are used.
+     *
+     * @param font the font
+     * @return the key
+     */
+    private static String getKey(Font font) {
+        return String.format("%s|%d", font.getFontName(), font.getNumGlyphs());
+    }
+
+    /**
+     * Gets the cache file for a font key.
+     *
+     * @param key the font key
+     * @return the cache file, null if coverage is only held in memory
+     */
+    private File getCacheFile(String key) {
+        if (cacheFolder == null) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int index = 0; (index < key.length()) && (sb.length() < 64); index++) {
+            char ch = key.charAt(index);
+            sb.append(Character.isLetterOrDigit(ch) ? ch : '_');
+        }
+        sb.append(String.format("_%08x", key.hashCode()));
+        sb.append(CACHE_FILE_EXTENSION);
+        return new File(cacheFolder, sb.toString());
+    }
+
+    /**
+     * Gets the version string the cache is valid for, the glyph mapping depends on the Java
+     * runtime.
+     *
+     * @return the cache version
+     */
+    private static String getCacheVersion() {
+        return System.getProperty("java.version");
+    }
+
+    /**
+     * Read the glyph coverage from a cache file.
+     *
+     * @param file the file
+     * @param key the font key the file must have been written for
+     * @return the glyph coverage, null if the file does not exist, is for a different font or
+     *     runtime or is corrupt
+     */
+    private static GlyphCoverage read(File file, String key) {
+        if ((file == null) || !file.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in =
+                new DataInputStream(
+                        new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))) {
+            if ((in.readInt() != FILE_MAGIC)
+                    || (in.readInt() != FORMAT_VERSION)
+                    || !in.readUTF().equals(getCacheVersion())
+                    || !in.readUTF().equals(key)) {
+                return null;
+            }
+            return GlyphCoverage.read(in);
+        } catch (IOException e) {
+            // Cache file is corrupt, it will be replaced
+            return null;
+        }
+    }
+
+    /**
+     * Write the glyph coverage to a cache file, the file is replaced atomically where possible.
+     * Failing to write the cache is reported but otherwise ignored.
+     *
+     * @param file the file
+     * @param key the font key
+     * @param coverage the glyph coverage
+     */
+    private void write(File file, String key, GlyphCoverage coverage) {
+        if (file == null) {
+            return;
+        }
+
+        File folder = file.getParentFile();
+        if (!folder.exists() && !folder.mkdirs()) {
+            ConsoleManager.getInstance()
+                    .error(this, "Failed to create " + folder.getAbsolutePath());
+            return;
+        }
+
+        File tmpFile = new File(file.getAbsolutePath() + ".tmp");
+        try (DataOutputStream out =
+                new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(tmpFile), BUFFER_SIZE))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(getCacheVersion());
+            out.writeUTF(key);
+            coverage.write(out);
+        } catch (IOException e) {
+            ConsoleManager.getInstance().exception(this, e);
+            return;
+        }
+
+        if ((file.exists() && !file.delete()) || !tmpFile.renameTo(file)) {
+            ConsoleManager.getInstance().error(this, "Failed to write " + file.getAbsolutePath());
+        }
+    }
+}
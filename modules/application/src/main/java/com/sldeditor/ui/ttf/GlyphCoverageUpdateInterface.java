@@ -0,0 +1,46 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.ui.ttf;
+
+import java.awt.Font;
+
+/**
+ * The interface GlyphCoverageUpdateInterface, informed when the glyph coverage of a font is
+ * available or could not be created.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public interface GlyphCoverageUpdateInterface {
+
+    /**
+     * Called on the event dispatch thread when the glyph coverage of a font is available.
+     *
+     * @param font the font
+     * @param coverage the glyph coverage
+     */
+    void glyphCoverageAvailable(Font font, GlyphCoverage coverage);
+
+    /**
+     * Called on the event dispatch thread when the glyph coverage of a font could not be created.
+     *
+     * @param font the font
+     */
+    void glyphCoverageFailed(Font font);
+}
@@ -28,6 +28,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import javax.swing.ComboBoxModel;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JComboBox;
 
@@ -51,6 +52,69 @@ public class ValueComboBox extends JComboBox<ValueComboBoxData>
     /** The vendor option list allowed to be used. */
     private transient List<VersionData> vendorOptionVersionsList = new ArrayList<>();
 
+    /**
+     * Selects values using a search of the characters typed by the user rather than only the first
+     * character of the displayed text.
+     */
+    private static class SearchKeySelectionManager implements KeySelectionManager {
+
+        /** The Constant TYPE_AHEAD_DELAY, time in milliseconds before typed text is reset. */
+        private static final long TYPE_AHEAD_DELAY = 1000L;
+
+        /** The Constant MAX_MATCHES, number of search results checked against the model. */
+        private static final int MAX_MATCHES = 20;
+
+        /** The search. */
+        private final ValueComboBoxSearchInterface search;
+
+        /** The text typed so far. */
+        private StringBuilder typedText = new StringBuilder();
+
+        /** The time the last key was typed. */
+        private long lastKeyTime = 0L;
+
+        /**
+         * Instantiates a new search key selection manager.
+         *
+         * @param search the search
+         */
+        SearchKeySelectionManager(ValueComboBoxSearchInterface search) {
+            this.search = search;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see javax.swing.JComboBox.KeySelectionManager#selectionForKey(char,
+         * javax.swing.ComboBoxModel)
+         */
+        @SuppressWarnings("rawtypes")
+        @Override
+        public int selectionForKey(char key, ComboBoxModel model) {
+            long now = System.currentTimeMillis();
+            if ((now - lastKeyTime) > TYPE_AHEAD_DELAY) {
+                typedText.setLength(0);
+            }
+            lastKeyTime = now;
+
+            if (Character.isISOControl(key)) {
+                return -1;
+            }
+            typedText.append(key);
+
+            for (String matchKey : search.search(typedText.toString(), MAX_MATCHES)) {
+                for (int index = 0; index < model.getSize(); index++) {
+                    Object element = model.getElementAt(index);
+                    if ((element instanceof ValueComboBoxData)
+                            && matchKey.equals(((ValueComboBoxData) element).getKey())) {
+                        return index;
+                    }
+                }
+            }
+            return -1;
+        }
+    }
+
     /** Instantiates a new value combo box. */
     @SuppressWarnings("unchecked")
     public ValueComboBox() {
@@ -63,6 +127,16 @@ public class ValueComboBox extends JComboBox<ValueComboBoxData>
      * @param valueList the value list
      */
     public void initialiseSingle(List<ValueComboBoxData> valueList) {
+        initialise(valueList, null);
+    }
+
+    /**
+     * Initialise the values.
+     *
+     * @param valueList the value list
+     * @param selectedKey the key of the value to select, null to select the first value
+     */
+    private void initialise(List<ValueComboBoxData> valueList, String selectedKey) {
         VendorOptionManager.getInstance().addVendorOptionListener(this);
 
         if (valueList != null) {
@@ -75,12 +149,46 @@ public class ValueComboBox extends JComboBox<ValueComboBoxData>
                 this.valueList.add(data);
             }
 
-            update();
+            update(selectedKey);
+        }
+    }
+
+    /**
+     * Replace the values, the selected value is kept if it is in the new values. No action event is
+     * generated.
+     *
+     * @param valueList the value list
+     */
+    public void updateValues(List<ValueComboBoxData> valueList) {
+        ValueComboBoxData selectedValue = getSelectedValue();
+
+        initialise(valueList, (selectedValue == null) ? null : selectedValue.getKey());
+    }
+
+    /**
+     * Sets the search used to select a value from the characters typed by the user.
+     *
+     * @param search the search, null to select by the first character of the displayed text
+     */
+    public void setSearch(ValueComboBoxSearchInterface search) {
+        if (search == null) {
+            setKeySelectionManager(createDefaultKeySelectionManager());
+        } else {
+            setKeySelectionManager(new SearchKeySelectionManager(search));
         }
     }
 
     /** Update. */
     private void update() {
+        update(null);
+    }
+
+    /**
+     * Update.
+     *
+     * @param selectedKey the key of the value to select, null to select the first value
+     */
+    private void update(String selectedKey) {
         DefaultComboBoxModel<ValueComboBoxData> model = new DefaultComboBoxModel<>();
         if (valueList != null) {
             for (ValueComboBoxData data : valueList) {
@@ -90,6 +198,12 @@ public class ValueComboBox extends JComboBox<ValueComboBoxData>
                 }
             }
         }
+
+        // Select the value before the model is set so no action event is generated
+        ValueComboBoxData selectedValue = (selectedKey == null) ? null : valueMap.get(selectedKey);
+        if ((selectedValue != null) && (model.getIndexOf(selectedValue) >= 0)) {
+            model.setSelectedItem(selectedValue);
+        }
         setModel(model);
     }
 
@@ -0,0 +1,40 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.ui.widgets;
+
+import java.util.List;
+
+/**
+ * The Interface ValueComboBoxSearchInterface, searches the values of a ValueComboBox for the text
+ * typed by the user.
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public interface ValueComboBoxSearchInterface {
+
+    /**
+     * Search for values matching the text.
+     *
+     * @param text the text typed by the user
+     * @param maxResults the maximum number of results
+     * @return the keys of the matching values, best match first
+     */
+    List<String> search(String text, int maxResults);
+}
@@ -6,6 +6,7 @@
 
 package org.geoserver.wms.legendgraphic;
 
+import com.sldeditor.ui.legend.RuleIconCache;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
@@ -111,10 +112,11 @@ public class SLDEditorBufferedImageLegendGraphicBuilder {
     public static final double TOLERANCE = 1e-6;
 
     /**
-     * Singleton shape painter to serve all legend requests. We can use a single shape painter
-     * instance as long as it remains thread safe.
+     * Shape painter for the legend requests served by this builder. Legends are built on several
+     * threads at once by the batch legend export and a builder is used by one thread at a time, so
+     * each builder has its own shape painter rather than sharing one.
      */
-    private static final StyledShapePainter shapePainter = new StyledShapePainter();
+    private final StyledShapePainter shapePainter = new StyledShapePainter();
 
     /** used to create sample point shapes with LiteShape (not lines nor polygons) */
     private static final GeometryFactory geomFac = new GeometryFactory();
@@ -185,12 +187,7 @@ public class SLDEditorBufferedImageLegendGraphicBuilder {
             }
         }
 
-        double imageSizeFactor = 1.0;
-        if (request.getLegendOptions().get("imageSizeFactor") instanceof String) {
-            String imageSizeFactorOpt = (String) request.getLegendOptions().get("imageSizeFactor");
-
-            imageSizeFactor = Double.valueOf(imageSizeFactorOpt);
-        }
+        double imageSizeFactor = getImageSizeFactor(request);
 
         FeatureCountProcessor countProcessor = null;
         if (Boolean.TRUE.equals(
@@ -328,8 +325,6 @@ public class SLDEditorBufferedImageLegendGraphicBuilder {
                     applicableRules = updateRuleTitles(countProcessor, legend, applicableRules);
                 }
 
-                final NumberRange<Double> scaleRange =
-                        NumberRange.create(scaleDenominator, scaleDenominator);
                 final int ruleCount = applicableRules.length;
 
                 /**
@@ -340,18 +335,7 @@ public class SLDEditorBufferedImageLegendGraphicBuilder {
 
                 final SLDStyleFactory styleFactory = new SLDStyleFactory();
 
-                double minimumSymbolSize = MINIMUM_SYMBOL_SIZE;
-                // get minSymbolSize from LEGEND_OPTIONS, if defined
-                if (request.getLegendOptions().get("minSymbolSize") instanceof String) {
-                    String minSymbolSizeOpt =
-                            (String) request.getLegendOptions().get("minSymbolSize");
-                    try {
-                        minimumSymbolSize = Double.parseDouble(minSymbolSizeOpt);
-                    } catch (NumberFormatException e) {
-                        throw new IllegalArgumentException(
-                                "Invalid minSymbolSize value: should be a number");
-                    }
-                }
+                double minimumSymbolSize = getMinimumSymbolSize(request);
                 // calculate the symbols rescaling factor necessary for them to be
                 // drawn inside the icon box
                 double symbolScale =
@@ -359,236 +343,24 @@ public class SLDEditorBufferedImageLegendGraphicBuilder {
                                 w, h, layer, sampleFeature, applicableRules, minimumSymbolSize);
 
                 for (int i = 0; i < ruleCount; i++) {
+                    final BufferedImage image =
+                            getRuleImage(
+                                    request,
+                                    layer,
+                                    sampleFeature,
+                                    applicableRules[i],
+                                    w,
+                                    h,
+                                    symbolScale,
+                                    imageSizeFactor,
+                                    minimumSymbolSize,
+                                    styleFactory);
 
-                    final RenderedImage image =
-                            ImageUtils.createImage(w, h, (IndexColorModel) null, transparent);
-                    final Map<RenderingHints.Key, Object> hintsMap =
-                            new HashMap<RenderingHints.Key, Object>();
-                    final Graphics2D graphics =
-                            ImageUtils.prepareTransparency(
-                                    transparent,
-                                    LegendUtils.getBackgroundColor(request),
-                                    image,
-                                    hintsMap);
-                    graphics.setRenderingHint(
-                            RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-                    Feature sample =
-                            getSampleFeatureForRule(layer, sampleFeature, applicableRules[i]);
-
-                    FilterFactory ff = CommonFactoryFinder.getFilterFactory();
-                    final Symbolizer[] symbolizers = applicableRules[i].getSymbolizers();
-                    final GraphicLegend graphic = applicableRules[i].getLegend();
-
-                    // If this rule has a legend graphic defined in the SLD, use it
-                    if (graphic != null) {
-                        if (this.samplePoint == null) {
-                            Coordinate coord = new Coordinate(w / 2, h / 2);
-
-                            try {
-                                this.samplePoint =
-                                        new LiteShape2(
-                                                geomFac.createPoint(coord), null, null, false);
-                            } catch (Exception e) {
-                                this.samplePoint = null;
-                            }
-                        }
-                        shapePainter.paint(
-                                graphics, this.samplePoint, graphic, scaleDenominator, false);
-
-                    } else {
-
-                        for (int sIdx = 0; sIdx < symbolizers.length; sIdx++) {
-                            Symbolizer symbolizer = symbolizers[sIdx];
-
-                            if (symbolizer instanceof RasterSymbolizer) {
-                                // skip it
-                            } else {
-                                // rescale symbols if needed
-                                if (symbolScale > 1.0 && symbolizer instanceof PointSymbolizer) {
-                                    PointSymbolizer pointSymbolizer =
-                                            (PointSymbolizer) cloneSymbolizer(symbolizer);
-                                    if (pointSymbolizer.getGraphic() != null) {
-                                        double size =
-                                                getGraphicSize(
-                                                        sample,
-                                                        pointSymbolizer.getGraphic(),
-                                                        Math.min(w, h) - 4);
-
-                                        pointSymbolizer
-                                                .getGraphic()
-                                                .setSize(
-                                                        ff.literal(
-                                                                size / symbolScale
-                                                                        + minimumSymbolSize));
-
-                                        symbolizer = pointSymbolizer;
-                                    }
-                                }
-
-                                if (!(Math.abs(imageSizeFactor - 1.0) < 0.0001)) {
-                                    if (symbolizer instanceof PointSymbolizer) {
-                                        PointSymbolizer pointSymbolizer2 =
-                                                (PointSymbolizer) cloneSymbolizer(symbolizer);
-                                        if (pointSymbolizer2.getGraphic() != null) {
-                                            double size =
-                                                    getGraphicSize(
-                                                            sample,
-                                                            pointSymbolizer2.getGraphic(),
-                                                            Math.min(w, h) - 4);
-
-                                            pointSymbolizer2
-                                                    .getGraphic()
-                                                    .setSize(
-                                                            ff.literal(
-                                                                    size * imageSizeFactor
-                                                                            + minimumSymbolSize));
-
-                                            symbolizer = pointSymbolizer2;
-                                        }
-                                    } else if (symbolizer instanceof PolygonSymbolizer) {
-                                        PolygonSymbolizer polygonSymbolizer2 =
-                                                (PolygonSymbolizer) cloneSymbolizer(symbolizer);
-                                        if (polygonSymbolizer2.getFill() != null) {
-                                            // Fill
-                                            double size = 0.0;
-
-                                            if (polygonSymbolizer2.getFill().getGraphicFill()
-                                                    != null) {
-                                                size =
-                                                        getGraphicSize(
-                                                                sample,
-                                                                polygonSymbolizer2
-                                                                        .getFill()
-                                                                        .getGraphicFill(),
-                                                                Math.min(w, h) - 4);
-
-                                                polygonSymbolizer2
-                                                        .getFill()
-                                                        .getGraphicFill()
-                                                        .setSize(
-                                                                ff.literal(
-                                                                        size * imageSizeFactor
-                                                                                + minimumSymbolSize));
-                                            }
-                                        }
-
-                                        if (polygonSymbolizer2.getStroke() != null) {
-                                            // Stroke
-                                            double size =
-                                                    getGraphicSize(
-                                                            sample,
-                                                            polygonSymbolizer2
-                                                                    .getStroke()
-                                                                    .getGraphicFill(),
-                                                            Math.min(w, h) - 4);
-
-                                            polygonSymbolizer2
-                                                    .getStroke()
-                                                    .getGraphicFill()
-                                                    .setSize(
-                                                            ff.literal(
-                                                                    size * imageSizeFactor
-                                                                            + minimumSymbolSize));
-
-                                            if (polygonSymbolizer2.getStroke().getGraphicStroke()
-                                                    != null) {
-                                                size =
-                                                        getGraphicSize(
-                                                                sample,
-                                                                polygonSymbolizer2
-                                                                        .getStroke()
-                                                                        .getGraphicStroke(),
-                                                                Math.min(w, h) - 4);
-
-                                                polygonSymbolizer2
-                                                        .getStroke()
-                                                        .getGraphicStroke()
-                                                        .setSize(
-                                                                ff.literal(
-                                                                        size * imageSizeFactor
-                                                                                + minimumSymbolSize));
-                                            }
-                                        }
-                                        symbolizer = polygonSymbolizer2;
-                                    } else if (symbolizer instanceof LineSymbolizer) {
-                                        LineSymbolizer lineSymbolizer2 =
-                                                (LineSymbolizer) cloneSymbolizer(symbolizer);
-                                        if (lineSymbolizer2.getStroke() != null) {
-                                            // Stroke
-                                            double size = 0.0;
-                                            if (lineSymbolizer2.getStroke().getGraphicFill()
-                                                    != null) {
-                                                size =
-                                                        getGraphicSize(
-                                                                sample,
-                                                                lineSymbolizer2
-                                                                        .getStroke()
-                                                                        .getGraphicFill(),
-                                                                Math.min(w, h) - 4);
-
-                                                lineSymbolizer2
-                                                        .getStroke()
-                                                        .getGraphicFill()
-                                                        .setSize(
-                                                                ff.literal(
-                                                                        size * imageSizeFactor
-                                                                                + minimumSymbolSize));
-                                            }
-
-                                            if (lineSymbolizer2.getStroke().getGraphicStroke()
-                                                    != null) {
-                                                size =
-                                                        getGraphicSize(
-                                                                sample,
-                                                                lineSymbolizer2
-                                                                        .getStroke()
-                                                                        .getGraphicStroke(),
-                                                                Math.min(w, h) - 4);
-
-                                                lineSymbolizer2
-                                                        .getStroke()
-                                                        .getGraphicStroke()
-                                                        .setSize(
-                                                                ff.literal(
-                                                                        size * imageSizeFactor
-                                                                                + minimumSymbolSize));
-                                            }
-
-                                            if (lineSymbolizer2.getStroke().getWidth() != null) {
-                                                size =
-                                                        getWidthSize(
-                                                                sample,
-                                                                lineSymbolizer2
-                                                                        .getStroke()
-                                                                        .getWidth(),
-                                                                1);
-                                                lineSymbolizer2
-                                                        .getStroke()
-                                                        .setWidth(
-                                                                ff.literal(size * imageSizeFactor));
-                                            }
-                                        }
-                                        symbolizer = lineSymbolizer2;
-                                    }
-                                }
-                            }
-
-                            Style2D style2d =
-                                    styleFactory.createStyle(sample, symbolizer, scaleRange);
-                            LiteShape2 shape = getSampleShape(symbolizer, w, h);
-
-                            if (style2d != null) {
-                                shapePainter.paint(graphics, shape, style2d, scaleDenominator);
-                            }
-                        }
-                    }
                     if (image != null && titleImage != null) {
                         layersImages.add(titleImage);
                         titleImage = null;
                     }
                     legendsStack.add(image);
-                    graphics.dispose();
                 }
                 int labelMargin = 3;
                 if (!StringUtils.isEmpty(request.getLegendOptions().get("labelMargin"))) {
@@ -628,6 +400,368 @@ public class SLDEditorBufferedImageLegendGraphicBuilder {
         return finalLegend;
     }
 
+    /**
+     * Gets the legend image of a rule, the image is taken from the rule icon cache if the rule
+     * symbolizers have not changed since it was last rendered.
+     *
+     * @param request the request
+     * @param layer the layer feature type, may be null
+     * @param sampleFeature the sample feature, may be null
+     * @param rule the rule
+     * @param w the image width
+     * @param h the image height
+     * @param symbolScale the symbol rescaling factor
+     * @param imageSizeFactor the image size factor
+     * @param minimumSymbolSize the minimum symbol size
+     * @param styleFactory the style factory
+     * @return the rule image
+     */
+    private BufferedImage getRuleImage(
+            GetLegendGraphicRequest request,
+            FeatureType layer,
+            Feature sampleFeature,
+            Rule rule,
+            int w,
+            int h,
+            double symbolScale,
+            double imageSizeFactor,
+            double minimumSymbolSize,
+            SLDStyleFactory styleFactory) {
+        final boolean transparent = request.isTransparent();
+        final double scaleDenominator = request.getScale();
+
+        RuleIconCache.RuleKey key =
+                RuleIconCache.createKey(
+                        rule,
+                        w,
+                        h,
+                        transparent,
+                        LegendUtils.getBackgroundColor(request),
+                        (symbolScale > 1.0) ? symbolScale : 1.0,
+                        imageSizeFactor,
+                        minimumSymbolSize,
+                        scaleDenominator,
+                        (sampleFeature == null) ? layer : sampleFeature.getType());
+
+        BufferedImage image = RuleIconCache.getInstance().get(key);
+        if (image == null) {
+            image =
+                    renderRule(
+                            request,
+                            layer,
+                            sampleFeature,
+                            rule,
+                            w,
+                            h,
+                            symbolScale,
+                            imageSizeFactor,
+                            minimumSymbolSize,
+                            styleFactory);
+            RuleIconCache.getInstance().put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Renders the legend image of a rule.
+     *
+     * @param request the request
+     * @param layer the layer feature type, may be null
+     * @param sampleFeature the sample feature, may be null
+     * @param rule the rule
+     * @param w the image width
+     * @param h the image height
+     * @param symbolScale the symbol rescaling factor
+     * @param imageSizeFactor the image size factor
+     * @param minimumSymbolSize the minimum symbol size
+     * @param styleFactory the style factory
+     * @return the rule image
+     */
+    private BufferedImage renderRule(
+            GetLegendGraphicRequest request,
+            FeatureType layer,
+            Feature sampleFeature,
+            Rule rule,
+            int w,
+            int h,
+            double symbolScale,
+            double imageSizeFactor,
+            double minimumSymbolSize,
+            SLDStyleFactory styleFactory) {
+        final boolean transparent = request.isTransparent();
+        final double scaleDenominator = request.getScale();
+        final NumberRange<Double> scaleRange =
+                NumberRange.create(scaleDenominator, scaleDenominator);
+
+        final BufferedImage image =
+                ImageUtils.createImage(w, h, (IndexColorModel) null, transparent);
+        final Map<RenderingHints.Key, Object> hintsMap = new HashMap<RenderingHints.Key, Object>();
+        final Graphics2D graphics =
+                ImageUtils.prepareTransparency(
+                        transparent, LegendUtils.getBackgroundColor(request), image, hintsMap);
+        graphics.setRenderingHint(
+                RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        Feature sample = getSampleFeatureForRule(layer, sampleFeature, rule);
+
+        FilterFactory ff = CommonFactoryFinder.getFilterFactory();
+        final Symbolizer[] symbolizers = rule.getSymbolizers();
+        final GraphicLegend graphic = rule.getLegend();
+
+        // If this rule has a legend graphic defined in the SLD, use it
+        if (graphic != null) {
+            // The sample point depends on the image size, rule images are built in several sizes
+            Coordinate coord = new Coordinate(w / 2, h / 2);
+
+            try {
+                this.samplePoint = new LiteShape2(geomFac.createPoint(coord), null, null, false);
+            } catch (Exception e) {
+                this.samplePoint = null;
+            }
+            shapePainter.paint(graphics, this.samplePoint, graphic, scaleDenominator, false);
+
+        } else {
+
+            for (int sIdx = 0; sIdx < symbolizers.length; sIdx++) {
+                Symbolizer symbolizer = symbolizers[sIdx];
+
+                if (symbolizer instanceof RasterSymbolizer) {
+                    // skip it
+                } else {
+                    // rescale symbols if needed
+                    if (symbolScale > 1.0 && symbolizer instanceof PointSymbolizer) {
+                        PointSymbolizer pointSymbolizer =
+                                (PointSymbolizer) cloneSymbolizer(symbolizer);
+                        if (pointSymbolizer.getGraphic() != null) {
+                            double size =
+                                    getGraphicSize(
+                                            sample,
+                                            pointSymbolizer.getGraphic(),
+                                            Math.min(w, h) - 4);
+
+                            pointSymbolizer
+                                    .getGraphic()
+                                    .setSize(ff.literal(size / symbolScale + minimumSymbolSize));
+
+                            symbolizer = pointSymbolizer;
+                        }
+                    }
+
+                    if (!(Math.abs(imageSizeFactor - 1.0) < 0.0001)) {
+                        if (symbolizer instanceof PointSymbolizer) {
+                            PointSymbolizer pointSymbolizer2 =
+                                    (PointSymbolizer) cloneSymbolizer(symbolizer);
+                            if (pointSymbolizer2.getGraphic() != null) {
+                                double size =
+                                        getGraphicSize(
+                                                sample,
+                                                pointSymbolizer2.getGraphic(),
+                                                Math.min(w, h) - 4);
+
+                                pointSymbolizer2
+                                        .getGraphic()
+                                        .setSize(
+                                                ff.literal(
+                                                        size * imageSizeFactor
+                                                                + minimumSymbolSize));
+
+                                symbolizer = pointSymbolizer2;
+                            }
+                        } else if (symbolizer instanceof PolygonSymbolizer) {
+                            PolygonSymbolizer polygonSymbolizer2 =
+                                    (PolygonSymbolizer) cloneSymbolizer(symbolizer);
+                            if (polygonSymbolizer2.getFill() != null) {
+                                // Fill
+                                double size = 0.0;
+
+                                if (polygonSymbolizer2.getFill().getGraphicFill() != null) {
+                                    size =
+                                            getGraphicSize(
+                                                    sample,
+                                                    polygonSymbolizer2.getFill().getGraphicFill(),
+                                                    Math.min(w, h) - 4);
+
+                                    polygonSymbolizer2
+                                            .getFill()
+                                            .getGraphicFill()
+                                            .setSize(
+                                                    ff.literal(
+                                                            size * imageSizeFactor
+                                                                    + minimumSymbolSize));
+                                }
+                            }
+
+                            if (polygonSymbolizer2.getStroke() != null) {
+                                // Stroke
+                                double size =
+                                        getGraphicSize(
+                                                sample,
+                                                polygonSymbolizer2.getStroke().getGraphicFill(),
+                                                Math.min(w, h) - 4);
+
+                                polygonSymbolizer2
+                                        .getStroke()
+                                        .getGraphicFill()
+                                        .setSize(
+                                                ff.literal(
+                                                        size * imageSizeFactor
+                                                                + minimumSymbolSize));
+
+                                if (polygonSymbolizer2.getStroke().getGraphicStroke() != null) {
+                                    size =
+                                            getGraphicSize(
+                                                    sample,
+                                                    polygonSymbolizer2
+                                                            .getStroke()
+                                                            .getGraphicStroke(),
+                                                    Math.min(w, h) - 4);
+
+                                    polygonSymbolizer2
+                                            .getStroke()
+                                            .getGraphicStroke()
+                                            .setSize(
+                                                    ff.literal(
+                                                            size * imageSizeFactor
+                                                                    + minimumSymbolSize));
+                                }
+                            }
+                            symbolizer = polygonSymbolizer2;
+                        } else if (symbolizer instanceof LineSymbolizer) {
+                            LineSymbolizer lineSymbolizer2 =
+                                    (LineSymbolizer) cloneSymbolizer(symbolizer);
+                            if (lineSymbolizer2.getStroke() != null) {
+                                // Stroke
+                                double size = 0.0;
+                                if (lineSymbolizer2.getStroke().getGraphicFill() != null) {
+                                    size =
+                                            getGraphicSize(
+                                                    sample,
+                                                    lineSymbolizer2.getStroke().getGraphicFill(),
+                                                    Math.min(w, h) - 4);
+
+                                    lineSymbolizer2
+                                            .getStroke()
+                                            .getGraphicFill()
+                                            .setSize(
+                                                    ff.literal(
+                                                            size * imageSizeFactor
+                                                                    + minimumSymbolSize));
+                                }
+
+                                if (lineSymbolizer2.getStroke().getGraphicStroke() != null) {
+                                    size =
+                                            getGraphicSize(
+                                                    sample,
+                                                    lineSymbolizer2.getStroke().getGraphicStroke(),
+                                                    Math.min(w, h) - 4);
+
+                                    lineSymbolizer2
+                                            .getStroke()
+                                            .getGraphicStroke()
+                                            .setSize(
+                                                    ff.literal(
+                                                            size * imageSizeFactor
+                                                                    + minimumSymbolSize));
+                                }
+
+                                if (lineSymbolizer2.getStroke().getWidth() != null) {
+                                    size =
+                                            getWidthSize(
+                                                    sample,
+                                                    lineSymbolizer2.getStroke().getWidth(),
+                                                    1);
+                                    lineSymbolizer2
+                                            .getStroke()
+                                            .setWidth(ff.literal(size * imageSizeFactor));
+                                }
+                            }
+                            symbolizer = lineSymbolizer2;
+                        }
+                    }
+                }
+
+                Style2D style2d = styleFactory.createStyle(sample, symbolizer, scaleRange);
+                LiteShape2 shape = getSampleShape(symbolizer, w, h);
+
+                if (style2d != null) {
+                    shapePainter.paint(graphics, shape, style2d, scaleDenominator);
+                }
+            }
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    /**
+     * Builds the legend graphic of a single rule, without a label, e.g. for a rule swatch.
+     *
+     * @param request the request, only the size, transparency, scale and legend options are used
+     * @param rule the rule
+     * @return the rule graphic, null if no rule is supplied
+     */
+    public BufferedImage buildRuleGraphic(GetLegendGraphicRequest request, Rule rule) {
+        if (rule == null) {
+            return null;
+        }
+
+        int w = request.getWidth();
+        int h = request.getHeight();
+        double imageSizeFactor = getImageSizeFactor(request);
+        double minimumSymbolSize = getMinimumSymbolSize(request);
+
+        Feature sampleFeature = createSampleFeature();
+        double symbolScale =
+                calcSymbolScale(w, h, null, sampleFeature, new Rule[] {rule}, minimumSymbolSize);
+
+        return getRuleImage(
+                request,
+                null,
+                sampleFeature,
+                rule,
+                w,
+                h,
+                symbolScale,
+                imageSizeFactor,
+                minimumSymbolSize,
+                new SLDStyleFactory());
+    }
+
+    /**
+     * Gets the image size factor from the legend options.
+     *
+     * @param request the request
+     * @return the image size factor
+     */
+    private double getImageSizeFactor(GetLegendGraphicRequest request) {
+        double imageSizeFactor = 1.0;
+        if (request.getLegendOptions().get("imageSizeFactor") instanceof String) {
+            String imageSizeFactorOpt = (String) request.getLegendOptions().get("imageSizeFactor");
+
+            imageSizeFactor = Double.valueOf(imageSizeFactorOpt);
+        }
+        return imageSizeFactor;
+    }
+
+    /**
+     * Gets the minimum symbol size from the legend options, if defined.
+     *
+     * @param request the request
+     * @return the minimum symbol size
+     */
+    private double getMinimumSymbolSize(GetLegendGraphicRequest request) {
+        double minimumSymbolSize = MINIMUM_SYMBOL_SIZE;
+        if (request.getLegendOptions().get("minSymbolSize") instanceof String) {
+            String minSymbolSizeOpt = (String) request.getLegendOptions().get("minSymbolSize");
+            try {
+                minimumSymbolSize = Double.parseDouble(minSymbolSizeOpt);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(
+                        "Invalid minSymbolSize value: should be a number");
+            }
+        }
+        return minimumSymbolSize;
+    }
+
     protected Rule[] updateRuleTitles(
             FeatureCountProcessor processor, LegendRequest legend, Rule[] applicableRules) {
         return processor.preProcessRules(legend, applicableRules);
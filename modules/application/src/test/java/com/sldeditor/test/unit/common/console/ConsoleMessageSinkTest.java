@@ -0,0 +1,132 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.common.console;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sldeditor.common.console.ConsoleData;
+import com.sldeditor.common.console.ConsoleDataEnum;
+import com.sldeditor.common.console.ConsoleMessageSink;
+import java.lang.reflect.InvocationTargetException;
+import javax.swing.DefaultListModel;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for ConsoleMessageSink class.
+ *
+ * <p>{@link com.sldeditor.common.console.ConsoleMessageSink}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class ConsoleMessageSinkTest {
+
+    /**
+     * Test method for {@link com.sldeditor.common.console.ConsoleMessageSink#add(java.lang.String,
+     * com.sldeditor.common.console.ConsoleDataEnum)}. Test method for {@link
+     * com.sldeditor.common.console.ConsoleMessageSink#flush()}.
+     *
+     * @throws InvocationTargetException the invocation target exception
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testCollapseRepeatedMessages()
+            throws InvocationTargetException, InterruptedException {
+        final DefaultListModel<ConsoleData> model = new DefaultListModel<>();
+        final ConsoleMessageSink sink = new ConsoleMessageSink(model, null, 100, 100);
+
+        sink.add("message 1", ConsoleDataEnum.INFORMATION);
+        sink.add("message 1", ConsoleDataEnum.INFORMATION);
+        sink.add("message 1", ConsoleDataEnum.ERROR);
+        sink.add("message 2", ConsoleDataEnum.ERROR);
+        sink.add("message 2", ConsoleDataEnum.ERROR);
+        flush(sink);
+
+        assertEquals(3, model.getSize());
+        assertEquals(2, model.get(0).getCount());
+        assertEquals(1, model.get(1).getCount());
+        assertEquals(2, model.get(2).getCount());
+
+        // Repeats of the last displayed message are collapsed across batches
+        sink.add("message 2", ConsoleDataEnum.ERROR);
+        flush(sink);
+        assertEquals(3, model.getSize());
+        assertEquals(3, model.get(2).getCount());
+
+        assertEquals(6, sink.getReceivedCount());
+        assertEquals(3, sink.getCollapsedCount());
+        assertEquals(0, sink.getDiscardedCount());
+        assertEquals(0, sink.getQueuedCount());
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.common.console.ConsoleMessageSink#flush()}.
+     *
+     * @throws InvocationTargetException the invocation target exception
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testBounded() throws InvocationTargetException, InterruptedException {
+        final DefaultListModel<ConsoleData> model = new DefaultListModel<>();
+        final ConsoleMessageSink sink = new ConsoleMessageSink(model, null, 10, 8);
+
+        for (int index = 0; index < 25; index++) {
+            sink.add("message " + index, ConsoleDataEnum.INFORMATION);
+        }
+        assertEquals(10, sink.getQueuedCount());
+        assertEquals(15, sink.getDiscardedCount());
+
+        flush(sink);
+
+        // The discarded messages are reported and the oldest messages removed
+        assertEquals(8, model.getSize());
+        assertEquals("message 3", model.get(0).getMessage());
+        assertEquals("message 9", model.get(6).getMessage());
+        assertEquals(ConsoleDataEnum.ERROR, model.get(7).getType());
+        assertEquals(3, sink.getTrimmedCount());
+
+        SwingUtilities.invokeAndWait(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        sink.clear();
+                    }
+                });
+        assertEquals(0, model.getSize());
+    }
+
+    /**
+     * Flush the sink on the event dispatch thread.
+     *
+     * @param sink the sink
+     * @throws InvocationTargetException the invocation target exception
+     * @throws InterruptedException the interrupted exception
+     */
+    private void flush(final ConsoleMessageSink sink)
+            throws InvocationTargetException, InterruptedException {
+        SwingUtilities.invokeAndWait(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        sink.flush();
+                    }
+                });
+    }
+}
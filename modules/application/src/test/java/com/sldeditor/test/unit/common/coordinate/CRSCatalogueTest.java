@@ -0,0 +1,138 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.common.coordinate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.coordinate.CRSCatalogue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for CRSCatalogue class.
+ *
+ * <p>{@link com.sldeditor.common.coordinate.CRSCatalogue}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class CRSCatalogueTest {
+
+    /**
+     * Creates the test catalogue.
+     *
+     * @return the CRS catalogue
+     */
+    private CRSCatalogue createCatalogue() {
+        List<String> codeList =
+                Arrays.asList("EPSG:27700", "EPSG:4326", "EPSG:3857", "EPSG:32630", "EPSG:4258");
+        List<String> descriptionList =
+                Arrays.asList(
+                        "OSGB 1936 / British National Grid",
+                        "WGS 84",
+                        "WGS 84 / Pseudo-Mercator",
+                        "WGS 84 / UTM zone 30N",
+                        "ETRS89");
+        return new CRSCatalogue(codeList, descriptionList);
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.common.coordinate.CRSCatalogue#search(java.lang.String,
+     * int)}.
+     */
+    @Test
+    public void testSearch() {
+        CRSCatalogue catalogue = createCatalogue();
+        assertEquals(5, catalogue.getSize());
+        assertEquals("EPSG:4326", catalogue.getCode(1));
+        assertEquals("WGS 84", catalogue.getDescription(1));
+
+        // Code number prefix
+        assertEquals(Arrays.asList("EPSG:4326"), catalogue.search("4326", 10));
+        assertEquals(Arrays.asList("EPSG:4326", "EPSG:4258"), catalogue.search("4", 2));
+        assertEquals(
+                Arrays.asList("EPSG:4326", "EPSG:4258", "EPSG:3857", "EPSG:32630"),
+                catalogue.search("4", 10));
+
+        // Whole code, not case sensitive
+        assertEquals(Arrays.asList("EPSG:3857"), catalogue.search("epsg:3857", 10));
+
+        // Word prefix in description, catalogue order
+        assertEquals(
+                Arrays.asList("EPSG:4326", "EPSG:3857", "EPSG:32630"),
+                catalogue.search(" WGS ", 10));
+        assertEquals(Arrays.asList("EPSG:4326"), catalogue.search("wgs", 1));
+
+        // Prefix matches are listed before substring matches
+        assertEquals(Arrays.asList("EPSG:3857"), catalogue.search("merc", 10));
+        assertEquals(Arrays.asList("EPSG:3857"), catalogue.search("ercator", 10));
+        assertEquals(Arrays.asList("EPSG:27700"), catalogue.search("national grid", 10));
+        assertEquals(
+                Arrays.asList("EPSG:3857", "EPSG:27700", "EPSG:4326", "EPSG:32630", "EPSG:4258"),
+                catalogue.search("p", 10));
+
+        assertTrue(catalogue.search("unknown", 10).isEmpty());
+        assertTrue(catalogue.search("", 10).isEmpty());
+        assertTrue(catalogue.search(null, 10).isEmpty());
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.common.coordinate.CRSCatalogue#write(java.io.File,
+     * java.lang.String)}. Test method for {@link
+     * com.sldeditor.common.coordinate.CRSCatalogue#read(java.io.File, java.lang.String)}.
+     */
+    @Test
+    public void testReadWrite() throws IOException {
+        File folder = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+        File file = new File(folder, "crs.cache");
+
+        try {
+            assertNull(CRSCatalogue.read(file, "1"));
+
+            createCatalogue().write(file, "1");
+
+            CRSCatalogue catalogue = CRSCatalogue.read(file, "1");
+            assertEquals(5, catalogue.getSize());
+            assertEquals("EPSG:32630", catalogue.getCode(3));
+            assertEquals("WGS 84 / UTM zone 30N", catalogue.getDescription(3));
+            assertEquals(Arrays.asList("EPSG:4258"), catalogue.search("etrs", 10));
+
+            // Cache written by a different version is ignored
+            assertNull(CRSCatalogue.read(file, "2"));
+
+            // Corrupt cache is ignored
+            Files.write(file.toPath(), new byte[] {1, 2, 3});
+            assertNull(CRSCatalogue.read(file, "1"));
+
+            // Empty catalogue
+            new CRSCatalogue(new ArrayList<String>(), new ArrayList<String>()).write(file, "1");
+            assertEquals(0, CRSCatalogue.read(file, "1").getSize());
+        } finally {
+            file.delete();
+            folder.delete();
+        }
+    }
+}
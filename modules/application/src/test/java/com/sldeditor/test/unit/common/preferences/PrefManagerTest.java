@@ -218,6 +218,14 @@ public class PrefManagerTest {
         public List<String> getMultipleValues(String key) {
             return null;
         }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.common.property.PropertyManagerInterface#flush()
+         */
+        @Override
+        public void flush() {}
     }
 
     /** Test method for {@link com.sldeditor.common.preferences.PrefManager#useAntiAlias()}. */
@@ -19,10 +19,12 @@
 
 package com.sldeditor.test.unit.common.property;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.sldeditor.common.property.PropertyManagerFactory;
 import com.sldeditor.common.property.PropertyManagerInterface;
+import java.io.File;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -43,4 +45,17 @@ public class PropertyManagerFactoryTest {
 
         assertTrue(instance != null);
     }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.common.property.PropertyManagerFactory#getConfigFolder()}.
+     */
+    @Test
+    public void testGetConfigFolder() {
+        // Caches are not written to the working folder under test
+        File configFolder = PropertyManagerFactory.getConfigFolder();
+        assertEquals(
+                new File(System.getProperty("java.io.tmpdir")).getAbsoluteFile(),
+                configFolder.getAbsoluteFile().getParentFile());
+    }
 }
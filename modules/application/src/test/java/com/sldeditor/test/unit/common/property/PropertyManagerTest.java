@@ -20,6 +20,7 @@
 package com.sldeditor.test.unit.common.property;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -254,4 +255,59 @@ public class PropertyManagerTest {
         actualResult = propertyManager.getColourValue(newKey, defaultValue);
         assertEquals(defaultValue, actualResult);
     }
+
+    /**
+     * Test method for {@link com.sldeditor.common.property.PropertyManager#flush()}. Test method
+     * for {@link com.sldeditor.common.property.PropertyManager#clearValue(java.lang.String,
+     * boolean)}.
+     */
+    @Test
+    public void testFlush() {
+        File file = null;
+        try {
+            file = File.createTempFile(getClass().getSimpleName(), ".properties");
+        } catch (IOException e) {
+            e.printStackTrace();
+            fail("Failed to create test property temporary file");
+        }
+        file.delete();
+
+        PropertyManager propertyManager = new PropertyManager();
+        propertyManager.setPropertyFile(file);
+
+        String stringMultipleKey = "multiple key";
+        for (int index = 0; index < 12; index++) {
+            propertyManager.updateValue(stringMultipleKey, index, "item " + index);
+        }
+        propertyManager.updateValue(stringMultipleKey + "s", 0, "other");
+        propertyManager.updateValue(stringMultipleKey + ".nested", 0, "nested");
+
+        // Changes are written in the background
+        assertFalse(file.exists());
+        propertyManager.flush();
+        assertTrue(file.exists());
+
+        PropertyManager testPropertyManager = new PropertyManager();
+        testPropertyManager.setPropertyFile(file);
+        testPropertyManager.readConfig();
+
+        List<String> actualStringList = testPropertyManager.getMultipleValues(stringMultipleKey);
+        assertEquals(12, actualStringList.size());
+        assertEquals("item 2", actualStringList.get(2));
+        assertEquals("item 11", actualStringList.get(11));
+
+        propertyManager.clearValue(stringMultipleKey, true);
+        assertTrue(propertyManager.getMultipleValues(stringMultipleKey).isEmpty());
+        assertEquals(1, propertyManager.getMultipleValues(stringMultipleKey + "s").size());
+
+        // Reading the file writes pending changes first
+        testPropertyManager.readConfig();
+        assertTrue(testPropertyManager.getMultipleValues(stringMultipleKey).isEmpty());
+
+        propertyManager.clearValue(stringMultipleKey, false);
+        assertTrue(propertyManager.getMultipleValues(stringMultipleKey + "s").isEmpty());
+        propertyManager.flush();
+
+        file.delete();
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.common.startup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.startup.StartupOrchestrator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for StartupOrchestrator class.
+ *
+ * <p>{@link com.sldeditor.common.startup.StartupOrchestrator}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class StartupOrchestratorTest {
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.common.startup.StartupOrchestrator#runInBackground(java.lang.String,
+     * java.lang.Runnable)}.
+     */
+    @Test
+    public void testRunInBackground() throws InterruptedException {
+        StartupOrchestrator orchestrator = StartupOrchestrator.getInstance();
+        orchestrator.start();
+        assertTrue(orchestrator.isRunning());
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger counter = new AtomicInteger(0);
+        final AtomicInteger inlineCounter = new AtomicInteger(0);
+
+        orchestrator.runInBackground(
+                "stage1",
+                new Runnable() {
+                    public void run() {
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        counter.incrementAndGet();
+                    }
+                });
+
+        // Duplicate stages are ignored
+        orchestrator.runInBackground(
+                "stage1",
+                new Runnable() {
+                    public void run() {
+                        counter.incrementAndGet();
+                    }
+                });
+
+        release.countDown();
+
+        // Waits for the background stage rather than running the stage again
+        orchestrator.run(
+                "stage1",
+                new Runnable() {
+                    public void run() {
+                        inlineCounter.incrementAndGet();
+                    }
+                });
+        assertEquals(1, counter.get());
+        assertEquals(0, inlineCounter.get());
+
+        // Stage not started in the background runs on the calling thread
+        orchestrator.run(
+                "stage2",
+                new Runnable() {
+                    public void run() {
+                        inlineCounter.incrementAndGet();
+                    }
+                });
+        assertEquals(1, inlineCounter.get());
+
+        assertEquals(Integer.valueOf(42), orchestrator.call("stage3", () -> 42));
+
+        orchestrator.finish();
+        assertFalse(orchestrator.isRunning());
+
+        String report = orchestrator.getReport();
+        assertTrue(report.contains("stage1"));
+        assertTrue(report.contains("stage2"));
+        assertTrue(report.contains("stage3"));
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.common.startup.StartupOrchestrator#run(java.lang.String,
+     * java.lang.Runnable)}.
+     */
+    @Test
+    public void testRunException() {
+        StartupOrchestrator orchestrator = StartupOrchestrator.getInstance();
+        orchestrator.start();
+
+        orchestrator.runInBackground(
+                "failed",
+                new Runnable() {
+                    public void run() {
+                        throw new IllegalStateException("Expected");
+                    }
+                });
+
+        // Failed stages are reported and do not stop start up
+        orchestrator.await("failed");
+        orchestrator.await("unknown");
+        orchestrator.finish();
+
+        assertTrue(orchestrator.getReport().contains("failed"));
+    }
+}
@@ -24,6 +24,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.sldeditor.common.undo.SnapshotUndoEvent;
 import com.sldeditor.common.undo.UndoEvent;
 import com.sldeditor.common.undo.UndoManager;
 import com.sldeditor.common.xml.ui.FieldIdEnum;
@@ -336,4 +337,77 @@ public class UndoManagerTest {
         assertNull(parentListener.redoAction);
         UndoManager.getInstance().setPopulationCheck(null);
     }
+
+    /** Test method for {@link com.sldeditor.common.undo.UndoManager#setLimits(int, long)}. */
+    @Test
+    public void testLimits() {
+        UndoManager.destroyInstance();
+        DummyUndo listener = new DummyUndo();
+        DummyUndoParent parentListener = new DummyUndoParent();
+
+        UndoManager instance = UndoManager.getInstance();
+        instance.addListener(listener);
+        instance.setLimits(3, Long.MAX_VALUE);
+
+        for (int index = 0; index < 5; index++) {
+            instance.addUndoEvent(
+                    new UndoEvent(
+                            parentListener,
+                            FieldIdEnum.ANCHOR_POINT_H,
+                            Integer.valueOf(index),
+                            Integer.valueOf(index + 1)));
+        }
+
+        // Only the newest entries are kept
+        assertEquals(3, instance.getUndoListSize());
+        instance.undo();
+        instance.undo();
+        instance.undo();
+        assertFalse(listener.undoAllowed);
+        assertEquals(Integer.valueOf(2), parentListener.undoAction.getOldValue());
+
+        // Snapshot events are discarded when the memory limit is exceeded
+        instance.fileLoaded();
+        instance.setLimits(100, 1024L);
+        StringBuilder sb = new StringBuilder();
+        for (int index = 0; index < 10; index++) {
+            String oldValue = sb.toString();
+            sb.append(String.format("<Rule><Name>%d</Name></Rule>%n", index));
+            instance.addUndoEvent(
+                    new SnapshotUndoEvent(parentListener, "test", oldValue, sb.toString()));
+        }
+
+        assertTrue(instance.getUndoListSize() < 10);
+        assertTrue(instance.getSnapshotStore().getMemoryUsage() <= 1024L);
+
+        instance.undo();
+        assertEquals(sb.toString(), parentListener.undoAction.getNewValue());
+        instance.redo();
+        assertEquals(sb.toString(), parentListener.redoAction.getNewValue());
+
+        // Entries that can be redone are kept when the limits are reduced
+        instance.fileLoaded();
+        instance.setLimits(100, Long.MAX_VALUE);
+        for (int index = 0; index < 5; index++) {
+            instance.addUndoEvent(
+                    new UndoEvent(
+                            parentListener,
+                            FieldIdEnum.ANCHOR_POINT_H,
+                            Integer.valueOf(index),
+                            Integer.valueOf(index + 1)));
+        }
+        instance.undo();
+        instance.undo();
+        instance.undo();
+        instance.setLimits(1, Long.MAX_VALUE);
+        assertEquals(3, instance.getUndoListSize());
+        assertFalse(listener.undoAllowed);
+        assertTrue(listener.redoAllowed);
+
+        instance.redo();
+        instance.redo();
+        instance.redo();
+        assertFalse(listener.redoAllowed);
+        assertEquals(Integer.valueOf(5), parentListener.redoAction.getNewValue());
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.common.undo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.undo.UndoSnapshotStore;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for UndoSnapshotStore class.
+ *
+ * <p>{@link com.sldeditor.common.undo.UndoSnapshotStore}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class UndoSnapshotStoreTest {
+
+    /**
+     * Creates a test document.
+     *
+     * @param ruleCount the rule count
+     * @param changedRule the index of the rule to change
+     * @param value the value of the changed rule
+     * @return the document text
+     */
+    private String createDocument(int ruleCount, int changedRule, int value) {
+        StringBuilder sb = new StringBuilder("<StyledLayerDescriptor>\n");
+        for (int index = 0; index < ruleCount; index++) {
+            sb.append("  <Rule><Name>rule");
+            sb.append(index);
+            sb.append("</Name><Size>");
+            sb.append((index == changedRule) ? value : 10);
+            sb.append("</Size></Rule>\n");
+        }
+        sb.append("</StyledLayerDescriptor>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.common.undo.UndoSnapshotStore#addSnapshot(java.lang.String)}.
+     */
+    @Test
+    public void testAddAndGetSnapshot() {
+        UndoSnapshotStore store = new UndoSnapshotStore(4);
+
+        assertEquals(UndoSnapshotStore.NO_SNAPSHOT, store.addSnapshot(null));
+        assertEquals(UndoSnapshotStore.NO_SNAPSHOT, store.getHeadId());
+        assertNull(store.getSnapshot(0));
+
+        List<String> documentList = new ArrayList<>();
+        List<Integer> idList = new ArrayList<>();
+        for (int index = 0; index < 20; index++) {
+            String document = createDocument(200, index * 7, index);
+            documentList.add(document);
+            idList.add(store.addSnapshot(document));
+        }
+
+        // Adding the same text again does not create a new snapshot
+        int headId = store.getHeadId();
+        assertEquals(headId, store.addSnapshot(documentList.get(19)));
+        assertEquals(20, store.getSnapshotCount());
+
+        // Rebuild in reverse order, as undo does, then forwards, as redo does
+        for (int index = 19; index >= 0; index--) {
+            assertEquals(documentList.get(index), store.getSnapshot(idList.get(index)));
+        }
+        for (int index = 0; index < 20; index++) {
+            assertEquals(documentList.get(index), store.getSnapshot(idList.get(index)));
+        }
+
+        // Deltas are much smaller than the full documents
+        long fullSize = 0L;
+        for (String document : documentList) {
+            fullSize += document.length() * 2L;
+        }
+        assertTrue(store.getMemoryUsage() < (fullSize / 4));
+    }
+
+    /** Test method for {@link com.sldeditor.common.undo.UndoSnapshotStore#discardBefore(int)}. */
+    @Test
+    public void testDiscardBefore() {
+        UndoSnapshotStore store = new UndoSnapshotStore(8);
+
+        List<String> documentList = new ArrayList<>();
+        List<Integer> idList = new ArrayList<>();
+        for (int index = 0; index < 10; index++) {
+            String document = createDocument(50, index, index);
+            documentList.add(document);
+            idList.add(store.addSnapshot(document));
+        }
+
+        long memoryBefore = store.getMemoryUsage();
+
+        // Discard up to a snapshot that is stored as a delta
+        store.discardBefore(idList.get(5));
+        assertEquals(5, store.getSnapshotCount());
+        assertTrue(store.getMemoryUsage() < memoryBefore);
+
+        for (int index = 0; index < 5; index++) {
+            assertNull(store.getSnapshot(idList.get(index)));
+        }
+        for (int index = 5; index < 10; index++) {
+            assertEquals(documentList.get(index), store.getSnapshot(idList.get(index)));
+        }
+
+        // Ids carry on after a clear so old ids are not reused
+        store.clear();
+        assertEquals(0, store.getSnapshotCount());
+        assertEquals(0L, store.getMemoryUsage());
+        assertNull(store.getSnapshot(idList.get(9)));
+        int newId = store.addSnapshot(documentList.get(0));
+        assertTrue(newId > idList.get(9));
+        assertEquals(documentList.get(0), store.getSnapshot(newId));
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.common.vendoroption.minversion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.data.SLDUtils;
+import com.sldeditor.common.defaultsymbol.DefaultSymbols;
+import com.sldeditor.common.vendoroption.GeoServerVendorOption;
+import com.sldeditor.common.vendoroption.VendorOptionManager;
+import com.sldeditor.common.vendoroption.VendorOptionVersion;
+import com.sldeditor.common.vendoroption.VersionData;
+import com.sldeditor.common.vendoroption.info.VendorOptionInfo;
+import com.sldeditor.common.vendoroption.minversion.MinimumVersion;
+import com.sldeditor.common.vendoroption.minversion.VendorOptionPresent;
+import com.sldeditor.ui.panels.GetMinimumVersionInterface;
+import java.util.ArrayList;
+import java.util.List;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.geotools.styling.Symbolizer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for MinimumVersion class.
+ *
+ * <p>{@link com.sldeditor.common.vendoroption.minversion.MinimumVersion}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class MinimumVersionTest {
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.common.vendoroption.minversion.MinimumVersion#findMinimumVersion(org.geotools.styling.StyledLayerDescriptor)}.
+     * Test method for {@link
+     * com.sldeditor.common.vendoroption.minversion.MinimumVersion#invalidate(java.lang.Object)}.
+     */
+    @Test
+    public void testFindMinimumVersionCached() {
+        final VersionData versionData = VersionData.decode(GeoServerVendorOption.class, "2.8.0");
+        final List<Object> analysedList = new ArrayList<>();
+
+        MinimumVersion minimumVersion =
+                new MinimumVersion(
+                        new GetMinimumVersionInterface() {
+
+                            @Override
+                            public void getMinimumVersion(
+                                    Object parentObj,
+                                    Object sldObj,
+                                    List<VendorOptionPresent> vendorOptionsPresentList) {
+                                analysedList.add(sldObj);
+
+                                if (sldObj instanceof Symbolizer) {
+                                    VendorOptionInfo vendorOptionInfo =
+                                            new VendorOptionInfo(
+                                                    "test",
+                                                    new VendorOptionVersion(
+                                                            versionData.getVendorOptionType(),
+                                                            versionData),
+                                                    "");
+                                    vendorOptionsPresentList.add(
+                                            new VendorOptionPresent(sldObj, vendorOptionInfo));
+                                }
+                            }
+                        });
+
+        StyledLayerDescriptor sld = DefaultSymbols.createNewPolygon();
+
+        // SLD, named layer, style, feature type style, rule and symbolizer
+        minimumVersion.findMinimumVersion(sld);
+        assertEquals(6, analysedList.size());
+        assertEquals(1, minimumVersion.getVendorOptionsPresentList().size());
+
+        // Nothing has changed, nothing is analysed again
+        analysedList.clear();
+        minimumVersion.findMinimumVersion(sld);
+        assertTrue(analysedList.isEmpty());
+        assertEquals(1, minimumVersion.getVendorOptionsPresentList().size());
+
+        // Only the node invalidated is analysed again
+        Style style = SLDUtils.getStylesList(sld.layers().get(0)).get(0);
+        Rule rule = style.featureTypeStyles().get(0).rules().get(0);
+        Symbolizer symbolizer = rule.symbolizers().get(0);
+        minimumVersion.invalidate(symbolizer);
+        minimumVersion.findMinimumVersion(sld);
+        assertEquals(1, analysedList.size());
+        assertTrue(analysedList.get(0) == symbolizer);
+
+        // A new node is analysed
+        analysedList.clear();
+        Symbolizer newSymbolizer = DefaultSymbols.createDefaultLineSymbolizer();
+        rule.symbolizers().add(newSymbolizer);
+        minimumVersion.findMinimumVersion(sld);
+        assertEquals(1, analysedList.size());
+        assertTrue(analysedList.get(0) == newSymbolizer);
+        assertEquals(2, minimumVersion.getVendorOptionsPresentList().size());
+
+        // A removed node no longer contributes
+        rule.symbolizers().remove(newSymbolizer);
+        minimumVersion.findMinimumVersion(sld);
+        assertEquals(1, minimumVersion.getVendorOptionsPresentList().size());
+
+        // Everything is analysed after the cache is cleared
+        analysedList.clear();
+        minimumVersion.clearCache();
+        minimumVersion.findMinimumVersion(sld);
+        assertEquals(6, analysedList.size());
+
+        minimumVersion.findMinimumVersion(null);
+        assertTrue(minimumVersion.getVendorOptionsPresentList().isEmpty());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.common.vendoroption.minversion.MinimumVersion#findVendorOptions(org.geotools.styling.StyledLayerDescriptor)}.
+     * Test method for {@link
+     * com.sldeditor.common.vendoroption.minversion.MinimumVersion#removeStrictSLD(java.util.List)}.
+     */
+    @Test
+    public void testRemoveStrictSLD() {
+        final VersionData versionData = VersionData.decode(GeoServerVendorOption.class, "2.8.0");
+        final VendorOptionVersion strictVersion =
+                VendorOptionManager.getInstance().getDefaultVendorOptionVersion();
+
+        MinimumVersion minimumVersion =
+                new MinimumVersion(
+                        new GetMinimumVersionInterface() {
+
+                            @Override
+                            public void getMinimumVersion(
+                                    Object parentObj,
+                                    Object sldObj,
+                                    List<VendorOptionPresent> vendorOptionsPresentList) {
+                                if (sldObj instanceof Symbolizer) {
+                                    vendorOptionsPresentList.add(
+                                            new VendorOptionPresent(
+                                                    sldObj,
+                                                    new VendorOptionInfo(
+                                                            "vendor",
+                                                            new VendorOptionVersion(
+                                                                    versionData
+                                                                            .getVendorOptionType(),
+                                                                    versionData),
+                                                            "")));
+                                } else if (sldObj instanceof Rule) {
+                                    vendorOptionsPresentList.add(
+                                            new VendorOptionPresent(
+                                                    sldObj,
+                                                    new VendorOptionInfo(
+                                                            "strict", strictVersion, "")));
+                                }
+                            }
+                        });
+
+        StyledLayerDescriptor sld = DefaultSymbols.createNewPolygon();
+
+        // The snapshot contains every vendor option found
+        List<VendorOptionPresent> foundList = minimumVersion.findVendorOptions(sld);
+        assertEquals(2, foundList.size());
+
+        // Strict SLD entries are removed
+        List<VendorOptionPresent> presentList = minimumVersion.removeStrictSLD(foundList);
+        assertEquals(1, presentList.size());
+        assertEquals("vendor", presentList.get(0).getVendorOptionInfo().getName());
+
+        minimumVersion.findMinimumVersion(sld);
+        assertEquals(1, minimumVersion.getVendorOptionsPresentList().size());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.common.watcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.watcher.FileChangeSet;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for FileChangeSet class.
+ *
+ * <p>{@link com.sldeditor.common.watcher.FileChangeSet}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class FileChangeSetTest {
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.common.watcher.FileChangeSet#add(java.nio.file.WatchEvent.Kind,
+     * java.nio.file.Path)}.
+     */
+    @Test
+    public void testAdd() {
+        Path folder = Paths.get("folder");
+        Path created = folder.resolve("created.sld");
+        Path createdModified = folder.resolve("createdModified.sld");
+        Path createdDeleted = folder.resolve("createdDeleted.sld");
+        Path modified = folder.resolve("modified.sld");
+        Path modifiedDeleted = folder.resolve("modifiedDeleted.sld");
+        Path replaced = folder.resolve("replaced.sld");
+
+        FileChangeSet changeSet = new FileChangeSet(folder);
+        assertTrue(changeSet.isEmpty());
+        assertEquals(folder, changeSet.getFolder());
+
+        changeSet.add(null, created);
+        changeSet.add(StandardWatchEventKinds.ENTRY_CREATE, null);
+        assertTrue(changeSet.isEmpty());
+
+        changeSet.add(StandardWatchEventKinds.ENTRY_CREATE, created);
+
+        changeSet.add(StandardWatchEventKinds.ENTRY_CREATE, createdModified);
+        changeSet.add(StandardWatchEventKinds.ENTRY_MODIFY, createdModified);
+        changeSet.add(StandardWatchEventKinds.ENTRY_MODIFY, createdModified);
+
+        changeSet.add(StandardWatchEventKinds.ENTRY_CREATE, createdDeleted);
+        changeSet.add(StandardWatchEventKinds.ENTRY_MODIFY, createdDeleted);
+        changeSet.add(StandardWatchEventKinds.ENTRY_DELETE, createdDeleted);
+
+        changeSet.add(StandardWatchEventKinds.ENTRY_MODIFY, modified);
+        changeSet.add(StandardWatchEventKinds.ENTRY_MODIFY, modified);
+
+        changeSet.add(StandardWatchEventKinds.ENTRY_MODIFY, modifiedDeleted);
+        changeSet.add(StandardWatchEventKinds.ENTRY_DELETE, modifiedDeleted);
+
+        changeSet.add(StandardWatchEventKinds.ENTRY_DELETE, replaced);
+        changeSet.add(StandardWatchEventKinds.ENTRY_CREATE, replaced);
+
+        assertFalse(changeSet.isEmpty());
+        assertFalse(changeSet.isOverflow());
+
+        assertEquals(2, changeSet.getAdded().size());
+        assertTrue(changeSet.getAdded().contains(created));
+        assertTrue(changeSet.getAdded().contains(createdModified));
+
+        assertEquals(2, changeSet.getModified().size());
+        assertTrue(changeSet.getModified().contains(modified));
+        assertTrue(changeSet.getModified().contains(replaced));
+
+        assertEquals(1, changeSet.getDeleted().size());
+        assertTrue(changeSet.getDeleted().contains(modifiedDeleted));
+    }
+
+    /** Test method for {@link com.sldeditor.common.watcher.FileChangeSet#setOverflow()}. */
+    @Test
+    public void testOverflow() {
+        FileChangeSet changeSet = new FileChangeSet(Paths.get("folder"));
+        changeSet.add(StandardWatchEventKinds.OVERFLOW, null);
+        assertTrue(changeSet.isOverflow());
+        assertFalse(changeSet.isEmpty());
+        assertTrue(changeSet.getAdded().isEmpty());
+
+        changeSet = new FileChangeSet(Paths.get("folder"));
+        changeSet.setOverflow();
+        assertTrue(changeSet.isOverflow());
+    }
+}
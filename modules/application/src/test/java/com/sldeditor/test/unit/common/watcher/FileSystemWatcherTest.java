@@ -20,10 +20,14 @@
 package com.sldeditor.test.unit.common.watcher;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import com.sldeditor.common.watcher.FileChangeSet;
 import com.sldeditor.common.watcher.FileSystemWatcher;
+import com.sldeditor.common.watcher.FileWatcherChangeSetInterface;
 import com.sldeditor.common.watcher.FileWatcherUpdateInterface;
 import java.io.File;
 import java.io.IOException;
@@ -32,6 +36,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -45,6 +52,25 @@ import org.junit.jupiter.api.Test;
  */
 public class FileSystemWatcherTest {
 
+    /** Listener that collects the change sets. */
+    class TestListener implements FileWatcherChangeSetInterface {
+        public BlockingQueue<FileChangeSet> changeSetQueue = new LinkedBlockingQueue<>();
+
+        @Override
+        public void fileAdded(Path f) {}
+
+        @Override
+        public void fileModified(Path f) {}
+
+        @Override
+        public void fileDeleted(Path f) {}
+
+        @Override
+        public void filesChanged(FileChangeSet changeSet) {
+            changeSetQueue.add(changeSet);
+        }
+    }
+
     /**
      * Test method for {@link
      * com.sldeditor.common.watcher.FileSystemWatcher#addWatch(com.sldeditor.common.watcher.FileWatcherUpdateInterface,
@@ -140,4 +166,142 @@ public class FileSystemWatcherTest {
             fail(e.getMessage());
         }
     }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.common.watcher.FileSystemWatcher#addWatch(com.sldeditor.common.watcher.FileWatcherUpdateInterface,
+     * java.nio.file.Path)}. Events for the same path are coalesced into a single change set.
+     */
+    @Test
+    public void testCoalescing() throws Exception {
+        Path tempFolder = Files.createTempDirectory(getClass().getSimpleName());
+        FileSystemWatcher watcher = new FileSystemWatcher(500L, 10);
+        watcher.start();
+
+        try {
+            TestListener listener = new TestListener();
+            assertTrue(watcher.addWatch(listener, tempFolder));
+            assertEquals(1, watcher.getWatchedFolderCount());
+
+            // Created then modified is reported as added, created then deleted is not reported
+            Path addedFile = tempFolder.resolve("added.sld");
+            Files.write(addedFile, "test".getBytes());
+            Files.write(addedFile, "test2".getBytes());
+            Path tempFile = tempFolder.resolve("temp.sld");
+            Files.write(tempFile, "test".getBytes());
+            Files.delete(tempFile);
+
+            FileChangeSet changeSet = listener.changeSetQueue.poll(10, TimeUnit.SECONDS);
+            assertNotNull(changeSet);
+            assertEquals(tempFolder, changeSet.getFolder());
+            assertFalse(changeSet.isOverflow());
+            assertTrue(changeSet.getAdded().contains(addedFile));
+            assertFalse(changeSet.getModified().contains(addedFile));
+            assertFalse(changeSet.getAdded().contains(tempFile));
+            assertFalse(changeSet.getDeleted().contains(tempFile));
+        } finally {
+            watcher.stop();
+            FileUtils.deleteDirectory(tempFolder.toFile());
+        }
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.common.watcher.FileSystemWatcher#addWatch(com.sldeditor.common.watcher.FileWatcherUpdateInterface,
+     * java.nio.file.Path)}. Events are lost when the watcher falls behind, listeners are told to
+     * rescan the folder.
+     */
+    @Test
+    public void testOverflow() throws Exception {
+        Path tempFolder = Files.createTempDirectory(getClass().getSimpleName());
+        FileSystemWatcher watcher = new FileSystemWatcher(200L, 10);
+
+        try {
+            TestListener listener = new TestListener();
+            assertTrue(watcher.addWatch(listener, tempFolder));
+
+            // Generate more events than the watch service holds before the watcher is started
+            for (int index = 0; index < 1000; index++) {
+                Files.createFile(tempFolder.resolve(String.format("file%d.sld", index)));
+            }
+            Thread.sleep(1000);
+            watcher.start();
+
+            FileChangeSet changeSet = listener.changeSetQueue.poll(10, TimeUnit.SECONDS);
+            assertNotNull(changeSet);
+            assertEquals(tempFolder, changeSet.getFolder());
+            assertTrue(changeSet.isOverflow());
+            assertFalse(changeSet.isEmpty());
+        } finally {
+            watcher.stop();
+            FileUtils.deleteDirectory(tempFolder.toFile());
+        }
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.common.watcher.FileSystemWatcher#addRecursiveWatch(com.sldeditor.common.watcher.FileWatcherUpdateInterface,
+     * java.nio.file.Path)}. Test method for {@link
+     * com.sldeditor.common.watcher.FileSystemWatcher#removeWatch(com.sldeditor.common.watcher.FileWatcherUpdateInterface)}.
+     */
+    @Test
+    public void testRecursiveWatch() throws Exception {
+        Path tempFolder = Files.createTempDirectory(getClass().getSimpleName());
+        Path folderA = Files.createDirectories(tempFolder.resolve("a"));
+        Files.createDirectories(folderA.resolve("b").resolve("c"));
+
+        FileSystemWatcher watcher = new FileSystemWatcher(200L, 10);
+        watcher.start();
+
+        try {
+            TestListener listener = new TestListener();
+            assertEquals(0, watcher.addRecursiveWatch(null, tempFolder));
+            assertEquals(4, watcher.addRecursiveWatch(listener, tempFolder));
+            assertEquals(4, watcher.getWatchedFolderCount());
+
+            // Sub-folder created later is watched
+            Path folderD = Files.createDirectories(folderA.resolve("d"));
+            FileChangeSet changeSet = listener.changeSetQueue.poll(10, TimeUnit.SECONDS);
+            assertNotNull(changeSet);
+            assertEquals(folderA, changeSet.getFolder());
+            assertTrue(changeSet.getAdded().contains(folderD));
+            assertEquals(5, watcher.getWatchedFolderCount());
+
+            // Changes in the sub-folder are reported
+            Path file = folderD.resolve("test.sld");
+            Files.write(file, "test".getBytes());
+            changeSet = listener.changeSetQueue.poll(10, TimeUnit.SECONDS);
+            assertNotNull(changeSet);
+            assertEquals(folderD, changeSet.getFolder());
+            assertTrue(changeSet.getAdded().contains(file));
+
+            // Folders are released when no longer of interest
+            watcher.removeWatch(listener);
+            assertEquals(0, watcher.getWatchedFolderCount());
+
+            // Limited depth, the folder and its immediate sub-folders
+            assertEquals(2, watcher.addRecursiveWatch(listener, tempFolder, 1));
+            assertEquals(2, watcher.getWatchedFolderCount());
+            watcher.removeWatch(listener);
+            assertEquals(0, watcher.getWatchedFolderCount());
+        } finally {
+            watcher.stop();
+            FileUtils.deleteDirectory(tempFolder.toFile());
+        }
+
+        // The number of folders watched is bounded
+        FileSystemWatcher boundedWatcher = new FileSystemWatcher(200L, 2);
+        try {
+            tempFolder = Files.createTempDirectory(getClass().getSimpleName());
+            Files.createDirectories(tempFolder.resolve("a").resolve("b"));
+            assertEquals(2, boundedWatcher.addRecursiveWatch(new TestListener(), tempFolder));
+            assertEquals(2, boundedWatcher.getWatchedFolderCount());
+            assertFalse(
+                    boundedWatcher.addWatch(
+                            new TestListener(), tempFolder.resolve("a").resolve("b")));
+        } finally {
+            boundedWatcher.stop();
+            FileUtils.deleteDirectory(tempFolder.toFile());
+        }
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.common.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.xml.PrecompiledUIConfig;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for PrecompiledUIConfig class.
+ *
+ * <p>{@link com.sldeditor.common.xml.PrecompiledUIConfig}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class PrecompiledUIConfigTest {
+
+    /**
+     * Test method for {@link com.sldeditor.common.xml.PrecompiledUIConfig#compile(java.io.File,
+     * java.io.File)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testCompile() throws IOException {
+        File uiFolder = new File("src/main/resources/ui");
+        long expectedCount = 0;
+        try (Stream<Path> stream = Files.walk(uiFolder.toPath())) {
+            expectedCount = stream.filter(p -> p.toString().endsWith(".xml")).count();
+        }
+        assertTrue(expectedCount > 0);
+
+        File outputFile = File.createTempFile(getClass().getSimpleName(), ".bin");
+        try {
+            int count = PrecompiledUIConfig.compile(uiFolder, outputFile);
+            assertEquals(expectedCount, count);
+            assertTrue(outputFile.length() > 0);
+        } finally {
+            outputFile.delete();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.datasource.extension.filesystem.node.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.datasource.extension.filesystem.node.file.DirectoryScanner;
+import com.sldeditor.datasource.extension.filesystem.node.file.DirectoryScanner.DirectoryEntry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for DirectoryScanner class.
+ *
+ * <p>{@link com.sldeditor.datasource.extension.filesystem.node.file.DirectoryScanner}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class DirectoryScannerTest {
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.extension.filesystem.node.file.DirectoryScanner#scan(java.nio.file.Path,
+     * java.util.Collection, boolean)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testScan() throws IOException {
+        Path tmpFolder = Files.createTempDirectory(getClass().getSimpleName());
+
+        try {
+            Files.createFile(tmpFolder.resolve("b.sld"));
+            Files.createFile(tmpFolder.resolve("A.sld"));
+            Files.createFile(tmpFolder.resolve("c.txt"));
+            Path folderB = Files.createDirectory(tmpFolder.resolve("folderB"));
+            Files.createDirectory(folderB.resolve("sub2"));
+            Files.createDirectory(folderB.resolve("sub1"));
+            Files.createFile(folderB.resolve("test.sld"));
+            Path folderA = Files.createDirectory(tmpFolder.resolve("FolderA"));
+            Files.createFile(folderA.resolve("test.sld"));
+
+            Set<String> fileExtensions = new HashSet<>(Arrays.asList("sld"));
+
+            // Descend, folders first then alphabetical ignoring case, invalid files excluded
+            List<DirectoryEntry> entryList = DirectoryScanner.scan(tmpFolder, fileExtensions, true);
+            assertEquals(4, entryList.size());
+            assertEquals("FolderA", entryList.get(0).getName());
+            assertTrue(entryList.get(0).isDirectory());
+            assertEquals("folderB", entryList.get(1).getName());
+            assertTrue(entryList.get(1).isDirectory());
+            assertEquals("A.sld", entryList.get(2).getName());
+            assertFalse(entryList.get(2).isDirectory());
+            assertEquals("b.sld", entryList.get(3).getName());
+            assertNull(entryList.get(3).getChildEntryList());
+
+            // Sub-folder with no sub-folders is fully scanned
+            List<DirectoryEntry> childList = entryList.get(0).getChildEntryList();
+            assertEquals(1, childList.size());
+            assertEquals("test.sld", childList.get(0).getName());
+
+            // Sub-folder with sub-folders is scanned until the first sub-folder is found
+            childList = entryList.get(1).getChildEntryList();
+            assertTrue(childList.get(0).isDirectory());
+            assertNull(childList.get(0).getChildEntryList());
+
+            // No file extensions, only folders are returned
+            entryList = DirectoryScanner.scan(tmpFolder, null, true);
+            assertEquals(2, entryList.size());
+
+            // Folder does not exist
+            entryList = DirectoryScanner.scan(tmpFolder.resolve("missing"), fileExtensions, true);
+            assertTrue(entryList.isEmpty());
+        } finally {
+            FileUtils.deleteDirectory(tmpFolder.toFile());
+        }
+    }
+}
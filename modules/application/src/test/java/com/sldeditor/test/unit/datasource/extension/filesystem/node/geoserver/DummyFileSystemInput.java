@@ -63,6 +63,14 @@ public class DummyFileSystemInput implements FileSystemInterface {
         return false;
     }
 
+    /**
+     * Tree collapsed.
+     *
+     * @param selectedItem the selected item
+     */
+    @Override
+    public void treeCollapsed(Object selectedItem) {}
+
     /**
      * Right mouse button.
      *
@@ -0,0 +1,230 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.datasource.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sldeditor.datasource.impl.DataSourceLoadTask;
+import com.sldeditor.datasource.impl.DataSourceLoader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.geotools.data.DataStore;
+import org.geotools.data.DataStoreFinder;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.Query;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Unit test for DataSourceLoader class.
+ *
+ * <p>{@link com.sldeditor.datasource.impl.DataSourceLoader}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class DataSourceLoaderTest {
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceLoader#load(java.lang.String,com.sldeditor.datasource.impl.DataSourceLoadTask)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testLoad() throws IOException {
+        DataSourceLoader loader = DataSourceLoader.getInstance();
+
+        String result =
+                loader.load(
+                        "test",
+                        new DataSourceLoadTask<String>() {
+                            @Override
+                            public String load() throws IOException {
+                                return "loaded";
+                            }
+
+                            @Override
+                            public void discard(String result) {
+                                // Do nothing
+                            }
+                        });
+        assertEquals("loaded", result);
+
+        assertThrows(
+                IOException.class,
+                () ->
+                        loader.load(
+                                "test",
+                                new DataSourceLoadTask<String>() {
+                                    @Override
+                                    public String load() throws IOException {
+                                        throw new IOException("failed");
+                                    }
+
+                                    @Override
+                                    public void discard(String result) {
+                                        // Do nothing
+                                    }
+                                }));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceLoader#getBounds(org.geotools.data.FeatureSource,java.util.concurrent.atomic.AtomicBoolean)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testGetBounds() throws IOException {
+        assertNull(DataSourceLoader.getInstance().getBounds(null, new AtomicBoolean(false)));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceLoader#getBounds(org.geotools.data.FeatureSource,java.util.concurrent.atomic.AtomicBoolean)}.
+     *
+     * <p>The extent of a shapefile is cached until the file watcher reports the shapefile has
+     * changed.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testGetBoundsInvalidated() throws Exception {
+        Path tempFolder = Files.createTempDirectory(getClass().getSimpleName());
+        copyShapefile("point/sld/shp/sld_cookbook_point", tempFolder);
+
+        DataSourceLoader loader = DataSourceLoader.getInstance();
+        ReferencedEnvelope pointBounds = readBounds(loader, tempFolder);
+        assertFalse(DataSourceLoader.isEstimated(pointBounds));
+
+        // Cached
+        assertSame(pointBounds, readBounds(loader, tempFolder));
+
+        // Replaced by a different shapefile, the file watcher invalidates the cached extent
+        copyShapefile("polygon/sld/shp/sld_cookbook_polygon", tempFolder);
+
+        ReferencedEnvelope polygonBounds = null;
+        long endTime = System.currentTimeMillis() + 20000L;
+        do {
+            Thread.sleep(100);
+            polygonBounds = readBounds(loader, tempFolder);
+        } while (polygonBounds.equals(pointBounds) && (System.currentTimeMillis() < endTime));
+        assertNotEquals(pointBounds, polygonBounds);
+
+        // Invalidated directly
+        copyShapefile("point/sld/shp/sld_cookbook_point", tempFolder);
+        loader.fileModified(tempFolder.resolve("data.shp"));
+        assertEquals(pointBounds, readBounds(loader, tempFolder));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.datasource.impl.DataSourceLoader#createSampleQueries(org.geotools.data.FeatureSource,org.geotools.data.Query,int)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testCreateSampleQueries() throws Exception {
+        SimpleFeatureType featureType =
+                DataUtilities.createType("test", "geom:Point:srid=4326,name:String");
+        GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+        ListFeatureCollection collection = new ListFeatureCollection(featureType);
+        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
+        for (int index = 0; index < 100; index++) {
+            builder.add(geometryFactory.createPoint(new Coordinate(index, index)));
+            builder.add(Integer.toString(index));
+            collection.add(builder.buildFeature(null));
+        }
+        SimpleFeatureSource featureSource = DataUtilities.source(collection);
+        assertFalse(DataSourceLoader.isEstimated(featureSource.getBounds()));
+
+        // Everything fits in the sample
+        Query query = new Query("test");
+        List<Query> queryList = DataSourceLoader.createSampleQueries(featureSource, query, 200);
+        assertEquals(1, queryList.size());
+        assertEquals(200, queryList.get(0).getMaxFeatures());
+        assertNull(queryList.get(0).getStartIndex());
+
+        // Paging not supported, the first features are sampled
+        queryList = DataSourceLoader.createSampleQueries(featureSource, query, 50);
+        assertEquals(1, queryList.size());
+        assertEquals(50, queryList.get(0).getMaxFeatures());
+        assertEquals(Integer.MAX_VALUE, query.getMaxFeatures());
+    }
+
+    /**
+     * Copy the files of a shapefile to a folder, named data.
+     *
+     * @param resource the resource path of the shapefile without an extension
+     * @param folder the folder
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void copyShapefile(String resource, Path folder) throws IOException {
+        for (String extension : new String[] {".shp", ".shx", ".dbf", ".prj"}) {
+            try (InputStream in =
+                    getClass().getClassLoader().getResourceAsStream(resource + extension)) {
+                Files.copy(
+                        in,
+                        folder.resolve("data" + extension),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Read the extent of the shapefile in a folder through the loader.
+     *
+     * @param loader the loader
+     * @param folder the folder
+     * @return the extent
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private ReferencedEnvelope readBounds(DataSourceLoader loader, Path folder) throws IOException {
+        Map<String, Object> map = new HashMap<>();
+        map.put("url", folder.resolve("data.shp").toUri().toURL());
+        DataStore dataStore = DataStoreFinder.getDataStore(map);
+        try {
+            SimpleFeatureSource featureSource =
+                    dataStore.getFeatureSource(dataStore.getTypeNames()[0]);
+            return loader.getBounds(featureSource, new AtomicBoolean(false));
+        } finally {
+            dataStore.dispose();
+        }
+    }
+}
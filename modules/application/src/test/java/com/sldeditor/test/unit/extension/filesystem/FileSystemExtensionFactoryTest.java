@@ -74,6 +74,14 @@ public class FileSystemExtensionFactoryTest {
             return false;
         }
 
+        /**
+         * Tree collapsed.
+         *
+         * @param selectedItem the selected item
+         */
+        @Override
+        public void treeCollapsed(Object selectedItem) {}
+
         /**
          * Right mouse button.
          *
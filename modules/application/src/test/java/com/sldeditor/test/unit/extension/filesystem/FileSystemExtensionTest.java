@@ -145,6 +145,14 @@ public class FileSystemExtensionTest {
             return false;
         }
 
+        /**
+         * Tree collapsed.
+         *
+         * @param selectedItem the selected item
+         */
+        @Override
+        public void treeCollapsed(Object selectedItem) {}
+
         /**
          * Right mouse button.
          *
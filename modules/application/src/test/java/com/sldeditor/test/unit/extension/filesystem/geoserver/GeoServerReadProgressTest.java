@@ -19,19 +19,26 @@
 
 package com.sldeditor.test.unit.extension.filesystem.geoserver;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.sldeditor.common.data.GeoServerConnection;
 import com.sldeditor.common.data.GeoServerLayer;
 import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerLayerNode;
 import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerNode;
 import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerOverallNode;
+import com.sldeditor.datasource.extension.filesystem.node.geoserver.GeoServerWorkspaceNode;
 import com.sldeditor.extension.filesystem.geoserver.GeoServerParseCompleteInterface;
 import com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgress;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -192,4 +199,57 @@ public class GeoServerReadProgressTest {
         newConnectionDetails.setConnectionName("updated test connection 1");
         progress.updateConnection(connection, newConnectionDetails);
     }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgress#readWorkspaceLayersComplete(com.sldeditor.common.data.GeoServerConnection,
+     * java.lang.String, java.util.List)}.
+     */
+    @Test
+    public void testReadWorkspaceLayersComplete() {
+        GeoServerReadProgress progress = new GeoServerReadProgress(null, null);
+
+        GeoServerOverallNode geoServerRootNode = new GeoServerOverallNode(null);
+        DefaultTreeModel model = new DefaultTreeModel(geoServerRootNode);
+        progress.setTreeModel(null, model);
+
+        GeoServerConnection connection = new GeoServerConnection();
+        connection.setConnectionName("test connection 1");
+
+        GeoServerNode node = new GeoServerNode(null, connection);
+        geoServerRootNode.add(node);
+
+        progress.addNewConnectionNode(connection, node);
+
+        progress.readWorkspaceLayersComplete(null, "ws1", new ArrayList<GeoServerLayer>());
+        assertEquals(0, node.getChildCount());
+
+        GeoServerLayer layer1 = new GeoServerLayer("ws1", "layer1");
+        GeoServerLayer layer2 = new GeoServerLayer("ws1", "layer2");
+        GeoServerLayer layer3 = new GeoServerLayer("ws2", "layer3");
+        progress.readWorkspaceLayersComplete(connection, "ws1", Arrays.asList(layer1, layer2));
+        progress.readWorkspaceLayersComplete(connection, "ws2", Arrays.asList(layer3));
+
+        DefaultMutableTreeNode layersNode = (DefaultMutableTreeNode) node.getChildAt(0);
+        assertEquals("Layers", layersNode.getUserObject());
+        assertEquals(2, layersNode.getChildCount());
+        GeoServerWorkspaceNode ws1Node = (GeoServerWorkspaceNode) layersNode.getChildAt(0);
+        assertEquals("ws1", ws1Node.getWorkspaceName());
+        assertEquals(2, ws1Node.getChildCount());
+
+        // Existing layer nodes are kept when a workspace is refreshed
+        GeoServerLayerNode layer1Node = (GeoServerLayerNode) ws1Node.getChildAt(0);
+        GeoServerLayer layer4 = new GeoServerLayer("ws1", "layer4");
+        progress.readWorkspaceLayersComplete(
+                connection, "ws1", Arrays.asList(new GeoServerLayer("ws1", "layer1"), layer4));
+        assertEquals(2, ws1Node.getChildCount());
+        assertTrue(layer1Node == ws1Node.getChildAt(0));
+        assertEquals(
+                "layer4", ((GeoServerLayerNode) ws1Node.getChildAt(1)).getLayer().getLayerName());
+
+        // A workspace with no layers is removed
+        progress.readWorkspaceLayersComplete(connection, "ws2", new ArrayList<GeoServerLayer>());
+        assertEquals(1, layersNode.getChildCount());
+        assertTrue(ws1Node == layersNode.getChildAt(0));
+    }
 }
@@ -0,0 +1,222 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.extension.filesystem.geoserver.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.data.GeoServerConnection;
+import com.sldeditor.common.data.GeoServerLayer;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogue;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for GeoServerCatalogueCache class, runs against a local HTTP stub of the GeoServer REST
+ * interface.
+ *
+ * <p>{@link com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GeoServerCatalogueCacheTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    private static final String SLD_BODY = "<StyledLayerDescriptor/>";
+
+    private HttpServer server = null;
+
+    private File cacheFolder = null;
+
+    private AtomicInteger fullResponseCount = new AtomicInteger(0);
+
+    private AtomicInteger notModifiedCount = new AtomicInteger(0);
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        cacheFolder = Files.createTempDirectory("geoservercache").toFile();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/geoserver/rest/styles/test.sld",
+                new HttpHandler() {
+                    @Override
+                    public void handle(HttpExchange exchange) throws IOException {
+                        if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                            notModifiedCount.incrementAndGet();
+                            exchange.sendResponseHeaders(304, -1);
+                        } else {
+                            fullResponseCount.incrementAndGet();
+                            byte[] bytes = SLD_BODY.getBytes(StandardCharsets.UTF_8);
+                            exchange.getResponseHeaders().add("ETag", ETAG);
+                            exchange.sendResponseHeaders(200, bytes.length);
+                            try (OutputStream os = exchange.getResponseBody()) {
+                                os.write(bytes);
+                            }
+                        }
+                        exchange.close();
+                    }
+                });
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+
+        File[] files = cacheFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        cacheFolder.delete();
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache#getResource(com.sldeditor.common.data.GeoServerConnection,
+     * java.lang.String)}.
+     */
+    @Test
+    public void testGetResource() throws Exception {
+        GeoServerConnection connection = createConnection();
+        GeoServerCatalogueCache cache = new GeoServerCatalogueCache(cacheFolder);
+
+        assertNull(cache.getCatalogue(connection));
+
+        // First request downloads the resource
+        assertEquals(SLD_BODY, cache.getResource(connection, "/styles/test.sld"));
+        assertEquals(1, fullResponseCount.get());
+
+        // Second request is conditional
+        assertEquals(SLD_BODY, cache.getResource(connection, "/styles/test.sld"));
+        assertEquals(1, fullResponseCount.get());
+        assertEquals(1, notModifiedCount.get());
+
+        // Unknown resource
+        assertNull(cache.getResource(connection, "/styles/unknown.sld"));
+
+        // GeoServer not available, the cached copy may be stale so is not returned
+        server.stop(0);
+        server = null;
+        assertNull(cache.getResource(connection, "/styles/test.sld"));
+        assertNotNull(cache.getCatalogue(connection).getResource("/styles/test.sld"));
+
+        // Resource removed when the style is updated
+        cache.removeResource(connection, "/styles/test.sld");
+        assertNull(cache.getResource(connection, "/styles/test.sld"));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache#updateStyles(com.sldeditor.common.data.GeoServerConnection,
+     * java.util.Map, boolean)}. Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueCache#updateLayers(com.sldeditor.common.data.GeoServerConnection,
+     * java.util.Map)}.
+     */
+    @Test
+    public void testPersistCatalogue() throws Exception {
+        GeoServerConnection connection = createConnection();
+        GeoServerCatalogueCache cache = new GeoServerCatalogueCache(cacheFolder);
+
+        Map<String, List<StyleWrapper>> styleMap = new LinkedHashMap<>();
+        styleMap.put("ws1", new ArrayList<>(Arrays.asList(new StyleWrapper("ws1", "style1"))));
+        styleMap.put("ws2", new ArrayList<>(Arrays.asList(new StyleWrapper("ws2", "style2"))));
+        cache.updateStyles(connection, styleMap, false);
+
+        Map<String, List<StyleWrapper>> partialStyleMap = new LinkedHashMap<>();
+        partialStyleMap.put(
+                "ws2",
+                new ArrayList<>(
+                        Arrays.asList(
+                                new StyleWrapper("ws2", "style2"),
+                                new StyleWrapper("ws2", "style3"))));
+        cache.updateStyles(connection, partialStyleMap, true);
+
+        GeoServerLayer layer = new GeoServerLayer();
+        layer.setLayerWorkspace("ws1");
+        layer.setLayerName("layer1");
+        layer.setStyle(new StyleWrapper("ws1", "style1"));
+        Map<String, List<GeoServerLayer>> layerMap = new LinkedHashMap<>();
+        layerMap.put("ws1", new ArrayList<>(Arrays.asList(layer)));
+        cache.updateLayers(connection, layerMap);
+        cache.flush();
+
+        // Read the catalogue back from disk
+        GeoServerCatalogueCache newCache = new GeoServerCatalogueCache(cacheFolder);
+        GeoServerCatalogue catalogue = newCache.getCatalogue(connection);
+        assertNotNull(catalogue);
+
+        Map<String, List<StyleWrapper>> cachedStyleMap = catalogue.getStyleMap();
+        assertEquals(Arrays.asList("ws1", "ws2"), new ArrayList<>(cachedStyleMap.keySet()));
+        assertEquals(1, cachedStyleMap.get("ws1").size());
+        assertEquals(2, cachedStyleMap.get("ws2").size());
+
+        Map<String, List<GeoServerLayer>> cachedLayerMap = catalogue.getLayerMap(connection);
+        assertEquals("layer1", cachedLayerMap.get("ws1").get(0).getLayerName());
+        assertEquals(connection, cachedLayerMap.get("ws1").get(0).getConnection());
+        assertTrue(catalogue.hasSameLayers(layerMap));
+        assertTrue(catalogue.hasSameLayers("ws1", layerMap.get("ws1")));
+        assertFalse(catalogue.hasSameLayers("ws2", layerMap.get("ws1")));
+
+        layer.setLayerName("layer2");
+        assertFalse(catalogue.hasSameLayers(layerMap));
+        assertFalse(catalogue.hasSameLayers("ws1", layerMap.get("ws1")));
+
+        newCache.clear(connection);
+        assertNull(new GeoServerCatalogueCache(cacheFolder).getCatalogue(connection));
+    }
+
+    private GeoServerConnection createConnection() throws Exception {
+        GeoServerConnection connection = new GeoServerConnection();
+        connection.setConnectionName("test");
+        connection.setUrl(
+                new URL("http://localhost:" + server.getAddress().getPort() + "/geoserver"));
+        connection.setUserName("admin");
+        connection.setPassword("geoserver");
+        return connection;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.extension.filesystem.geoserver.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.data.GeoServerConnection;
+import com.sldeditor.common.data.GeoServerLayer;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgressInterface;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueLoader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for GeoServerCatalogueLoader class, runs against a local HTTP stub of the GeoServer
+ * REST interface.
+ *
+ * <p>{@link com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueLoader}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GeoServerCatalogueLoaderTest {
+
+    private static final String DEFAULT_WORKSPACE = "<Default Workspace>";
+
+    private HttpServer server = null;
+
+    private Map<String, String> responseMap = new HashMap<>();
+
+    private List<String> requestList = new ArrayList<>();
+
+    class TestProgressClass implements GeoServerReadProgressInterface {
+        public int progressCount = 0;
+
+        public int lastTotal = 0;
+
+        public Map<String, List<GeoServerLayer>> workspaceLayerMap = new LinkedHashMap<>();
+
+        @Override
+        public void startPopulating(GeoServerConnection connection) {}
+
+        @Override
+        public void readStylesComplete(
+                GeoServerConnection connection,
+                Map<String, List<StyleWrapper>> styleMap,
+                boolean partialRefresh) {}
+
+        @Override
+        public void readStylesProgress(GeoServerConnection connection, int count, int total) {}
+
+        @Override
+        public void readLayersComplete(
+                GeoServerConnection connection, Map<String, List<GeoServerLayer>> layerMap) {}
+
+        @Override
+        public void readWorkspaceLayersComplete(
+                GeoServerConnection connection,
+                String workspaceName,
+                List<GeoServerLayer> layerList) {
+            workspaceLayerMap.put(workspaceName, layerList);
+        }
+
+        @Override
+        public void readLayersProgress(GeoServerConnection connection, int count, int total) {
+            progressCount++;
+            lastTotal = total;
+        }
+    }
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/geoserver/rest",
+                new HttpHandler() {
+                    @Override
+                    public void handle(HttpExchange exchange) throws IOException {
+                        String path = exchange.getRequestURI().getPath();
+                        String response;
+                        synchronized (requestList) {
+                            requestList.add(path);
+                            response = responseMap.get(path);
+                        }
+
+                        if (response == null) {
+                            exchange.sendResponseHeaders(404, -1);
+                        } else {
+                            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+                            exchange.getResponseHeaders().add("Content-Type", "application/xml");
+                            exchange.sendResponseHeaders(200, bytes.length);
+                            try (OutputStream os = exchange.getResponseBody()) {
+                                os.write(bytes);
+                            }
+                        }
+                        exchange.close();
+                    }
+                });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.GeoServerCatalogueLoader#loadLayers(java.util.List)}.
+     */
+    @Test
+    public void testLoadLayers() throws Exception {
+        responseMap.put(
+                "/geoserver/rest/layers.xml",
+                layerList("ws1:layer1", "ws1:layer2", "ws2:layer3", "orphan"));
+        responseMap.put("/geoserver/rest/workspaces/ws1/layers.xml", layerList("layer1", "layer2"));
+        responseMap.put("/geoserver/rest/workspaces/ws2/layers.xml", layerList("layer3"));
+        responseMap.put("/geoserver/rest/layers/ws1:layer1.xml", layer("layer1", "style1", "ws1"));
+        responseMap.put("/geoserver/rest/layers/ws1:layer2.xml", layer("layer2", "style2", null));
+        responseMap.put("/geoserver/rest/layers/ws2:layer3.xml", layer("layer3", "style3", "ws2"));
+        responseMap.put("/geoserver/rest/layers/orphan.xml", layer("orphan", "style4", null));
+
+        GeoServerConnection connection = new GeoServerConnection();
+        connection.setConnectionName("test");
+        connection.setUrl(
+                new URL("http://localhost:" + server.getAddress().getPort() + "/geoserver"));
+        connection.setUserName("admin");
+        connection.setPassword("geoserver");
+
+        TestProgressClass progress = new TestProgressClass();
+        GeoServerCatalogueLoader loader =
+                new GeoServerCatalogueLoader(connection, progress, DEFAULT_WORKSPACE, 4);
+
+        Map<String, List<GeoServerLayer>> layerMap =
+                loader.loadLayers(Arrays.asList("ws1", "ws2", "ws3"));
+
+        assertEquals(
+                Arrays.asList("ws1", "ws2", DEFAULT_WORKSPACE), new ArrayList<>(layerMap.keySet()));
+        assertEquals(2, layerMap.get("ws1").size());
+        assertEquals("layer1", layerMap.get("ws1").get(0).getLayerName());
+        assertEquals("layer2", layerMap.get("ws1").get(1).getLayerName());
+        assertEquals("style1", layerMap.get("ws1").get(0).getStyle().getStyle());
+        assertEquals("ws1", layerMap.get("ws1").get(0).getStyle().getWorkspace());
+        assertEquals(DEFAULT_WORKSPACE, layerMap.get("ws1").get(1).getStyle().getWorkspace());
+        assertEquals(1, layerMap.get("ws2").size());
+        assertEquals("orphan", layerMap.get(DEFAULT_WORKSPACE).get(0).getLayerName());
+
+        assertEquals(4, progress.progressCount);
+        assertEquals(4, progress.lastTotal);
+
+        // Each workspace is reported as soon as its layers have been read
+        assertEquals(3, progress.workspaceLayerMap.size());
+        assertEquals(2, progress.workspaceLayerMap.get("ws1").size());
+        assertEquals("layer2", progress.workspaceLayerMap.get("ws1").get(1).getLayerName());
+        assertEquals(1, progress.workspaceLayerMap.get("ws2").size());
+        assertEquals(
+                "orphan", progress.workspaceLayerMap.get(DEFAULT_WORKSPACE).get(0).getLayerName());
+        assertFalse(progress.workspaceLayerMap.containsKey("ws3"));
+
+        // No per workspace existence checks are made
+        for (String path : requestList) {
+            assertTrue(path.endsWith(".xml"), path);
+        }
+        assertEquals(8, requestList.size());
+    }
+
+    private static String layerList(String... names) {
+        StringBuilder sb = new StringBuilder("<layers>");
+        for (String name : names) {
+            sb.append("<layer><name>");
+            sb.append(name);
+            sb.append("</name></layer>");
+        }
+        sb.append("</layers>");
+        return sb.toString();
+    }
+
+    private static String layer(String name, String style, String styleWorkspace) {
+        StringBuilder sb = new StringBuilder("<layer><name>");
+        sb.append(name);
+        sb.append("</name><type>VECTOR</type><defaultStyle><name>");
+        sb.append(style);
+        sb.append("</name>");
+        if (styleWorkspace != null) {
+            sb.append("<workspace>");
+            sb.append(styleWorkspace);
+            sb.append("</workspace>");
+        }
+        sb.append("</defaultStyle></layer>");
+        return sb.toString();
+    }
+}
@@ -103,6 +103,14 @@ public class GeoServerClientTest {
             this.layerMap = layerMap;
         }
 
+        @Override
+        public void readWorkspaceLayersComplete(
+                GeoServerConnection connection,
+                String workspaceName,
+                List<GeoServerLayer> layerList) {
+            System.out.println(String.format("Workspace %s layers read", workspaceName));
+        }
+
         @Override
         public void readLayersProgress(GeoServerConnection connection, int count, int total) {
             System.out.println(String.format("Layers : %d/%d", count, total));
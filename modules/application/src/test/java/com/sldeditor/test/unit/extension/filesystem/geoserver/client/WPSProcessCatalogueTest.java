@@ -0,0 +1,289 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.extension.filesystem.geoserver.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.DataTypeEnum;
+import com.sldeditor.common.data.GeoServerConnection;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerWPSClientInterface;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerWPSProcessFoundInterface;
+import com.sldeditor.extension.filesystem.geoserver.client.WPSProcessCatalogue;
+import com.sldeditor.extension.filesystem.geoserver.client.WPSProcessCatalogueUpdateInterface;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.opengis.ows11.CodeType;
+import net.opengis.ows11.Ows11Factory;
+import net.opengis.wps10.ProcessBriefType;
+import net.opengis.wps10.Wps10Factory;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for WPSProcessCatalogue class.
+ *
+ * <p>{@link com.sldeditor.extension.filesystem.geoserver.client.WPSProcessCatalogue}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class WPSProcessCatalogueTest {
+
+    /** Stub WPS client that reports a fixed list of processes. */
+    class TestClient implements GeoServerWPSClientInterface {
+
+        /** The process list. */
+        private List<ProcessBriefType> processList;
+
+        /**
+         * Instantiates a new test client.
+         *
+         * @param processList the process list, null to simulate a failed connection
+         */
+        TestClient(List<ProcessBriefType> processList) {
+            this.processList = processList;
+        }
+
+        @Override
+        public boolean getCapabilities() {
+            return processList != null;
+        }
+
+        @Override
+        public List<ProcessBriefType> getRenderTransformations(DataTypeEnum typeOfData) {
+            return processList;
+        }
+
+        @Override
+        public boolean getRenderTransformations(
+                DataTypeEnum typeOfData, GeoServerWPSProcessFoundInterface processFound) {
+            if (processList == null) {
+                return false;
+            }
+
+            for (ProcessBriefType process : processList) {
+                processFound.processFound(process);
+            }
+            return true;
+        }
+    }
+
+    /** Catalogue that creates stub clients and counts the connections made. */
+    class TestCatalogue extends WPSProcessCatalogue {
+
+        /** The process list. */
+        private List<ProcessBriefType> processList;
+
+        /** The client count. */
+        private AtomicInteger clientCount = new AtomicInteger(0);
+
+        /**
+         * Instantiates a new test catalogue.
+         *
+         * @param timeToLive the time to live
+         * @param processList the process list
+         */
+        TestCatalogue(long timeToLive, List<ProcessBriefType> processList) {
+            super(timeToLive);
+            this.processList = processList;
+        }
+
+        @Override
+        protected GeoServerWPSClientInterface createClient(GeoServerConnection connection) {
+            clientCount.incrementAndGet();
+            return new TestClient(processList);
+        }
+    }
+
+    /** Listener that records the processes it receives. */
+    class TestListener implements WPSProcessCatalogueUpdateInterface {
+
+        /** The latch released when the catalogue has been loaded. */
+        private CountDownLatch latch;
+
+        /** The processes added. */
+        private List<ProcessBriefType> addedList = new ArrayList<>();
+
+        /** The loaded list. */
+        private List<ProcessBriefType> loadedList = null;
+
+        /** The success flag. */
+        private boolean success = false;
+
+        /**
+         * Instantiates a new test listener.
+         *
+         * @param expectedLoads the number of catalogue loads expected
+         */
+        TestListener(int expectedLoads) {
+            latch = new CountDownLatch(expectedLoads);
+        }
+
+        @Override
+        public void processAdded(ProcessBriefType process) {
+            addedList.add(process);
+        }
+
+        @Override
+        public void catalogueLoaded(List<ProcessBriefType> processList, boolean success) {
+            this.loadedList = processList;
+            this.success = success;
+            latch.countDown();
+        }
+
+        /**
+         * Wait for the catalogue loads.
+         *
+         * @throws InterruptedException the interrupted exception
+         */
+        void await() throws InterruptedException {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.extension.filesystem.geoserver.client.WPSProcessCatalogue#getRenderTransformations(com.sldeditor.common.data.GeoServerConnection,
+     * com.sldeditor.common.DataTypeEnum,
+     * com.sldeditor.extension.filesystem.geoserver.client.WPSProcessCatalogueUpdateInterface)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testGetRenderTransformations() throws Exception {
+        List<ProcessBriefType> processList = new ArrayList<>();
+        processList.add(createProcess("gs:Heatmap"));
+        processList.add(createProcess("vec:PointStacker"));
+
+        TestCatalogue catalogue =
+                new TestCatalogue(WPSProcessCatalogue.DEFAULT_TIME_TO_LIVE, processList);
+        GeoServerConnection connection = createConnection();
+
+        // First request reads the server and reports each process as it arrives
+        TestListener listener = new TestListener(1);
+        catalogue.getRenderTransformations(connection, DataTypeEnum.E_VECTOR, listener);
+        listener.await();
+        assertTrue(listener.success);
+        assertEquals(2, listener.addedList.size());
+        assertEquals(2, listener.loadedList.size());
+        assertEquals(1, catalogue.clientCount.get());
+
+        // Second request is answered from the cache
+        listener = new TestListener(1);
+        catalogue.getRenderTransformations(connection, DataTypeEnum.E_VECTOR, listener);
+        listener.await();
+        assertTrue(listener.success);
+        assertTrue(listener.addedList.isEmpty());
+        assertEquals(2, listener.loadedList.size());
+        assertEquals(1, catalogue.clientCount.get());
+
+        // Cleared catalogue is read again
+        catalogue.clear(connection);
+        listener = new TestListener(1);
+        catalogue.getRenderTransformations(connection, DataTypeEnum.E_VECTOR, listener);
+        listener.await();
+        assertEquals(2, listener.loadedList.size());
+        assertEquals(2, catalogue.clientCount.get());
+    }
+
+    /**
+     * Test that a stale catalogue is returned straight away and refreshed in the background.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testRefresh() throws Exception {
+        List<ProcessBriefType> processList = new ArrayList<>();
+        processList.add(createProcess("gs:Heatmap"));
+
+        TestCatalogue catalogue = new TestCatalogue(-1L, processList);
+        GeoServerConnection connection = createConnection();
+
+        TestListener listener = new TestListener(1);
+        catalogue.getRenderTransformations(connection, DataTypeEnum.E_VECTOR, listener);
+        listener.await();
+        assertEquals(1, catalogue.clientCount.get());
+
+        // Cached list followed by the refreshed list
+        listener = new TestListener(2);
+        catalogue.getRenderTransformations(connection, DataTypeEnum.E_VECTOR, listener);
+        listener.await();
+        assertTrue(listener.success);
+        assertEquals(1, listener.loadedList.size());
+        assertEquals(2, catalogue.clientCount.get());
+    }
+
+    /**
+     * Test that a failed read is reported and not cached.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testFailedConnection() throws Exception {
+        TestCatalogue catalogue = new TestCatalogue(WPSProcessCatalogue.DEFAULT_TIME_TO_LIVE, null);
+        GeoServerConnection connection = createConnection();
+
+        TestListener listener = new TestListener(1);
+        catalogue.getRenderTransformations(connection, DataTypeEnum.E_VECTOR, listener);
+        listener.await();
+        assertFalse(listener.success);
+        assertNull(listener.loadedList);
+
+        listener = new TestListener(1);
+        catalogue.getRenderTransformations(connection, DataTypeEnum.E_VECTOR, listener);
+        listener.await();
+        assertFalse(listener.success);
+        assertEquals(2, catalogue.clientCount.get());
+    }
+
+    /**
+     * Creates the connection.
+     *
+     * @return the GeoServer connection
+     * @throws MalformedURLException the malformed URL exception
+     */
+    private GeoServerConnection createConnection() throws MalformedURLException {
+        GeoServerConnection connection = new GeoServerConnection();
+        connection.setConnectionName("Test Connection");
+        connection.setUrl(new URL("http://localhost:8081/geoserver"));
+        connection.setUserName("admin");
+        return connection;
+    }
+
+    /**
+     * Creates a process.
+     *
+     * @param identifier the identifier
+     * @return the process brief type
+     */
+    private ProcessBriefType createProcess(String identifier) {
+        ProcessBriefType process = Wps10Factory.eINSTANCE.createProcessBriefType();
+        CodeType code = Ows11Factory.eINSTANCE.createCodeType();
+        code.setValue(identifier);
+        process.setIdentifier(code);
+        return process;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.datasource.impl.DataSourceLoader;
+import com.sldeditor.map.PreviewFeatureCache;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.Query;
+import org.geotools.data.collection.CollectionFeatureSource;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureSource;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * Unit test for PreviewFeatureCache class.
+ *
+ * <p>{@link com.sldeditor.map.PreviewFeatureCache}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class PreviewFeatureCacheTest {
+
+    /** The number of features across the test grid. */
+    private static final int GRID = 40;
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.map.PreviewFeatureCache#create(org.geotools.data.FeatureSource,
+     * org.geotools.geometry.jts.ReferencedEnvelope, int,
+     * java.util.concurrent.atomic.AtomicBoolean)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testCreate() throws Exception {
+        SimpleFeatureSource featureSource = createLines();
+        ReferencedEnvelope bounds = featureSource.getBounds();
+
+        // Small enough to render directly
+        assertNull(
+                PreviewFeatureCache.create(
+                        featureSource, bounds, GRID * GRID, new AtomicBoolean(false)));
+
+        // Cancelled
+        assertNull(PreviewFeatureCache.create(featureSource, bounds, 200, new AtomicBoolean(true)));
+
+        PreviewFeatureCache preview =
+                PreviewFeatureCache.create(featureSource, bounds, 200, new AtomicBoolean(false));
+        assertNotNull(preview);
+        assertSame(featureSource, preview.getFeatureSource());
+        assertTrue(preview.getSampleSize() > 0);
+        assertTrue(preview.getSampleSize() <= 200);
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.map.PreviewFeatureCache#create(org.geotools.data.FeatureSource,
+     * org.geotools.geometry.jts.ReferencedEnvelope, int,
+     * java.util.concurrent.atomic.AtomicBoolean)}.
+     *
+     * <p>The feature source has no extent in its header so the extent is estimated, features
+     * outside the estimated extent are still sampled.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testCreateEstimated() throws Exception {
+        SimpleFeatureSource featureSource =
+                new CollectionFeatureSource(createLines().getFeatures()) {
+                    @Override
+                    public ReferencedEnvelope getBounds() {
+                        return null;
+                    }
+                };
+
+        ReferencedEnvelope bounds =
+                DataSourceLoader.getInstance().getBounds(featureSource, new AtomicBoolean(false));
+        assertTrue(DataSourceLoader.isEstimated(bounds));
+
+        PreviewFeatureCache preview =
+                PreviewFeatureCache.create(featureSource, bounds, 200, new AtomicBoolean(false));
+        assertNotNull(preview);
+        assertTrue(preview.getSampleSize() > 0);
+        assertTrue(preview.getSampleSize() <= 200);
+
+        // Cancelled
+        assertNull(PreviewFeatureCache.create(featureSource, bounds, 200, new AtomicBoolean(true)));
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.map.PreviewFeatureCache#getLevel(double)} and {@link
+     * com.sldeditor.map.PreviewFeatureCache#getFeatureSource(double)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testGetFeatureSource() throws Exception {
+        SimpleFeatureSource featureSource = createLines();
+        PreviewFeatureCache preview =
+                PreviewFeatureCache.create(
+                        featureSource, featureSource.getBounds(), 200, new AtomicBoolean(false));
+
+        // Pixel size not known
+        assertEquals(PreviewFeatureCache.NO_GENERALISATION, preview.getLevel(0.0));
+
+        // Zooming in increases the level of detail
+        int level = preview.getLevel(1.0);
+        assertTrue(level >= 0);
+        assertTrue(preview.getLevel(0.01) > level);
+
+        // Nothing cached yet, the sample is returned without generalising a level
+        SimpleFeatureSource sampleSource = preview.getCachedFeatureSource(1.0);
+        assertEquals(preview.getSampleSize(), sampleSource.getCount(Query.ALL));
+
+        SimpleFeatureSource levelSource = preview.getFeatureSource(1.0);
+        assertNotSame(sampleSource, levelSource);
+        assertEquals(preview.getSampleSize(), levelSource.getCount(Query.ALL));
+        assertSame(levelSource, preview.getFeatureSource(1.0));
+        assertSame(levelSource, preview.getCachedFeatureSource(1.0));
+
+        // Closest cached level returned without generalising
+        assertSame(levelSource, preview.getCachedFeatureSource(0.01));
+    }
+
+    /**
+     * Creates a feature source of diagonal lines on a grid.
+     *
+     * @return the simple feature source
+     * @throws SchemaException the schema exception
+     */
+    private SimpleFeatureSource createLines() throws SchemaException {
+        SimpleFeatureType featureType =
+                DataUtilities.createType("test", "geom:LineString:srid=4326,name:String");
+        GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+        ListFeatureCollection collection = new ListFeatureCollection(featureType);
+        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
+
+        for (int x = 0; x < GRID; x++) {
+            for (int y = 0; y < GRID; y++) {
+                Coordinate[] coordinates =
+                        new Coordinate[] {
+                            new Coordinate(x, y),
+                            new Coordinate(x + 0.25, y + 0.5),
+                            new Coordinate(x + 0.5, y + 0.5)
+                        };
+                builder.add(geometryFactory.createLineString(coordinates));
+                builder.add(String.format("%d,%d", x, y));
+                collection.add(builder.buildFeature(null));
+            }
+        }
+        return DataUtilities.source(collection);
+    }
+}
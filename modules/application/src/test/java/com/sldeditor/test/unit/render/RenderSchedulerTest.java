@@ -0,0 +1,156 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.render.RenderScheduler;
+import com.sldeditor.render.RenderTask;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for RenderScheduler class.
+ *
+ * <p>{@link com.sldeditor.render.RenderScheduler}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class RenderSchedulerTest {
+
+    /** Simple task that returns a fixed value. */
+    class TestRenderTask implements RenderTask<Integer> {
+
+        /** The value. */
+        private int value;
+
+        /** The render count. */
+        private AtomicInteger renderCount;
+
+        /** The cancelled flag. */
+        private volatile boolean cancelled = false;
+
+        /**
+         * Instantiates a new test render task.
+         *
+         * @param value the value
+         * @param renderCount the render count
+         */
+        TestRenderTask(int value, AtomicInteger renderCount) {
+            this.value = value;
+            this.renderCount = renderCount;
+        }
+
+        @Override
+        public Integer render() {
+            renderCount.incrementAndGet();
+            return value;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.render.RenderScheduler#submit(java.lang.Object,
+     * com.sldeditor.render.RenderTask, com.sldeditor.render.RenderResultInterface)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testSubmitCoalesces() throws Exception {
+        RenderScheduler scheduler = new RenderScheduler(1, 200L);
+        Object owner = new Object();
+        AtomicInteger renderCount = new AtomicInteger(0);
+        List<Integer> resultList = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        List<TestRenderTask> taskList = new ArrayList<>();
+        for (int index = 0; index < 5; index++) {
+            TestRenderTask task = new TestRenderTask(index, renderCount);
+            taskList.add(task);
+            scheduler.submit(
+                    owner,
+                    task,
+                    result -> {
+                        assertTrue(SwingUtilities.isEventDispatchThread());
+                        resultList.add(result);
+                        latch.countDown();
+                    });
+        }
+
+        assertTrue(scheduler.isPending(owner));
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(() -> {});
+
+        // Only the latest request is rendered and published
+        assertEquals(1, renderCount.get());
+        assertEquals(1, resultList.size());
+        assertEquals(4, resultList.get(0).intValue());
+        for (int index = 0; index < 4; index++) {
+            assertTrue(taskList.get(index).cancelled);
+        }
+        assertFalse(taskList.get(4).cancelled);
+        assertFalse(scheduler.isPending(owner));
+
+        scheduler.shutdown();
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.render.RenderScheduler#cancel(java.lang.Object)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testCancel() throws Exception {
+        RenderScheduler scheduler = new RenderScheduler(1, 200L);
+        Object owner = new Object();
+        AtomicInteger renderCount = new AtomicInteger(0);
+        List<Integer> resultList = new ArrayList<>();
+
+        TestRenderTask task = new TestRenderTask(1, renderCount);
+        scheduler.submit(owner, task, result -> resultList.add(result));
+        scheduler.cancel(owner);
+
+        assertFalse(scheduler.isPending(owner));
+        Thread.sleep(400);
+        SwingUtilities.invokeAndWait(() -> {});
+
+        assertTrue(task.cancelled);
+        assertEquals(0, renderCount.get());
+        assertTrue(resultList.isEmpty());
+
+        // Null arguments are ignored
+        scheduler.submit(null, task, null);
+        scheduler.submit(owner, null, null);
+        assertFalse(scheduler.isPending(owner));
+
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.render.CachingRenderingTransformation;
+import com.sldeditor.render.RenderTransformationCache;
+import java.util.ArrayList;
+import java.util.List;
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.coverage.grid.GridCoverageFactory;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.Query;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.filter.function.RenderingTransformation;
+import org.geotools.geometry.jts.JTSFactoryFinder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyleBuilder;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.coverage.grid.GridGeometry;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.filter.capability.FunctionName;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.ExpressionVisitor;
+import org.opengis.filter.expression.Literal;
+
+/**
+ * Unit test for RenderTransformationCache class.
+ *
+ * <p>{@link com.sldeditor.render.RenderTransformationCache}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RenderTransformationCacheTest {
+
+    /** The estimated size in bytes of a test feature, 64 + 2 attributes + 1 coordinate. */
+    private static final long FEATURE_SIZE = 64L + (2L * 32L) + 40L;
+
+    /**
+     * Test method for {@link com.sldeditor.render.RenderTransformationCache#put(java.lang.String,
+     * java.lang.Object)}.
+     *
+     * @throws SchemaException the schema exception
+     */
+    @Test
+    public void testPut() throws SchemaException {
+        RenderTransformationCache cache = new RenderTransformationCache(FEATURE_SIZE * 10L);
+
+        SimpleFeatureCollection a = createFeatures(5);
+        Object cachedA = cache.put("a", a);
+        assertTrue(cachedA instanceof ListFeatureCollection);
+        assertEquals(5, ((SimpleFeatureCollection) cachedA).size());
+        assertSame(cachedA, cache.get("a"));
+        assertEquals(FEATURE_SIZE * 5L, cache.getSize());
+
+        cache.put("b", createFeatures(5));
+        assertEquals(2, cache.getCount());
+        assertEquals(FEATURE_SIZE * 10L, cache.getSize());
+
+        // Use a so that b is the least recently used
+        cache.get("a");
+        cache.put("c", createFeatures(5));
+        assertEquals(2, cache.getCount());
+        assertSame(cachedA, cache.get("a"));
+        assertNull(cache.get("b"));
+
+        // Too large to cache
+        Object large = cache.put("d", createFeatures(11));
+        assertEquals(11, ((SimpleFeatureCollection) large).size());
+        assertNull(cache.get("d"));
+
+        // Unknown result type
+        String unknown = "unknown";
+        assertSame(unknown, cache.put("e", unknown));
+        assertNull(cache.get("e"));
+
+        cache.clear();
+        assertEquals(0, cache.getCount());
+        assertEquals(0L, cache.getSize());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.render.RenderTransformationCache#applyCache(org.geotools.styling.Style,
+     * java.lang.Object, org.geotools.map.MapViewport)}.
+     *
+     * @throws SchemaException the schema exception
+     */
+    @Test
+    public void testApplyCache() throws SchemaException {
+        RenderTransformationCache cache = new RenderTransformationCache(FEATURE_SIZE * 100L);
+        SimpleFeatureCollection input = createFeatures(3);
+
+        StyleBuilder styleBuilder = new StyleBuilder();
+        Style style = styleBuilder.createStyle(styleBuilder.createPointSymbolizer());
+
+        // No transformation, nothing to cache
+        assertSame(style, cache.applyCache(style, input, null));
+        assertSame(null, cache.applyCache(null, input, null));
+
+        TestTransformation transformation = new TestTransformation(createFeatures(4));
+        style.featureTypeStyles().get(0).setTransformation(transformation);
+
+        Style cachedStyle = cache.applyCache(style, input, null);
+        assertNotSame(style, cachedStyle);
+        assertSame(transformation, style.featureTypeStyles().get(0).getTransformation());
+        assertEquals(
+                style.featureTypeStyles().get(0).rules().size(),
+                cachedStyle.featureTypeStyles().get(0).rules().size());
+
+        Expression cachedTransformation =
+                cachedStyle.featureTypeStyles().get(0).getTransformation();
+        assertTrue(cachedTransformation instanceof CachingRenderingTransformation);
+
+        Object result1 = cachedTransformation.evaluate(input);
+        Object result2 = cachedTransformation.evaluate(input);
+        assertEquals(1, transformation.getCount());
+        assertSame(result1, result2);
+        assertEquals(4, ((SimpleFeatureCollection) result1).size());
+
+        // Applying the cache again shares the cached results
+        Style cachedStyle2 = cache.applyCache(cachedStyle, input, null);
+        cachedStyle2.featureTypeStyles().get(0).getTransformation().evaluate(input);
+        assertEquals(1, transformation.getCount());
+
+        // A different input is transformed again
+        cache.applyCache(style, createFeatures(3), null)
+                .featureTypeStyles()
+                .get(0)
+                .getTransformation()
+                .evaluate(input);
+        assertEquals(2, transformation.getCount());
+
+        cache.clear();
+        cachedTransformation.evaluate(input);
+        assertEquals(3, transformation.getCount());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.render.RenderTransformationCache#applyCache(org.geotools.styling.Style,
+     * java.lang.Object, org.geotools.map.MapViewport)} with a raster input, the coverage is read
+     * before the transformation is evaluated so the transformation is not wrapped.
+     *
+     * @throws SchemaException the schema exception
+     */
+    @Test
+    public void testApplyCacheRaster() throws SchemaException {
+        RenderTransformationCache cache = new RenderTransformationCache(FEATURE_SIZE * 100L);
+
+        StyleBuilder styleBuilder = new StyleBuilder();
+        Style style = styleBuilder.createStyle(styleBuilder.createRasterSymbolizer());
+        TestTransformation transformation = new TestTransformation(createFeatures(4));
+        style.featureTypeStyles().get(0).setTransformation(transformation);
+
+        GridCoverage2D coverage =
+                new GridCoverageFactory()
+                        .create(
+                                "test",
+                                new float[10][10],
+                                new ReferencedEnvelope(
+                                        0.0, 10.0, 0.0, 10.0, DefaultGeographicCRS.WGS84));
+
+        assertSame(style, cache.applyCache(style, coverage, null));
+        assertSame(style, cache.applyCache(style, null, null));
+        assertSame(transformation, style.featureTypeStyles().get(0).getTransformation());
+    }
+
+    /**
+     * Creates the test features.
+     *
+     * @param count the number of features
+     * @return the feature collection
+     * @throws SchemaException the schema exception
+     */
+    private static SimpleFeatureCollection createFeatures(int count) throws SchemaException {
+        SimpleFeatureType featureType =
+                DataUtilities.createType("test", "geom:Point:srid=4326,name:String");
+        GeometryFactory geometryFactory = JTSFactoryFinder.getGeometryFactory();
+        ListFeatureCollection collection = new ListFeatureCollection(featureType);
+        SimpleFeatureBuilder builder = new SimpleFeatureBuilder(featureType);
+        for (int index = 0; index < count; index++) {
+            builder.add(geometryFactory.createPoint(new Coordinate(index, index)));
+            builder.add("feature" + index);
+            collection.add(builder.buildFeature(null));
+        }
+        return collection;
+    }
+
+    /** Rendering transformation that counts how many times it is evaluated. */
+    private static class TestTransformation implements RenderingTransformation {
+
+        /** The result. */
+        private final SimpleFeatureCollection result;
+
+        /** The parameters. */
+        private final List<Expression> parameters = new ArrayList<>();
+
+        /** The evaluation count. */
+        private int count = 0;
+
+        /**
+         * Instantiates a new test transformation.
+         *
+         * @param result the result
+         */
+        TestTransformation(SimpleFeatureCollection result) {
+            this.result = result;
+        }
+
+        /**
+         * Gets the evaluation count.
+         *
+         * @return the count
+         */
+        int getCount() {
+            return count;
+        }
+
+        @Override
+        public Object evaluate(Object object) {
+            count++;
+            return result;
+        }
+
+        @Override
+        public <T> T evaluate(Object object, Class<T> context) {
+            return context.cast(evaluate(object));
+        }
+
+        @Override
+        public String getName() {
+            return "test:Transformation";
+        }
+
+        @Override
+        public FunctionName getFunctionName() {
+            return null;
+        }
+
+        @Override
+        public List<Expression> getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public Literal getFallbackValue() {
+            return null;
+        }
+
+        @Override
+        public Object accept(ExpressionVisitor visitor, Object extraData) {
+            return visitor.visit(this, extraData);
+        }
+
+        @Override
+        public Query invertQuery(Query targetQuery, GridGeometry gridGeometry) {
+            return targetQuery;
+        }
+
+        @Override
+        public GridGeometry invertGridGeometry(Query targetQuery, GridGeometry targetGridGeometry) {
+            return targetGridGeometry;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.data.SLDData;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.render.ThumbnailService;
+import com.sldeditor.render.ThumbnailSourceInterface;
+import com.sldeditor.render.ThumbnailUpdateInterface;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.Icon;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for ThumbnailService class.
+ *
+ * <p>{@link com.sldeditor.render.ThumbnailService}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class ThumbnailServiceTest {
+
+    /** The Constant POINT_SLD. */
+    private static final String POINT_SLD =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                    + "<StyledLayerDescriptor version=\"1.0.0\""
+                    + " xmlns=\"http://www.opengis.net/sld\""
+                    + " xmlns:ogc=\"http://www.opengis.net/ogc\">"
+                    + "<NamedLayer><Name>test</Name><UserStyle><Name>test</Name>"
+                    + "<FeatureTypeStyle><Rule><PointSymbolizer><Graphic><Mark>"
+                    + "<WellKnownName>square</WellKnownName>"
+                    + "<Fill><CssParameter name=\"fill\">#FF0000</CssParameter></Fill>"
+                    + "</Mark><Size>20</Size></Graphic></PointSymbolizer></Rule>"
+                    + "</FeatureTypeStyle></UserStyle></NamedLayer></StyledLayerDescriptor>";
+
+    /** Test style source that counts how many times the style is read. */
+    class TestSource implements ThumbnailSourceInterface {
+
+        /** The thumbnail identifier. */
+        private String id;
+
+        /** The SLD contents. */
+        private String sld;
+
+        /** The read count. */
+        private AtomicInteger readCount = new AtomicInteger();
+
+        /**
+         * Instantiates a new test source.
+         *
+         * @param id the thumbnail identifier
+         * @param sld the SLD contents
+         */
+        TestSource(String id, String sld) {
+            this.id = id;
+            this.sld = sld;
+        }
+
+        @Override
+        public String getThumbnailId() {
+            return id;
+        }
+
+        @Override
+        public long getLastModified() {
+            return 1234L;
+        }
+
+        @Override
+        public SLDDataInterface readSLDData() throws IOException {
+            readCount.incrementAndGet();
+            if (sld == null) {
+                throw new IOException("Not found");
+            }
+            return new SLDData(new StyleWrapper(id), sld);
+        }
+    }
+
+    /** Test listener that waits for a thumbnail. */
+    class TestListener implements ThumbnailUpdateInterface {
+
+        /** The latch. */
+        private CountDownLatch latch = new CountDownLatch(1);
+
+        /** The thumbnail. */
+        private Icon thumbnail = null;
+
+        @Override
+        public void thumbnailAvailable(Icon thumbnail) {
+            this.thumbnail = thumbnail;
+            latch.countDown();
+        }
+
+        /**
+         * Wait for the thumbnail.
+         *
+         * @return the thumbnail, null if it was not created in time
+         * @throws InterruptedException the interrupted exception
+         */
+        Icon waitForThumbnail() throws InterruptedException {
+            latch.await(30, TimeUnit.SECONDS);
+            return thumbnail;
+        }
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.render.ThumbnailService#getThumbnail(com.sldeditor.render.ThumbnailSourceInterface,
+     * com.sldeditor.render.ThumbnailUpdateInterface)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetThumbnail() throws Exception {
+        File cacheFolder = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+        try {
+            ThumbnailService service = new ThumbnailService(cacheFolder, 1);
+
+            assertNull(service.getThumbnail(null, null));
+            assertNull(service.getThumbnail(new TestSource(null, POINT_SLD), null));
+
+            TestSource source = new TestSource("test|point", POINT_SLD);
+            TestListener listener = new TestListener();
+            assertNull(service.getThumbnail(source, listener));
+
+            Icon thumbnail = listener.waitForThumbnail();
+            assertNotNull(thumbnail);
+            assertEquals(ThumbnailService.THUMBNAIL_SIZE, thumbnail.getIconWidth());
+            assertEquals(ThumbnailService.THUMBNAIL_SIZE, thumbnail.getIconHeight());
+
+            // Now held in memory
+            assertEquals(thumbnail, service.getThumbnail(source, null));
+            assertEquals(1, source.readCount.get());
+
+            // Written to the cache folder
+            File[] files = cacheFolder.listFiles();
+            assertEquals(1, files.length);
+            assertTrue(files[0].getName().endsWith(".png"));
+
+            // Invalidated thumbnails are created again, from the cache folder
+            service.invalidate("test|");
+            listener = new TestListener();
+            assertNull(service.getThumbnail(source, listener));
+            assertNotNull(listener.waitForThumbnail());
+            assertNotNull(service.getThumbnail(source, null));
+            assertEquals(2, source.readCount.get());
+            assertEquals(1, cacheFolder.listFiles().length);
+
+            // A new service reads the thumbnail from the cache folder
+            ThumbnailService otherService = new ThumbnailService(cacheFolder, 1);
+            listener = new TestListener();
+            assertNull(otherService.getThumbnail(source, listener));
+            assertNotNull(listener.waitForThumbnail());
+            assertEquals(1, cacheFolder.listFiles().length);
+        } finally {
+            for (File file : cacheFolder.listFiles()) {
+                file.delete();
+            }
+            cacheFolder.delete();
+        }
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.render.ThumbnailService#getThumbnail(com.sldeditor.render.ThumbnailSourceInterface,
+     * com.sldeditor.render.ThumbnailUpdateInterface)} when the style cannot be read.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetThumbnailUnreadable() throws Exception {
+        ThumbnailService service = new ThumbnailService(null, 1);
+
+        TestSource source = new TestSource("test|missing", null);
+        TestListener listener = new TestListener();
+        assertNull(service.getThumbnail(source, listener));
+
+        waitForRead(source, 1);
+
+        // No thumbnail, the failure is not remembered so the style is read again
+        assertNull(service.getThumbnail(source, listener));
+        waitForRead(source, 2);
+        assertEquals(2, source.readCount.get());
+        assertNull(listener.thumbnail);
+    }
+
+    /**
+     * Wait for a style to be read and the result to be processed.
+     *
+     * @param source the style
+     * @param expectedReadCount the expected read count
+     * @throws InterruptedException the interrupted exception
+     */
+    private void waitForRead(TestSource source, int expectedReadCount) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 30000L;
+        while ((source.readCount.get() < expectedReadCount)
+                && (System.currentTimeMillis() < timeout)) {
+            Thread.sleep(10L);
+        }
+        Thread.sleep(100L);
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.render.ThumbnailService#getThumbnail(com.sldeditor.render.ThumbnailSourceInterface,
+     * com.sldeditor.render.ThumbnailUpdateInterface)} when the cache folder is full.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetThumbnailCacheFolderFull() throws Exception {
+        File cacheFolder = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+        try {
+            ThumbnailService service = new ThumbnailService(cacheFolder, 1, 2);
+
+            for (int index = 0; index < 3; index++) {
+                TestSource source =
+                        new TestSource(
+                                "test|point" + index,
+                                POINT_SLD.replace("#FF0000", String.format("#FF000%d", index)));
+                TestListener listener = new TestListener();
+                assertNull(service.getThumbnail(source, listener));
+                assertNotNull(listener.waitForThumbnail());
+                assertTrue(cacheFolder.listFiles().length <= 2);
+            }
+
+            // The least recently used thumbnails have been deleted
+            assertEquals(1, cacheFolder.listFiles().length);
+        } finally {
+            for (File file : cacheFolder.listFiles()) {
+                file.delete();
+            }
+            cacheFolder.delete();
+        }
+    }
+}
@@ -19,11 +19,38 @@
 
 package com.sldeditor.test.unit.rendertransformation;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.sldeditor.common.DataTypeEnum;
 import com.sldeditor.common.connection.GeoServerConnectionManagerInterface;
+import com.sldeditor.common.data.GeoServerConnection;
+import com.sldeditor.extension.filesystem.geoserver.GeoServerReadProgress;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerClientInterface;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerWPSClientInterface;
+import com.sldeditor.extension.filesystem.geoserver.client.GeoServerWPSProcessFoundInterface;
+import com.sldeditor.extension.filesystem.geoserver.client.WPSProcessCatalogue;
+import com.sldeditor.extension.filesystem.geoserver.client.WPSProcessCatalogueUpdateInterface;
 import com.sldeditor.rendertransformation.RenderTransformationDialog;
+import java.math.BigInteger;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import net.opengis.ows11.CodeType;
+import net.opengis.ows11.DomainMetadataType;
+import net.opengis.ows11.impl.Ows11FactoryImpl;
+import net.opengis.wps10.DataInputsType;
+import net.opengis.wps10.InputDescriptionType;
+import net.opengis.wps10.LiteralInputType;
+import net.opengis.wps10.ProcessBriefType;
+import net.opengis.wps10.ProcessDescriptionType;
+import net.opengis.wps10.impl.Wps10FactoryImpl;
 import org.geotools.process.function.ProcessFunction;
 import org.geotools.process.function.ProcessFunctionFactory;
 import org.junit.jupiter.api.Test;
@@ -65,8 +92,125 @@ public class RenderTransformationDialogTest {
         public void testDisplayFunction(String functionName) {
             displayFunction(functionName);
         }
+
+        /**
+         * Test populate function list.
+         *
+         * @param connectionName the connection name
+         */
+        public void testPopulateFunctionList(String connectionName) {
+            populateFunctionList(connectionName);
+        }
+
+        /**
+         * Test get parameter count.
+         *
+         * @return the parameter count
+         */
+        public int testGetParameterCount() {
+            return getParameterCount();
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.rendertransformation.RenderTransformationDialog#getProcessCatalogue()
+         */
+        @Override
+        protected WPSProcessCatalogue getProcessCatalogue() {
+            return catalogue;
+        }
     }
 
+    /** Catalogue reading a fixed list of processes, counting the catalogues loaded. */
+    class TestCatalogue extends WPSProcessCatalogue {
+
+        /** The process list. */
+        private List<ProcessBriefType> processList;
+
+        /** The number of catalogues loaded. */
+        private Semaphore loaded = new Semaphore(0);
+
+        /**
+         * Instantiates a new test catalogue.
+         *
+         * @param processList the process list
+         */
+        TestCatalogue(List<ProcessBriefType> processList) {
+            super(WPSProcessCatalogue.DEFAULT_TIME_TO_LIVE);
+            this.processList = processList;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.extension.filesystem.geoserver.client.WPSProcessCatalogue#getRenderTransformations(com.sldeditor.common.data.GeoServerConnection, com.sldeditor.common.DataTypeEnum, com.sldeditor.extension.filesystem.geoserver.client.WPSProcessCatalogueUpdateInterface)
+         */
+        @Override
+        public synchronized void getRenderTransformations(
+                GeoServerConnection connection,
+                DataTypeEnum typeOfData,
+                final WPSProcessCatalogueUpdateInterface listener) {
+            super.getRenderTransformations(
+                    connection,
+                    typeOfData,
+                    new WPSProcessCatalogueUpdateInterface() {
+                        @Override
+                        public void processAdded(ProcessBriefType process) {
+                            listener.processAdded(process);
+                        }
+
+                        @Override
+                        public void catalogueLoaded(
+                                List<ProcessBriefType> processList, boolean success) {
+                            listener.catalogueLoaded(processList, success);
+                            loaded.release();
+                        }
+                    });
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.extension.filesystem.geoserver.client.WPSProcessCatalogue#createClient(com.sldeditor.common.data.GeoServerConnection)
+         */
+        @Override
+        protected GeoServerWPSClientInterface createClient(GeoServerConnection connection) {
+            return new GeoServerWPSClientInterface() {
+                @Override
+                public boolean getCapabilities() {
+                    return true;
+                }
+
+                @Override
+                public List<ProcessBriefType> getRenderTransformations(DataTypeEnum typeOfData) {
+                    return processList;
+                }
+
+                @Override
+                public boolean getRenderTransformations(
+                        DataTypeEnum typeOfData, GeoServerWPSProcessFoundInterface processFound) {
+                    for (ProcessBriefType process : processList) {
+                        processFound.processFound(process);
+                    }
+                    return true;
+                }
+            };
+        }
+
+        /**
+         * Wait for a catalogue to be loaded.
+         *
+         * @throws InterruptedException the interrupted exception
+         */
+        void awaitLoaded() throws InterruptedException {
+            assertTrue(loaded.tryAcquire(10, TimeUnit.SECONDS));
+        }
+    }
+
+    /** The catalogue used by the test dialog. */
+    private TestCatalogue catalogue = null;
+
     /**
      * Test method for {@link
      * com.sldeditor.rendertransformation.RenderTransformationDialog#RenderTransformationDialog(com.sldeditor.common.connection.GeoServerConnectionManagerInterface)}.
@@ -87,4 +231,137 @@ public class RenderTransformationDialogTest {
         assertNotNull(actualResult);
         testObj.test_internal_showDialog(actualResult);
     }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.rendertransformation.RenderTransformationDialog#populateFunctionList(java.lang.String)}.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testCatalogueLoaded() throws Exception {
+        String processName = "test:CustomProcess";
+        List<ProcessBriefType> processList = new ArrayList<>();
+        processList.add(createProcess(processName));
+        catalogue = new TestCatalogue(processList);
+
+        final GeoServerConnection connection = new GeoServerConnection();
+        connection.setConnectionName("Test Connection");
+        connection.setUrl(new URL("http://localhost:8081/geoserver"));
+        connection.setUserName("admin");
+
+        TestRenderTransformationDialog testObj =
+                new TestRenderTransformationDialog(
+                        new GeoServerConnectionManagerInterface() {
+                            @Override
+                            public List<GeoServerConnection> getConnectionList() {
+                                List<GeoServerConnection> list = new ArrayList<>();
+                                list.add(connection);
+                                return list;
+                            }
+
+                            @Override
+                            public void updateList() {
+                                // Not used
+                            }
+
+                            @Override
+                            public GeoServerConnection getConnection(String connectionDataName) {
+                                return null;
+                            }
+
+                            @Override
+                            public void readPropertyFile(GeoServerReadProgress progress) {
+                                // Not used
+                            }
+
+                            @Override
+                            public Map<GeoServerConnection, GeoServerClientInterface>
+                                    getConnectionMap() {
+                                return null;
+                            }
+
+                            @Override
+                            public void removeConnection(GeoServerConnection connection) {
+                                // Not used
+                            }
+
+                            @Override
+                            public void addNewConnection(
+                                    GeoServerReadProgress progress,
+                                    GeoServerConnection newConnectionDetails) {
+                                // Not used
+                            }
+                        });
+
+        // Processes are streamed and then the complete catalogue is reported
+        SwingUtilities.invokeAndWait(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        testObj.testPopulateFunctionList(connection.getConnectionName());
+                    }
+                });
+        catalogue.awaitLoaded();
+        SwingUtilities.invokeAndWait(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        testObj.testDisplayFunction(processName);
+                    }
+                });
+        assertEquals(1, testObj.testGetParameterCount());
+
+        // The cached catalogue replaces the processes already shown
+        SwingUtilities.invokeAndWait(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        testObj.testPopulateFunctionList(connection.getConnectionName());
+                    }
+                });
+        catalogue.awaitLoaded();
+        SwingUtilities.invokeAndWait(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        testObj.testDisplayFunction(processName);
+                    }
+                });
+        assertEquals(1, testObj.testGetParameterCount());
+    }
+
+    /**
+     * Creates a process with a single parameter.
+     *
+     * @param identifier the identifier
+     * @return the process description
+     */
+    @SuppressWarnings("unchecked")
+    private ProcessDescriptionType createProcess(String identifier) {
+        ProcessDescriptionType process = Wps10FactoryImpl.init().createProcessDescriptionType();
+
+        CodeType codeType = Ows11FactoryImpl.init().createCodeType();
+        codeType.setValue(identifier);
+        process.setIdentifier(codeType);
+
+        CodeType codeType2 = Ows11FactoryImpl.init().createCodeType();
+        codeType2.setValue("dummyParameter");
+        InputDescriptionType inputDescription =
+                Wps10FactoryImpl.init().createInputDescriptionType();
+        inputDescription.setIdentifier(codeType2);
+        inputDescription.setMinOccurs(BigInteger.valueOf(1));
+        inputDescription.setMaxOccurs(BigInteger.valueOf(1));
+        LiteralInputType literal = Wps10FactoryImpl.init().createLiteralInputType();
+        DomainMetadataType domainType = Ows11FactoryImpl.init().createDomainMetadataType();
+        domainType.setValue("xs:int");
+        literal.setDefaultValue("1");
+        literal.setDataType(domainType);
+        inputDescription.setLiteralData(literal);
+
+        DataInputsType dataInputs = Wps10FactoryImpl.init().createDataInputsType();
+        dataInputs.getInput().add(inputDescription);
+        process.setDataInputs(dataInputs);
+        return process;
+    }
 }
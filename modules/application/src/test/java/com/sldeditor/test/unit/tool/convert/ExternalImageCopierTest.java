@@ -0,0 +1,86 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.tool.convert;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.tool.convert.ExternalImageCopier;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for ExternalImageCopier class.
+ *
+ * <p>{@link com.sldeditor.tool.convert.ExternalImageCopier}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class ExternalImageCopierTest {
+
+    /**
+     * Test method for {@link com.sldeditor.tool.convert.ExternalImageCopier#copy(java.net.URL,
+     * java.io.File)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testCopy() throws IOException {
+        Path tempFolder = Files.createTempDirectory(getClass().getSimpleName());
+        byte[] data = new byte[10000];
+        for (int index = 0; index < data.length; index++) {
+            data[index] = (byte) index;
+        }
+
+        Path source = tempFolder.resolve("source.png");
+        Files.write(source, data);
+        URL sourceURL = source.toUri().toURL();
+        File destination = new File(tempFolder.toFile(), "destination.png");
+
+        ExternalImageCopier copier = new ExternalImageCopier();
+        assertFalse(copier.isCopied(sourceURL, destination));
+
+        copier.copy(sourceURL, destination);
+        assertTrue(copier.isCopied(sourceURL, destination));
+        assertArrayEquals(data, Files.readAllBytes(destination.toPath()));
+
+        // Replaces an existing file
+        data[0] = 42;
+        Files.write(source, data);
+        copier.copy(sourceURL, destination);
+        assertArrayEquals(data, Files.readAllBytes(destination.toPath()));
+
+        // Same source to a different destination is a different copy
+        File otherDestination = new File(tempFolder.toFile(), "other.png");
+        assertFalse(copier.isCopied(sourceURL, otherDestination));
+
+        // A new copier has copied nothing
+        assertFalse(new ExternalImageCopier().isCopied(sourceURL, destination));
+
+        Files.delete(destination.toPath());
+        Files.delete(source);
+        Files.delete(tempFolder);
+    }
+}
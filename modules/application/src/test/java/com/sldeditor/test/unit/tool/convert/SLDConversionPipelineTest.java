@@ -0,0 +1,321 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.tool.convert;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.common.data.SLDData;
+import com.sldeditor.common.data.StyleWrapper;
+import com.sldeditor.tool.convert.SLDConversionPipeline;
+import com.sldeditor.tool.convert.SLDConversionStatistics;
+import com.sldeditor.tool.convert.SLDConversionWriterInterface;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for SLDConversionPipeline class.
+ *
+ * <p>{@link com.sldeditor.tool.convert.SLDConversionPipeline}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class SLDConversionPipelineTest {
+
+    /** The Constant THREAD_PREFIX, the name of the pipeline threads. */
+    private static final String THREAD_PREFIX = "SLDEditor-Convert-";
+
+    /** The Constant TIMEOUT, the longest a conversion is allowed to take. */
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    /** The Constant SLD_TEMPLATE, a point style with the layer name to fill in. */
+    private static final String SLD_TEMPLATE =
+            "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><StyledLayerDescriptor version=\"1.0.0\" xsi:schemaLocation=\"http://www.opengis.net/sld StyledLayerDescriptor.xsd\" xmlns=\"http://www.opengis.net/sld\" xmlns:ogc=\"http://www.opengis.net/ogc\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">  <NamedLayer><Name>%s</Name><UserStyle><Title>SLD Cook Book: Simple Point</Title><FeatureTypeStyle><Rule><PointSymbolizer><Graphic><Mark><WellKnownName>circle</WellKnownName><Fill><CssParameter name=\"fill\">#FF0000</CssParameter></Fill></Mark><Size>6</Size></Graphic></PointSymbolizer></Rule></FeatureTypeStyle></UserStyle></NamedLayer></StyledLayerDescriptor>";
+
+    /** A style that records when it has been encoded, after an optional delay. */
+    private static class DelayedSLDData extends SLDData {
+
+        /** The index. */
+        private final int index;
+
+        /** The delay in milliseconds. */
+        private final long delay;
+
+        /** The list the index is added to when the style has been encoded. */
+        private final List<Integer> encodedList;
+
+        /**
+         * Instantiates a new delayed SLD data.
+         *
+         * @param index the index
+         * @param sldContents the sld contents
+         * @param delay the delay in milliseconds
+         * @param encodedList the encoded list
+         */
+        DelayedSLDData(int index, String sldContents, long delay, List<Integer> encodedList) {
+            super(new StyleWrapper("style" + index), sldContents);
+            this.index = index;
+            this.delay = delay;
+            this.encodedList = encodedList;
+        }
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.common.data.SLDData#getResourceLocator()
+         */
+        @Override
+        public URL getResourceLocator() {
+            // Only called by the encode stage
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            encodedList.add(index);
+            return super.getResourceLocator();
+        }
+    }
+
+    /** A writer that records the styles written. */
+    private static class RecordingWriter implements SLDConversionWriterInterface {
+
+        /** The styles written. */
+        private final List<SLDDataInterface> writtenList = new ArrayList<>();
+
+        /** The encoded styles written. */
+        private final List<String> encodedList = new ArrayList<>();
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.tool.convert.SLDConversionWriterInterface#write(com.sldeditor.common.SLDDataInterface, java.lang.String, java.util.List)
+         */
+        @Override
+        public void write(
+                SLDDataInterface sldData, String encodedSLD, List<String> externalImageList) {
+            // Called on the thread running the conversion
+            assertFalse(Thread.currentThread().getName().startsWith(THREAD_PREFIX));
+            writtenList.add(sldData);
+            encodedList.add(encodedSLD);
+        }
+    }
+
+    /**
+     * Creates the styles to convert.
+     *
+     * @param count the number of styles
+     * @param failIndex the index of the style that can not be parsed, -1 for none
+     * @param delayStep the encode delay of the last style, earlier styles are delayed by a multiple
+     *     of this
+     * @param encodedList the list of indexes in the order the styles are encoded
+     * @return the styles
+     */
+    private static List<SLDDataInterface> createStyles(
+            int count, int failIndex, long delayStep, List<Integer> encodedList) {
+        List<SLDDataInterface> sldDataList = new ArrayList<>();
+        for (int index = 0; index < count; index++) {
+            String sldContents =
+                    (index == failIndex)
+                            ? "<StyledLayerDescriptor><NamedLayer>"
+                            : String.format(SLD_TEMPLATE, "Layer " + index);
+            long delay = (count - index) * delayStep;
+            sldDataList.add(new DelayedSLDData(index, sldContents, delay, encodedList));
+        }
+        return sldDataList;
+    }
+
+    /**
+     * Wait for the pipeline threads to finish.
+     *
+     * @return true, if no pipeline threads are still running
+     * @throws InterruptedException the interrupted exception
+     */
+    private static boolean waitForPipelineThreads() throws InterruptedException {
+        long endTime = System.currentTimeMillis() + TIMEOUT.toMillis();
+        while (System.currentTimeMillis() < endTime) {
+            boolean running = false;
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (thread.isAlive() && thread.getName().startsWith(THREAD_PREFIX)) {
+                    running = true;
+                }
+            }
+
+            if (!running) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.tool.convert.SLDConversionPipeline#convert(java.util.List,
+     * com.sldeditor.tool.convert.SLDConversionWriterInterface)}.
+     */
+    @Test
+    public void testConvertEmpty() {
+        SLDConversionPipeline pipeline = new SLDConversionPipeline(null, false, 2, 2);
+        RecordingWriter writer = new RecordingWriter();
+
+        SLDConversionStatistics statistics = pipeline.convert(null, writer);
+        assertEquals(0, statistics.getWrittenCount());
+
+        statistics = pipeline.convert(Collections.emptyList(), writer);
+        assertEquals(0, statistics.getWrittenCount());
+        assertTrue(writer.writtenList.isEmpty());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.tool.convert.SLDConversionPipeline#convert(java.util.List,
+     * com.sldeditor.tool.convert.SLDConversionWriterInterface)}.
+     *
+     * <p>Earlier styles take longer to encode, so the encode threads finish them out of order.
+     */
+    @Test
+    public void testConvertOrder() {
+        List<Integer> encodedList = Collections.synchronizedList(new ArrayList<>());
+        List<SLDDataInterface> sldDataList = createStyles(12, -1, 50L, encodedList);
+        SLDConversionPipeline pipeline = new SLDConversionPipeline(null, false, 2, 4);
+        RecordingWriter writer = new RecordingWriter();
+
+        SLDConversionStatistics statistics =
+                assertTimeoutPreemptively(TIMEOUT, () -> pipeline.convert(sldDataList, writer));
+
+        // The styles were encoded out of order
+        List<Integer> sortedList = new ArrayList<>(encodedList);
+        Collections.sort(sortedList);
+        assertEquals(sldDataList.size(), encodedList.size());
+        assertNotEquals(sortedList, encodedList);
+
+        // but written in the order they were supplied
+        assertEquals(sldDataList, writer.writtenList);
+        for (int index = 0; index < sldDataList.size(); index++) {
+            assertTrue(writer.encodedList.get(index).contains("Layer " + index));
+        }
+
+        assertEquals(sldDataList.size(), statistics.getParsedCount());
+        assertEquals(0, statistics.getFailedCount());
+        assertEquals(sldDataList.size(), statistics.getEncodedCount());
+        assertEquals(sldDataList.size(), statistics.getWrittenCount());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.tool.convert.SLDConversionPipeline#convert(java.util.List,
+     * com.sldeditor.tool.convert.SLDConversionWriterInterface)}.
+     *
+     * <p>A style in the middle of the list can not be parsed.
+     */
+    @Test
+    public void testConvertParseFailure() {
+        int failIndex = 5;
+        List<Integer> encodedList = Collections.synchronizedList(new ArrayList<>());
+        List<SLDDataInterface> sldDataList = createStyles(10, failIndex, 5L, encodedList);
+        SLDConversionPipeline pipeline = new SLDConversionPipeline(null, false, 3, 3);
+        RecordingWriter writer = new RecordingWriter();
+
+        SLDConversionStatistics statistics =
+                assertTimeoutPreemptively(TIMEOUT, () -> pipeline.convert(sldDataList, writer));
+
+        // The failed style is skipped, the others are written in order
+        List<SLDDataInterface> expectedList = new ArrayList<>(sldDataList);
+        expectedList.remove(failIndex);
+        assertEquals(expectedList, writer.writtenList);
+        assertFalse(encodedList.contains(failIndex));
+
+        assertEquals(sldDataList.size() - 1, statistics.getParsedCount());
+        assertEquals(1, statistics.getFailedCount());
+        assertEquals(sldDataList.size() - 1, statistics.getEncodedCount());
+        assertEquals(sldDataList.size() - 1, statistics.getWrittenCount());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.tool.convert.SLDConversionPipeline#convert(java.util.List,
+     * com.sldeditor.tool.convert.SLDConversionWriterInterface)}.
+     *
+     * <p>The writer fails part way through while the other stages are blocked on full queues, the
+     * conversion must stop and every pipeline thread must finish.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testConvertAbort() throws InterruptedException {
+        List<Integer> encodedList = Collections.synchronizedList(new ArrayList<>());
+        List<SLDDataInterface> sldDataList = createStyles(50, -1, 0L, encodedList);
+        SLDConversionPipeline pipeline = new SLDConversionPipeline(null, false, 1, 1);
+        List<SLDDataInterface> writtenList = new ArrayList<>();
+
+        SLDConversionWriterInterface writer =
+                new SLDConversionWriterInterface() {
+                    @Override
+                    public void write(
+                            SLDDataInterface sldData,
+                            String encodedSLD,
+                            List<String> externalImageList) {
+                        if (writtenList.size() == 2) {
+                            try {
+                                // Let the other stages fill their queues
+                                Thread.sleep(200);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            throw new IllegalStateException("Write failed");
+                        }
+                        writtenList.add(sldData);
+                    }
+                };
+
+        assertTimeoutPreemptively(
+                TIMEOUT,
+                () -> {
+                    assertThrows(
+                            IllegalStateException.class,
+                            () -> pipeline.convert(sldDataList, writer));
+                });
+
+        assertEquals(sldDataList.subList(0, 2), writtenList);
+        assertTrue(waitForPipelineThreads());
+
+        // The remaining styles were not encoded
+        assertTrue(encodedList.size() < sldDataList.size());
+
+        // The pipeline can be used again after an abort
+        RecordingWriter recordingWriter = new RecordingWriter();
+        List<SLDDataInterface> nextList = createStyles(3, -1, 0L, encodedList);
+        SLDConversionStatistics statistics =
+                assertTimeoutPreemptively(
+                        TIMEOUT, () -> pipeline.convert(nextList, recordingWriter));
+        assertEquals(nextList, recordingWriter.writtenList);
+        assertEquals(nextList.size(), statistics.getWrittenCount());
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.tool.legend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import com.google.common.io.Files;
+import com.sldeditor.common.SLDDataInterface;
+import com.sldeditor.test.unit.datasource.impl.DummyInternalSLDFile;
+import com.sldeditor.test.unit.datasource.impl.DummyInternalSLDFile2;
+import com.sldeditor.tool.legend.BatchLegendExporter;
+import com.sldeditor.tool.legend.LegendExportProgressInterface;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for BatchLegendExporter class.
+ *
+ * <p>{@link com.sldeditor.tool.legend.BatchLegendExporter}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class BatchLegendExporterTest {
+
+    /** Counts the progress reported by the exporter. */
+    class TestProgress implements LegendExportProgressInterface {
+
+        /** The number of legends exported. */
+        private int exported = 0;
+
+        /** The last completed count. */
+        private int lastCompleted = 0;
+
+        /*
+         * (non-Javadoc)
+         *
+         * @see com.sldeditor.tool.legend.LegendExportProgressInterface#legendExported(com.sldeditor.common.SLDDataInterface, boolean, int, int)
+         */
+        @Override
+        public void legendExported(
+                SLDDataInterface sldData, boolean success, int completed, int total) {
+            if (success) {
+                exported++;
+            }
+            assertEquals(lastCompleted + 1, completed);
+            lastCompleted = completed;
+        }
+    }
+
+    /**
+     * Creates the styles to export.
+     *
+     * @return the styles
+     */
+    private List<SLDDataInterface> createStyles() {
+        List<SLDDataInterface> sldDataList = new ArrayList<SLDDataInterface>();
+        sldDataList.add(new DummyInternalSLDFile().getSLDData());
+        sldDataList.add(new DummyInternalSLDFile2().getSLDData());
+        return sldDataList;
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.tool.legend.BatchLegendExporter#export(java.util.List,
+     * java.io.File, com.sldeditor.tool.legend.LegendExportProgressInterface)}.
+     */
+    @Test
+    void testExport() {
+        File destinationFolder = Files.createTempDir();
+
+        TestProgress progress = new TestProgress();
+        BatchLegendExporter exporter = new BatchLegendExporter(2);
+        List<String> filenameList = exporter.export(createStyles(), destinationFolder, progress);
+
+        assertEquals(2, progress.lastCompleted);
+        assertEquals(2, progress.exported);
+        assertEquals(2, filenameList.size());
+        assertEquals(2, destinationFolder.listFiles().length);
+        for (String filename : filenameList) {
+            assertTrue(new File(filename).exists());
+        }
+
+        try {
+            FileUtils.deleteDirectory(destinationFolder);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    /** Test method for {@link com.sldeditor.tool.legend.BatchLegendExporter#cancel()}. */
+    @Test
+    void testCancel() {
+        File destinationFolder = Files.createTempDir();
+
+        TestProgress progress = new TestProgress();
+        BatchLegendExporter exporter = new BatchLegendExporter(2);
+        exporter.cancel();
+        assertTrue(exporter.isCancelled());
+
+        List<String> filenameList = exporter.export(createStyles(), destinationFolder, progress);
+        assertEquals(0, progress.lastCompleted);
+        assertTrue(filenameList.isEmpty());
+        assertEquals(0, destinationFolder.listFiles().length);
+
+        try {
+            FileUtils.deleteDirectory(destinationFolder);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.tool.raster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.tool.raster.RasterStatistics;
+import com.sldeditor.tool.raster.RasterStatisticsCalculator;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for RasterStatisticsCalculator class.
+ *
+ * <p>{@link com.sldeditor.tool.raster.RasterStatisticsCalculator}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RasterStatisticsCalculatorTest {
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.tool.raster.RasterStatisticsCalculator#calculate(java.awt.image.RenderedImage,
+     * int)}.
+     */
+    @Test
+    public void testDistinctValues() {
+        // Larger than a single window so the image is read in several windows
+        int width = 1500;
+        int height = 1100;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        WritableRaster raster = image.getRaster();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                raster.setSample(x, y, 0, (x + y) % 5);
+            }
+        }
+
+        RasterStatisticsCalculator calculator = new RasterStatisticsCalculator();
+        calculator.setNoDataValues(new double[] {4.0});
+        RasterStatistics statistics = calculator.calculate(image, 0);
+
+        double[] distinctValues = statistics.getDistinctValues();
+        assertFalse(statistics.isDistinctValueLimitExceeded());
+        assertEquals(4, distinctValues.length);
+        assertEquals(0.0, distinctValues[0]);
+        assertEquals(3.0, distinctValues[3]);
+        assertEquals(0.0, statistics.getMinimum());
+        assertEquals(3.0, statistics.getMaximum());
+
+        long expectedCount = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (((x + y) % 5) != 4) {
+                    expectedCount++;
+                }
+            }
+        }
+        assertEquals(expectedCount, statistics.getCount());
+
+        long histogramTotal = 0;
+        for (long binCount : statistics.getHistogram()) {
+            histogramTotal += binCount;
+        }
+        assertEquals(expectedCount, histogramTotal);
+
+        // Sequential gives the same result
+        calculator.setParallel(false);
+        RasterStatistics sequential = calculator.calculate(image, 0);
+        assertEquals(statistics.getCount(), sequential.getCount());
+        assertEquals(4, sequential.getDistinctValues().length);
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.tool.raster.RasterStatisticsCalculator#setDistinctValueLimit(int)}.
+     */
+    @Test
+    public void testDistinctValueLimit() {
+        int width = 600;
+        int height = 700;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_USHORT_GRAY);
+        WritableRaster raster = image.getRaster();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                raster.setSample(x, y, 0, y * 10);
+            }
+        }
+
+        RasterStatisticsCalculator calculator = new RasterStatisticsCalculator();
+        calculator.setDistinctValueLimit(100);
+        calculator.setHistogramBins(10);
+        RasterStatistics statistics = calculator.calculate(image, 0);
+
+        assertTrue(statistics.isDistinctValueLimitExceeded());
+        assertNull(statistics.getDistinctValues());
+        assertEquals((long) width * height, statistics.getCount());
+        assertEquals(0.0, statistics.getMinimum());
+        assertEquals((height - 1) * 10.0, statistics.getMaximum());
+        assertEquals(10, statistics.getHistogram().length);
+
+        // Values are evenly distributed so the median is close to the middle of the range
+        double median = statistics.getQuantile(0.5);
+        double binWidth = statistics.getBinWidth();
+        assertTrue(Math.abs(median - (statistics.getMaximum() / 2.0)) <= binWidth);
+        assertEquals(statistics.getMinimum(), statistics.getQuantile(0.0));
+        assertEquals(statistics.getMaximum(), statistics.getQuantile(1.0));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.tool.raster.RasterStatisticsCalculator#calculate(java.awt.image.RenderedImage,
+     * int)}.
+     */
+    @Test
+    public void testNoValidSamples() {
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_BYTE_GRAY);
+
+        RasterStatisticsCalculator calculator = new RasterStatisticsCalculator();
+        calculator.setNoDataValues(new double[] {0.0});
+        RasterStatistics statistics = calculator.calculate(image, 0);
+
+        assertEquals(0, statistics.getCount());
+        assertTrue(Double.isNaN(statistics.getMinimum()));
+        assertTrue(Double.isNaN(statistics.getQuantile(0.5)));
+        assertEquals(0, statistics.getDistinctValues().length);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.ui.legend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.sldeditor.ui.legend.RuleIconCache;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import org.geotools.styling.PolygonSymbolizer;
+import org.geotools.styling.Rule;
+import org.geotools.styling.StyleBuilder;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for RuleIconCache class.
+ *
+ * <p>{@link com.sldeditor.ui.legend.RuleIconCache}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class RuleIconCacheTest {
+
+    /** The size in bytes of a 10 x 10 icon. */
+    private static final long ICON_SIZE = 10L * 10L * 4L;
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.ui.legend.RuleIconCache#createKey(org.geotools.styling.Rule,
+     * java.lang.Object[])}.
+     */
+    @Test
+    public void testCreateKey() {
+        assertNull(RuleIconCache.createKey(null, 10));
+
+        StyleBuilder styleBuilder = new StyleBuilder();
+        Rule rule1 = styleBuilder.createRule(styleBuilder.createPolygonSymbolizer(Color.RED));
+        Rule rule2 = styleBuilder.createRule(styleBuilder.createPolygonSymbolizer(Color.RED));
+        rule2.setName("different name");
+
+        // Keys only depend on the symbolizers and parameters
+        assertEquals(RuleIconCache.createKey(rule1, 10), RuleIconCache.createKey(rule2, 10));
+        assertEquals(
+                RuleIconCache.createKey(rule1, 10).hashCode(),
+                RuleIconCache.createKey(rule2, 10).hashCode());
+        assertNotEquals(RuleIconCache.createKey(rule1, 10), RuleIconCache.createKey(rule1, 20));
+
+        rule2.symbolizers().clear();
+        rule2.symbolizers().add(styleBuilder.createPolygonSymbolizer(Color.BLUE));
+        assertNotEquals(RuleIconCache.createKey(rule1, 10), RuleIconCache.createKey(rule2, 10));
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.ui.legend.RuleIconCache#put(com.sldeditor.ui.legend.RuleIconCache.RuleKey,
+     * java.awt.image.BufferedImage)}.
+     */
+    @Test
+    public void testPut() {
+        RuleIconCache cache = new RuleIconCache(ICON_SIZE * 2L);
+
+        StyleBuilder styleBuilder = new StyleBuilder();
+        Rule rule1 = styleBuilder.createRule(styleBuilder.createPolygonSymbolizer(Color.RED));
+        Rule rule2 = styleBuilder.createRule(styleBuilder.createLineSymbolizer(Color.GREEN));
+        Rule rule3 = styleBuilder.createRule(styleBuilder.createPointSymbolizer());
+
+        cache.put(null, createImage());
+        cache.put(RuleIconCache.createKey(rule1), null);
+        assertEquals(0, cache.getCount());
+
+        BufferedImage image1 = createImage();
+        cache.put(RuleIconCache.createKey(rule1), image1);
+        assertEquals(1, cache.getCount());
+        assertEquals(ICON_SIZE, cache.getSize());
+
+        BufferedImage cachedImage = cache.get(RuleIconCache.createKey(rule1));
+        assertNotNull(cachedImage);
+        assertNotSame(image1, cachedImage);
+        assertEquals(image1.getRGB(5, 5), cachedImage.getRGB(5, 5));
+
+        // Editing the rule in place does not affect the cached copy
+        PolygonSymbolizer symbolizer = (PolygonSymbolizer) rule1.symbolizers().get(0);
+        symbolizer.getFill().setColor(styleBuilder.colorExpression(Color.BLUE));
+        assertNull(cache.get(RuleIconCache.createKey(rule1)));
+        symbolizer.getFill().setColor(styleBuilder.colorExpression(Color.RED));
+        assertNotNull(cache.get(RuleIconCache.createKey(rule1)));
+
+        // Least recently used icon is evicted
+        cache.put(RuleIconCache.createKey(rule2), createImage());
+        assertNotNull(cache.get(RuleIconCache.createKey(rule1)));
+        cache.put(RuleIconCache.createKey(rule3), createImage());
+        assertEquals(2, cache.getCount());
+        assertEquals(ICON_SIZE * 2L, cache.getSize());
+        assertNull(cache.get(RuleIconCache.createKey(rule2)));
+        assertNotNull(cache.get(RuleIconCache.createKey(rule1)));
+        assertNotNull(cache.get(RuleIconCache.createKey(rule3)));
+
+        // Icon too large to cache
+        cache.put(
+                RuleIconCache.createKey(rule2),
+                new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB));
+        assertNull(cache.get(RuleIconCache.createKey(rule2)));
+
+        cache.clear();
+        assertEquals(0, cache.getCount());
+        assertEquals(0L, cache.getSize());
+    }
+
+    /**
+     * Creates a test icon.
+     *
+     * @return the image
+     */
+    private static BufferedImage createImage() {
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(5, 5, Color.RED.getRGB());
+        return image;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.ui.sldtext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sldeditor.ui.sldtext.TextDocumentUpdater;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for TextDocumentUpdater class.
+ *
+ * <p>{@link com.sldeditor.ui.sldtext.TextDocumentUpdater}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+class TextDocumentUpdaterTest {
+
+    /**
+     * Gets the document text.
+     *
+     * @param document the document
+     * @return the text
+     * @throws BadLocationException the bad location exception
+     */
+    private String getText(Document document) throws BadLocationException {
+        return document.getText(0, document.getLength());
+    }
+
+    /**
+     * Test method for {@link
+     * com.sldeditor.ui.sldtext.TextDocumentUpdater#update(javax.swing.text.Document,
+     * java.lang.String)}.
+     *
+     * @throws BadLocationException the bad location exception
+     */
+    @Test
+    void testUpdate() throws BadLocationException {
+        Document document = new PlainDocument();
+
+        TextDocumentUpdater.update(null, "ignored");
+
+        TextDocumentUpdater.update(document, "<Rule>\n<Name>one</Name>\n</Rule>");
+        assertEquals("<Rule>\n<Name>one</Name>\n</Rule>", getText(document));
+
+        AtomicInteger insertCount = new AtomicInteger(0);
+        AtomicInteger removeCount = new AtomicInteger(0);
+        AtomicInteger changedLength = new AtomicInteger(0);
+        document.addDocumentListener(
+                new DocumentListener() {
+                    @Override
+                    public void insertUpdate(DocumentEvent e) {
+                        insertCount.incrementAndGet();
+                        changedLength.addAndGet(e.getLength());
+                    }
+
+                    @Override
+                    public void removeUpdate(DocumentEvent e) {
+                        removeCount.incrementAndGet();
+                        changedLength.addAndGet(e.getLength());
+                    }
+
+                    @Override
+                    public void changedUpdate(DocumentEvent e) {
+                        // Do nothing
+                    }
+                });
+
+        // Only the changed region is replaced
+        TextDocumentUpdater.update(document, "<Rule>\n<Name>three</Name>\n</Rule>");
+        assertEquals("<Rule>\n<Name>three</Name>\n</Rule>", getText(document));
+        assertEquals(1, removeCount.get());
+        assertEquals(1, insertCount.get());
+        assertEquals(2 + 4, changedLength.get());
+
+        // Same text, no changes
+        TextDocumentUpdater.update(document, "<Rule>\n<Name>three</Name>\n</Rule>");
+        assertEquals(1, removeCount.get());
+        assertEquals(1, insertCount.get());
+
+        // Insertion only
+        TextDocumentUpdater.update(document, "<Rule>\n<Name>three</Name>\n</Rule>\n</Style>");
+        assertEquals("<Rule>\n<Name>three</Name>\n</Rule>\n</Style>", getText(document));
+        assertEquals(1, removeCount.get());
+        assertEquals(2, insertCount.get());
+
+        // Repeated characters either side of the change
+        TextDocumentUpdater.update(document, "aaaa");
+        TextDocumentUpdater.update(document, "aa");
+        assertEquals("aa", getText(document));
+        TextDocumentUpdater.update(document, "aaab");
+        assertEquals("aaab", getText(document));
+
+        TextDocumentUpdater.update(document, null);
+        assertEquals("", getText(document));
+    }
+}
@@ -50,6 +50,8 @@ import com.sldeditor.ui.iface.PopulateDetailsInterface;
 import com.sldeditor.ui.tree.SLDTree;
 import com.sldeditor.ui.tree.SLDTreeTools;
 import com.sldeditor.ui.tree.UpdateTreeStructureInterface;
+import java.awt.Component;
+import java.awt.Container;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -57,6 +59,13 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.JTree;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.NamedLayerImpl;
+import org.geotools.styling.Rule;
 import org.geotools.styling.StyledLayerDescriptor;
 import org.junit.jupiter.api.Test;
 
@@ -351,6 +360,162 @@ public class SLDTreeTest {
         tree1.textUpdated();
     }
 
+    /**
+     * Test method for {@link com.sldeditor.ui.tree.SLDTree#textUpdated()} when rules are removed
+     * and added.
+     */
+    @Test
+    public void testTextUpdatedIncremental() {
+        SLDTree tree1 = new SLDTree(null, null);
+
+        String testsldfile = "/test/polygon_line_point.sld";
+        InputStream inputStream = SLDTreeTest.class.getResourceAsStream(testsldfile);
+        String sldContents = "";
+
+        if (inputStream == null) {
+            assertNotNull(inputStream, "Failed to find sld test file : " + testsldfile);
+        } else {
+            File f = null;
+            try {
+                f = SLDTestRunner.stream2file(inputStream);
+
+                sldContents = readFile(f.getAbsolutePath());
+
+                f.delete();
+            } catch (IOException e1) {
+                e1.printStackTrace();
+            }
+        }
+
+        SLDData sldData = new SLDData(null, sldContents);
+
+        StyledLayerDescriptor sld = SLDUtils.createSLDFromString(sldData);
+
+        SelectedSymbol.getInstance().setSld(sld);
+
+        SymbolizerDetailsPanel symbolizerSelectedPanel = new SymbolizerDetailsPanel(null, null);
+        tree1.addSymbolSelectedListener(symbolizerSelectedPanel);
+        tree1.populateSLD();
+
+        NamedLayerImpl namedLayer = (NamedLayerImpl) sld.layers().get(0);
+        FeatureTypeStyle fts = namedLayer.styles().get(0).featureTypeStyles().get(0);
+        int noOfRules = fts.rules().size();
+
+        // Select the second rule
+        TreeSelectionData selectedTreeData = new TreeSelectionData();
+        selectedTreeData.setLayerIndex(0);
+        selectedTreeData.setStyleIndex(0);
+        selectedTreeData.setFeatureTypeStyleIndex(0);
+        selectedTreeData.setRuleIndex(1);
+        assertTrue(tree1.selectTreeItem(selectedTreeData));
+        assertEquals(RuleDetails.class, tree1.getSelectedSymbolPanel().getClass());
+
+        // Remove the first rule, the selected rule remains selected
+        Rule removedRule = fts.rules().remove(0);
+        tree1.textUpdated();
+        assertEquals(RuleDetails.class, tree1.getSelectedSymbolPanel().getClass());
+
+        selectedTreeData.setRuleIndex(noOfRules - 1);
+        assertFalse(tree1.selectTreeItem(selectedTreeData));
+
+        // Add the rule back at the end
+        fts.rules().add(removedRule);
+        tree1.textUpdated();
+        assertTrue(tree1.selectTreeItem(selectedTreeData));
+        assertEquals(RuleDetails.class, tree1.getSelectedSymbolPanel().getClass());
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.ui.tree.SLDTree#textUpdated()} when nothing has changed
+     * since the tree was populated.
+     */
+    @Test
+    public void testTextUpdatedUnchanged() {
+        SLDTree tree1 = new SLDTree(null, null);
+
+        String testsldfile = "/test/polygon_line_point.sld";
+        InputStream inputStream = SLDTreeTest.class.getResourceAsStream(testsldfile);
+        String sldContents = "";
+
+        if (inputStream == null) {
+            assertNotNull(inputStream, "Failed to find sld test file : " + testsldfile);
+        } else {
+            File f = null;
+            try {
+                f = SLDTestRunner.stream2file(inputStream);
+
+                sldContents = readFile(f.getAbsolutePath());
+
+                f.delete();
+            } catch (IOException e1) {
+                e1.printStackTrace();
+            }
+        }
+
+        StyledLayerDescriptor sld = SLDUtils.createSLDFromString(new SLDData(null, sldContents));
+        SelectedSymbol.getInstance().setSld(sld);
+        tree1.populateSLD();
+
+        JTree symbolTree = findTree(tree1);
+        assertNotNull(symbolTree);
+        final AtomicInteger changedCount = new AtomicInteger();
+        symbolTree
+                .getModel()
+                .addTreeModelListener(
+                        new TreeModelListener() {
+                            @Override
+                            public void treeNodesChanged(TreeModelEvent e) {
+                                changedCount.incrementAndGet();
+                            }
+
+                            @Override
+                            public void treeNodesInserted(TreeModelEvent e) {
+                                changedCount.incrementAndGet();
+                            }
+
+                            @Override
+                            public void treeNodesRemoved(TreeModelEvent e) {
+                                changedCount.incrementAndGet();
+                            }
+
+                            @Override
+                            public void treeStructureChanged(TreeModelEvent e) {
+                                changedCount.incrementAndGet();
+                            }
+                        });
+
+        // The first synchronisation after populating the tree has nothing to change
+        tree1.textUpdated();
+        assertEquals(0, changedCount.get());
+
+        // Renaming a rule only changes its node
+        NamedLayerImpl namedLayer = (NamedLayerImpl) sld.layers().get(0);
+        Rule rule = namedLayer.styles().get(0).featureTypeStyles().get(0).rules().get(0);
+        rule.setName(rule.getName() + " renamed");
+        tree1.textUpdated();
+        assertEquals(1, changedCount.get());
+    }
+
+    /**
+     * Find the tree component.
+     *
+     * @param container the container
+     * @return the tree, null if not found
+     */
+    private static JTree findTree(Container container) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof JTree) {
+                return (JTree) component;
+            } else if (component instanceof Container) {
+                JTree tree = findTree((Container) component);
+                if (tree != null) {
+                    return tree;
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Test method for {@link com.sldeditor.ui.tree.SLDTree#updateNode(java.lang.Object,
      * java.lang.Object)}.
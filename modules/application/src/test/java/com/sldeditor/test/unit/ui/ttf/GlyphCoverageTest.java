@@ -0,0 +1,112 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2017, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sldeditor.test.unit.ui.ttf;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sldeditor.ui.ttf.GlyphCoverage;
+import java.awt.Font;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for GlyphCoverage class.
+ *
+ * <p>{@link com.sldeditor.ui.ttf.GlyphCoverage}
+ *
+ * @author Robert Ward (SCISYS)
+ */
+public class GlyphCoverageTest {
+
+    /** Test method for {@link com.sldeditor.ui.ttf.GlyphCoverage#create(java.awt.Font)}. */
+    @Test
+    public void testCreate() {
+        Font font = new Font(Font.DIALOG, Font.PLAIN, 12);
+        GlyphCoverage coverage = GlyphCoverage.create(font);
+
+        int[] characters = coverage.getCharacters();
+        int[] glyphs = coverage.getCharacterGlyphs();
+        assertEquals(coverage.getCharCount(), characters.length);
+        assertEquals(coverage.getCharCount(), glyphs.length);
+        assertTrue(coverage.getRunCount() <= coverage.getCharCount());
+
+        for (int index = 0; index < characters.length; index++) {
+            assertTrue(font.canDisplay(characters[index]));
+            assertTrue(glyphs[index] < coverage.getGlyphCount());
+            if (index > 0) {
+                assertTrue(characters[index] > characters[index - 1]);
+            }
+        }
+
+        int[] glyphCharacters = coverage.getGlyphCharacters();
+        assertEquals(coverage.getGlyphCount(), glyphCharacters.length);
+        for (int index = 0; index < characters.length; index++) {
+            int character = glyphCharacters[glyphs[index]];
+            assertTrue((character >= 0) && (character <= characters[index]));
+        }
+    }
+
+    /**
+     * Test method for {@link com.sldeditor.ui.ttf.GlyphCoverage#write(java.io.DataOutputStream)}.
+     * Test method for {@link com.sldeditor.ui.ttf.GlyphCoverage#read(java.io.DataInputStream)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testWriteRead() throws IOException {
+        GlyphCoverage coverage = GlyphCoverage.create(new Font(Font.DIALOG, Font.PLAIN, 12));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            coverage.write(out);
+        }
+
+        GlyphCoverage readCoverage =
+                GlyphCoverage.read(
+                        new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(coverage.getGlyphCount(), readCoverage.getGlyphCount());
+        assertEquals(coverage.getCharCount(), readCoverage.getCharCount());
+        assertArrayEquals(coverage.getCharacters(), readCoverage.getCharacters());
+        assertArrayEquals(coverage.getCharacterGlyphs(), readCoverage.getCharacterGlyphs());
+
+        // Run glyph beyond the number of glyphs
+        ByteArrayOutputStream invalidBytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(invalidBytes)) {
+            out.writeInt(10);
+            out.writeInt(1);
+            out.writeInt(32);
+            out.writeInt(5);
+            out.writeInt(6);
+        }
+        assertThrows(
+                IOException.class,
+                () ->
+                        GlyphCoverage.read(
+                                new DataInputStream(
+                                        new ByteArrayInputStream(invalidBytes.toByteArray()))));
+    }
+}
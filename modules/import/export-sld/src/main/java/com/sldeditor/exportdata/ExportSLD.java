@@ -23,10 +23,10 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Map;
 
 import com.sldeditor.common.SLDDataInterface;
 import com.sldeditor.common.output.SLDOutputFormatEnum;
+import com.sldeditor.exportdata.esri.MXDLayerWriterInterface;
 import com.sldeditor.exportdata.esri.MXDParser;
 
 /**
@@ -75,17 +75,18 @@ public class ExportSLD {
                 System.exit(1);
             }
         }
-        Map<String, SLDDataInterface> layerMap = MXDParser.readLayers(filename, outputFormat);
+        final File destinationFolder = outputFolder;
 
-        if(layerMap != null)
-        {
-            for(String layerName : layerMap.keySet())
+        // Each layer is written as soon as it is converted rather than holding every layer in memory
+        MXDParser.exportLayers(filename, outputFormat, new MXDLayerWriterInterface() {
+            @Override
+            public void layerConverted(String layerName, SLDDataInterface sldData)
             {
-                File f = new File(outputFolder, generateFilename(layerName));
+                File f = new File(destinationFolder, generateFilename(layerName));
 
-                writeData(f, layerName, layerMap.get(layerName));
+                writeData(f, layerName, sldData);
             }
-        }
+        });
     }
 
     /**
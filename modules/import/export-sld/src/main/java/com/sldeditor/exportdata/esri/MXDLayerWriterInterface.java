@@ -0,0 +1,40 @@
+/*
+ * SLD Editor - The Open Source Java SLD Editor
+ *
+ * Copyright (C) 2016, SCISYS UK Limited
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sldeditor.exportdata.esri;
+
+import com.sldeditor.common.SLDDataInterface;
+
+/**
+ * The Interface MXDLayerWriterInterface, receives each layer as soon as it has been converted by
+ * the {@link MXDParser}.
+ * 
+ * @author Robert Ward (SCISYS)
+ */
+public interface MXDLayerWriterInterface {
+
+    /**
+     * Called when a layer has been converted. Layers are converted concurrently so they are not
+     * reported in the order they appear in the intermediate file, calls are never made
+     * concurrently.
+     *
+     * @param layerName the layer name
+     * @param sldData the converted layer
+     */
+    abstract void layerConverted(String layerName, SLDDataInterface sldData);
+}
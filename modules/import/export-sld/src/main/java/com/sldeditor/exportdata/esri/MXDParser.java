@@ -19,9 +19,10 @@
 package com.sldeditor.exportdata.esri;
 
 import java.awt.image.Raster;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
 import java.sql.Blob;
 import java.util.ArrayList;
 import java.util.Date;
@@ -29,6 +30,13 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.log4j.Logger;
 import org.geotools.styling.FeatureTypeStyle;
@@ -41,7 +49,10 @@ import org.geotools.styling.StyledLayerDescriptor;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.sldeditor.common.SLDData;
 import com.sldeditor.common.SLDDataInterface;
 import com.sldeditor.common.StyleWrapper;
@@ -80,6 +91,12 @@ public class MXDParser
     /** The logger. */
     private static Logger logger = Logger.getLogger(MXDParser.class);
 
+    /** The Constant MAX_THREADS, the maximum number of threads converting layers. */
+    private static final int MAX_THREADS = 8;
+
+    /** The thread counter. */
+    private static final AtomicInteger threadCounter = new AtomicInteger(1);
+
     /**
      * Default constructor
      */
@@ -116,38 +133,112 @@ public class MXDParser
     /**
      * Read layers from intermediate mxd files.
      *
-     * @param mxdJSON the mxd JSON
+     * @param filename the intermediate file
      * @param outputFormat the output format
-     * @return the MXD info
+     * @return the converted layers
      */
     public static Map<String, SLDDataInterface> readLayers(String filename, SLDOutputFormatEnum outputFormat)
+    {
+        final Map<String, SLDDataInterface> layerMap = new HashMap<String, SLDDataInterface>();
+
+        boolean success = exportLayers(filename, outputFormat, new MXDLayerWriterInterface() {
+            @Override
+            public void layerConverted(String layerName, SLDDataInterface sldData)
+            {
+                layerMap.put(layerName, sldData);
+            }
+        });
+
+        return success ? layerMap : null;
+    }
+
+    /**
+     * Read layers from intermediate mxd files, streaming the file one layer at a time.
+     * Layers are converted concurrently and passed to the writer as soon as they have been
+     * converted so only a few layers are held in memory at once, however large the file.
+     *
+     * @param filename the intermediate file
+     * @param outputFormat the output format
+     * @param writer the writer informed of each converted layer
+     * @return true, if the intermediate file was found
+     */
+    public static boolean exportLayers(String filename, final SLDOutputFormatEnum outputFormat,
+            MXDLayerWriterInterface writer)
     {
         if(filename == null)
         {
-            return null;
+            return false;
         }
 
         File intermediateFile = new File(filename);
         if(!intermediateFile.exists())
         {
-            return null;
+            return false;
         }
 
-        MXDParser parser = new MXDParser();
+        final MXDParser parser = new MXDParser();
 
         MXDInfo mxdInfo = new MXDInfo();
         mxdInfo.setIntermediateFile(intermediateFile);
-        JsonObject mxdJSON = convertFileToJSON(filename);
 
-        // Read mxd filename
-        String mxdFilename = "";
-        JsonElement mxdFilenameJson = mxdJSON.get("mxd");
-        if(mxdFilenameJson != null)
+        LayerConverter converter = parser.new LayerConverter(outputFormat, writer);
+
+        try (JsonReader reader = new JsonReader(new BufferedReader(new FileReader(intermediateFile))))
         {
-            mxdFilename = mxdFilenameJson.getAsString();
-            mxdInfo.setMxdFilename(mxdFilename);
+            reader.beginObject();
+            while(reader.hasNext())
+            {
+                String name = reader.nextName();
+
+                if(name.equals("mxd") && (reader.peek() == JsonToken.STRING))
+                {
+                    // Read mxd filename
+                    mxdInfo.setMxdFilename(reader.nextString());
+                    mxdInfo.setMxdName(extractMxdName(mxdInfo.getMxdFilename()));
+                }
+                else if(name.equals("layers") && (reader.peek() == JsonToken.BEGIN_ARRAY))
+                {
+                    // Read layers
+                    JsonParser jsonParser = new JsonParser();
+                    reader.beginArray();
+                    while(reader.hasNext())
+                    {
+                        JsonElement layer = jsonParser.parse(reader);
+
+                        if(layer.isJsonObject())
+                        {
+                            converter.submit(layer.getAsJsonObject());
+                        }
+                    }
+                    reader.endArray();
+                }
+                else
+                {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        catch (IOException | JsonParseException | IllegalStateException e)
+        {
+            ConsoleManager.getInstance().exception(MXDParser.class, e);
+        }
+        finally
+        {
+            converter.waitForCompletion();
         }
 
+        return true;
+    }
+
+    /**
+     * Extract the mxd name from the mxd filename.
+     *
+     * @param mxdFilename the mxd filename
+     * @return the mxd name
+     */
+    private static String extractMxdName(String mxdFilename)
+    {
         File f = new File(mxdFilename);
 
         String mxdName = f.getName();
@@ -155,53 +246,144 @@ public class MXDParser
         if (pos > 0) {
             mxdName = mxdName.substring(pos + 1);
         }
-        mxdInfo.setMxdName(mxdName);
+        return mxdName;
+    }
+
+    /**
+     * Converts layers on a pool of threads, limiting the number of layers waiting to be
+     * converted so that reading the intermediate file does not get ahead of the conversion.
+     */
+    private class LayerConverter
+    {
+        /** The output format. */
+        private final SLDOutputFormatEnum outputFormat;
 
-        // Read layers
-        Map<String, SLDDataInterface> layerMap = new HashMap<String, SLDDataInterface>();
+        /** The writer. */
+        private final MXDLayerWriterInterface writer;
 
-        // Read layers
-        JsonArray layerList = mxdJSON.getAsJsonArray("layers");
+        /** The executor. */
+        private final ExecutorService executor;
 
-        for(int index = 0; index < layerList.size(); index ++)
+        /** The permits limiting the number of layers in flight. */
+        private final Semaphore inFlight;
+
+        /**
+         * Instantiates a new layer converter.
+         *
+         * @param outputFormat the output format
+         * @param writer the writer
+         */
+        LayerConverter(SLDOutputFormatEnum outputFormat, MXDLayerWriterInterface writer)
         {
-            JsonObject layer = (JsonObject) layerList.get(index);
+            this.outputFormat = outputFormat;
+            this.writer = writer;
+
+            int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+            this.inFlight = new Semaphore(threads * 2);
+            this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, "ExportSLD-Layer-" + threadCounter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
 
-            JsonElement layerNameElement = layer.get("name");
-            if(layerNameElement != null)
+        /**
+         * Submit a layer for conversion, blocks while too many layers are waiting.
+         *
+         * @param layer the layer
+         */
+        void submit(final JsonObject layer)
+        {
+            final JsonElement layerNameElement = layer.get("name");
+            if(layerNameElement == null)
             {
-                String layerName = layerNameElement.getAsString();
-
-                SLDDataInterface sldData = parser.importLayer(layer, outputFormat);
+                return;
+            }
 
-                layerMap.put(layerName, sldData);
+            inFlight.acquireUninterruptibly();
+            try
+            {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            convert(layerNameElement.getAsString(), layer);
+                        }
+                        finally
+                        {
+                            inFlight.release();
+                        }
+                    }
+                });
+            }
+            catch(RejectedExecutionException e)
+            {
+                inFlight.release();
+                ConsoleManager.getInstance().exception(MXDParser.class, e);
             }
         }
 
-        return layerMap;
-    }
+        /**
+         * Convert a layer and pass it to the writer, called on a converter thread.
+         *
+         * @param layerName the layer name
+         * @param layer the layer
+         */
+        private void convert(String layerName, JsonObject layer)
+        {
+            SLDDataInterface sldData = null;
+            try
+            {
+                sldData = importLayer(layer, outputFormat);
+            }
+            catch(RuntimeException e)
+            {
+                ConsoleManager.getInstance().error(MXDParser.this, "Layer : " + layerName);
+                ConsoleManager.getInstance().exception(MXDParser.this, e);
+            }
 
-    /**
-     * Convert file to json.
-     *
-     * @param fileName the file name
-     * @return the json object
-     */
-    private static JsonObject convertFileToJSON(String fileName)
-    {
-        // Read from File to String
-        JsonObject jsonObject = new JsonObject();
-
-        try {
-            JsonParser parser = new JsonParser();
-            JsonElement jsonElement = parser.parse(new FileReader(fileName));
-            jsonObject = jsonElement.getAsJsonObject();
-        } catch (FileNotFoundException e) {
-            ConsoleManager.getInstance().exception(MXDParser.class, e);
+            if(sldData != null)
+            {
+                synchronized(writer)
+                {
+                    writer.layerConverted(layerName, sldData);
+                }
+            }
         }
 
-        return jsonObject;
+        /**
+         * Wait for all submitted layers to be converted.
+         */
+        void waitForCompletion()
+        {
+            executor.shutdown();
+            boolean interrupted = false;
+            boolean terminated = false;
+            while(!terminated)
+            {
+                try
+                {
+                    terminated = executor.awaitTermination(1, TimeUnit.MINUTES);
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+
+            if(interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
+
     /**
      * Import layer.
      *
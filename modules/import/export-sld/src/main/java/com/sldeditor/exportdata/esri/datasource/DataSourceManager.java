@@ -48,7 +48,7 @@ public class DataSourceManager
      *
      * @return single instance of DataSourceManager
      */
-    public static DataSourceManager getInstance()
+    public static synchronized DataSourceManager getInstance()
     {
         if(instance == null)
         {
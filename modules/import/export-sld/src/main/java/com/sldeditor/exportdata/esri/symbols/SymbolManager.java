@@ -66,7 +66,7 @@ public class SymbolManager {
      *
      * @return single instance of SymbolManager
      */
-    public static SymbolManager getInstance()
+    public static synchronized SymbolManager getInstance()
     {
         if(instance == null)
         {